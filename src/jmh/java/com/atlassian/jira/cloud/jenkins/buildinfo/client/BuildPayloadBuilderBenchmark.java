@@ -0,0 +1,65 @@
+package com.atlassian.jira.cloud.jenkins.buildinfo.client;
+
+import com.atlassian.jira.cloud.jenkins.buildinfo.client.model.Builds;
+import com.atlassian.jira.cloud.jenkins.deploymentinfo.client.model.State;
+import hudson.model.Run;
+import org.jenkinsci.plugins.workflow.support.steps.build.RunWrapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Cost of assembling the build payload sent to Jira for a build. The build is a stub-only mock
+ * (it doesn't record its invocations), without test results.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@org.openjdk.jmh.annotations.State(Scope.Benchmark)
+public class BuildPayloadBuilderBenchmark {
+
+    @Param({"10"})
+    private int issueKeyCount;
+
+    private RunWrapper buildWrapper;
+    private Set<String> issueKeys;
+
+    @Setup
+    public void setUp() throws Exception {
+        final Run<?, ?> build = mock(Run.class, withSettings().stubOnly());
+        buildWrapper = mock(RunWrapper.class, withSettings().stubOnly());
+        when(buildWrapper.getRawBuild()).thenAnswer(invocation -> build);
+        when(buildWrapper.getFullProjectName()).thenReturn("folder/multibranch/main");
+        when(buildWrapper.getNumber()).thenReturn(1234);
+        when(buildWrapper.getDisplayName()).thenReturn("#1234");
+        when(buildWrapper.getAbsoluteUrl())
+                .thenReturn("https://jenkins.example.com/job/folder/job/main/1234/");
+
+        issueKeys = new HashSet<>();
+        for (int i = 0; i < issueKeyCount; i++) {
+            issueKeys.add("JENKINS-" + (1000 + i));
+        }
+    }
+
+    @Benchmark
+    public Builds getBuildPayload() {
+        return BuildPayloadBuilder.getBuildPayload(State.SUCCESSFUL, buildWrapper, issueKeys);
+    }
+}
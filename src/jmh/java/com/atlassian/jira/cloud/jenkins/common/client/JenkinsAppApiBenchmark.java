@@ -0,0 +1,107 @@
+package com.atlassian.jira.cloud.jenkins.common.client;
+
+import com.atlassian.jira.cloud.jenkins.buildinfo.client.BuildsApi;
+import com.atlassian.jira.cloud.jenkins.buildinfo.client.model.Builds;
+import com.atlassian.jira.cloud.jenkins.buildinfo.client.model.JiraBuildInfo;
+import com.atlassian.jira.cloud.jenkins.logging.PipelineLogger;
+import com.atlassian.jira.cloud.jenkins.provider.ObjectMapperProvider;
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import okhttp3.OkHttpClient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of turning a batch of builds into the body of a request to the Jenkins app in Jira: {@code
+ * serialize} is the Jackson serialization of the event, {@code wrapInJwt} the serialization plus
+ * signing the JWT carrying it. {@code wrapInJwtWithJwtCreator} signs it the way it was done before
+ * {@link JwtSigner}, to compare the bytes allocated per request ({@code gc.alloc.rate.norm}).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JenkinsAppApiBenchmark {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef";
+
+    @Param({"1", "50"})
+    private int builds;
+
+    private final ObjectMapper objectMapper = new ObjectMapperProvider().objectMapper();
+    private final JenkinsAppApi<Object> api =
+            new JenkinsAppApi<Object>(new OkHttpClient(), objectMapper) {};
+    private JenkinsAppEventRequest request;
+    private Date expiry;
+
+    @Setup
+    public void setUp() {
+        final List<JiraBuildInfo> buildInfos = new ArrayList<>();
+        for (int i = 0; i < builds; i++) {
+            final Set<String> issueKeys = new HashSet<>();
+            for (int k = 0; k < 10; k++) {
+                issueKeys.add("JENKINS-" + (1000 + i * 10 + k));
+            }
+            buildInfos.add(
+                    JiraBuildInfo.builder()
+                            .withPipelineId(String.valueOf("folder/multibranch/main".hashCode()))
+                            .withBuildNumber(1000 + i)
+                            .withDisplayName("folder/multibranch/main")
+                            .withUpdateSequenceNumber(Instant.now().getEpochSecond())
+                            .withLabel("#" + (1000 + i))
+                            .withUrl("https://jenkins.example.com/job/folder/job/main/" + i + "/")
+                            .withState("successful")
+                            .withLastUpdated(Instant.now().toString())
+                            .withIssueKeys(issueKeys)
+                            .build());
+        }
+        request = BuildsApi.createRequest(new Builds(buildInfos));
+        expiry = Date.from(Instant.now().plusSeconds(300));
+    }
+
+    @Benchmark
+    public String serialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(request);
+    }
+
+    @Benchmark
+    public String wrapInJwt() throws IOException {
+        return api.wrapInJwt(request, SECRET, expiry, PipelineLogger.noopInstance());
+    }
+
+    @Benchmark
+    public String wrapInJwtWithJwtCreator() throws JsonProcessingException {
+        final String body = objectMapper.writeValueAsString(request);
+        PipelineLogger.noopInstance()
+                .info(String.format("sending request to Jenkins app in Jira: %s", body));
+        return JWT.create()
+                .withIssuer("jenkins-plugin")
+                .withAudience("jenkins-forge-app")
+                .withIssuedAt(new Date())
+                .withExpiresAt(expiry)
+                .withClaim("request_body_json", body)
+                .sign(Algorithm.HMAC256(SECRET));
+    }
+}
@@ -0,0 +1,87 @@
+package com.atlassian.jira.cloud.jenkins.config;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Per flow node cost of matching the step regexes for builds and deployments, for all nodes of a
+ * pipeline. {@code compilePerNode} is what the listeners used to do: compile both regexes for
+ * every step start node. {@code precompiled} uses the patterns compiled with the configuration.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StepPatternBenchmark {
+
+    private static final String AUTO_BUILDS_REGEX = "^build.*$";
+    private static final String AUTO_DEPLOYMENTS_REGEX = "^deploy to (?<envName>.*)$";
+
+    private static final String[] DISPLAY_NAMES = {
+        "Shell Script", "Print Message", "Stage : Start", "build", "deploy to staging",
+        "deploy to production", "Allocate node : Start", "Git", "Archive the artifacts",
+    };
+
+    @Param({"500"})
+    private int flowNodes;
+
+    private String[] displayNames;
+    private boolean[] stepStartNodes;
+
+    private StepPattern autoBuildsPattern;
+    private StepPattern autoDeploymentsPattern;
+
+    @Setup
+    public void setUp() {
+        final Random random = new Random(42);
+        displayNames = new String[flowNodes];
+        stepStartNodes = new boolean[flowNodes];
+        for (int i = 0; i < flowNodes; i++) {
+            displayNames[i] = DISPLAY_NAMES[random.nextInt(DISPLAY_NAMES.length)];
+            // roughly a third of the nodes of a pipeline start a block, the others are atoms or
+            // block ends
+            stepStartNodes[i] = random.nextInt(3) == 0;
+        }
+
+        autoBuildsPattern = StepPattern.compile(AUTO_BUILDS_REGEX);
+        autoDeploymentsPattern = StepPattern.compile(AUTO_DEPLOYMENTS_REGEX);
+    }
+
+    @Benchmark
+    public void compilePerNode(final Blackhole blackhole) {
+        for (int i = 0; i < flowNodes; i++) {
+            if (stepStartNodes[i]) {
+                blackhole.consume(
+                        Pattern.compile(AUTO_BUILDS_REGEX).matcher(displayNames[i]).matches());
+                blackhole.consume(
+                        Pattern.compile(AUTO_DEPLOYMENTS_REGEX).matcher(displayNames[i]).matches());
+            }
+        }
+    }
+
+    @Benchmark
+    public void precompiled(final Blackhole blackhole) {
+        for (int i = 0; i < flowNodes; i++) {
+            if (stepStartNodes[i]) {
+                blackhole.consume(autoBuildsPattern.match(displayNames[i]).isPresent());
+                blackhole.consume(autoDeploymentsPattern.match(displayNames[i]).isPresent());
+            }
+        }
+    }
+}
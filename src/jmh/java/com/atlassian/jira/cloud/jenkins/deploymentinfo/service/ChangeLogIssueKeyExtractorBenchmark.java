@@ -0,0 +1,97 @@
+package com.atlassian.jira.cloud.jenkins.deploymentinfo.service;
+
+import com.atlassian.jira.cloud.jenkins.logging.PipelineLogger;
+import hudson.plugins.git.GitChangeSet;
+import hudson.plugins.git.GitChangeSetList;
+import hudson.scm.ChangeLogSet;
+import org.jenkinsci.plugins.workflow.job.WorkflowRun;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Cost of extracting the issue keys from the Git change sets of a build with many commits, as
+ * parsed by the Git plugin. The run is a stub-only mock that doesn't record its invocations and
+ * has no previous builds.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ChangeLogIssueKeyExtractorBenchmark {
+
+    private static final String[] SUBJECTS = {
+        "Fix NPE when the build has no change sets",
+        "%s: handle 429 from the deployments endpoint",
+        "Merge branch 'main' into feature/%s-add-retries",
+        "Update README.md",
+    };
+
+    @Param({"500"})
+    private int commits;
+
+    private final ChangeLogIssueKeyExtractor extractor = new ChangeLogIssueKeyExtractor();
+    private WorkflowRun run;
+
+    @Setup
+    public void setUp() {
+        final Random random = new Random(42);
+        final List<GitChangeSet> changeSets = new ArrayList<>();
+        for (int i = 0; i < commits; i++) {
+            final String issueKey = "JENKINS-" + random.nextInt(5000);
+            final String subject =
+                    String.format(SUBJECTS[random.nextInt(SUBJECTS.length)], issueKey);
+            changeSets.add(new GitChangeSet(gitLog(i, subject, issueKey), false));
+        }
+
+        run = mock(WorkflowRun.class, withSettings().stubOnly());
+        final List<ChangeLogSet<? extends ChangeLogSet.Entry>> changeLogSets =
+                Collections.singletonList(new GitChangeSetList(run, null, changeSets));
+        when(run.getChangeSets()).thenReturn(changeLogSets);
+    }
+
+    @Benchmark
+    public Set<String> extractIssueKeys() {
+        return extractor.extractIssueKeys(run, PipelineLogger.noopInstance());
+    }
+
+    /** The output of {@code git whatchanged --format=raw} the Git plugin parses for a commit */
+    private static List<String> gitLog(final int index, final String subject, final String key) {
+        final String sha = String.format("%040x", index);
+        return Arrays.asList(
+                "commit " + sha,
+                "tree " + sha,
+                "parent " + String.format("%040x", index + 1),
+                "author Jane Doe <jane@example.com> 1600000000 +0000",
+                "committer Jane Doe <jane@example.com> 1600000000 +0000",
+                "",
+                "    " + subject,
+                "    ",
+                "    The previous fix for " + key + " didn't cover freestyle jobs.",
+                "",
+                ":100644 100644 " + sha.substring(0, 7) + " " + sha.substring(0, 7)
+                        + " M\tsrc/main/java/Example.java");
+    }
+}
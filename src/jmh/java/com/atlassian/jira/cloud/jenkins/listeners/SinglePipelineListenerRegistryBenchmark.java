@@ -0,0 +1,99 @@
+package com.atlassian.jira.cloud.jenkins.listeners;
+
+import org.jenkinsci.plugins.workflow.graph.FlowNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of resolving the listeners of a flow node's run with many pipelines running at the same
+ * time. {@code prefixScan} is the lookup the registry used to do: a scan over all registered run
+ * URLs with {@code startsWith} against the node URL.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SinglePipelineListenerRegistryBenchmark {
+
+    @Param({"1000"})
+    private int liveRuns;
+
+    private SinglePipelineListenerRegistry registry;
+    private Map<String, List<SinglePipelineListener>> legacyIndex;
+    private String[] runUrls;
+    private String[] nodeUrls;
+
+    @Setup
+    public void setUp() {
+        registry = new SinglePipelineListenerRegistry();
+        runUrls = new String[liveRuns];
+        nodeUrls = new String[liveRuns];
+        for (int i = 0; i < liveRuns; i++) {
+            runUrls[i] = String.format("job/folder/job/pipeline-%d/%d/", i % 97, i);
+            nodeUrls[i] = runUrls[i] + "execution/node/42/";
+            registry.registerForBuild(runUrls[i], new NoopListener(runUrls[i]));
+        }
+
+        legacyIndex = new HashMap<>();
+        for (String runUrl : runUrls) {
+            legacyIndex.put(runUrl, registry.find(runUrl).get());
+        }
+    }
+
+    @Benchmark
+    public Optional<List<SinglePipelineListener>> findByRunUrl() {
+        return registry.find(runUrls[ThreadLocalRandom.current().nextInt(liveRuns)]);
+    }
+
+    @Benchmark
+    public Optional<List<SinglePipelineListener>> prefixScan() {
+        final String nodeUrl = nodeUrls[ThreadLocalRandom.current().nextInt(liveRuns)];
+        return legacyIndex
+                .keySet()
+                .stream()
+                .filter(nodeUrl::startsWith)
+                .findFirst()
+                .map(legacyIndex::get);
+    }
+
+    private static final class NoopListener implements SinglePipelineListener {
+        private final String buildUrl;
+
+        NoopListener(final String buildUrl) {
+            this.buildUrl = buildUrl;
+        }
+
+        @Override
+        public String getBuildUrl() {
+            return buildUrl;
+        }
+
+        @Override
+        public void onCompleted() {
+            // benchmark only
+        }
+
+        @Override
+        public void onNewHead(final FlowNode flowNode) {
+            // benchmark only
+        }
+    }
+}
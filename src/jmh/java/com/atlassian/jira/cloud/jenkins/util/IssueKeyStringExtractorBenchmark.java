@@ -0,0 +1,81 @@
+package com.atlassian.jira.cloud.jenkins.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of extracting the issue keys from the commit messages of a large merge. {@code regex} is
+ * the lookbehind regex the extractor used to run, {@code scanner} the single pass that replaced it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IssueKeyStringExtractorBenchmark {
+
+    private static final String[] SUBJECTS = {
+        "Fix NPE when the build has no change sets",
+        "Bump jackson-databind from 2.13.1 to 2.13.4.2",
+        "Merge branch 'main' into feature/%s-add-retries",
+        "%s: handle 429 from the deployments endpoint",
+        "Revert \"%s Use the new gating API\"",
+        "Update README.md",
+    };
+
+    private static final String[] BODIES = {
+        "",
+        "\n\nThe previous fix for %s didn't cover freestyle jobs.\n\n"
+                + "Signed-off-by: Jane Doe <jane@example.com>",
+        "\n\n* extract the client\n"
+                + "* add tests (see %s and https://example.atlassian.net/browse/%s)\n",
+        "\n\nCo-authored-by: John Doe <john@example.com>",
+    };
+
+    @Param({"2000"})
+    private int commits;
+
+    private String[] messages;
+
+    @Setup
+    public void setUp() {
+        final Random random = new Random(42);
+        messages = new String[commits];
+        for (int i = 0; i < commits; i++) {
+            final String issueKey =
+                    (random.nextBoolean() ? "JENKINS" : "PLUGIN_2") + "-" + random.nextInt(5000);
+            messages[i] =
+                    String.format(SUBJECTS[random.nextInt(SUBJECTS.length)], issueKey)
+                            + String.format(
+                                    BODIES[random.nextInt(BODIES.length)], issueKey, issueKey);
+        }
+    }
+
+    @Benchmark
+    public void scanner(final Blackhole blackhole) {
+        for (String message : messages) {
+            blackhole.consume(IssueKeyStringExtractor.extractIssueKeys(message));
+        }
+    }
+
+    @Benchmark
+    public void regex(final Blackhole blackhole) {
+        for (String message : messages) {
+            blackhole.consume(RegexIssueKeyStringExtractor.extractIssueKeys(message));
+        }
+    }
+}
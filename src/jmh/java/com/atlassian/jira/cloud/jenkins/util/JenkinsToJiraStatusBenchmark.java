@@ -0,0 +1,66 @@
+package com.atlassian.jira.cloud.jenkins.util;
+
+import com.atlassian.jira.cloud.jenkins.deploymentinfo.client.model.State;
+import hudson.model.BallColor;
+import hudson.model.Result;
+import org.jenkinsci.plugins.workflow.graph.FlowNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Cost of mapping the result of a build and the icon color of a flow node to the state sent to
+ * Jira, for every possible value. The flow nodes are stub-only mocks.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@org.openjdk.jmh.annotations.State(Scope.Benchmark)
+public class JenkinsToJiraStatusBenchmark {
+
+    private static final Result[] RESULTS = {
+        null, Result.SUCCESS, Result.UNSTABLE, Result.FAILURE, Result.NOT_BUILT, Result.ABORTED,
+    };
+
+    private FlowNode[] flowNodes;
+
+    @Setup
+    public void setUp() {
+        final BallColor[] colors = BallColor.values();
+        flowNodes = new FlowNode[colors.length];
+        for (int i = 0; i < colors.length; i++) {
+            flowNodes[i] = mock(FlowNode.class, withSettings().stubOnly());
+            when(flowNodes[i].getIconColor()).thenReturn(colors[i]);
+        }
+    }
+
+    @Benchmark
+    public void getStateOfResult(final Blackhole blackhole) {
+        for (Result result : RESULTS) {
+            blackhole.consume(JenkinsToJiraStatus.getState(result));
+        }
+    }
+
+    @Benchmark
+    public void getStateOfFlowNode(final Blackhole blackhole) {
+        for (FlowNode flowNode : flowNodes) {
+            final State state = JenkinsToJiraStatus.getState(flowNode);
+            blackhole.consume(state);
+        }
+    }
+}
@@ -0,0 +1,326 @@
+package com.atlassian.jira.cloud.jenkins.buildinfo.client;
+
+import com.atlassian.jira.cloud.jenkins.buildinfo.client.model.BuildApiResponse;
+import com.atlassian.jira.cloud.jenkins.buildinfo.client.model.BuildKeyResponse;
+import com.atlassian.jira.cloud.jenkins.buildinfo.client.model.Builds;
+import com.atlassian.jira.cloud.jenkins.buildinfo.client.model.JiraBuildInfo;
+import com.atlassian.jira.cloud.jenkins.common.client.ApiUpdateFailedException;
+import com.atlassian.jira.cloud.jenkins.common.client.BadRequestException;
+import com.atlassian.jira.cloud.jenkins.logging.PipelineLogger;
+import com.atlassian.jira.cloud.jenkins.provider.Futures;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import okhttp3.OkHttpClient;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+
+/**
+ * Sends builds of the same pipeline to the same webhook in one request.
+ *
+ * <p>A batch is sent once it is full or the maximum delay since its first build has passed,
+ * whichever comes first. Callers don't wait for the batch on a thread of their own, they get a
+ * future of the part of the response that is about their build. A batch size of 1 turns batching
+ * off.
+ *
+ * <p>A newer update of a build that is still waiting in a batch replaces the older one (e.g. the
+ * final result replaces "in progress"), both callers get the response to the newer update.
+ *
+ * <p>Every build keeps the logger of its caller. A request with the builds of several runs isn't
+ * logged to any of their build logs, each caller reports the outcome for its own build.
+ */
+public class BatchingBuildsApi extends BuildsApi {
+
+    // batches are sent from here, outside the scope of the caller that happened to fill them
+    private static final ScheduledThreadPoolExecutor timer = newTimer();
+
+    private final IntSupplier maxBatchSize;
+    private final LongSupplier maxDelayMillis;
+    private final Map<String, Batch> openBatches = new ConcurrentHashMap<>();
+    private final AtomicLong coalescedCount = new AtomicLong();
+
+    public BatchingBuildsApi(
+            final OkHttpClient httpClient,
+            final ObjectMapper objectMapper,
+            final IntSupplier maxBatchSize,
+            final LongSupplier maxDelayMillis) {
+        super(httpClient, objectMapper);
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayMillis = maxDelayMillis;
+    }
+
+    @Override
+    public BuildApiResponse sendBuildAsJwt(
+            final String webhookUrl,
+            final Builds buildsRequest,
+            final String secret,
+            final PipelineLogger pipelineLogger)
+            throws ApiUpdateFailedException {
+        if (!isBatched(buildsRequest)) {
+            return super.sendBuildAsJwt(webhookUrl, buildsRequest, secret, pipelineLogger);
+        }
+        return await(sendBuildAsJwtAsync(webhookUrl, buildsRequest, secret, pipelineLogger));
+    }
+
+    @Override
+    public CompletableFuture<BuildApiResponse> sendBuildAsJwtAsync(
+            final String webhookUrl,
+            final Builds buildsRequest,
+            final String secret,
+            final PipelineLogger pipelineLogger) {
+        if (!isBatched(buildsRequest)) {
+            return super.sendBuildAsJwtAsync(webhookUrl, buildsRequest, secret, pipelineLogger);
+        }
+
+        final int batchSize = maxBatchSize.getAsInt();
+        final PendingBuild pendingBuild =
+                new PendingBuild(buildsRequest.getBuild(), pipelineLogger);
+        // builds of different pipelines are not batched, the request describes a single pipeline
+        final String batchKey = webhookUrl + '\n' + pendingBuild.build.getPipelineId();
+
+        while (true) {
+            final Batch batch = openBatches.computeIfAbsent(batchKey, key -> new Batch(batchSize));
+            if (batch.add(pendingBuild)) {
+                final Runnable flush = () -> flush(batchKey, batch, webhookUrl, secret);
+                if (batch.isFull()) {
+                    timer.execute(flush);
+                } else if (batch.isLeader(pendingBuild)) {
+                    timer.schedule(flush, maxDelayMillis.getAsLong(), TimeUnit.MILLISECONDS);
+                }
+                return pendingBuild.result;
+            }
+            // the batch is full, start a new one
+            openBatches.remove(batchKey, batch);
+        }
+    }
+
+    /** Number of build updates that were replaced by a newer update of the same build */
+    public long getCoalescedCount() {
+        return coalescedCount.get();
+    }
+
+    private boolean isBatched(final Builds buildsRequest) {
+        return maxBatchSize.getAsInt() > 1 && buildsRequest.getBuilds().size() == 1;
+    }
+
+    /** Sends the batch, unless it has been sent already */
+    private void flush(
+            final String batchKey,
+            final Batch batch,
+            final String webhookUrl,
+            final String secret) {
+        openBatches.remove(batchKey, batch);
+        final Optional<List<PendingBuild>> builds = batch.close();
+        if (!builds.isPresent()) {
+            return;
+        }
+
+        try {
+            send(webhookUrl, secret, builds.get());
+        } catch (RuntimeException e) {
+            // don't leave anyone waiting if sending failed in an unexpected way
+            final ApiUpdateFailedException notSent =
+                    new ApiUpdateFailedException("Batched build update was not sent", e);
+            builds.get().forEach(pending -> pending.result.completeExceptionally(notSent));
+        }
+    }
+
+    private void send(
+            final String webhookUrl, final String secret, final List<PendingBuild> builds) {
+        if (builds.size() == 1) {
+            sendAlone(webhookUrl, secret, builds.get(0));
+            return;
+        }
+
+        builds.forEach(
+                pending ->
+                        pending.pipelineLogger.debug(
+                                String.format(
+                                        "Sending the build together with %d other builds of the "
+                                                + "pipeline",
+                                        builds.size() - 1)));
+        final List<JiraBuildInfo> buildInfos =
+                builds.stream().map(pending -> pending.build).collect(Collectors.toList());
+        super.sendBuildAsJwtAsync(
+                        webhookUrl,
+                        new Builds(buildInfos),
+                        secret,
+                        PipelineLogger.noopInstance())
+                .whenComplete(
+                        (response, error) -> {
+                            if (error == null) {
+                                builds.forEach(
+                                        pending ->
+                                                pending.result.complete(
+                                                        responseFor(pending.build, response)));
+                                return;
+                            }
+                            final Throwable cause = Futures.causeOf(error);
+                            if (cause instanceof BadRequestException) {
+                                // a single invalid build fails the whole request, send them one
+                                // by one instead
+                                builds.forEach(pending -> sendAlone(webhookUrl, secret, pending));
+                            } else {
+                                builds.forEach(
+                                        pending -> pending.result.completeExceptionally(cause));
+                            }
+                        });
+    }
+
+    private void sendAlone(
+            final String webhookUrl, final String secret, final PendingBuild pending) {
+        super.sendBuildAsJwtAsync(
+                        webhookUrl, new Builds(pending.build), secret, pending.pipelineLogger)
+                .whenComplete(
+                        (response, error) -> {
+                            if (error == null) {
+                                pending.result.complete(response);
+                            } else {
+                                pending.result.completeExceptionally(Futures.causeOf(error));
+                            }
+                        });
+    }
+
+    private static BuildApiResponse await(final CompletableFuture<BuildApiResponse> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof ApiUpdateFailedException) {
+                throw (ApiUpdateFailedException) e.getCause();
+            }
+            throw new ApiUpdateFailedException(e.getMessage(), e.getCause());
+        }
+    }
+
+    /** The part of a batch response about a single build */
+    private static BuildApiResponse responseFor(
+            final JiraBuildInfo build, final BuildApiResponse response) {
+        return new BuildApiResponse(
+                nullToEmpty(response.getAcceptedBuilds())
+                        .stream()
+                        .filter(key -> isKeyOf(key, build))
+                        .collect(Collectors.toList()),
+                nullToEmpty(response.getRejectedBuilds())
+                        .stream()
+                        .filter(rejected -> isKeyOf(rejected.getKey(), build))
+                        .collect(Collectors.toList()),
+                nullToEmpty(response.getUnknownIssueKeys())
+                        .stream()
+                        .filter(issueKey -> build.getIssueKeys().contains(issueKey))
+                        .collect(Collectors.toList()));
+    }
+
+    private static boolean isKeyOf(final BuildKeyResponse key, final JiraBuildInfo build) {
+        return Objects.equals(key.getPipelineId(), build.getPipelineId())
+                && Objects.equals(key.getBuildNumber(), build.getBuildNumber());
+    }
+
+    private static <T> List<T> nullToEmpty(@Nullable final List<T> list) {
+        return list == null ? Collections.emptyList() : list;
+    }
+
+    private static final class PendingBuild {
+        private final JiraBuildInfo build;
+        private final PipelineLogger pipelineLogger;
+        private final CompletableFuture<BuildApiResponse> result = new CompletableFuture<>();
+
+        PendingBuild(final JiraBuildInfo build, final PipelineLogger pipelineLogger) {
+            this.build = build;
+            this.pipelineLogger = pipelineLogger;
+        }
+    }
+
+    private final class Batch {
+        private final int maxSize;
+        private final List<PendingBuild> builds = new ArrayList<>();
+        private PendingBuild leader;
+        private boolean closed;
+        private boolean sent;
+
+        Batch(final int maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        /** @return false if the batch doesn't take any more builds */
+        synchronized boolean add(final PendingBuild pendingBuild) {
+            if (closed) {
+                return false;
+            }
+
+            if (leader == null) {
+                leader = pendingBuild;
+            }
+
+            for (int i = 0; i < builds.size(); i++) {
+                final PendingBuild older = builds.get(i);
+                if (isSameBuild(older, pendingBuild)) {
+                    // only the newer update is sent, the older one shares its outcome
+                    builds.set(i, pendingBuild);
+                    pendingBuild.result.whenComplete(
+                            (response, error) -> {
+                                if (error != null) {
+                                    older.result.completeExceptionally(error);
+                                } else {
+                                    older.result.complete(response);
+                                }
+                            });
+                    coalescedCount.incrementAndGet();
+                    return true;
+                }
+            }
+
+            builds.add(pendingBuild);
+            if (builds.size() >= maxSize) {
+                closed = true;
+            }
+            return true;
+        }
+
+        synchronized boolean isLeader(final PendingBuild pendingBuild) {
+            return leader == pendingBuild;
+        }
+
+        synchronized boolean isFull() {
+            return builds.size() >= maxSize;
+        }
+
+        /** @return the builds to send, empty if the batch has been sent already */
+        synchronized Optional<List<PendingBuild>> close() {
+            closed = true;
+            if (sent) {
+                return Optional.empty();
+            }
+            sent = true;
+            return Optional.of(new ArrayList<>(builds));
+        }
+
+        private boolean isSameBuild(final PendingBuild a, final PendingBuild b) {
+            return Objects.equals(a.build.getBuildNumber(), b.build.getBuildNumber());
+        }
+    }
+
+    private static ScheduledThreadPoolExecutor newTimer() {
+        final ScheduledThreadPoolExecutor timer =
+                new ScheduledThreadPoolExecutor(
+                        1,
+                        new NamingThreadFactory(
+                                new DaemonThreadFactory(), "Jira Cloud build batch"));
+        timer.setRemoveOnCancelPolicy(true);
+        return timer;
+    }
+}
@@ -2,6 +2,7 @@ package com.atlassian.jira.cloud.jenkins.buildinfo.client;
 
 import com.atlassian.jira.cloud.jenkins.buildinfo.client.model.BuildApiResponse;
 import com.atlassian.jira.cloud.jenkins.buildinfo.client.model.Builds;
+import com.atlassian.jira.cloud.jenkins.buildinfo.client.model.JiraBuildInfo;
 import com.atlassian.jira.cloud.jenkins.common.client.ApiUpdateFailedException;
 import com.atlassian.jira.cloud.jenkins.common.client.JenkinsAppApi;
 import com.atlassian.jira.cloud.jenkins.common.client.JenkinsAppEventRequest;
@@ -11,6 +12,9 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import okhttp3.OkHttpClient;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 public class BuildsApi extends JenkinsAppApi<BuildApiResponse> {
 
     public BuildsApi(final OkHttpClient httpClient, final ObjectMapper objectMapper) {
@@ -29,14 +33,32 @@ public class BuildsApi extends JenkinsAppApi<BuildApiResponse> {
                 webhookUrl, secret, request, BuildApiResponse.class, pipelineLogger);
     }
 
+    /** Same as sendBuildAsJwt, completes once Jira has answered without holding a thread */
+    public CompletableFuture<BuildApiResponse> sendBuildAsJwtAsync(
+            final String webhookUrl,
+            final Builds buildsRequest,
+            final String secret,
+            final PipelineLogger pipelineLogger) {
+        return this.sendRequestAsJwtAsync(
+                webhookUrl,
+                secret,
+                createRequest(buildsRequest),
+                BuildApiResponse.class,
+                pipelineLogger);
+    }
+
+    /** The request sent to the Jenkins app in Jira, also used to store the event in the outbox */
     @NotNull
-    private JenkinsAppRequest createRequest(final Builds buildsRequest) {
+    public static JenkinsAppEventRequest createRequest(final Builds buildsRequest) {
+        // builds of a batch belong to the same pipeline, the latest one has its current state
+        final List<JiraBuildInfo> builds = buildsRequest.getBuilds();
+        final JiraBuildInfo build = builds.get(builds.size() - 1);
         return new JenkinsAppEventRequest(
                 JenkinsAppEventRequest.EventType.BUILD,
-                buildsRequest.getBuild().getPipelineId(),
-                buildsRequest.getBuild().getDisplayName(),
-                buildsRequest.getBuild().getState(),
-                buildsRequest.getBuild().getLastUpdated(),
+                build.getPipelineId(),
+                build.getDisplayName(),
+                build.getState(),
+                build.getLastUpdated(),
                 buildsRequest);
     }
 }
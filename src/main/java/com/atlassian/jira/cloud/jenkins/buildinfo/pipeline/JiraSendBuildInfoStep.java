@@ -4,6 +4,7 @@ import java.io.Serializable;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 import javax.annotation.Nullable;
 import javax.inject.Inject;
@@ -15,7 +16,6 @@ import org.jenkinsci.plugins.workflow.steps.Step;
 import org.jenkinsci.plugins.workflow.steps.StepContext;
 import org.jenkinsci.plugins.workflow.steps.StepDescriptor;
 import org.jenkinsci.plugins.workflow.steps.StepExecution;
-import org.jenkinsci.plugins.workflow.steps.SynchronousNonBlockingStepExecution;
 import org.kohsuke.stapler.DataBoundConstructor;
 import org.kohsuke.stapler.DataBoundSetter;
 
@@ -23,6 +23,7 @@ import com.atlassian.jira.cloud.jenkins.Messages;
 import com.atlassian.jira.cloud.jenkins.buildinfo.service.JiraBuildInfoRequest;
 import com.atlassian.jira.cloud.jenkins.buildinfo.service.MultibranchBuildInfoRequest;
 import com.atlassian.jira.cloud.jenkins.common.factory.JiraSenderFactory;
+import com.atlassian.jira.cloud.jenkins.common.pipeline.SendStepExecution;
 import com.atlassian.jira.cloud.jenkins.common.response.JiraSendInfoResponse;
 import com.atlassian.jira.cloud.jenkins.config.JiraCloudPluginConfig;
 import com.google.common.collect.ImmutableSet;
@@ -42,6 +43,7 @@ public class JiraSendBuildInfoStep extends Step implements Serializable {
 
     private String site;
     private String branch;
+    private Boolean async;
 
     @DataBoundConstructor
     public JiraSendBuildInfoStep() {
@@ -68,6 +70,16 @@ public class JiraSendBuildInfoStep extends Step implements Serializable {
         this.branch = branch;
     }
 
+    @Nullable
+    public Boolean getAsync() {
+        return async;
+    }
+
+    @DataBoundSetter
+    public void setAsync(final Boolean async) {
+        this.async = async;
+    }
+
     @Override
     public StepExecution start(final StepContext stepContext) throws Exception {
         return new JiraSendBuildInfoStepExecution(stepContext, this);
@@ -106,35 +118,36 @@ public class JiraSendBuildInfoStep extends Step implements Serializable {
         }
     }
 
-    public static class JiraSendBuildInfoStepExecution
-            extends SynchronousNonBlockingStepExecution<List<JiraSendInfoResponse>> {
+    public static class JiraSendBuildInfoStepExecution extends SendStepExecution {
 
         private final JiraSendBuildInfoStep step;
 
         public JiraSendBuildInfoStepExecution(
                 final StepContext context, final JiraSendBuildInfoStep step) {
-            super(context);
+            super(
+                    context,
+                    "jiraSendBuildInfo",
+                    step.getSite(),
+                    Boolean.TRUE.equals(step.getAsync()));
             this.step = step;
         }
 
         @Override
-        protected List<JiraSendInfoResponse> run() throws Exception {
-            final TaskListener taskListener = getContext().get(TaskListener.class);
-            final WorkflowRun workflowRun = getContext().get(WorkflowRun.class);
-            final PipelineLogger pipelineLogger = new PipelineLogger(taskListener.getLogger(), JiraCloudPluginConfig.isDebugLoggingEnabled());
-
+        protected CompletableFuture<List<JiraSendInfoResponse>> send(
+                final WorkflowRun workflowRun, final PipelineLogger pipelineLogger) {
             final JiraBuildInfoRequest request =
                     new MultibranchBuildInfoRequest(
                             step.getSite(), step.getBranch(), workflowRun, Optional.empty());
 
-            final List<JiraSendInfoResponse> allResponses =
-                    JiraSenderFactory.getInstance()
-                            .getJiraBuildInfoSender()
-                            .sendBuildInfo(request, pipelineLogger);
-
-            allResponses.forEach(response -> logResult(pipelineLogger, response));
-
-            return allResponses;
+            return JiraSenderFactory.getInstance()
+                    .getJiraBuildInfoSender()
+                    .sendBuildInfoAsync(request, pipelineLogger)
+                    .thenApply(
+                            allResponses -> {
+                                allResponses.forEach(
+                                        response -> logResult(pipelineLogger, response));
+                                return allResponses;
+                            });
         }
 
         private void logResult(
@@ -4,24 +4,24 @@ import com.atlassian.jira.cloud.jenkins.buildinfo.client.BuildPayloadBuilder;
 import com.atlassian.jira.cloud.jenkins.buildinfo.client.BuildsApi;
 import com.atlassian.jira.cloud.jenkins.buildinfo.client.model.Builds;
 import com.atlassian.jira.cloud.jenkins.common.config.JiraSiteConfigRetriever;
-import com.atlassian.jira.cloud.jenkins.common.model.IssueKey;
+import com.atlassian.jira.cloud.jenkins.common.outbox.EventOutbox;
 import com.atlassian.jira.cloud.jenkins.common.service.FreestyleIssueKeyExtractor;
 import com.atlassian.jira.cloud.jenkins.logging.PipelineLogger;
 import com.atlassian.jira.cloud.jenkins.tenantinfo.CloudIdResolver;
-import com.atlassian.jira.cloud.jenkins.util.IssueKeyStringExtractor;
+import com.atlassian.jira.cloud.jenkins.util.BranchIssueKeyCache;
 import com.atlassian.jira.cloud.jenkins.util.RunWrapperProvider;
 import com.atlassian.jira.cloud.jenkins.util.SecretRetriever;
 import org.apache.commons.lang.StringUtils;
 import org.jenkinsci.plugins.workflow.support.steps.build.RunWrapper;
 
-import java.util.Optional;
+import java.util.HashSet;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 import static java.util.Objects.requireNonNull;
 
 public class FreestyleJiraBuildInfoSenderImpl extends JiraBuildInfoSenderImpl {
 
+    private final BranchIssueKeyCache branchIssueKeyCache = BranchIssueKeyCache.get();
     private final FreestyleIssueKeyExtractor issueKeyExtractor;
     private final FreestyleIssueKeyExtractor changeLogIssueKeyExtractor;
 
@@ -32,8 +32,15 @@ public class FreestyleJiraBuildInfoSenderImpl extends JiraBuildInfoSenderImpl {
             final CloudIdResolver cloudIdResolver,
             final BuildsApi buildsApi,
             final RunWrapperProvider runWrapperProvider,
-            final FreestyleIssueKeyExtractor changeLogIssueKeyExtractor) {
-        super(siteConfigRetriever, secretRetriever, cloudIdResolver, buildsApi, runWrapperProvider);
+            final FreestyleIssueKeyExtractor changeLogIssueKeyExtractor,
+            final EventOutbox eventOutbox) {
+        super(
+                siteConfigRetriever,
+                secretRetriever,
+                cloudIdResolver,
+                buildsApi,
+                runWrapperProvider,
+                eventOutbox);
         this.issueKeyExtractor = requireNonNull(issueKeyExtractor);
         this.changeLogIssueKeyExtractor = requireNonNull(changeLogIssueKeyExtractor);
     }
@@ -42,19 +49,16 @@ public class FreestyleJiraBuildInfoSenderImpl extends JiraBuildInfoSenderImpl {
     protected Set<String> getIssueKeys(
             final JiraBuildInfoRequest request, final PipelineLogger pipelineLogger) {
         FreestyleBuildInfoRequest freestyleRequest = (FreestyleBuildInfoRequest) request;
-        Set<String> branchIssueKeys =
-                Optional.ofNullable(request.getBranch())
-                        .filter(StringUtils::isNotEmpty)
-                        .map(
-                                branch ->
-                                        IssueKeyStringExtractor.extractIssueKeys(branch)
-                                                .stream()
-                                                .map(IssueKey::toString)
-                                                .collect(Collectors.toSet()))
-                        .orElseGet(
-                                () ->
-                                        issueKeyExtractor.extractIssueKeys(
-                                                freestyleRequest.getBuild(), pipelineLogger));
+        Set<String> branchIssueKeys = new HashSet<>();
+        if (StringUtils.isNotEmpty(request.getBranch())) {
+            branchIssueKeys.addAll(
+                    branchIssueKeyCache.getIssueKeys(
+                            freestyleRequest.getBuild().getParent(), request.getBranch()));
+        } else {
+            branchIssueKeys.addAll(
+                    issueKeyExtractor.extractIssueKeys(
+                            freestyleRequest.getBuild(), pipelineLogger));
+        }
         Set<String> commitIssueKeys =
                 changeLogIssueKeyExtractor.extractIssueKeys(
                         freestyleRequest.getBuild(), pipelineLogger);
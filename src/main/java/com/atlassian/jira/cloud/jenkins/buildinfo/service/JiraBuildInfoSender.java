@@ -4,9 +4,14 @@ import com.atlassian.jira.cloud.jenkins.common.response.JiraSendInfoResponse;
 import com.atlassian.jira.cloud.jenkins.logging.PipelineLogger;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public interface JiraBuildInfoSender {
 
     List<JiraSendInfoResponse> sendBuildInfo(
             JiraBuildInfoRequest request, PipelineLogger pipelineLogger);
+
+    /** Same as sendBuildInfo, completes once all sites have answered without holding a thread */
+    CompletableFuture<List<JiraSendInfoResponse>> sendBuildInfoAsync(
+            JiraBuildInfoRequest request, PipelineLogger pipelineLogger);
 }
@@ -4,11 +4,15 @@ import com.atlassian.jira.cloud.jenkins.buildinfo.client.BuildsApi;
 import com.atlassian.jira.cloud.jenkins.buildinfo.client.model.BuildApiResponse;
 import com.atlassian.jira.cloud.jenkins.buildinfo.client.model.Builds;
 import com.atlassian.jira.cloud.jenkins.common.client.ApiUpdateFailedException;
+import com.atlassian.jira.cloud.jenkins.common.client.BadRequestException;
 import com.atlassian.jira.cloud.jenkins.common.config.JiraSiteConfigRetriever;
+import com.atlassian.jira.cloud.jenkins.common.outbox.EventOutbox;
 import com.atlassian.jira.cloud.jenkins.common.response.JiraCommonResponse;
 import com.atlassian.jira.cloud.jenkins.common.response.JiraSendInfoResponse;
+import com.atlassian.jira.cloud.jenkins.common.service.JiraSiteFanOut;
 import com.atlassian.jira.cloud.jenkins.config.JiraCloudSiteConfig;
 import com.atlassian.jira.cloud.jenkins.logging.PipelineLogger;
+import com.atlassian.jira.cloud.jenkins.provider.Futures;
 import com.atlassian.jira.cloud.jenkins.tenantinfo.CloudIdResolver;
 import com.atlassian.jira.cloud.jenkins.util.Constants;
 import com.atlassian.jira.cloud.jenkins.util.RunWrapperProvider;
@@ -16,10 +20,12 @@ import com.atlassian.jira.cloud.jenkins.util.SecretRetriever;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
-import java.util.LinkedList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import static java.util.Objects.requireNonNull;
 
@@ -35,60 +41,61 @@ public abstract class JiraBuildInfoSenderImpl implements JiraBuildInfoSender {
     private final CloudIdResolver cloudIdResolver;
     private final BuildsApi buildsApi;
     protected final RunWrapperProvider runWrapperProvider;
+    private final EventOutbox eventOutbox;
+    private final JiraSiteFanOut siteFanOut = JiraSiteFanOut.get();
 
     public JiraBuildInfoSenderImpl(
             final JiraSiteConfigRetriever siteConfigRetriever,
             final SecretRetriever secretRetriever,
             final CloudIdResolver cloudIdResolver,
             final BuildsApi buildsApi,
-            final RunWrapperProvider runWrapperProvider) {
+            final RunWrapperProvider runWrapperProvider,
+            final EventOutbox eventOutbox) {
         this.siteConfigRetriever = requireNonNull(siteConfigRetriever);
         this.secretRetriever = requireNonNull(secretRetriever);
         this.cloudIdResolver = requireNonNull(cloudIdResolver);
         this.buildsApi = requireNonNull(buildsApi);
         this.runWrapperProvider = requireNonNull(runWrapperProvider);
+        this.eventOutbox = requireNonNull(eventOutbox);
     }
 
     @Override
     public List<JiraSendInfoResponse> sendBuildInfo(
             final JiraBuildInfoRequest request, final PipelineLogger pipelineLogger) {
-        final List<JiraSendInfoResponse> responses = new LinkedList<>();
-        if (request.getSite() == null) {
-            List<String> jiraSites = siteConfigRetriever.getAllJiraSites();
-            for (final String jiraSite : jiraSites) {
-                final Optional<JiraCloudSiteConfig> maybeSiteConfig = getSiteConfigFor(jiraSite);
-
-                responses.add(
-                        maybeSiteConfig
+        return JiraSiteFanOut.await(sendBuildInfoAsync(request, pipelineLogger));
+    }
+
+    @Override
+    public CompletableFuture<List<JiraSendInfoResponse>> sendBuildInfoAsync(
+            final JiraBuildInfoRequest request, final PipelineLogger pipelineLogger) {
+        final List<String> jiraSites =
+                request.getSite() == null
+                        ? siteConfigRetriever.getAllJiraSites()
+                        : Collections.singletonList(request.getSite());
+        return siteFanOut.sendToAllAsync(
+                jiraSites,
+                jiraSite ->
+                        getSiteConfigFor(jiraSite)
                                 .map(
                                         siteConfig ->
                                                 sendBuildInfoToJiraSite(
                                                         siteConfig, request, pipelineLogger))
-                                .orElse(JiraCommonResponse.failureSiteConfigNotFound(jiraSite)));
-            }
-        } else {
-            final Optional<JiraCloudSiteConfig> maybeSiteConfig =
-                    getSiteConfigFor(request.getSite());
-            responses.add(
-                    maybeSiteConfig
-                            .map(
-                                    siteConfig ->
-                                            sendBuildInfoToJiraSite(
-                                                    siteConfig, request, pipelineLogger))
-                            .orElse(
-                                    JiraCommonResponse.failureSiteConfigNotFound(
-                                            request.getSite())));
-        }
-        return responses;
+                                .orElseGet(
+                                        () ->
+                                                CompletableFuture.completedFuture(
+                                                        JiraCommonResponse
+                                                                .failureSiteConfigNotFound(
+                                                                        jiraSite))));
     }
 
     /**
-     * Sends build data to a Jira site.
+     * Starts sending build data to a Jira site.
      *
      * @param siteConfig - Jira to send data to
      * @param request - JiraBuildInfoRequest::site is ignored and jiraSite is used instead
+     * @return the response of the site, once it has answered
      */
-    public JiraSendInfoResponse sendBuildInfoToJiraSite(
+    public CompletableFuture<JiraSendInfoResponse> sendBuildInfoToJiraSite(
             @Nonnull final JiraCloudSiteConfig siteConfig,
             @Nonnull final JiraBuildInfoRequest request,
             @Nonnull final PipelineLogger pipelineLogger) {
@@ -98,34 +105,69 @@ public abstract class JiraBuildInfoSenderImpl implements JiraBuildInfoSender {
         final Optional<String> maybeSecret = getSecretFor(siteConfig.getCredentialsId());
 
         if (!maybeSecret.isPresent()) {
-            return JiraCommonResponse.failureSecretNotFound(jiraSite);
+            return CompletableFuture.completedFuture(
+                    JiraCommonResponse.failureSecretNotFound(jiraSite));
         }
 
         final Set<String> issueKeys = getIssueKeys(request, pipelineLogger);
 
         if (issueKeys.isEmpty()) {
-            return JiraBuildInfoResponse.skippedIssueKeysNotFound(siteConfig.getSite());
+            return CompletableFuture.completedFuture(
+                    JiraBuildInfoResponse.skippedIssueKeysNotFound(siteConfig.getSite()));
         }
 
         final Optional<String> maybeCloudId = getCloudIdFor(jiraSite);
 
         if (!maybeCloudId.isPresent()) {
-            return JiraCommonResponse.failureSiteNotFound(jiraSite);
+            return CompletableFuture.completedFuture(
+                    JiraCommonResponse.failureSiteNotFound(jiraSite));
         }
 
         final Builds buildInfo = createJiraBuildInfo(request, issueKeys);
 
-        try {
-            return handleBuildApiResponse(
-                    jiraSite,
-                    buildsApi.sendBuildAsJwt(
-                            siteConfig.getWebhookUrl(),
-                            buildInfo,
-                            maybeSecret.get(),
-                            pipelineLogger));
-        } catch (ApiUpdateFailedException e) {
-            return handleBuildApiError(jiraSite, e.getMessage());
-        }
+        // written to disk first so that it's delivered later if sending fails or Jenkins stops
+        final Optional<Long> outboxId =
+                eventOutbox.enqueue(
+                        jiraSite,
+                        siteConfig.getWebhookUrl(),
+                        siteConfig.getCredentialsId(),
+                        eventKey(buildInfo),
+                        BuildsApi.createRequest(buildInfo));
+
+        return buildsApi
+                .sendBuildAsJwtAsync(
+                        siteConfig.getWebhookUrl(), buildInfo, maybeSecret.get(), pipelineLogger)
+                .handle(
+                        (response, error) -> {
+                            final Throwable cause =
+                                    error == null ? null : Futures.causeOf(error);
+                            if (cause == null) {
+                                outboxId.ifPresent(eventOutbox::acknowledge);
+                                return handleBuildApiResponse(jiraSite, response);
+                            } else if (cause instanceof BadRequestException) {
+                                outboxId.ifPresent(eventOutbox::acknowledge);
+                                return handleBuildApiError(jiraSite, cause.getMessage());
+                            } else if (cause instanceof ApiUpdateFailedException) {
+                                outboxId.ifPresent(
+                                        id -> {
+                                            eventOutbox.retryLater(id);
+                                            pipelineLogger.info(
+                                                    "Build event will be sent to "
+                                                            + jiraSite
+                                                            + " again in the background");
+                                        });
+                                return handleBuildApiError(jiraSite, cause.getMessage());
+                            }
+                            throw new CompletionException(cause);
+                        });
+    }
+
+    /** Later events of the same build supersede earlier ones that are still pending */
+    private static String eventKey(final Builds buildInfo) {
+        return "build:"
+                + buildInfo.getBuild().getPipelineId()
+                + ":"
+                + buildInfo.getBuild().getBuildNumber();
     }
 
     protected abstract Set<String> getIssueKeys(
@@ -4,23 +4,23 @@ import com.atlassian.jira.cloud.jenkins.buildinfo.client.BuildPayloadBuilder;
 import com.atlassian.jira.cloud.jenkins.buildinfo.client.BuildsApi;
 import com.atlassian.jira.cloud.jenkins.buildinfo.client.model.Builds;
 import com.atlassian.jira.cloud.jenkins.common.config.JiraSiteConfigRetriever;
-import com.atlassian.jira.cloud.jenkins.common.model.IssueKey;
+import com.atlassian.jira.cloud.jenkins.common.outbox.EventOutbox;
 import com.atlassian.jira.cloud.jenkins.common.service.IssueKeyExtractor;
 import com.atlassian.jira.cloud.jenkins.deploymentinfo.service.ChangeLogIssueKeyExtractor;
 import com.atlassian.jira.cloud.jenkins.logging.PipelineLogger;
 import com.atlassian.jira.cloud.jenkins.tenantinfo.CloudIdResolver;
-import com.atlassian.jira.cloud.jenkins.util.IssueKeyStringExtractor;
+import com.atlassian.jira.cloud.jenkins.util.BranchIssueKeyCache;
 import com.atlassian.jira.cloud.jenkins.util.RunWrapperProvider;
 import com.atlassian.jira.cloud.jenkins.util.SecretRetriever;
 import org.apache.commons.lang.StringUtils;
 import org.jenkinsci.plugins.workflow.support.steps.build.RunWrapper;
 
-import java.util.Optional;
+import java.util.HashSet;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 public class MultibranchBuildInfoSenderImpl extends JiraBuildInfoSenderImpl {
 
+    private final BranchIssueKeyCache branchIssueKeyCache = BranchIssueKeyCache.get();
     private final IssueKeyExtractor changeLogIssueKeyExtractor = new ChangeLogIssueKeyExtractor();
     private final IssueKeyExtractor issueKeyExtractor;
 
@@ -30,8 +30,15 @@ public class MultibranchBuildInfoSenderImpl extends JiraBuildInfoSenderImpl {
             final IssueKeyExtractor issueKeyExtractor,
             final CloudIdResolver cloudIdResolver,
             final BuildsApi buildsApi,
-            final RunWrapperProvider runWrapperProvider) {
-        super(siteConfigRetriever, secretRetriever, cloudIdResolver, buildsApi, runWrapperProvider);
+            final RunWrapperProvider runWrapperProvider,
+            final EventOutbox eventOutbox) {
+        super(
+                siteConfigRetriever,
+                secretRetriever,
+                cloudIdResolver,
+                buildsApi,
+                runWrapperProvider,
+                eventOutbox);
         this.issueKeyExtractor = issueKeyExtractor;
     }
 
@@ -40,19 +47,16 @@ public class MultibranchBuildInfoSenderImpl extends JiraBuildInfoSenderImpl {
             final JiraBuildInfoRequest request, final PipelineLogger pipelineLogger) {
 
         MultibranchBuildInfoRequest multibranchRequest = (MultibranchBuildInfoRequest) request;
-        Set<String> branchIssueKeys =
-                Optional.ofNullable(request.getBranch())
-                        .filter(StringUtils::isNotEmpty)
-                        .map(
-                                branch ->
-                                        IssueKeyStringExtractor.extractIssueKeys(branch)
-                                                .stream()
-                                                .map(IssueKey::toString)
-                                                .collect(Collectors.toSet()))
-                        .orElseGet(
-                                () ->
-                                        issueKeyExtractor.extractIssueKeys(
-                                                multibranchRequest.getBuild(), pipelineLogger));
+        Set<String> branchIssueKeys = new HashSet<>();
+        if (StringUtils.isNotEmpty(request.getBranch())) {
+            branchIssueKeys.addAll(
+                    branchIssueKeyCache.getIssueKeys(
+                            multibranchRequest.getBuild().getParent(), request.getBranch()));
+        } else {
+            branchIssueKeys.addAll(
+                    issueKeyExtractor.extractIssueKeys(
+                            multibranchRequest.getBuild(), pipelineLogger));
+        }
         Set<String> commitIssueKeys =
                 changeLogIssueKeyExtractor.extractIssueKeys(
                         multibranchRequest.getBuild(), pipelineLogger);
@@ -7,6 +7,8 @@ import com.atlassian.jira.cloud.jenkins.logging.PipelineLogger;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import okhttp3.OkHttpClient;
 
+import java.util.concurrent.CompletableFuture;
+
 public class GatingStatusApi extends JenkinsAppApi<GatingStatusResponse> {
 
     public GatingStatusApi(final OkHttpClient httpClient, final ObjectMapper objectMapper) {
@@ -27,4 +29,20 @@ public class GatingStatusApi extends JenkinsAppApi<GatingStatusResponse> {
                 GatingStatusResponse.class,
                 pipelineLogger);
     }
+
+    /** Same as getGatingStatus, completes once Jira has answered without holding a thread */
+    public CompletableFuture<GatingStatusResponse> getGatingStatusAsync(
+            final String webhookUrl,
+            final String secret,
+            final String deploymentId,
+            final String pipelineId,
+            final String environmentId,
+            final PipelineLogger pipelineLogger) {
+        return sendRequestAsJwtAsync(
+                webhookUrl,
+                secret,
+                new GatingStatusRequest(deploymentId, pipelineId, environmentId),
+                GatingStatusResponse.class,
+                pipelineLogger);
+    }
 }
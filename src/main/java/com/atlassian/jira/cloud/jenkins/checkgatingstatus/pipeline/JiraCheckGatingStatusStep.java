@@ -142,11 +142,7 @@ public class JiraCheckGatingStatusStep extends Step implements Serializable {
                     return true;
                 case EXPIRED:
                 case PREVENTED:
-                    Optional.ofNullable(run.getExecutor())
-                            .ifPresent(
-                                    executor ->
-                                            executor.interrupt(
-                                                    Result.ABORTED, new DeploymentAborted()));
+                    abortRun(run);
                     return false;
                 case AWAITING:
                     return false;
@@ -167,6 +163,12 @@ public class JiraCheckGatingStatusStep extends Step implements Serializable {
         }
     }
 
+    /** Aborts the run, as the deployment was prevented or the gate expired */
+    static void abortRun(final WorkflowRun run) {
+        Optional.ofNullable(run.getExecutor())
+                .ifPresent(executor -> executor.interrupt(Result.ABORTED, new DeploymentAborted()));
+    }
+
     private static final class DeploymentAborted extends CauseOfInterruption {
 
         @Override
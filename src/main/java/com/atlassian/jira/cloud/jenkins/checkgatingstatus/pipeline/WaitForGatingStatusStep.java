@@ -0,0 +1,350 @@
+package com.atlassian.jira.cloud.jenkins.checkgatingstatus.pipeline;
+
+import com.atlassian.jira.cloud.jenkins.Messages;
+import com.atlassian.jira.cloud.jenkins.checkgatingstatus.client.model.GatingStatus;
+import com.atlassian.jira.cloud.jenkins.checkgatingstatus.service.JiraGatingStatusResponse;
+import com.atlassian.jira.cloud.jenkins.common.factory.JiraSenderFactory;
+import com.atlassian.jira.cloud.jenkins.common.pipeline.AsyncStepExecution;
+import com.atlassian.jira.cloud.jenkins.common.response.JiraSendInfoResponse;
+import com.atlassian.jira.cloud.jenkins.config.JiraCloudPluginConfig;
+import com.atlassian.jira.cloud.jenkins.config.JiraCloudSiteConfig;
+import com.atlassian.jira.cloud.jenkins.provider.CancellableCalls;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableSet;
+import hudson.AbortException;
+import hudson.Extension;
+import hudson.model.TaskListener;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.ListBoxModel;
+import hudson.util.NamingThreadFactory;
+import jenkins.util.SystemProperties;
+import org.jenkinsci.plugins.workflow.job.WorkflowRun;
+import org.jenkinsci.plugins.workflow.steps.Step;
+import org.jenkinsci.plugins.workflow.steps.StepContext;
+import org.jenkinsci.plugins.workflow.steps.StepDescriptor;
+import org.jenkinsci.plugins.workflow.steps.StepExecution;
+import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import javax.inject.Inject;
+import java.io.Serializable;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Implementation of the "waitForGatingStatus" step that waits until Jira Service Management has
+ * decided about a deployment. It replaces {@code checkGatingStatus} in a {@code waitUntil} loop.
+ */
+public class WaitForGatingStatusStep extends Step implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final String PROPERTY_PREFIX = WaitForGatingStatusStep.class.getName();
+    private static final int DEFAULT_TIMEOUT_MINUTES = 60;
+    private static final Duration FIRST_POLL_DELAY =
+            Duration.ofSeconds(
+                    SystemProperties.getLong(PROPERTY_PREFIX + ".firstPollDelaySeconds", 10L));
+    private static final Duration MAX_POLL_DELAY =
+            Duration.ofSeconds(
+                    SystemProperties.getLong(PROPERTY_PREFIX + ".maxPollDelaySeconds", 120L));
+
+    private static final Logger logger = LoggerFactory.getLogger(WaitForGatingStatusStep.class);
+
+    private String site;
+    private final String environmentId;
+    private Integer timeoutMinutes;
+
+    @DataBoundConstructor
+    public WaitForGatingStatusStep(final String environmentId) {
+        this.environmentId = environmentId;
+    }
+
+    public String getSite() {
+        return site;
+    }
+
+    @DataBoundSetter
+    public void setSite(final String site) {
+        this.site = site;
+    }
+
+    public String getEnvironmentId() {
+        return environmentId;
+    }
+
+    @Nullable
+    public Integer getTimeoutMinutes() {
+        return timeoutMinutes;
+    }
+
+    @DataBoundSetter
+    public void setTimeoutMinutes(final Integer timeoutMinutes) {
+        this.timeoutMinutes = timeoutMinutes;
+    }
+
+    @Override
+    public StepExecution start(final StepContext context) {
+        return new WaitForGatingStatusExecution(context, this, FIRST_POLL_DELAY, MAX_POLL_DELAY);
+    }
+
+    @Extension
+    public static class DescriptorImpl extends StepDescriptor {
+
+        @Inject private transient JiraCloudPluginConfig globalConfig;
+
+        @Override
+        public Set<Class<?>> getRequiredContext() {
+            return ImmutableSet.of(TaskListener.class, WorkflowRun.class);
+        }
+
+        @SuppressWarnings("unused")
+        public ListBoxModel doFillSiteItems() {
+            ListBoxModel items = new ListBoxModel();
+            final List<JiraCloudSiteConfig> siteList = globalConfig.getSites();
+            for (JiraCloudSiteConfig siteConfig : siteList) {
+                items.add(siteConfig.getSite(), siteConfig.getSite());
+            }
+
+            return items;
+        }
+
+        @Override
+        public String getFunctionName() {
+            return "waitForGatingStatus";
+        }
+
+        @Override
+        public String getDisplayName() {
+            return Messages.WaitForGatingStatusStep_DescriptorImpl_DisplayName();
+        }
+    }
+
+    /**
+     * Polls the gating status on a timer, with the delay between polls doubling up to a maximum.
+     * No thread is held between polls, nor while a poll waits for Jira. A poll is started on the
+     * pool of the steps sending to Jira.
+     *
+     * <p>The deadline and the number of polls are saved with the pipeline, after a restart of
+     * Jenkins the step polls again right away and carries on until the same deadline.
+     */
+    public static class WaitForGatingStatusExecution extends StepExecution {
+
+        private static final long serialVersionUID = 1L;
+
+        private static final ScheduledThreadPoolExecutor timer = newTimer();
+
+        private final WaitForGatingStatusStep step;
+        private final long firstPollDelayMillis;
+        private final long maxPollDelayMillis;
+        private long deadlineMillis;
+        // updated by one poll at a time on the pool and the timer, read by getStatus()
+        private volatile int polls;
+
+        // not kept across restarts, onResume() schedules the next poll again. Set once the step
+        // has been completed or stopped, the context is only completed once.
+        private transient volatile boolean stopped;
+        @CheckForNull private transient volatile ScheduledFuture<?> nextPoll;
+        @CheckForNull private transient volatile CancellableCalls calls;
+        @CheckForNull private transient volatile Future<?> task;
+
+        @VisibleForTesting
+        WaitForGatingStatusExecution(
+                final StepContext context,
+                final WaitForGatingStatusStep step,
+                final Duration firstPollDelay,
+                final Duration maxPollDelay) {
+            super(context);
+            this.step = step;
+            this.firstPollDelayMillis = firstPollDelay.toMillis();
+            this.maxPollDelayMillis = maxPollDelay.toMillis();
+        }
+
+        @Override
+        public boolean start() {
+            final int timeoutMinutes =
+                    Optional.ofNullable(step.getTimeoutMinutes()).orElse(DEFAULT_TIMEOUT_MINUTES);
+            deadlineMillis = System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(timeoutMinutes);
+            schedulePoll(0);
+            return false;
+        }
+
+        @Override
+        public void stop(final Throwable cause) {
+            final boolean running = finish();
+            final ScheduledFuture<?> nextPoll = this.nextPoll;
+            if (nextPoll != null) {
+                nextPoll.cancel(false);
+            }
+            final CancellableCalls calls = this.calls;
+            if (calls != null) {
+                calls.cancel();
+            }
+            final Future<?> task = this.task;
+            if (task != null) {
+                task.cancel(true);
+            }
+            if (running) {
+                getContext().onFailure(cause);
+            }
+        }
+
+        @Override
+        public void onResume() {
+            schedulePoll(0);
+        }
+
+        @Override
+        public String getStatus() {
+            return String.format(
+                    "waiting for the gating status of %s, polled %d times",
+                    step.getEnvironmentId(), polls);
+        }
+
+        private void schedulePoll(final long delayMillis) {
+            if (stopped) {
+                return;
+            }
+            nextPoll = timer.schedule(this::poll, delayMillis, TimeUnit.MILLISECONDS);
+        }
+
+        private void poll() {
+            if (stopped) {
+                return;
+            }
+            final CompletableFuture<JiraGatingStatusResponse> response = new CompletableFuture<>();
+            final CancellableCalls calls = new CancellableCalls();
+            response.whenComplete(
+                    (result, error) -> {
+                        if (stopped) {
+                            return;
+                        }
+                        try {
+                            if (error != null) {
+                                throw error;
+                            }
+                            handle(result);
+                        } catch (Throwable t) {
+                            if (finish()) {
+                                getContext().onFailure(t);
+                            }
+                        }
+                    });
+            this.calls = calls;
+            this.task = AsyncStepExecution.submit(this::getGatingStatus, calls, response);
+        }
+
+        private CompletableFuture<JiraGatingStatusResponse> getGatingStatus() throws Exception {
+            final TaskListener taskListener = requireNonNull(getContext().get(TaskListener.class));
+            final WorkflowRun run = requireNonNull(getContext().get(WorkflowRun.class));
+            return JiraSenderFactory.getInstance()
+                    .getJiraGateStateRetriever()
+                    .getGatingStatusAsync(
+                            taskListener, step.getSite(), step.getEnvironmentId(), run);
+        }
+
+        /** Completes the step once Jira has decided, or schedules the next poll */
+        private void handle(final JiraGatingStatusResponse response) throws Exception {
+            polls++;
+            logResult(requireNonNull(getContext().get(TaskListener.class)), response);
+
+            final Optional<GatingStatus> gatingStatus = response.getGatingStatus();
+            if (!gatingStatus.isPresent()) {
+                // Jira doesn't know the deployment until it has processed it, any other failure
+                // (e.g. a wrong secret or an open circuit breaker) won't go away by polling
+                if (response.getStatus()
+                        == JiraSendInfoResponse.Status.FAILURE_GATE_CHECK_DEPLOYMENT_NOT_FOUND) {
+                    pollAgainOrTimeOut(response);
+                    return;
+                }
+                throw new AbortException(response.getMessage());
+            }
+
+            switch (gatingStatus.get()) {
+                case ALLOWED:
+                    if (finish()) {
+                        getContext().onSuccess(true);
+                    }
+                    return;
+                case EXPIRED:
+                case PREVENTED:
+                    // aborting interrupts the step as well, which fails it through stop()
+                    JiraCheckGatingStatusStep.abortRun(
+                            requireNonNull(getContext().get(WorkflowRun.class)));
+                    if (finish()) {
+                        getContext().onSuccess(false);
+                    }
+                    return;
+                case AWAITING:
+                    pollAgainOrTimeOut(response);
+                    return;
+                case INVALID:
+                default:
+                    throw new AbortException(response.getMessage());
+            }
+        }
+
+        /** @return false if the step has been completed or stopped already */
+        private synchronized boolean finish() {
+            if (stopped) {
+                return false;
+            }
+            stopped = true;
+            return true;
+        }
+
+        private void pollAgainOrTimeOut(final JiraGatingStatusResponse response)
+                throws AbortException {
+            final long remainingMillis = deadlineMillis - System.currentTimeMillis();
+            if (remainingMillis <= 0) {
+                throw new AbortException(
+                        Messages.WaitForGatingStatusStep_TIMEOUT(
+                                step.getEnvironmentId(), response.getMessage()));
+            }
+            schedulePoll(
+                    Math.min(
+                            remainingMillis,
+                            pollDelayMillis(polls, firstPollDelayMillis, maxPollDelayMillis)));
+        }
+
+        /** The delay after the given number of polls, doubling from the first delay */
+        @VisibleForTesting
+        static long pollDelayMillis(
+                final int polls, final long firstDelayMillis, final long maxDelayMillis) {
+            final int doublings = Math.max(0, Math.min(polls - 1, 30));
+            return Math.min(maxDelayMillis, firstDelayMillis << doublings);
+        }
+
+        private void logResult(
+                final TaskListener taskListener, final JiraSendInfoResponse response) {
+
+            String message =
+                    "waitForGatingStatus: " + response.getStatus() + ": " + response.getMessage();
+
+            logger.info(message);
+            taskListener.getLogger().println(message);
+        }
+
+        private static ScheduledThreadPoolExecutor newTimer() {
+            final ScheduledThreadPoolExecutor timer =
+                    new ScheduledThreadPoolExecutor(
+                            1,
+                            new NamingThreadFactory(
+                                    new DaemonThreadFactory(), "Jira Cloud gating status poll"));
+            timer.setRemoveOnCancelPolicy(true);
+            return timer;
+        }
+    }
+}
@@ -48,6 +48,13 @@ public class JiraGatingStatusResponse extends JiraSendInfoResponse {
         return new JiraGatingStatusResponse(jiraSite, Status.FAILURE_GATE_CHECK, message, null);
     }
 
+    /** Jira doesn't know the deployment (yet), it might not have processed it so far */
+    public static JiraGatingStatusResponse deploymentNotFound(
+            final String jiraSite, final String message) {
+        return new JiraGatingStatusResponse(
+                jiraSite, Status.FAILURE_GATE_CHECK_DEPLOYMENT_NOT_FOUND, message, null);
+    }
+
     public Optional<GatingStatus> getGatingStatus() {
         return Optional.ofNullable(gatingStatus);
     }
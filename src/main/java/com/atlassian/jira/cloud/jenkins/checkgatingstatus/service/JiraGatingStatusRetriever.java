@@ -3,6 +3,8 @@ package com.atlassian.jira.cloud.jenkins.checkgatingstatus.service;
 import hudson.model.TaskListener;
 import org.jenkinsci.plugins.workflow.job.WorkflowRun;
 
+import java.util.concurrent.CompletableFuture;
+
 public interface JiraGatingStatusRetriever {
 
     JiraGatingStatusResponse getGatingStatus(
@@ -10,4 +12,11 @@ public interface JiraGatingStatusRetriever {
             final String jiraSite,
             final String environmentId,
             final WorkflowRun run);
+
+    /** Same as getGatingStatus, completes once Jira has answered without holding a thread */
+    CompletableFuture<JiraGatingStatusResponse> getGatingStatusAsync(
+            final TaskListener taskListener,
+            final String jiraSite,
+            final String environmentId,
+            final WorkflowRun run);
 }
@@ -1,11 +1,12 @@
 package com.atlassian.jira.cloud.jenkins.checkgatingstatus.service;
 
 import com.atlassian.jira.cloud.jenkins.checkgatingstatus.client.GatingStatusApi;
-import com.atlassian.jira.cloud.jenkins.checkgatingstatus.client.model.GatingStatusResponse;
+import com.atlassian.jira.cloud.jenkins.common.client.NotFoundException;
 import com.atlassian.jira.cloud.jenkins.common.config.JiraSiteConfigRetriever;
 import com.atlassian.jira.cloud.jenkins.common.response.JiraCommonResponse;
 import com.atlassian.jira.cloud.jenkins.config.JiraCloudSiteConfig;
 import com.atlassian.jira.cloud.jenkins.logging.PipelineLogger;
+import com.atlassian.jira.cloud.jenkins.provider.Futures;
 import com.atlassian.jira.cloud.jenkins.tenantinfo.CloudIdResolver;
 import com.atlassian.jira.cloud.jenkins.util.SecretRetriever;
 import hudson.model.TaskListener;
@@ -14,6 +15,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 
 public class JiraGatingStatusRetrieverImpl implements JiraGatingStatusRetriever {
 
@@ -44,13 +47,35 @@ public class JiraGatingStatusRetrieverImpl implements JiraGatingStatusRetriever
             final String jiraSite,
             final String environmentId,
             final WorkflowRun run) {
+        final CompletableFuture<JiraGatingStatusResponse> response =
+                getGatingStatusAsync(taskListener, jiraSite, environmentId, run);
+        try {
+            return response.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            response.cancel(true);
+            return JiraGatingStatusResponse.failure(
+                    jiraSite, "Interrupted while waiting for the gating status");
+        } catch (ExecutionException e) {
+            // failures of the request are turned into a response, this is a bug
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    @Override
+    public CompletableFuture<JiraGatingStatusResponse> getGatingStatusAsync(
+            final TaskListener taskListener,
+            final String jiraSite,
+            final String environmentId,
+            final WorkflowRun run) {
 
         final Optional<JiraCloudSiteConfig> maybeSiteConfig =
                 siteConfigRetriever.getJiraSiteConfig(jiraSite);
 
         if (!maybeSiteConfig.isPresent()) {
-            return JiraGatingStatusResponse.of(
-                    JiraCommonResponse.failureSiteConfigNotFound(jiraSite));
+            return CompletableFuture.completedFuture(
+                    JiraGatingStatusResponse.of(
+                            JiraCommonResponse.failureSiteConfigNotFound(jiraSite)));
         }
 
         final String resolvedSiteConfig = maybeSiteConfig.get().getSite();
@@ -60,41 +85,49 @@ public class JiraGatingStatusRetrieverImpl implements JiraGatingStatusRetriever
                 secretRetriever.getSecretFor(siteConfig.getCredentialsId());
 
         if (!maybeSecret.isPresent()) {
-            return JiraGatingStatusResponse.of(
-                    JiraCommonResponse.failureSecretNotFound(resolvedSiteConfig));
+            return CompletableFuture.completedFuture(
+                    JiraGatingStatusResponse.of(
+                            JiraCommonResponse.failureSecretNotFound(resolvedSiteConfig)));
         }
 
         final Optional<String> maybeCloudId =
                 cloudIdResolver.getCloudId(HTTPS_PROTOCOL + resolvedSiteConfig);
 
         if (!maybeCloudId.isPresent()) {
-            return JiraGatingStatusResponse.of(
-                    JiraCommonResponse.failureSiteNotFound(resolvedSiteConfig));
+            return CompletableFuture.completedFuture(
+                    JiraGatingStatusResponse.of(
+                            JiraCommonResponse.failureSiteNotFound(resolvedSiteConfig)));
         }
 
         String deploymentId = Integer.toString(run.getNumber());
         String pipelineId = String.valueOf(run.getParent().getFullName().hashCode());
 
-        try {
-            final GatingStatusResponse result =
-                    gatingApi.getGatingStatus(
-                            siteConfig.getWebhookUrl(),
-                            maybeSecret.get(),
-                            deploymentId,
-                            pipelineId,
-                            environmentId,
-                            PipelineLogger.noopInstance());
-
-            return JiraGatingStatusResponse.success(jiraSite, result);
-        } catch (Exception e) {
-            String message =
-                    String.format(
-                            "Error while retrieving gating status for jira site '%s', deployment ID '%s', pipelineId '%s', and environmentId '%s'",
-                            jiraSite, deploymentId, pipelineId, environmentId);
-            logger.error(message, e);
-            taskListener.error(message);
-            final String errorMessage = e.getMessage();
-            return JiraGatingStatusResponse.failure(jiraSite, errorMessage);
-        }
+        return gatingApi
+                .getGatingStatusAsync(
+                        siteConfig.getWebhookUrl(),
+                        maybeSecret.get(),
+                        deploymentId,
+                        pipelineId,
+                        environmentId,
+                        PipelineLogger.noopInstance())
+                .handle(
+                        (result, error) -> {
+                            if (error == null) {
+                                return JiraGatingStatusResponse.success(jiraSite, result);
+                            }
+                            final Throwable cause = Futures.causeOf(error);
+                            if (cause instanceof NotFoundException) {
+                                return JiraGatingStatusResponse.deploymentNotFound(
+                                        jiraSite, cause.getMessage());
+                            }
+                            String message =
+                                    String.format(
+                                            "Error while retrieving gating status for jira site '%s', deployment ID '%s', pipelineId '%s', and environmentId '%s'",
+                                            jiraSite, deploymentId, pipelineId, environmentId);
+                            logger.error(message, cause);
+                            taskListener.error(message);
+                            final String errorMessage = cause.getMessage();
+                            return JiraGatingStatusResponse.failure(jiraSite, errorMessage);
+                        });
     }
 }
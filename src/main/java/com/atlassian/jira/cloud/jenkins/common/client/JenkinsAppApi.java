@@ -1,8 +1,9 @@
 package com.atlassian.jira.cloud.jenkins.common.client;
 
 import com.atlassian.jira.cloud.jenkins.logging.PipelineLogger;
-import com.auth0.jwt.JWT;
-import com.auth0.jwt.algorithms.Algorithm;
+import com.atlassian.jira.cloud.jenkins.provider.Futures;
+import com.atlassian.jira.cloud.jenkins.provider.HttpRetryScheduler;
+import com.atlassian.jira.cloud.jenkins.provider.WebhookRateLimiters;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.annotations.VisibleForTesting;
@@ -16,25 +17,33 @@ import okhttp3.ResponseBody;
 
 import javax.inject.Inject;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.NotSerializableException;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.Date;
 import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
 
 public abstract class JenkinsAppApi<ResponseEntity> {
 
-    private static final MediaType JSON_CONTENT_TYPE =
-            MediaType.get("application/json; charset=utf-8");
     private static final MediaType JWT_CONTENT_TYPE = MediaType.get("application/jwt");
 
     private final OkHttpClient httpClient;
     private final ObjectMapper objectMapper;
+    private final JsonBodies jsonBodies;
+    private final HttpRetryScheduler retryScheduler = HttpRetryScheduler.get();
+    private final SiteCircuitBreakers circuitBreakers = SiteCircuitBreakers.get();
     private static final int JWT_EXPIRY_SECONDS = 5 * 60;
 
     @Inject
     public JenkinsAppApi(final OkHttpClient httpClient, final ObjectMapper objectMapper) {
         this.httpClient = Objects.requireNonNull(httpClient);
         this.objectMapper = Objects.requireNonNull(objectMapper);
+        this.jsonBodies = new JsonBodies(objectMapper);
     }
 
     protected ResponseEntity sendRequest(
@@ -43,43 +52,173 @@ public abstract class JenkinsAppApi<ResponseEntity> {
             final Class<ResponseEntity> responseClass,
             final PipelineLogger pipelineLogger)
             throws ApiUpdateFailedException {
+        return await(
+                mapErrors(
+                        post(
+                                webhookUrl,
+                                jsonBodies.requestBody(jenkinsAppRequest),
+                                responseClass,
+                                pipelineLogger)));
+    }
+
+    protected ResponseEntity sendRequestAsJwt(
+            final String webhookUrl,
+            final String secret,
+            final JenkinsAppRequest jenkinsAppRequest,
+            final Class<ResponseEntity> responseClass,
+            final PipelineLogger pipelineLogger)
+            throws ApiUpdateFailedException {
+        return await(
+                sendRequestAsJwtAsync(
+                        webhookUrl, secret, jenkinsAppRequest, responseClass, pipelineLogger));
+    }
+
+    /**
+     * Same as sendRequestAsJwt, without waiting for the response. No thread is held while the
+     * request is sent or retried.
+     *
+     * @return the response entity, or an {@link ApiUpdateFailedException} if the request failed
+     */
+    protected CompletableFuture<ResponseEntity> sendRequestAsJwtAsync(
+            final String webhookUrl,
+            final String secret,
+            final JenkinsAppRequest jenkinsAppRequest,
+            final Class<ResponseEntity> responseClass,
+            final PipelineLogger pipelineLogger) {
+        final String requestJson;
         try {
-            final String requestPayload = objectMapper.writeValueAsString(jenkinsAppRequest);
-            RequestBody body = RequestBody.create(JSON_CONTENT_TYPE, requestPayload);
-            Request request = new Request.Builder().url(webhookUrl).post(body).build();
-            final Response response = httpClient.newCall(request).execute();
-            checkForErrorResponse(response, pipelineLogger);
-            return handleResponseBody(response, responseClass);
+            requestJson = objectMapper.writeValueAsString(jenkinsAppRequest);
         } catch (Exception e) {
-            throw handleError(e);
+            return failed(handleError(e));
         }
+        return sendJsonAsJwtAsync(webhookUrl, secret, requestJson, responseClass, pipelineLogger);
     }
 
-    protected ResponseEntity sendRequestAsJwt(
+    /** Same as sendRequestAsJwt, for a request that has been serialized already. */
+    protected ResponseEntity sendJsonAsJwt(
             final String webhookUrl,
             final String secret,
-            final JenkinsAppRequest jenkinsAppRequest,
+            final String requestJson,
             final Class<ResponseEntity> responseClass,
             final PipelineLogger pipelineLogger)
             throws ApiUpdateFailedException {
+        return await(
+                sendJsonAsJwtAsync(webhookUrl, secret, requestJson, responseClass, pipelineLogger));
+    }
+
+    /** Same as sendRequestAsJwtAsync, for a request that has been serialized already. */
+    protected CompletableFuture<ResponseEntity> sendJsonAsJwtAsync(
+            final String webhookUrl,
+            final String secret,
+            final String requestJson,
+            final Class<ResponseEntity> responseClass,
+            final PipelineLogger pipelineLogger) {
+        final byte[] jwt;
         try {
-            final String requestPayload =
-                    wrapInJwt(
-                            jenkinsAppRequest,
+            jwt =
+                    signJwt(
+                            requestJson,
                             secret,
                             Date.from(Instant.now().plusSeconds(JWT_EXPIRY_SECONDS)),
                             pipelineLogger);
-            RequestBody body = RequestBody.create(JWT_CONTENT_TYPE, requestPayload);
-            Request request = new Request.Builder().url(webhookUrl).post(body).build();
-            final Response response = httpClient.newCall(request).execute();
-            checkForErrorResponse(response, pipelineLogger);
-            return handleResponseBody(response, responseClass);
         } catch (Exception e) {
-            throw handleError(e);
+            return failed(handleError(e));
+        }
+        final RequestBody body = RequestBody.create(JWT_CONTENT_TYPE, jwt);
+        return mapErrors(
+                postThroughCircuitBreaker(
+                        webhookUrl,
+                        secret,
+                        () -> post(webhookUrl, body, responseClass, pipelineLogger)));
+    }
+
+    /**
+     * Whether requests fail fast while the webhook is failing. Overridden by requests that check
+     * the connection and have to go through.
+     */
+    protected boolean useCircuitBreaker() {
+        return true;
+    }
+
+    private CompletableFuture<ResponseEntity> postThroughCircuitBreaker(
+            final String webhookUrl,
+            final String secret,
+            final Supplier<CompletableFuture<ResponseEntity>> post) {
+        if (!useCircuitBreaker()) {
+            return post.get();
+        }
+        return circuitBreakers.callAsync(webhookUrl, secret, post);
+    }
+
+    private CompletableFuture<ResponseEntity> post(
+            final String webhookUrl,
+            final RequestBody body,
+            final Class<ResponseEntity> responseClass,
+            final PipelineLogger pipelineLogger) {
+        Request request =
+                WebhookRateLimiters.tag(new Request.Builder(), webhookUrl)
+                        .url(webhookUrl)
+                        .post(body)
+                        .build();
+        return retryScheduler
+                .executeAsync(httpClient, request)
+                .thenCompose(
+                        response -> {
+                            try {
+                                checkForErrorResponse(response, pipelineLogger);
+                                return CompletableFuture.completedFuture(
+                                        handleResponseBody(response, responseClass));
+                            } catch (Exception e) {
+                                return failed(e);
+                            }
+                        });
+    }
+
+    /** Fails the future with an {@link ApiUpdateFailedException}, whatever went wrong */
+    private CompletableFuture<ResponseEntity> mapErrors(
+            final CompletableFuture<ResponseEntity> response) {
+        final CompletableFuture<ResponseEntity> result = new CompletableFuture<>();
+        response.whenComplete(
+                (entity, error) -> {
+                    if (error == null) {
+                        result.complete(entity);
+                    } else {
+                        result.completeExceptionally(handleError(unwrap(error)));
+                    }
+                });
+        return result;
+    }
+
+    private ResponseEntity await(final CompletableFuture<ResponseEntity> response) {
+        try {
+            return response.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw handleError(new InterruptedIOException("Interrupted while waiting for Jira"));
+        } catch (ExecutionException e) {
+            throw handleError(unwrap(e.getCause()));
         }
     }
 
-    private ApiUpdateFailedException handleError(final Exception e) {
+    /** The cause of a failed future; a cancelled request shows up like an interrupted one */
+    static Throwable unwrap(final Throwable error) {
+        final Throwable cause = Futures.causeOf(error);
+        if (cause instanceof CancellationException) {
+            final InterruptedIOException cancelled =
+                    new InterruptedIOException("Cancelled request");
+            cancelled.initCause(cause);
+            return cancelled;
+        }
+        return cause;
+    }
+
+    private static <T> CompletableFuture<T> failed(final Throwable error) {
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        result.completeExceptionally(error);
+        return result;
+    }
+
+    private ApiUpdateFailedException handleError(final Throwable e) {
         if (e instanceof ApiUpdateFailedException) {
             return (ApiUpdateFailedException) e;
         } else if (e instanceof NotSerializableException) {
@@ -112,7 +251,7 @@ public abstract class JenkinsAppApi<ResponseEntity> {
             final ResponseBody responseBody = response.body();
             String responseBodyString = null;
             if (responseBody != null) {
-                responseBodyString = responseBody.string();
+                responseBodyString = JsonBodies.errorBody(response);
                 pipelineLogger.error(
                         String.format(
                                 "HTTP status %d when calling Jenkins app in Jira: %s",
@@ -121,6 +260,9 @@ public abstract class JenkinsAppApi<ResponseEntity> {
             }
 
             // on a 400 we want to expose the error message to the user
+            if (response.code() == 404 && responseBodyString != null) {
+                throw new NotFoundException(responseBodyString);
+            }
             if (response.code() >= 400 && response.code() < 500 && responseBodyString != null) {
                 throw new BadRequestException(responseBodyString);
             }
@@ -145,8 +287,7 @@ public abstract class JenkinsAppApi<ResponseEntity> {
             throw new ApiUpdateFailedException(message);
         }
 
-        return objectMapper.readValue(
-                body.bytes(), objectMapper.getTypeFactory().constructType(responseClass));
+        return jsonBodies.read(body, responseClass);
     }
 
     @VisibleForTesting
@@ -155,16 +296,19 @@ public abstract class JenkinsAppApi<ResponseEntity> {
             final String secret,
             final Date expiryDate,
             final PipelineLogger pipelineLogger)
-            throws JsonProcessingException {
+            throws IOException {
         final String body = objectMapper.writeValueAsString(request);
-        pipelineLogger.info(String.format("sending request to Jenkins app in Jira: %s", body));
-        Algorithm algorithm = Algorithm.HMAC256(secret);
-        return JWT.create()
-                .withIssuer("jenkins-plugin")
-                .withAudience("jenkins-forge-app")
-                .withIssuedAt(new Date())
-                .withExpiresAt(expiryDate)
-                .withClaim("request_body_json", body)
-                .sign(algorithm);
+        return new String(
+                signJwt(body, secret, expiryDate, pipelineLogger), StandardCharsets.US_ASCII);
+    }
+
+    private byte[] signJwt(
+            final String body,
+            final String secret,
+            final Date expiryDate,
+            final PipelineLogger pipelineLogger)
+            throws IOException {
+        pipelineLogger.debug(() -> "Sending request to Jenkins app in Jira: " + body);
+        return JwtSigner.sign(objectMapper.getFactory(), body, secret, new Date(), expiryDate);
     }
 }
@@ -5,7 +5,6 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.annotations.VisibleForTesting;
 import io.github.resilience4j.ratelimiter.RequestNotPermitted;
 import okhttp3.HttpUrl;
-import okhttp3.MediaType;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.RequestBody;
@@ -26,17 +25,16 @@ import java.util.Objects;
 public class JiraApi {
 
     private static final Logger log = LoggerFactory.getLogger(JiraApi.class);
-    private static final MediaType JSON = MediaType.get("application/json; charset=utf-8");
 
     private final OkHttpClient httpClient;
-    private final ObjectMapper objectMapper;
+    private final JsonBodies jsonBodies;
     private String apiEndpoint;
 
     @Inject
     public JiraApi(
             final OkHttpClient httpClient, final ObjectMapper objectMapper, final String apiUrl) {
         this.httpClient = Objects.requireNonNull(httpClient);
-        this.objectMapper = Objects.requireNonNull(objectMapper);
+        this.jsonBodies = new JsonBodies(Objects.requireNonNull(objectMapper));
         this.apiEndpoint = apiUrl;
     }
 
@@ -58,8 +56,7 @@ public class JiraApi {
             final JiraRequest jiraRequest,
             final Class<ResponseEntity> responseClass) {
         try {
-            final String requestPayload = objectMapper.writeValueAsString(jiraRequest);
-            final Request request = getRequest(cloudId, accessToken, requestPayload, clientId);
+            final Request request = getRequest(cloudId, accessToken, jiraRequest, clientId);
             final Response response = httpClient.newCall(request).execute();
 
             checkForErrorResponse(response);
@@ -139,7 +136,7 @@ public class JiraApi {
                 log.error(
                         String.format(
                                 "Error response body when submitting update to Jira: %s",
-                                responseBody.string()));
+                                JsonBodies.errorBody(response)));
                 responseBody.close();
             }
 
@@ -156,8 +153,7 @@ public class JiraApi {
             throw new ApiUpdateFailedException(message);
         }
 
-        return objectMapper.readValue(
-                body.bytes(), objectMapper.getTypeFactory().constructType(responseClass));
+        return jsonBodies.read(body, responseClass);
     }
 
     @VisibleForTesting
@@ -168,9 +164,9 @@ public class JiraApi {
     private Request getRequest(
             final String cloudId,
             final String accessToken,
-            final String requestPayload,
+            final JiraRequest jiraRequest,
             final String clientId) {
-        RequestBody body = RequestBody.create(JSON, requestPayload);
+        RequestBody body = jsonBodies.requestBody(jiraRequest);
         return new Request.Builder()
                 .url(String.format(this.apiEndpoint, cloudId))
                 .addHeader("Authorization", "Bearer " + accessToken)
@@ -0,0 +1,86 @@
+package com.atlassian.jira.cloud.jenkins.common.client;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.BufferedSink;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Writes request entities to and reads response entities from HTTP bodies, without a String of
+ * the whole JSON in between.
+ *
+ * <p>Requests are serialized straight into the connection when OkHttp sends them (again on a
+ * retry), responses are parsed from the body stream. The writer and the reader of each response
+ * class are created once.
+ */
+final class JsonBodies {
+
+    private static final MediaType JSON = MediaType.get("application/json; charset=utf-8");
+
+    /** Error bodies are only logged or shown to the user, so a long one is cut off */
+    static final long MAX_ERROR_BODY_BYTES = 16 * 1024;
+
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter writer;
+    private final Map<Class<?>, ObjectReader> readers = new ConcurrentHashMap<>();
+
+    JsonBodies(final ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        // OkHttp closes the sink itself once the body is written
+        this.writer = objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    RequestBody requestBody(final Object entity) {
+        return new JsonRequestBody(writer, entity);
+    }
+
+    <T> T read(final ResponseBody body, final Class<T> entityClass) throws IOException {
+        try (InputStream in = body.byteStream()) {
+            return readerFor(entityClass).readValue(in);
+        }
+    }
+
+    /** The body of an error response, up to {@link #MAX_ERROR_BODY_BYTES} */
+    static String errorBody(final Response response) throws IOException {
+        return response.peekBody(MAX_ERROR_BODY_BYTES).string();
+    }
+
+    private ObjectReader readerFor(final Class<?> entityClass) {
+        final ObjectReader reader = readers.get(entityClass);
+        if (reader != null) {
+            return reader;
+        }
+        return readers.computeIfAbsent(entityClass, objectMapper::readerFor);
+    }
+
+    private static final class JsonRequestBody extends RequestBody {
+
+        private final ObjectWriter writer;
+        private final Object entity;
+
+        JsonRequestBody(final ObjectWriter writer, final Object entity) {
+            this.writer = writer;
+            this.entity = entity;
+        }
+
+        @Override
+        public MediaType contentType() {
+            return JSON;
+        }
+
+        @Override
+        public void writeTo(final BufferedSink sink) throws IOException {
+            writer.writeValue(sink.outputStream(), entity);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.atlassian.jira.cloud.jenkins.common.client;
+
+import com.auth0.jwt.JWTCreator;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Signs requests to the Jenkins app in Jira: an HS256 JWT carrying the request body as a string in
+ * the {@code request_body_json} claim.
+ *
+ * <p>The token is written directly rather than with {@link JWTCreator}. The header never changes,
+ * and the claims are streamed into a byte buffer that is base64 encoded in place. That way the body
+ * is only copied as often as the token format needs. The {@link Algorithm} of a secret is reused
+ * between requests.
+ */
+final class JwtSigner {
+
+    static final String ISSUER = "jenkins-plugin";
+    static final String AUDIENCE = "jenkins-forge-app";
+    static final String REQUEST_BODY_CLAIM = "request_body_json";
+
+    private static final Base64.Encoder base64 = Base64.getUrlEncoder().withoutPadding();
+    private static final byte[] HEADER =
+            base64.encode("{\"alg\":\"HS256\",\"typ\":\"JWT\"}".getBytes(StandardCharsets.UTF_8));
+
+    // bounded and expiring, so that replaced secrets don't stay in memory. Keyed by a digest of
+    // the secret, so that the cache doesn't keep another plain copy of it around.
+    private static final Cache<String, Algorithm> algorithms =
+            CacheBuilder.newBuilder().maximumSize(64).expireAfterAccess(1, TimeUnit.HOURS).build();
+
+    private JwtSigner() {}
+
+    /** The signed token, as US-ASCII bytes */
+    static byte[] sign(
+            final JsonFactory jsonFactory,
+            final String requestBody,
+            final String secret,
+            final Date issuedAt,
+            final Date expiresAt)
+            throws IOException {
+        final Buffer claims = new Buffer(requestBody.length() + 128);
+        try (JsonGenerator generator = jsonFactory.createGenerator(claims)) {
+            generator.writeStartObject();
+            generator.writeStringField("aud", AUDIENCE);
+            generator.writeNumberField("exp", TimeUnit.MILLISECONDS.toSeconds(expiresAt.getTime()));
+            generator.writeNumberField("iat", TimeUnit.MILLISECONDS.toSeconds(issuedAt.getTime()));
+            generator.writeStringField("iss", ISSUER);
+            generator.writeStringField(REQUEST_BODY_CLAIM, requestBody);
+            generator.writeEndObject();
+        }
+        final byte[] payload = base64.encode(claims.asByteBuffer()).array();
+        final byte[] signature = base64.encode(algorithmFor(secret).sign(HEADER, payload));
+
+        final byte[] token = new byte[HEADER.length + payload.length + signature.length + 2];
+        System.arraycopy(HEADER, 0, token, 0, HEADER.length);
+        token[HEADER.length] = '.';
+        System.arraycopy(payload, 0, token, HEADER.length + 1, payload.length);
+        token[HEADER.length + 1 + payload.length] = '.';
+        System.arraycopy(
+                signature, 0, token, HEADER.length + payload.length + 2, signature.length);
+        return token;
+    }
+
+    @VisibleForTesting
+    static Algorithm algorithmFor(final String secret) {
+        final String key = digestOf(secret);
+        Algorithm algorithm = algorithms.getIfPresent(key);
+        if (algorithm == null) {
+            algorithm = Algorithm.HMAC256(secret);
+            algorithms.put(key, algorithm);
+        }
+        return algorithm;
+    }
+
+    private static String digestOf(final String secret) {
+        try {
+            final MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder()
+                    .encodeToString(sha256.digest(secret.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform has to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** Gives access to the written bytes without copying them */
+    private static final class Buffer extends ByteArrayOutputStream {
+
+        Buffer(final int size) {
+            super(size);
+        }
+
+        ByteBuffer asByteBuffer() {
+            return ByteBuffer.wrap(buf, 0, count);
+        }
+    }
+}
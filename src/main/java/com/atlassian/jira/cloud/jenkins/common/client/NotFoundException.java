@@ -0,0 +1,8 @@
+package com.atlassian.jira.cloud.jenkins.common.client;
+
+/** Jira doesn't know the entity the request is about (HTTP 404), or doesn't know it yet */
+public class NotFoundException extends BadRequestException {
+    public NotFoundException(final String errorMessage) {
+        super(errorMessage);
+    }
+}
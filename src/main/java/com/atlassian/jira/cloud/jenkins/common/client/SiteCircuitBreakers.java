@@ -0,0 +1,295 @@
+package com.atlassian.jira.cloud.jenkins.common.client;
+
+import com.atlassian.jira.cloud.jenkins.provider.Futures;
+import com.google.common.annotations.VisibleForTesting;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.ratelimiter.RequestNotPermitted;
+import jenkins.util.SystemProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * One circuit breaker per webhook of the Jenkins app.
+ *
+ * <p>Once the failure rate of the recent requests to a webhook exceeds the threshold, the breaker
+ * opens and requests fail right away instead of waiting for timeouts and retries. After a while a
+ * single caller is let through to check the webhook: if a {@link HalfOpenProbe} is set, it is asked
+ * first (a ping to the Jenkins app), otherwise the request itself is the probe. The breaker closes
+ * again when the probe succeeds. The probe completes in the background, the request of the caller
+ * is only sent once it has succeeded.
+ *
+ * <p>Requests rejected by Jira with a 4xx response don't count as failures, the site is healthy
+ * in that case. Neither do requests the rate limiter of the webhook didn't let through, nor
+ * requests cancelled by their caller (e.g. an aborted build).
+ */
+public class SiteCircuitBreakers {
+
+    private static final Logger log = LoggerFactory.getLogger(SiteCircuitBreakers.class);
+
+    private static final String PROPERTY_PREFIX = SiteCircuitBreakers.class.getName();
+
+    private static final SiteCircuitBreakers instance =
+            new SiteCircuitBreakers(
+                    CircuitBreakerConfig.custom()
+                            .failureRateThreshold(
+                                    SystemProperties.getInteger(
+                                            PROPERTY_PREFIX + ".failureRateThreshold", 50))
+                            .slidingWindowSize(
+                                    SystemProperties.getInteger(
+                                            PROPERTY_PREFIX + ".slidingWindowSize", 10))
+                            .minimumNumberOfCalls(
+                                    SystemProperties.getInteger(
+                                            PROPERTY_PREFIX + ".minimumNumberOfCalls", 5))
+                            .waitDurationInOpenState(
+                                    Duration.ofSeconds(
+                                            SystemProperties.getLong(
+                                                    PROPERTY_PREFIX + ".waitSecondsInOpenState",
+                                                    30L)))
+                            .permittedNumberOfCallsInHalfOpenState(1)
+                            .build());
+
+    private final CircuitBreakerConfig config;
+    private final Map<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+    @Nullable private volatile HalfOpenProbe halfOpenProbe;
+
+    @VisibleForTesting
+    SiteCircuitBreakers(final CircuitBreakerConfig config) {
+        this.config = config;
+    }
+
+    public static SiteCircuitBreakers get() {
+        return instance;
+    }
+
+    /** Checks whether a webhook is healthy again, before requests are let through */
+    @FunctionalInterface
+    public interface HalfOpenProbe {
+        /** Must not wait for the webhook, the check completes the returned future */
+        CompletableFuture<Boolean> isHealthy(String webhookUrl, String secret);
+    }
+
+    public void setHalfOpenProbe(@Nullable final HalfOpenProbe halfOpenProbe) {
+        this.halfOpenProbe = halfOpenProbe;
+    }
+
+    /**
+     * Sends a request to the webhook through its circuit breaker.
+     *
+     * @throws ApiUpdateFailedException right away, if the breaker of the webhook is open
+     */
+    public <T> T call(final String webhookUrl, final String secret, final Callable<T> request)
+            throws Exception {
+        final CircuitBreaker circuitBreaker = circuitBreakerFor(webhookUrl);
+        awaitPermission(acquirePermission(circuitBreaker, webhookUrl, secret));
+
+        final long start = System.nanoTime();
+        try {
+            final T result = request.call();
+            circuitBreaker.onSuccess(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return result;
+        } catch (Exception e) {
+            onFailure(circuitBreaker, start, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Same as {@link #call}, for a request that completes in the background. Neither the probe
+     * nor the request is waited for, the request is sent once the probe has succeeded. The outcome
+     * is recorded once the request has completed.
+     *
+     * @return the response, or {@link ApiUpdateFailedException} if the breaker of the webhook is
+     *     open
+     */
+    public <T> CompletableFuture<T> callAsync(
+            final String webhookUrl,
+            final String secret,
+            final Supplier<CompletableFuture<T>> request) {
+        final CircuitBreaker circuitBreaker = circuitBreakerFor(webhookUrl);
+        return acquirePermission(circuitBreaker, webhookUrl, secret)
+                .thenCompose(permitted -> send(circuitBreaker, request));
+    }
+
+    private static <T> CompletableFuture<T> send(
+            final CircuitBreaker circuitBreaker, final Supplier<CompletableFuture<T>> request) {
+        final long start = System.nanoTime();
+        final CompletableFuture<T> response;
+        try {
+            response = request.get();
+        } catch (RuntimeException e) {
+            onFailure(circuitBreaker, start, e);
+            return failed(e);
+        }
+
+        return response.whenComplete(
+                (result, error) -> {
+                    if (error == null) {
+                        circuitBreaker.onSuccess(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    } else {
+                        onFailure(circuitBreaker, start, Futures.causeOf(error));
+                    }
+                });
+    }
+
+    private static <T> CompletableFuture<T> failed(final Throwable error) {
+        final CompletableFuture<T> failed = new CompletableFuture<>();
+        failed.completeExceptionally(error);
+        return failed;
+    }
+
+    private static void onFailure(
+            final CircuitBreaker circuitBreaker, final long start, final Throwable error) {
+        if (error instanceof BadRequestException) {
+            // Jira has answered, the request was wrong
+            circuitBreaker.onSuccess(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        } else if (error instanceof RequestNotPermitted) {
+            // held back by our own rate limiter, the webhook hasn't been called
+            circuitBreaker.releasePermission();
+        } else if (isCancellation(error)) {
+            // given up by the caller, says nothing about the webhook
+            circuitBreaker.releasePermission();
+        } else {
+            circuitBreaker.onError(System.nanoTime() - start, TimeUnit.NANOSECONDS, error);
+        }
+    }
+
+    /** A cancelled request fails like an interrupted one, unlike a request that timed out */
+    private static boolean isCancellation(final Throwable error) {
+        return error instanceof CancellationException
+                || (error instanceof InterruptedIOException
+                        && !(error instanceof SocketTimeoutException));
+    }
+
+    /** Closes the breaker of the webhook, e.g. after the connection was tested successfully */
+    public void reset(final String webhookUrl) {
+        final CircuitBreaker circuitBreaker = circuitBreakers.get(webhookUrl);
+        if (circuitBreaker != null) {
+            circuitBreaker.reset();
+        }
+    }
+
+    public CircuitBreaker.State getState(final String webhookUrl) {
+        final CircuitBreaker circuitBreaker = circuitBreakers.get(webhookUrl);
+        return circuitBreaker == null ? CircuitBreaker.State.CLOSED : circuitBreaker.getState();
+    }
+
+    /** A short description of the state of the webhook for the configuration page */
+    public String describe(final String webhookUrl) {
+        final CircuitBreaker circuitBreaker = circuitBreakers.get(webhookUrl);
+        if (circuitBreaker == null) {
+            return "Connected";
+        }
+
+        final float failureRate = circuitBreaker.getMetrics().getFailureRate();
+        switch (circuitBreaker.getState()) {
+            case OPEN:
+            case FORCED_OPEN:
+                return String.format(
+                        "Unavailable: %.0f%% of the recent requests failed, "
+                                + "requests fail right away until the connection is checked again",
+                        failureRate);
+            case HALF_OPEN:
+                return "Checking the connection";
+            default:
+                return failureRate > 0
+                        ? String.format(
+                                "Connected (%.0f%% of the recent requests failed)", failureRate)
+                        : "Connected";
+        }
+    }
+
+    private CircuitBreaker circuitBreakerFor(final String webhookUrl) {
+        return circuitBreakers.computeIfAbsent(
+                webhookUrl,
+                key -> {
+                    final CircuitBreaker circuitBreaker = CircuitBreaker.of(key, config);
+                    circuitBreaker
+                            .getEventPublisher()
+                            .onStateTransition(
+                                    event ->
+                                            log.warn(
+                                                    String.format(
+                                                            "Connection to %s: %s",
+                                                            key, event.getStateTransition())));
+                    return circuitBreaker;
+                });
+    }
+
+    /** Completes once a request may be sent, or fails if the breaker of the webhook is open */
+    private CompletableFuture<Void> acquirePermission(
+            final CircuitBreaker circuitBreaker, final String webhookUrl, final String secret) {
+        if (!circuitBreaker.tryAcquirePermission()) {
+            return failed(notPermitted(webhookUrl));
+        }
+
+        final HalfOpenProbe probe = halfOpenProbe;
+        if (probe == null || circuitBreaker.getState() != CircuitBreaker.State.HALF_OPEN) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        // this caller got the only permitted call of the half open state, check the webhook first
+        final long start = System.nanoTime();
+        CompletableFuture<Boolean> healthy;
+        try {
+            healthy = probe.isHealthy(webhookUrl, secret);
+        } catch (RuntimeException e) {
+            healthy = failed(e);
+        }
+
+        return healthy.handle(
+                (isHealthy, error) -> {
+                    if (error != null) {
+                        log.debug("Probe of " + webhookUrl + " failed", error);
+                    }
+                    if (!Boolean.TRUE.equals(isHealthy)) {
+                        circuitBreaker.onError(
+                                System.nanoTime() - start,
+                                TimeUnit.NANOSECONDS,
+                                new ApiUpdateFailedException("Probe of " + webhookUrl + " failed"));
+                        throw notPermitted(webhookUrl);
+                    }
+
+                    circuitBreaker.onSuccess(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    if (!circuitBreaker.tryAcquirePermission()) {
+                        throw notPermitted(webhookUrl);
+                    }
+                    return null;
+                });
+    }
+
+    /** Waits for the probe, if any, for callers that send their request on the calling thread */
+    private static void awaitPermission(final CompletableFuture<Void> permission)
+            throws Exception {
+        try {
+            permission.get();
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw e;
+        }
+    }
+
+    private static ApiUpdateFailedException notPermitted(final String webhookUrl) {
+        return new ApiUpdateFailedException(
+                String.format(
+                        "Not sending the request, too many recent requests to %s have failed. "
+                                + "The connection will be checked again shortly.",
+                        webhookUrl));
+    }
+}
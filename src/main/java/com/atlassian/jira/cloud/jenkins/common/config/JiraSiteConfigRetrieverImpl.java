@@ -6,7 +6,6 @@ import com.atlassian.jira.cloud.jenkins.config.JiraCloudSiteConfig;
 import javax.annotation.Nullable;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 public class JiraSiteConfigRetrieverImpl implements JiraSiteConfigRetriever {
 
@@ -17,9 +16,6 @@ public class JiraSiteConfigRetrieverImpl implements JiraSiteConfigRetriever {
 
     @Override
     public List<String> getAllJiraSites() {
-        return JiraCloudPluginConfig.getAllSites()
-                .stream()
-                .map(JiraCloudSiteConfig::getSite)
-                .collect(Collectors.toList());
+        return JiraCloudPluginConfig.getSnapshot().getSiteNames();
     }
 }
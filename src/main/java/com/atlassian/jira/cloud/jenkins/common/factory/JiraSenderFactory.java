@@ -1,5 +1,6 @@
 package com.atlassian.jira.cloud.jenkins.common.factory;
 
+import com.atlassian.jira.cloud.jenkins.buildinfo.client.BatchingBuildsApi;
 import com.atlassian.jira.cloud.jenkins.buildinfo.client.BuildsApi;
 import com.atlassian.jira.cloud.jenkins.buildinfo.service.FreestyleJiraBuildInfoSenderImpl;
 import com.atlassian.jira.cloud.jenkins.buildinfo.service.JiraBuildInfoSender;
@@ -7,26 +8,37 @@ import com.atlassian.jira.cloud.jenkins.buildinfo.service.MultibranchBuildInfoSe
 import com.atlassian.jira.cloud.jenkins.checkgatingstatus.client.GatingStatusApi;
 import com.atlassian.jira.cloud.jenkins.checkgatingstatus.service.JiraGatingStatusRetriever;
 import com.atlassian.jira.cloud.jenkins.checkgatingstatus.service.JiraGatingStatusRetrieverImpl;
+import com.atlassian.jira.cloud.jenkins.common.client.SiteCircuitBreakers;
 import com.atlassian.jira.cloud.jenkins.common.config.JiraSiteConfigRetriever;
 import com.atlassian.jira.cloud.jenkins.common.config.JiraSiteConfigRetrieverImpl;
+import com.atlassian.jira.cloud.jenkins.common.outbox.EventOutbox;
 import com.atlassian.jira.cloud.jenkins.common.service.FreestyleIssueKeyExtractor;
 import com.atlassian.jira.cloud.jenkins.common.service.IssueKeyExtractor;
+import com.atlassian.jira.cloud.jenkins.config.JiraCloudPluginConfig;
 import com.atlassian.jira.cloud.jenkins.deploymentinfo.client.DeploymentsApi;
 import com.atlassian.jira.cloud.jenkins.deploymentinfo.service.ChangeLogIssueKeyExtractor;
 import com.atlassian.jira.cloud.jenkins.deploymentinfo.service.FreestyleChangeLogIssueKeyExtractor;
 import com.atlassian.jira.cloud.jenkins.deploymentinfo.service.JiraDeploymentInfoSender;
 import com.atlassian.jira.cloud.jenkins.deploymentinfo.service.JiraDeploymentInfoSenderImpl;
+import com.atlassian.jira.cloud.jenkins.logging.PipelineLogger;
+import com.atlassian.jira.cloud.jenkins.ping.PingApi;
 import com.atlassian.jira.cloud.jenkins.provider.HttpClientProvider;
 import com.atlassian.jira.cloud.jenkins.provider.ObjectMapperProvider;
 import com.atlassian.jira.cloud.jenkins.tenantinfo.CloudIdResolver;
 import com.atlassian.jira.cloud.jenkins.util.BranchNameIssueKeyExtractor;
 import com.atlassian.jira.cloud.jenkins.util.FreestyleBranchNameIssueKeyExtractor;
+import com.atlassian.jira.cloud.jenkins.util.RunWrapperProvider;
 import com.atlassian.jira.cloud.jenkins.util.RunWrapperProviderImpl;
 import com.atlassian.jira.cloud.jenkins.util.SecretRetriever;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.annotations.VisibleForTesting;
+import hudson.init.InitMilestone;
+import hudson.init.Initializer;
 import okhttp3.OkHttpClient;
 
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+
 public final class JiraSenderFactory {
 
     private static JiraSenderFactory INSTANCE;
@@ -37,12 +49,31 @@ public final class JiraSenderFactory {
     private JiraBuildInfoSender freestyleBuildInfoSender;
 
     private JiraSenderFactory() {
-        final ObjectMapperProvider objectMapperProvider = new ObjectMapperProvider();
-        final HttpClientProvider httpClientProvider = new HttpClientProvider();
-        final OkHttpClient httpClient = httpClientProvider.httpClient();
-        final ObjectMapper objectMapper = objectMapperProvider.objectMapper();
+        this(
+                new HttpClientProvider().httpClient(),
+                new ObjectMapperProvider().objectMapper(),
+                new JiraSiteConfigRetrieverImpl(),
+                new SecretRetriever(),
+                new RunWrapperProviderImpl(),
+                EventOutbox.get(),
+                JiraCloudPluginConfig::getConfiguredBuildBatchSize,
+                JiraCloudPluginConfig::getConfiguredBuildBatchDelayMillis);
+    }
 
-        final JiraSiteConfigRetriever siteConfig2Retriever = new JiraSiteConfigRetrieverImpl();
+    /**
+     * The senders with the collaborators that look up things in Jenkins replaced, e.g. to send
+     * updates to a simulated Jenkins app in a load test.
+     */
+    @VisibleForTesting
+    JiraSenderFactory(
+            final OkHttpClient httpClient,
+            final ObjectMapper objectMapper,
+            final JiraSiteConfigRetriever siteConfigRetriever,
+            final SecretRetriever secretRetriever,
+            final RunWrapperProvider runWrapperProvider,
+            final EventOutbox eventOutbox,
+            final IntSupplier buildBatchSize,
+            final LongSupplier buildBatchDelayMillis) {
         final BranchNameIssueKeyExtractor branchNameIssueKeyExtractor =
                 new BranchNameIssueKeyExtractor();
         final FreestyleIssueKeyExtractor freestyleBranchNameIssueKeyExtractor =
@@ -50,43 +81,65 @@ public final class JiraSenderFactory {
         final FreestyleIssueKeyExtractor freestyleChangeLogIssueKeyExtractor =
                 new FreestyleChangeLogIssueKeyExtractor();
         final IssueKeyExtractor changeLogIssueKeyExtractor = new ChangeLogIssueKeyExtractor();
-        final SecretRetriever secretRetriever = new SecretRetriever();
         final CloudIdResolver cloudIdResolver = new CloudIdResolver(httpClient, objectMapper);
-        final BuildsApi buildsApi = new BuildsApi(httpClient, objectMapper);
+        final BuildsApi buildsApi =
+                new BatchingBuildsApi(
+                        httpClient, objectMapper, buildBatchSize, buildBatchDelayMillis);
         final DeploymentsApi deploymentsApi = new DeploymentsApi(httpClient, objectMapper);
         final GatingStatusApi gatingStatusApi = new GatingStatusApi(httpClient, objectMapper);
 
         this.jiraBuildInfoSender =
                 new MultibranchBuildInfoSenderImpl(
-                        siteConfig2Retriever,
+                        siteConfigRetriever,
                         secretRetriever,
                         branchNameIssueKeyExtractor,
                         cloudIdResolver,
                         buildsApi,
-                        new RunWrapperProviderImpl());
+                        runWrapperProvider,
+                        eventOutbox);
 
         this.freestyleBuildInfoSender =
                 new FreestyleJiraBuildInfoSenderImpl(
-                        siteConfig2Retriever,
+                        siteConfigRetriever,
                         secretRetriever,
                         freestyleBranchNameIssueKeyExtractor,
                         cloudIdResolver,
                         buildsApi,
-                        new RunWrapperProviderImpl(),
-                        freestyleChangeLogIssueKeyExtractor);
+                        runWrapperProvider,
+                        freestyleChangeLogIssueKeyExtractor,
+                        eventOutbox);
 
         this.jiraDeploymentInfoSender =
                 new JiraDeploymentInfoSenderImpl(
-                        siteConfig2Retriever,
+                        siteConfigRetriever,
                         secretRetriever,
                         cloudIdResolver,
                         deploymentsApi,
                         changeLogIssueKeyExtractor,
-                        new RunWrapperProviderImpl());
+                        runWrapperProvider,
+                        eventOutbox);
 
         this.jiraGatingStatusRetriever =
                 new JiraGatingStatusRetrieverImpl(
-                        siteConfig2Retriever, secretRetriever, cloudIdResolver, gatingStatusApi);
+                        siteConfigRetriever, secretRetriever, cloudIdResolver, gatingStatusApi);
+    }
+
+    /**
+     * Lets the circuit breaker of a webhook ping the Jenkins app before it lets requests through
+     * again. Registered once when Jenkins starts, independent of the senders in use. The ping is
+     * sent without holding the thread of the request that triggered it.
+     */
+    @Initializer(after = InitMilestone.PLUGINS_STARTED)
+    public static void registerHalfOpenProbe() {
+        final PingApi pingApi =
+                new PingApi(
+                        new HttpClientProvider().httpClient(),
+                        new ObjectMapperProvider().objectMapper());
+        SiteCircuitBreakers.get()
+                .setHalfOpenProbe(
+                        (webhookUrl, secret) ->
+                                pingApi.sendPingAsync(
+                                        webhookUrl, secret, PipelineLogger.noopInstance()));
     }
 
     public static synchronized JiraSenderFactory getInstance() {
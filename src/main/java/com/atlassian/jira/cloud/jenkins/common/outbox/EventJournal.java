@@ -0,0 +1,351 @@
+package com.atlassian.jira.cloud.jenkins.common.outbox;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of opaque records, split into segment files.
+ *
+ * <p>Every record is framed as {@code [length][crc32][type][id][payload]}. Appends are durable
+ * when {@link #append(byte[])} returns: concurrent appends share a single fsync. Acknowledgements
+ * are not synced, a lost acknowledgement only means the record is delivered once more after a
+ * restart.
+ *
+ * <p>A segment is deleted once it and all older segments have been acknowledged in full. If the
+ * journal grows beyond its size limit the oldest segments are dropped, pending records included.
+ */
+class EventJournal implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(EventJournal.class);
+
+    private static final byte RECORD_APPEND = 1;
+    private static final byte RECORD_ACK = 2;
+    // length and crc
+    private static final int FRAME_HEADER_SIZE = 8;
+    // type and id
+    private static final int RECORD_HEADER_SIZE = 9;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final Path directory;
+    private final long segmentSize;
+    private final long maxSize;
+    private final LongConsumer droppedListener;
+
+    private final Object writeLock = new Object();
+    private final Object syncLock = new Object();
+    private final Deque<Segment> segments = new ArrayDeque<>();
+    private final Map<Long, Segment> segmentOfRecord = new HashMap<>();
+    private final Map<Long, byte[]> recovered = new LinkedHashMap<>();
+    private final AtomicLong syncedPosition = new AtomicLong();
+
+    private FileChannel active;
+    private long nextId = 1;
+    // total number of bytes ever written by this instance, used to batch fsyncs
+    private long writePosition;
+
+    /**
+     * @param droppedListener called with the ID of every pending record dropped because the
+     *     journal went over its size limit
+     */
+    EventJournal(
+            final Path directory,
+            final long segmentSize,
+            final long maxSize,
+            final LongConsumer droppedListener)
+            throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.maxSize = maxSize;
+        this.droppedListener = droppedListener;
+
+        Files.createDirectories(directory);
+        replay();
+    }
+
+    /** Records that were appended but not acknowledged before this journal was opened */
+    Map<Long, byte[]> getRecovered() {
+        return recovered;
+    }
+
+    /**
+     * Appends a record and waits until it has been written to disk.
+     *
+     * @return the ID of the record
+     */
+    long append(final byte[] payload) throws IOException {
+        final long id;
+        final long position;
+
+        synchronized (writeLock) {
+            id = nextId++;
+            position = write(RECORD_APPEND, id, payload);
+            final Segment segment = segments.getLast();
+            segment.pending.add(id);
+            segmentOfRecord.put(id, segment);
+        }
+
+        sync(position);
+
+        synchronized (writeLock) {
+            dropOverflow();
+        }
+        return id;
+    }
+
+    /** Marks a record as processed, it won't be recovered anymore. */
+    void acknowledge(final long id) throws IOException {
+        synchronized (writeLock) {
+            final Segment segment = segmentOfRecord.remove(id);
+            if (segment == null) {
+                return;
+            }
+            write(RECORD_ACK, id, new byte[0]);
+            segment.pending.remove(id);
+            compact();
+        }
+    }
+
+    int getSegmentCount() {
+        synchronized (writeLock) {
+            return segments.size();
+        }
+    }
+
+    long getSize() {
+        synchronized (writeLock) {
+            return segments.stream().mapToLong(segment -> segment.size).sum();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (writeLock) {
+            active.force(false);
+            active.close();
+        }
+    }
+
+    private long write(final byte type, final long id, final byte[] payload) throws IOException {
+        final int recordLength = RECORD_HEADER_SIZE + payload.length;
+        final int frameLength = FRAME_HEADER_SIZE + recordLength;
+
+        final Segment current = segments.getLast();
+        if (current.size > 0 && current.size + frameLength > segmentSize) {
+            roll();
+        }
+
+        final ByteBuffer record = ByteBuffer.allocate(recordLength);
+        record.put(type).putLong(id).put(payload).flip();
+        final CRC32 crc = new CRC32();
+        crc.update(record.array(), 0, recordLength);
+
+        final ByteBuffer frame = ByteBuffer.allocate(frameLength);
+        frame.putInt(recordLength).putInt((int) crc.getValue()).put(record).flip();
+        while (frame.hasRemaining()) {
+            active.write(frame);
+        }
+
+        segments.getLast().size += frameLength;
+        writePosition += frameLength;
+        return writePosition;
+    }
+
+    /** Group commit: one fsync covers every record written before it started. */
+    private void sync(final long position) throws IOException {
+        if (syncedPosition.get() >= position) {
+            return;
+        }
+
+        synchronized (syncLock) {
+            if (syncedPosition.get() >= position) {
+                return;
+            }
+
+            final FileChannel channel;
+            final long target;
+            synchronized (writeLock) {
+                channel = active;
+                target = writePosition;
+            }
+
+            try {
+                channel.force(false);
+                syncedPosition.accumulateAndGet(target, Math::max);
+            } catch (ClosedChannelException e) {
+                // the segment was rolled in the meantime, rolling syncs it before closing
+                if (syncedPosition.get() < position) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private void roll() throws IOException {
+        active.force(false);
+        syncedPosition.accumulateAndGet(writePosition, Math::max);
+        active.close();
+
+        final Segment segment = new Segment(segments.getLast().sequence + 1);
+        segments.addLast(segment);
+        active = openForAppend(segment.path);
+    }
+
+    private void compact() throws IOException {
+        while (segments.size() > 1 && segments.getFirst().pending.isEmpty()) {
+            Files.deleteIfExists(segments.removeFirst().path);
+        }
+    }
+
+    private void dropOverflow() throws IOException {
+        while (segments.size() > 1 && getSizeUnlocked() > maxSize) {
+            final Segment oldest = segments.removeFirst();
+            Files.deleteIfExists(oldest.path);
+            if (!oldest.pending.isEmpty()) {
+                log.warn(
+                        String.format(
+                                "Event outbox is over its size limit of %d bytes, dropped %d undelivered events",
+                                maxSize, oldest.pending.size()));
+            }
+            for (final Long id : oldest.pending) {
+                segmentOfRecord.remove(id);
+                droppedListener.accept(id);
+            }
+        }
+    }
+
+    private long getSizeUnlocked() {
+        return segments.stream().mapToLong(segment -> segment.size).sum();
+    }
+
+    private void replay() throws IOException {
+        final List<Path> segmentFiles = listSegments();
+
+        for (int i = 0; i < segmentFiles.size(); i++) {
+            final Path path = segmentFiles.get(i);
+            final Segment segment = new Segment(sequenceOf(path));
+            segments.addLast(segment);
+
+            final byte[] content = Files.readAllBytes(path);
+            final int validLength = replaySegment(segment, content);
+            segment.size = validLength;
+
+            if (validLength < content.length) {
+                log.warn(
+                        String.format(
+                                "Event outbox segment %s has a truncated or corrupt tail, ignoring %d bytes",
+                                path, content.length - validLength));
+                if (i == segmentFiles.size() - 1) {
+                    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                        channel.truncate(validLength);
+                    }
+                }
+            }
+        }
+
+        if (segments.isEmpty()) {
+            segments.addLast(new Segment(1));
+        }
+        active = openForAppend(segments.getLast().path);
+        compact();
+    }
+
+    /** @return number of bytes of valid records at the start of the segment */
+    private int replaySegment(final Segment segment, final byte[] content) {
+        final ByteBuffer buffer = ByteBuffer.wrap(content);
+
+        while (buffer.remaining() >= FRAME_HEADER_SIZE) {
+            final int start = buffer.position();
+            final int recordLength = buffer.getInt();
+            final int expectedCrc = buffer.getInt();
+            if (recordLength < RECORD_HEADER_SIZE || recordLength > buffer.remaining()) {
+                return start;
+            }
+
+            final CRC32 crc = new CRC32();
+            crc.update(content, buffer.position(), recordLength);
+            if ((int) crc.getValue() != expectedCrc) {
+                return start;
+            }
+
+            final byte type = buffer.get();
+            final long id = buffer.getLong();
+            final byte[] payload = new byte[recordLength - RECORD_HEADER_SIZE];
+            buffer.get(payload);
+
+            nextId = Math.max(nextId, id + 1);
+            if (type == RECORD_APPEND) {
+                recovered.put(id, payload);
+                segment.pending.add(id);
+                segmentOfRecord.put(id, segment);
+            } else if (type == RECORD_ACK && recovered.remove(id) != null) {
+                segmentOfRecord.remove(id).pending.remove(id);
+            }
+        }
+        return buffer.position();
+    }
+
+    private List<Path> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(
+                            path -> {
+                                final String name = path.getFileName().toString();
+                                return name.startsWith(SEGMENT_PREFIX)
+                                        && name.endsWith(SEGMENT_SUFFIX);
+                            })
+                    .sorted((a, b) -> Long.compare(sequenceOf(a), sequenceOf(b)))
+                    .collect(Collectors.toCollection(ArrayList::new));
+        }
+    }
+
+    private static long sequenceOf(final Path segment) {
+        final String name = segment.getFileName().toString();
+        return Long.parseLong(
+                name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static FileChannel openForAppend(final Path path) throws IOException {
+        return FileChannel.open(
+                path,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+    }
+
+    private final class Segment {
+        private final long sequence;
+        private final Path path;
+        private final Set<Long> pending = new LinkedHashSet<>();
+        private long size;
+
+        Segment(final long sequence) {
+            this.sequence = sequence;
+            this.path =
+                    directory.resolve(
+                            String.format("%s%016d%s", SEGMENT_PREFIX, sequence, SEGMENT_SUFFIX));
+        }
+    }
+}
@@ -0,0 +1,330 @@
+package com.atlassian.jira.cloud.jenkins.common.outbox;
+
+import com.atlassian.jira.cloud.jenkins.common.client.ApiUpdateFailedException;
+import com.atlassian.jira.cloud.jenkins.common.client.BadRequestException;
+import com.atlassian.jira.cloud.jenkins.common.client.JenkinsAppEventRequest;
+import com.atlassian.jira.cloud.jenkins.provider.ObjectMapperProvider;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.annotations.VisibleForTesting;
+import jenkins.model.Jenkins;
+import jenkins.util.SystemProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.CheckForNull;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Durable outbox for build and deployment events.
+ *
+ * <p>Senders write an event to the outbox before sending it and acknowledge it once Jira has
+ * answered. Events that failed to send, or were still in flight when Jenkins stopped, stay in the
+ * outbox and are delivered in the background by {@link EventOutboxDrainer} with exponential
+ * backoff. Redelivering an older event after a newer one is harmless: Jira keeps the update with
+ * the highest update sequence number.
+ *
+ * <p>An event that is still waiting in the outbox is superseded by a newer event about the same
+ * build or deployment (e.g. an "in progress" event that failed to send, once the final result
+ * arrives), the older event is dropped without being sent.
+ *
+ * <p>The journal lives in {@code JENKINS_HOME/atlassian-jira-cloud/outbox}. Its size and the
+ * maximum age of an event are limited, events over either limit are dropped.
+ */
+public class EventOutbox {
+
+    private static final Logger log = LoggerFactory.getLogger(EventOutbox.class);
+
+    private static final String PROPERTY_PREFIX = EventOutbox.class.getName();
+    private static final long MB = 1024 * 1024;
+    private static final Duration INITIAL_BACKOFF = Duration.ofSeconds(30);
+    private static final Duration MAX_BACKOFF = Duration.ofMinutes(15);
+    // entries the sending thread never acknowledged are picked up by the drainer after this
+    private static final Duration IN_FLIGHT_TIMEOUT = Duration.ofMinutes(5);
+
+    private static volatile EventOutbox instance;
+
+    @CheckForNull private final EventJournal journal;
+    private final ObjectMapper objectMapper;
+    private final Duration maxAge;
+    private final LongSupplier clock;
+    private final Map<Long, PendingEvent> pending = new ConcurrentSkipListMap<>();
+    // the newest event per webhook URL and event key
+    private final Map<String, Long> latestEvents = new ConcurrentHashMap<>();
+    private final AtomicLong coalescedCount = new AtomicLong();
+
+    @VisibleForTesting
+    EventOutbox(
+            final Path directory,
+            final long segmentSize,
+            final long maxSize,
+            final Duration maxAge,
+            final ObjectMapper objectMapper,
+            final LongSupplier clock) {
+        this.objectMapper = objectMapper;
+        this.maxAge = maxAge;
+        this.clock = clock;
+        this.journal = openJournal(directory, segmentSize, maxSize);
+    }
+
+    public static EventOutbox get() {
+        if (instance == null) {
+            synchronized (EventOutbox.class) {
+                if (instance == null) {
+                    instance = create();
+                }
+            }
+        }
+        return instance;
+    }
+
+    private static EventOutbox create() {
+        final Path directory =
+                Jenkins.get().getRootDir().toPath().resolve("atlassian-jira-cloud").resolve("outbox");
+        final long segmentSizeMb = SystemProperties.getLong(PROPERTY_PREFIX + ".segmentSizeMb", 4L);
+        final long maxSizeMb = SystemProperties.getLong(PROPERTY_PREFIX + ".maxSizeMb", 64L);
+        final long maxAgeHours = SystemProperties.getLong(PROPERTY_PREFIX + ".maxAgeHours", 24L);
+
+        return new EventOutbox(
+                directory,
+                segmentSizeMb * MB,
+                maxSizeMb * MB,
+                Duration.ofHours(maxAgeHours),
+                new ObjectMapperProvider().objectMapper(),
+                System::currentTimeMillis);
+    }
+
+    /**
+     * Writes an event to disk. The caller is expected to send it right away and report the outcome
+     * with {@link #acknowledge(long)} or {@link #retryLater(long)}.
+     *
+     * @param eventKey identifies the build or deployment the event is about, a pending event with
+     *     the same key is superseded by this one
+     * @return the ID of the event in the outbox, empty if it couldn't be written
+     */
+    public Optional<Long> enqueue(
+            final String site,
+            final String webhookUrl,
+            final String credentialsId,
+            final String eventKey,
+            final JenkinsAppEventRequest request) {
+        if (journal == null) {
+            return Optional.empty();
+        }
+
+        try {
+            final OutboxEntry entry =
+                    new OutboxEntry(
+                            site,
+                            webhookUrl,
+                            credentialsId,
+                            eventKey,
+                            objectMapper.writeValueAsString(request),
+                            clock.getAsLong());
+            final long id = journal.append(objectMapper.writeValueAsBytes(entry));
+            final PendingEvent event = new PendingEvent(id, entry);
+            event.inFlightSince.set(clock.getAsLong());
+            pending.put(id, event);
+            supersedeOlderEvent(event);
+            return Optional.of(id);
+        } catch (IOException e) {
+            log.warn("Failed to write event to the outbox, it won't be retried if sending fails", e);
+            return Optional.empty();
+        }
+    }
+
+    /** The event has been delivered or rejected by Jira, it won't be sent again. */
+    public void acknowledge(final long id) {
+        forget(id);
+        if (journal == null) {
+            return;
+        }
+
+        try {
+            journal.acknowledge(id);
+        } catch (IOException e) {
+            log.warn("Failed to acknowledge outbox event " + id + ", it may be sent again", e);
+        }
+    }
+
+    /** Sending the event failed, the drainer will try again after a backoff. */
+    public void retryLater(final long id) {
+        final PendingEvent event = pending.get(id);
+        if (event != null && event.superseded) {
+            coalesce(event);
+        } else if (event != null) {
+            event.attempts++;
+            event.nextAttemptAt = clock.getAsLong() + backoff(event.attempts);
+            event.inFlightSince.set(0);
+        }
+    }
+
+    /** Sends every event whose backoff has elapsed, oldest first. */
+    public void drain(final OutboxDelivery delivery) {
+        for (final PendingEvent event : pending.values()) {
+            final long now = clock.getAsLong();
+            if (now < event.nextAttemptAt || !event.claim(now)) {
+                continue;
+            }
+
+            if (event.superseded) {
+                coalesce(event);
+                continue;
+            }
+
+            if (now - event.entry.getCreatedAt() > maxAge.toMillis()) {
+                log.warn(
+                        String.format(
+                                "Dropping event for %s from the outbox after %d attempts, it is older than %s",
+                                event.entry.getSite(), event.attempts, maxAge));
+                acknowledge(event.id);
+                continue;
+            }
+
+            try {
+                delivery.deliver(event.entry);
+                acknowledge(event.id);
+                log.info(
+                        String.format(
+                                "Delivered event for %s from the outbox after %d attempts",
+                                event.entry.getSite(), event.attempts + 1));
+            } catch (BadRequestException e) {
+                log.warn(
+                        String.format(
+                                "Dropping event for %s from the outbox, it was rejected: %s",
+                                event.entry.getSite(), e.getMessage()));
+                acknowledge(event.id);
+            } catch (ApiUpdateFailedException e) {
+                log.info(
+                        String.format(
+                                "Failed to deliver event for %s from the outbox, will retry: %s",
+                                event.entry.getSite(), e.getMessage()));
+                retryLater(event.id);
+            }
+        }
+    }
+
+    /** Number of events that haven't been delivered yet, including the ones being sent */
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /** Number of events dropped because a newer event about the same build or deployment arrived */
+    public long getCoalescedCount() {
+        return coalescedCount.get();
+    }
+
+    private void forget(final long id) {
+        final PendingEvent event = pending.remove(id);
+        if (event != null) {
+            event.latestEventKey().ifPresent(key -> latestEvents.remove(key, id));
+        }
+    }
+
+    private void supersedeOlderEvent(final PendingEvent event) {
+        final Optional<String> key = event.latestEventKey();
+        if (!key.isPresent()) {
+            return;
+        }
+
+        final Long olderId = latestEvents.put(key.get(), event.id);
+        final PendingEvent older = olderId == null ? null : pending.get(olderId);
+        if (older == null) {
+            return;
+        }
+
+        older.superseded = true;
+        // if it's being sent right now, it's dropped once the sender reports back
+        if (older.claim(clock.getAsLong())) {
+            coalesce(older);
+        }
+    }
+
+    private void coalesce(final PendingEvent event) {
+        log.debug(
+                String.format(
+                        "Dropping event %d for %s from the outbox, a newer event superseded it",
+                        event.id, event.entry.getSite()));
+        coalescedCount.incrementAndGet();
+        acknowledge(event.id);
+    }
+
+    @CheckForNull
+    private EventJournal openJournal(
+            final Path directory, final long segmentSize, final long maxSize) {
+        try {
+            final EventJournal eventJournal =
+                    new EventJournal(directory, segmentSize, maxSize, this::forget);
+            for (final Map.Entry<Long, byte[]> recovered : eventJournal.getRecovered().entrySet()) {
+                recover(eventJournal, recovered.getKey(), recovered.getValue());
+            }
+            // the journal isn't assigned yet, superseded events are acknowledged on first drain
+            pending.values().forEach(this::markSupersededOnRecovery);
+            eventJournal.getRecovered().clear();
+            if (!pending.isEmpty()) {
+                log.info(String.format("Recovered %d undelivered events from the outbox", pending.size()));
+            }
+            return eventJournal;
+        } catch (IOException e) {
+            log.error("Failed to open the event outbox in " + directory + ", events won't be retried", e);
+            return null;
+        }
+    }
+
+    private void recover(final EventJournal eventJournal, final long id, final byte[] payload)
+            throws IOException {
+        try {
+            pending.put(id, new PendingEvent(id, objectMapper.readValue(payload, OutboxEntry.class)));
+        } catch (IOException e) {
+            log.warn("Dropping unreadable event " + id + " from the outbox", e);
+            eventJournal.acknowledge(id);
+        }
+    }
+
+    private void markSupersededOnRecovery(final PendingEvent event) {
+        event.latestEventKey()
+                .map(key -> latestEvents.put(key, event.id))
+                .map(pending::get)
+                .ifPresent(older -> older.superseded = true);
+    }
+
+    private static long backoff(final int attempts) {
+        final long backoff = INITIAL_BACKOFF.toMillis() << Math.min(attempts - 1, 20);
+        return Math.min(backoff, MAX_BACKOFF.toMillis());
+    }
+
+    private static final class PendingEvent {
+        private final long id;
+        private final OutboxEntry entry;
+        // 0 when nobody is sending the event
+        private final AtomicLong inFlightSince = new AtomicLong();
+        private volatile int attempts;
+        private volatile long nextAttemptAt;
+        private volatile boolean superseded;
+
+        PendingEvent(final long id, final OutboxEntry entry) {
+            this.id = id;
+            this.entry = entry;
+        }
+
+        Optional<String> latestEventKey() {
+            return Optional.ofNullable(entry.getEventKey())
+                    .map(key -> entry.getWebhookUrl() + '\n' + key);
+        }
+
+        boolean claim(final long now) {
+            final long since = inFlightSince.get();
+            if (since != 0 && now - since < IN_FLIGHT_TIMEOUT.toMillis()) {
+                return false;
+            }
+            return inFlightSince.compareAndSet(since, now);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.atlassian.jira.cloud.jenkins.common.outbox;
+
+import com.atlassian.jira.cloud.jenkins.provider.HttpClientProvider;
+import com.atlassian.jira.cloud.jenkins.provider.ObjectMapperProvider;
+import com.atlassian.jira.cloud.jenkins.util.SecretRetriever;
+import hudson.Extension;
+import hudson.model.AsyncPeriodicWork;
+import hudson.model.TaskListener;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically delivers the events waiting in the {@link EventOutbox}. The first run after a
+ * restart also replays the events that were not delivered before Jenkins stopped.
+ */
+@Extension
+public class EventOutboxDrainer extends AsyncPeriodicWork {
+
+    private OutboxDelivery delivery;
+
+    public EventOutboxDrainer() {
+        super("Atlassian Jira Cloud event outbox");
+    }
+
+    @Override
+    public long getRecurrencePeriod() {
+        return TimeUnit.SECONDS.toMillis(15);
+    }
+
+    @Override
+    protected void execute(final TaskListener listener) {
+        if (delivery == null) {
+            delivery =
+                    new OutboxApi(
+                            new HttpClientProvider().httpClient(),
+                            new ObjectMapperProvider().objectMapper(),
+                            new SecretRetriever());
+        }
+        EventOutbox.get().drain(delivery);
+    }
+}
@@ -0,0 +1,48 @@
+package com.atlassian.jira.cloud.jenkins.common.outbox;
+
+import com.atlassian.jira.cloud.jenkins.common.client.ApiUpdateFailedException;
+import com.atlassian.jira.cloud.jenkins.common.client.BadRequestException;
+import com.atlassian.jira.cloud.jenkins.common.client.JenkinsAppApi;
+import com.atlassian.jira.cloud.jenkins.logging.PipelineLogger;
+import com.atlassian.jira.cloud.jenkins.util.SecretRetriever;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import okhttp3.OkHttpClient;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Delivers outbox entries to the Jenkins app in Jira. The request has been serialized when the
+ * entry was written, so it is sent as is and the response is only checked for errors.
+ */
+public class OutboxApi extends JenkinsAppApi<JsonNode> implements OutboxDelivery {
+
+    private final SecretRetriever secretRetriever;
+
+    public OutboxApi(
+            final OkHttpClient httpClient,
+            final ObjectMapper objectMapper,
+            final SecretRetriever secretRetriever) {
+        super(httpClient, objectMapper);
+        this.secretRetriever = requireNonNull(secretRetriever);
+    }
+
+    @Override
+    public void deliver(final OutboxEntry entry) throws ApiUpdateFailedException {
+        final String secret =
+                secretRetriever
+                        .getSecretFor(entry.getCredentialsId())
+                        .orElseThrow(
+                                () ->
+                                        new BadRequestException(
+                                                "Secret not found for credentials "
+                                                        + entry.getCredentialsId()));
+
+        this.sendJsonAsJwt(
+                entry.getWebhookUrl(),
+                secret,
+                entry.getRequestJson(),
+                JsonNode.class,
+                PipelineLogger.noopInstance());
+    }
+}
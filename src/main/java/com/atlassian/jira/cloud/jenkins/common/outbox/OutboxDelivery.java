@@ -0,0 +1,14 @@
+package com.atlassian.jira.cloud.jenkins.common.outbox;
+
+import com.atlassian.jira.cloud.jenkins.common.client.ApiUpdateFailedException;
+import com.atlassian.jira.cloud.jenkins.common.client.BadRequestException;
+
+/** Sends an outbox entry to Jira. */
+public interface OutboxDelivery {
+
+    /**
+     * @throws BadRequestException if the event can never be delivered, it is dropped
+     * @throws ApiUpdateFailedException if delivery failed but may succeed later, it is retried
+     */
+    void deliver(OutboxEntry entry) throws ApiUpdateFailedException;
+}
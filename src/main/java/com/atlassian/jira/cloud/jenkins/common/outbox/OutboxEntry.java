@@ -0,0 +1,66 @@
+package com.atlassian.jira.cloud.jenkins.common.outbox;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import javax.annotation.CheckForNull;
+
+/**
+ * An event waiting in the {@link EventOutbox}. Only the credentials ID is stored, the secret is
+ * looked up again when the event is delivered so that it never ends up on disk.
+ */
+public class OutboxEntry {
+    private final String site;
+    private final String webhookUrl;
+    private final String credentialsId;
+    @CheckForNull private final String eventKey;
+    private final String requestJson;
+    private final long createdAt;
+
+    @JsonCreator
+    public OutboxEntry(
+            @JsonProperty("site") final String site,
+            @JsonProperty("webhookUrl") final String webhookUrl,
+            @JsonProperty("credentialsId") final String credentialsId,
+            @JsonProperty("eventKey") @CheckForNull final String eventKey,
+            @JsonProperty("requestJson") final String requestJson,
+            @JsonProperty("createdAt") final long createdAt) {
+        this.site = site;
+        this.webhookUrl = webhookUrl;
+        this.credentialsId = credentialsId;
+        this.eventKey = eventKey;
+        this.requestJson = requestJson;
+        this.createdAt = createdAt;
+    }
+
+    public String getSite() {
+        return site;
+    }
+
+    public String getWebhookUrl() {
+        return webhookUrl;
+    }
+
+    public String getCredentialsId() {
+        return credentialsId;
+    }
+
+    /**
+     * Identifies the build or deployment the event is about, a newer event with the same key
+     * supersedes this one. Missing in entries written by older versions of the plugin.
+     */
+    @CheckForNull
+    public String getEventKey() {
+        return eventKey;
+    }
+
+    /** The serialized request as it is sent to the Jenkins app in Jira */
+    public String getRequestJson() {
+        return requestJson;
+    }
+
+    /** Epoch millis */
+    public long getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -0,0 +1,157 @@
+package com.atlassian.jira.cloud.jenkins.common.pipeline;
+
+import com.atlassian.jira.cloud.jenkins.provider.CancellableCalls;
+import com.atlassian.jira.cloud.jenkins.provider.Futures;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import jenkins.model.Jenkins;
+import jenkins.util.SystemProperties;
+import org.acegisecurity.Authentication;
+import org.jenkinsci.plugins.workflow.steps.StepContext;
+import org.jenkinsci.plugins.workflow.steps.StepExecution;
+
+import javax.annotation.CheckForNull;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Execution of a step that calls Jira, without holding a thread while the step waits for Jira.
+ *
+ * <p>{@link #run()} is called on a small pool of threads shared by all steps. It only prepares the
+ * requests and hands them over to OkHttp, the thread is free again before Jira has answered. The
+ * step returns right away and its context is completed from a callback once the future of {@link
+ * #run()} is completed. Stopping the step (e.g. when the build is aborted) completes it right away,
+ * cancels the HTTP requests it has in flight (see {@link CancellableCalls}) and interrupts {@link
+ * #run()} if it is still preparing them.
+ *
+ * @param <T> the return value of the step
+ */
+public abstract class AsyncStepExecution<T> extends StepExecution {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final ExecutorService executor =
+            newExecutor(
+                    SystemProperties.getInteger(AsyncStepExecution.class.getName() + ".threads", 8));
+
+    // not kept across restarts, a step that was running then fails in onResume
+    @CheckForNull private transient volatile CompletableFuture<T> result;
+    @CheckForNull private transient volatile CancellableCalls calls;
+    @CheckForNull private transient volatile Future<?> task;
+
+    protected AsyncStepExecution(final StepContext context) {
+        super(context);
+    }
+
+    /**
+     * Starts the work of the step, the returned future completes the step. Requests sent from
+     * here are cancelled when the step is stopped.
+     */
+    protected abstract CompletableFuture<T> run() throws Exception;
+
+    @Override
+    public boolean start() throws Exception {
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        final CancellableCalls calls = new CancellableCalls();
+        result.whenComplete(
+                (value, error) -> {
+                    if (error == null) {
+                        getContext().onSuccess(value);
+                    } else {
+                        getContext().onFailure(error);
+                    }
+                });
+        this.result = result;
+        this.calls = calls;
+        this.task = submit(this::run, calls, result);
+        return false;
+    }
+
+    @Override
+    public void stop(final Throwable cause) {
+        final CompletableFuture<T> result = this.result;
+        if (result == null) {
+            getContext().onFailure(cause);
+            return;
+        }
+
+        // the step is done now, whatever the cancelled requests do
+        result.completeExceptionally(cause);
+        final CancellableCalls calls = this.calls;
+        if (calls != null) {
+            calls.cancel();
+        }
+        final Future<?> task = this.task;
+        if (task != null) {
+            task.cancel(true);
+        }
+    }
+
+    @Override
+    public void onResume() {
+        // events that were in flight when Jenkins stopped are still delivered from the outbox
+        getContext()
+                .onFailure(
+                        new Exception(
+                                "Resume after a restart not supported for steps sending to Jira"));
+    }
+
+    @Override
+    public String getStatus() {
+        final CompletableFuture<T> result = this.result;
+        if (result == null) {
+            return "not running";
+        }
+        return result.isDone() ? "completed" : "waiting for Jira";
+    }
+
+    /**
+     * Starts the task on the pool of the steps, as the current user and in the given scope. For
+     * executions that call Jira more than once, e.g. polling.
+     *
+     * @param result completed with the outcome of the future returned by the task
+     */
+    public static <T> Future<?> submit(
+            final Callable<CompletableFuture<T>> task,
+            final CancellableCalls calls,
+            final CompletableFuture<T> result) {
+        final Authentication authentication = Jenkins.getAuthentication();
+        return executor.submit(
+                () -> {
+                    try (ACLContext ignored = ACL.as(authentication)) {
+                        calls.call(task)
+                                .whenComplete(
+                                        (value, error) -> {
+                                            if (error == null) {
+                                                result.complete(value);
+                                            } else {
+                                                result.completeExceptionally(
+                                                        Futures.causeOf(error));
+                                            }
+                                        });
+                    } catch (Throwable t) {
+                        result.completeExceptionally(t);
+                    }
+                });
+    }
+
+    private static ExecutorService newExecutor(final int threads) {
+        final ThreadPoolExecutor threadPoolExecutor =
+                new ThreadPoolExecutor(
+                        threads,
+                        threads,
+                        60L,
+                        TimeUnit.SECONDS,
+                        new LinkedBlockingQueue<>(),
+                        new NamingThreadFactory(new DaemonThreadFactory(), "Jira Cloud step"));
+        threadPoolExecutor.allowCoreThreadTimeOut(true);
+        return threadPoolExecutor;
+    }
+}
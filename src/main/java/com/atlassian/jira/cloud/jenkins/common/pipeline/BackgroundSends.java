@@ -0,0 +1,246 @@
+package com.atlassian.jira.cloud.jenkins.common.pipeline;
+
+import com.atlassian.jira.cloud.jenkins.Messages;
+import com.atlassian.jira.cloud.jenkins.common.response.JiraCommonResponse;
+import com.atlassian.jira.cloud.jenkins.common.response.JiraSendInfoResponse;
+import com.atlassian.jira.cloud.jenkins.logging.PipelineLogger;
+import com.atlassian.jira.cloud.jenkins.provider.CancellableCalls;
+import com.atlassian.jira.cloud.jenkins.provider.Futures;
+import com.google.common.annotations.VisibleForTesting;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+
+import javax.annotation.Nullable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * The sends of steps running with {@code async: true}, keyed by the URL of their run (see {@link
+ * hudson.model.Run#getUrl()}).
+ *
+ * <p>The responses of a run's sends are collected by {@code jiraAwaitSends} (see {@link
+ * #awaitAll}). Sends still going when the run completes are waited for a while by {@link #flush},
+ * so their results make it into the build log.
+ */
+public class BackgroundSends {
+
+    private static final BackgroundSends instance = new BackgroundSends();
+
+    private final Map<String, RunSends> runUrlToSends = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService timer;
+
+    @VisibleForTesting
+    BackgroundSends() {
+        final ScheduledThreadPoolExecutor timer =
+                new ScheduledThreadPoolExecutor(
+                        1,
+                        new NamingThreadFactory(
+                                new DaemonThreadFactory(), "Jira Cloud background send timeout"));
+        timer.setRemoveOnCancelPolicy(true);
+        this.timer = timer;
+    }
+
+    public static BackgroundSends get() {
+        return instance;
+    }
+
+    /**
+     * Starts a send of the given run on the pool of the steps.
+     *
+     * @param functionName the step sending, to tell the sends apart in the build log
+     * @param jiraSite the site the step sends to, null for all sites
+     * @return the handle of the send, e.g. {@code jiraSendBuildInfo#2}
+     */
+    public String submit(
+            final String runUrl,
+            final String functionName,
+            @Nullable final String jiraSite,
+            final Callable<CompletableFuture<List<JiraSendInfoResponse>>> send) {
+        final RunSends runSends = runUrlToSends.computeIfAbsent(runUrl, url -> new RunSends());
+        final Send pending =
+                new Send(
+                        functionName + "#" + runSends.counter.incrementAndGet(),
+                        jiraSite == null ? "all sites" : jiraSite);
+        runSends.add(pending);
+        AsyncStepExecution.submit(send, new CancellableCalls(), pending.result);
+        return pending.handle;
+    }
+
+    /**
+     * The responses of all sends of the run that haven't been awaited before, in the order the
+     * sends were started.
+     *
+     * @param timeout sends that haven't completed by then are reported as timed out, they carry on
+     *     in the background and are awaited again by the next call or by {@link #flush}. So are
+     *     all sends if the returned future is cancelled.
+     */
+    public CompletableFuture<List<JiraSendInfoResponse>> awaitAll(
+            final String runUrl, final Duration timeout) {
+        final List<Send> sends = drain(runUrl);
+        final CompletableFuture<List<JiraSendInfoResponse>> responses = new CompletableFuture<>();
+        if (sends.isEmpty()) {
+            responses.complete(new ArrayList<>());
+            return responses;
+        }
+
+        final CompletableFuture<?>[] results =
+                sends.stream().map(send -> send.result).toArray(CompletableFuture[]::new);
+        final ScheduledFuture<?> timeoutTask =
+                timer.schedule(
+                        () -> complete(runUrl, sends, responses),
+                        timeout.toMillis(),
+                        TimeUnit.MILLISECONDS);
+        CompletableFuture.allOf(results)
+                .whenComplete(
+                        (ignored, error) -> {
+                            timeoutTask.cancel(false);
+                            complete(runUrl, sends, responses);
+                        });
+        responses.whenComplete(
+                (ignored, error) -> {
+                    if (responses.isCancelled()) {
+                        timeoutTask.cancel(false);
+                        putBack(runUrl, sends);
+                    }
+                });
+        return responses;
+    }
+
+    /**
+     * Waits for the sends still going when the run completes, reports the failed ones in the build
+     * log and forgets about the run.
+     */
+    public void flush(final String runUrl, final Duration timeout, final PipelineLogger logger) {
+        final List<Send> sends = drain(runUrl);
+        runUrlToSends.remove(runUrl);
+        if (sends.isEmpty()) {
+            return;
+        }
+
+        final CompletableFuture<?>[] results =
+                sends.stream().map(send -> send.result).toArray(CompletableFuture[]::new);
+        try {
+            CompletableFuture.allOf(results).get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            final long outstanding = sends.stream().filter(send -> !send.result.isDone()).count();
+            logger.warn(
+                    String.format(
+                            "%d sends to Jira have not completed yet, not waiting any longer",
+                            outstanding));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // the failed sends are reported below
+        }
+
+        for (Send send : sends) {
+            if (send.result.isCompletedExceptionally()) {
+                send.result.whenComplete(
+                        (ignored, error) ->
+                                logger.warn(
+                                        Messages.BackgroundSends_FAILURE_ERROR(
+                                                send.handle,
+                                                Futures.causeOf(error).getMessage())));
+            }
+        }
+    }
+
+    private List<Send> drain(final String runUrl) {
+        final RunSends runSends = runUrlToSends.get(runUrl);
+        return runSends == null ? new ArrayList<>() : runSends.drain();
+    }
+
+    /** Sends reported as timed out are kept, their outcome is still to be reported */
+    private void complete(
+            final String runUrl,
+            final List<Send> sends,
+            final CompletableFuture<List<JiraSendInfoResponse>> responses) {
+        final List<Send> late =
+                sends.stream().filter(send -> !send.result.isDone()).collect(Collectors.toList());
+        if (responses.complete(collect(sends, late))) {
+            putBack(runUrl, late);
+        }
+    }
+
+    /** Nothing is kept once the run has been flushed */
+    private void putBack(final String runUrl, final List<Send> sends) {
+        final RunSends runSends = runUrlToSends.get(runUrl);
+        if (runSends != null && !sends.isEmpty()) {
+            runSends.putBack(sends);
+        }
+    }
+
+    private static List<JiraSendInfoResponse> collect(
+            final List<Send> sends, final List<Send> late) {
+        final List<JiraSendInfoResponse> responses = new ArrayList<>();
+        for (Send send : sends) {
+            if (late.contains(send)) {
+                responses.add(
+                        new JiraCommonResponse(
+                                send.jiraSite,
+                                JiraSendInfoResponse.Status.FAILURE_TIMEOUT,
+                                Messages.BackgroundSends_FAILURE_TIMEOUT(send.handle)));
+                continue;
+            }
+            try {
+                responses.addAll(send.result.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                responses.add(
+                        new JiraCommonResponse(
+                                send.jiraSite,
+                                JiraSendInfoResponse.Status.FAILURE_UNEXPECTED_RESPONSE,
+                                Messages.BackgroundSends_FAILURE_ERROR(
+                                        send.handle, e.getCause().getMessage())));
+            }
+        }
+        return responses;
+    }
+
+    /** The sends of one run that haven't been awaited yet */
+    private static final class RunSends {
+        private final AtomicInteger counter = new AtomicInteger();
+        private final List<Send> sends = new ArrayList<>();
+
+        synchronized void add(final Send send) {
+            sends.add(send);
+        }
+
+        /** Ahead of the sends started since, they were started first */
+        synchronized void putBack(final List<Send> earlier) {
+            sends.addAll(0, earlier);
+        }
+
+        synchronized List<Send> drain() {
+            final List<Send> drained = new ArrayList<>(sends);
+            sends.clear();
+            return drained;
+        }
+    }
+
+    private static final class Send {
+        private final String handle;
+        private final String jiraSite;
+        private final CompletableFuture<List<JiraSendInfoResponse>> result =
+                new CompletableFuture<>();
+
+        Send(final String handle, final String jiraSite) {
+            this.handle = handle;
+            this.jiraSite = jiraSite;
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.atlassian.jira.cloud.jenkins.common.pipeline;
+
+import com.atlassian.jira.cloud.jenkins.Messages;
+import com.atlassian.jira.cloud.jenkins.common.response.JiraSendInfoResponse;
+import com.atlassian.jira.cloud.jenkins.config.JiraCloudPluginConfig;
+import com.atlassian.jira.cloud.jenkins.logging.PipelineLogger;
+import com.google.common.collect.ImmutableSet;
+import hudson.AbortException;
+import hudson.Extension;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import org.jenkinsci.plugins.workflow.steps.Step;
+import org.jenkinsci.plugins.workflow.steps.StepContext;
+import org.jenkinsci.plugins.workflow.steps.StepDescriptor;
+import org.jenkinsci.plugins.workflow.steps.StepExecution;
+import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import java.io.Serializable;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Implementation of the "jiraAwaitSends" step that waits for the build and deployment information
+ * the run has sent with {@code async: true}, and returns the responses from Jira.
+ */
+public class JiraAwaitSendsStep extends Step implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final int DEFAULT_TIMEOUT_SECONDS = 120;
+
+    private Integer timeoutSeconds;
+
+    @DataBoundConstructor
+    public JiraAwaitSendsStep() {
+        // Empty constructor
+    }
+
+    @Nullable
+    public Integer getTimeoutSeconds() {
+        return timeoutSeconds;
+    }
+
+    @DataBoundSetter
+    public void setTimeoutSeconds(final Integer timeoutSeconds) {
+        this.timeoutSeconds = timeoutSeconds;
+    }
+
+    @Override
+    public StepExecution start(final StepContext stepContext) {
+        return new JiraAwaitSendsStepExecution(stepContext, this);
+    }
+
+    @Extension
+    public static class DescriptorImpl extends StepDescriptor {
+
+        @Override
+        public Set<Class<?>> getRequiredContext() {
+            return ImmutableSet.of(TaskListener.class, Run.class);
+        }
+
+        @Override
+        public String getFunctionName() {
+            return "jiraAwaitSends";
+        }
+
+        @Override
+        public String getDisplayName() {
+            return Messages.JiraAwaitSendsStep_DescriptorImpl_DisplayName();
+        }
+    }
+
+    /**
+     * Waits without holding a thread, the context is completed once all sends are done. The sends
+     * are only kept in memory, a step that was waiting when Jenkins stopped fails in onResume.
+     */
+    public static class JiraAwaitSendsStepExecution extends StepExecution {
+
+        private static final long serialVersionUID = 1L;
+
+        private final JiraAwaitSendsStep step;
+
+        // not kept across restarts. Set once the step has been completed or stopped, the context
+        // is only completed once.
+        private transient volatile boolean finished;
+        @CheckForNull private transient volatile CompletableFuture<?> responses;
+
+        public JiraAwaitSendsStepExecution(
+                final StepContext context, final JiraAwaitSendsStep step) {
+            super(context);
+            this.step = step;
+        }
+
+        @Override
+        public boolean start() throws Exception {
+            final TaskListener taskListener = getContext().get(TaskListener.class);
+            final Run<?, ?> run = getContext().get(Run.class);
+            final PipelineLogger pipelineLogger =
+                    new PipelineLogger(
+                            taskListener.getLogger(),
+                            JiraCloudPluginConfig.isDebugLoggingEnabled());
+            final Duration timeout =
+                    Duration.ofSeconds(
+                            Optional.ofNullable(step.getTimeoutSeconds())
+                                    .orElse(DEFAULT_TIMEOUT_SECONDS));
+
+            final CompletableFuture<List<JiraSendInfoResponse>> responses =
+                    BackgroundSends.get().awaitAll(run.getUrl(), timeout);
+            this.responses = responses;
+            responses.whenComplete(
+                    (value, error) -> {
+                        if (!finish()) {
+                            return;
+                        }
+                        if (error != null) {
+                            getContext().onFailure(error);
+                            return;
+                        }
+                        value.forEach(response -> logResult(pipelineLogger, response));
+                        getContext().onSuccess(value);
+                    });
+            return false;
+        }
+
+        @Override
+        public void stop(final Throwable cause) {
+            if (!finish()) {
+                return;
+            }
+            // the sends carry on in the background, they are awaited again by the next
+            // jiraAwaitSends or when the run completes
+            final CompletableFuture<?> responses = this.responses;
+            if (responses != null) {
+                responses.cancel(false);
+            }
+            getContext().onFailure(cause);
+        }
+
+        @Override
+        public void onResume() {
+            if (finish()) {
+                getContext()
+                        .onFailure(
+                                new AbortException(
+                                        "Background sends to Jira don't survive a restart, "
+                                                + "there is nothing left to await"));
+            }
+        }
+
+        private synchronized boolean finish() {
+            if (finished) {
+                return false;
+            }
+            finished = true;
+            return true;
+        }
+
+        private void logResult(
+                final PipelineLogger pipelineLogger, final JiraSendInfoResponse response) {
+            pipelineLogger.info(
+                    "jiraAwaitSends("
+                            + response.getJiraSite()
+                            + "): "
+                            + response.getStatus()
+                            + ": "
+                            + response.getMessage());
+        }
+    }
+}
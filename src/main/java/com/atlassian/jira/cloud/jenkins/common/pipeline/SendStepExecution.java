@@ -0,0 +1,74 @@
+package com.atlassian.jira.cloud.jenkins.common.pipeline;
+
+import com.atlassian.jira.cloud.jenkins.common.response.JiraSendInfoResponse;
+import com.atlassian.jira.cloud.jenkins.config.JiraCloudPluginConfig;
+import com.atlassian.jira.cloud.jenkins.logging.PipelineLogger;
+import hudson.model.TaskListener;
+import org.jenkinsci.plugins.workflow.job.WorkflowRun;
+import org.jenkinsci.plugins.workflow.steps.StepContext;
+
+import javax.annotation.Nullable;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Execution of a step sending build or deployment information to Jira.
+ *
+ * <p>With {@code async: true} the step doesn't wait for Jira at all: the send is handed over to
+ * {@link BackgroundSends} and the step returns the handle of the send right away. The responses
+ * are collected by {@code jiraAwaitSends}. The run and the build log are looked up before the step
+ * completes, as the context of a completed step doesn't give them out any more.
+ */
+public abstract class SendStepExecution extends AsyncStepExecution<List<JiraSendInfoResponse>> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String functionName;
+    @Nullable private final String jiraSite;
+    private final boolean async;
+
+    protected SendStepExecution(
+            final StepContext context,
+            final String functionName,
+            @Nullable final String jiraSite,
+            final boolean async) {
+        super(context);
+        this.functionName = functionName;
+        this.jiraSite = jiraSite;
+        this.async = async;
+    }
+
+    /** Starts the send of the step, the returned future completes once Jira has answered */
+    protected abstract CompletableFuture<List<JiraSendInfoResponse>> send(
+            WorkflowRun workflowRun, PipelineLogger pipelineLogger) throws Exception;
+
+    @Override
+    public boolean start() throws Exception {
+        if (!async) {
+            return super.start();
+        }
+
+        final WorkflowRun workflowRun = getContext().get(WorkflowRun.class);
+        final PipelineLogger pipelineLogger = pipelineLogger();
+        final String handle =
+                BackgroundSends.get()
+                        .submit(
+                                workflowRun.getUrl(),
+                                functionName,
+                                jiraSite,
+                                () -> send(workflowRun, pipelineLogger));
+        getContext().onSuccess(handle);
+        return true;
+    }
+
+    @Override
+    protected CompletableFuture<List<JiraSendInfoResponse>> run() throws Exception {
+        return send(getContext().get(WorkflowRun.class), pipelineLogger());
+    }
+
+    private PipelineLogger pipelineLogger() throws Exception {
+        final TaskListener taskListener = getContext().get(TaskListener.class);
+        return new PipelineLogger(
+                taskListener.getLogger(), JiraCloudPluginConfig.isDebugLoggingEnabled());
+    }
+}
@@ -27,4 +27,9 @@ public class JiraCommonResponse extends JiraSendInfoResponse {
         final String message = Messages.JiraCommonResponse_FAILURE_SITE_NOT_FOUND(jiraSite);
         return new JiraCommonResponse(jiraSite, Status.FAILURE_SITE_NOT_FOUND, message);
     }
+
+    public static JiraCommonResponse failureTimeout(final String jiraSite) {
+        final String message = Messages.JiraCommonResponse_FAILURE_TIMEOUT(jiraSite);
+        return new JiraCommonResponse(jiraSite, Status.FAILURE_TIMEOUT, message);
+    }
 }
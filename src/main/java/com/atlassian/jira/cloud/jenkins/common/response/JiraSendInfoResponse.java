@@ -27,6 +27,8 @@ public abstract class JiraSendInfoResponse implements Serializable {
         FAILURE_ENVIRONMENT_INVALID(true),
         FAILURE_STATE_INVALID(true),
         FAILURE_GATE_CHECK(true),
+        FAILURE_GATE_CHECK_DEPLOYMENT_NOT_FOUND(true),
+        FAILURE_TIMEOUT(true),
         SKIPPED_ISSUE_KEYS_NOT_FOUND,
         SKIPPED_ISSUE_KEYS_NOT_FOUND_AND_SERVICE_IDS_ARE_EMPTY;
 
@@ -0,0 +1,225 @@
+package com.atlassian.jira.cloud.jenkins.common.service;
+
+import com.atlassian.jira.cloud.jenkins.common.response.JiraCommonResponse;
+import com.atlassian.jira.cloud.jenkins.common.response.JiraSendInfoResponse;
+import com.atlassian.jira.cloud.jenkins.provider.CancellableCalls;
+import com.atlassian.jira.cloud.jenkins.provider.Futures;
+import com.google.common.annotations.VisibleForTesting;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import jenkins.model.Jenkins;
+import jenkins.util.SystemProperties;
+import org.acegisecurity.Authentication;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Sends the same event to several Jira sites at once.
+ *
+ * <p>The requests to all sites are started right away and complete in the background, so a step
+ * waits for the slowest site instead of the sum of all of them, without holding a thread per
+ * site. Sites that haven't answered when the deadline is reached get a timeout response; their
+ * request carries on in the background and failures are retried from the outbox like any other
+ * failed send.
+ *
+ * <p>With more than one site, the request to each site is prepared (e.g. resolving the cloud ID of
+ * the site and writing the event to the outbox) on a small pool of threads, so a site that is slow
+ * to prepare doesn't hold up the others. The requests still join the {@link CancellableCalls} of
+ * the caller.
+ */
+public class JiraSiteFanOut {
+
+    private static final Logger log = LoggerFactory.getLogger(JiraSiteFanOut.class);
+
+    private static final String PROPERTY_PREFIX = JiraSiteFanOut.class.getName();
+
+    private static final JiraSiteFanOut instance =
+            new JiraSiteFanOut(
+                    Duration.ofSeconds(
+                            SystemProperties.getLong(PROPERTY_PREFIX + ".timeoutSeconds", 120L)));
+
+    private static final ScheduledThreadPoolExecutor timer = newTimer();
+
+    private static final ExecutorService preparers =
+            newPreparers(SystemProperties.getInteger(PROPERTY_PREFIX + ".threads", 4));
+
+    private final Duration timeout;
+
+    @VisibleForTesting
+    JiraSiteFanOut(final Duration timeout) {
+        this.timeout = timeout;
+    }
+
+    public static JiraSiteFanOut get() {
+        return instance;
+    }
+
+    /**
+     * Calls {@code send} for every site, each call starts the request to its site. A single site
+     * is called on the calling thread and has no deadline, several sites are called in parallel
+     * and only given until the deadline.
+     *
+     * @return one response per site, in the order of {@code jiraSites}. Fails if any of the sites
+     *     failed in an unexpected way.
+     */
+    public CompletableFuture<List<JiraSendInfoResponse>> sendToAllAsync(
+            final List<String> jiraSites,
+            final Function<String, CompletableFuture<JiraSendInfoResponse>> send) {
+        final List<CompletableFuture<JiraSendInfoResponse>> futures = new ArrayList<>();
+        if (jiraSites.size() <= 1) {
+            jiraSites.forEach(jiraSite -> futures.add(start(jiraSite, send)));
+        } else {
+            final Optional<CancellableCalls> scope = CancellableCalls.current();
+            final Authentication authentication = Jenkins.getAuthentication();
+            for (final String jiraSite : jiraSites) {
+                futures.add(
+                        withDeadline(
+                                jiraSite,
+                                startInBackground(jiraSite, send, scope, authentication)));
+            }
+        }
+
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+                .thenApply(
+                        ignored ->
+                                futures.stream()
+                                        .map(CompletableFuture::join)
+                                        .collect(Collectors.toList()));
+    }
+
+    /**
+     * Waits for the responses of {@link #sendToAllAsync}, for callers that aren't steps and have a
+     * thread to spare. An unexpected failure is rethrown as if the site had been called on the
+     * calling thread.
+     */
+    public static List<JiraSendInfoResponse> await(
+            final CompletableFuture<List<JiraSendInfoResponse>> responses) {
+        try {
+            return responses.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for Jira", e);
+        } catch (ExecutionException e) {
+            final Throwable cause = Futures.causeOf(e.getCause());
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    private static CompletableFuture<JiraSendInfoResponse> start(
+            final String jiraSite,
+            final Function<String, CompletableFuture<JiraSendInfoResponse>> send) {
+        try {
+            return send.apply(jiraSite);
+        } catch (RuntimeException e) {
+            final CompletableFuture<JiraSendInfoResponse> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            return failed;
+        }
+    }
+
+    /** Calls {@code send} on the pool, as the given user and in the given scope */
+    private static CompletableFuture<JiraSendInfoResponse> startInBackground(
+            final String jiraSite,
+            final Function<String, CompletableFuture<JiraSendInfoResponse>> send,
+            final Optional<CancellableCalls> scope,
+            final Authentication authentication) {
+        final CompletableFuture<JiraSendInfoResponse> result = new CompletableFuture<>();
+        try {
+            preparers.execute(
+                    () -> {
+                        try (ACLContext ignored = ACL.as(authentication)) {
+                            final CompletableFuture<JiraSendInfoResponse> response =
+                                    scope.isPresent()
+                                            ? scope.get().call(() -> start(jiraSite, send))
+                                            : start(jiraSite, send);
+                            response.whenComplete(
+                                    (value, error) -> {
+                                        if (error == null) {
+                                            result.complete(value);
+                                        } else {
+                                            result.completeExceptionally(Futures.causeOf(error));
+                                        }
+                                    });
+                        } catch (Throwable t) {
+                            result.completeExceptionally(t);
+                        }
+                    });
+        } catch (RuntimeException e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    private CompletableFuture<JiraSendInfoResponse> withDeadline(
+            final String jiraSite, final CompletableFuture<JiraSendInfoResponse> response) {
+        final CompletableFuture<JiraSendInfoResponse> result = new CompletableFuture<>();
+        final ScheduledFuture<?> timeoutTask =
+                timer.schedule(
+                        () -> {
+                            if (result.complete(JiraCommonResponse.failureTimeout(jiraSite))) {
+                                log.warn(
+                                        "Jira site "
+                                                + jiraSite
+                                                + " did not respond before the deadline");
+                            }
+                        },
+                        timeout.toNanos(),
+                        TimeUnit.NANOSECONDS);
+        response.whenComplete(
+                (value, error) -> {
+                    timeoutTask.cancel(false);
+                    if (error == null) {
+                        result.complete(value);
+                    } else {
+                        result.completeExceptionally(Futures.causeOf(error));
+                    }
+                });
+        return result;
+    }
+
+    private static ExecutorService newPreparers(final int threads) {
+        final ThreadPoolExecutor threadPoolExecutor =
+                new ThreadPoolExecutor(
+                        threads,
+                        threads,
+                        60L,
+                        TimeUnit.SECONDS,
+                        new LinkedBlockingQueue<>(),
+                        new NamingThreadFactory(new DaemonThreadFactory(), "Jira Cloud site"));
+        threadPoolExecutor.allowCoreThreadTimeOut(true);
+        return threadPoolExecutor;
+    }
+
+    private static ScheduledThreadPoolExecutor newTimer() {
+        final ScheduledThreadPoolExecutor timer =
+                new ScheduledThreadPoolExecutor(
+                        1,
+                        new NamingThreadFactory(
+                                new DaemonThreadFactory(), "Jira Cloud site timeout"));
+        timer.setRemoveOnCancelPolicy(true);
+        return timer;
+    }
+}
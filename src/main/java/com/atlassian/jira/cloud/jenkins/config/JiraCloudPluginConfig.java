@@ -1,7 +1,10 @@
 package com.atlassian.jira.cloud.jenkins.config;
 
 import com.atlassian.jira.cloud.jenkins.Messages;
+import com.atlassian.jira.cloud.jenkins.provider.WebhookRateLimiters;
+import com.atlassian.jira.cloud.jenkins.tenantinfo.CloudIdCache;
 import hudson.Extension;
+import hudson.init.Terminator;
 import jenkins.model.GlobalConfiguration;
 import net.sf.json.JSONArray;
 import net.sf.json.JSONObject;
@@ -9,6 +12,7 @@ import org.kohsuke.stapler.StaplerRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -30,10 +34,19 @@ public class JiraCloudPluginConfig extends GlobalConfiguration {
 
     public static final String FIELD_NAME_DEBUG_LOGGING = "debugLogging";
 
+    public static final String FIELD_NAME_BUILD_BATCH_SIZE = "buildBatchSize";
+    public static final String FIELD_NAME_BUILD_BATCH_DELAY = "buildBatchDelayMillis";
+
+    static final int DEFAULT_BUILD_BATCH_SIZE = 1;
+    static final long DEFAULT_BUILD_BATCH_DELAY_MILLIS = 200;
+
     private static final Logger log = LoggerFactory.getLogger(JiraCloudPluginConfig.class);
 
     private static final String ATL_JSW_GLOBAL_CONFIGURATION_ID = "atl-jsw-global-configuration";
 
+    // the snapshot of the configuration Jenkins has loaded, null until it has been loaded
+    @CheckForNull private static volatile JiraCloudPluginConfigSnapshot published;
+
     private List<JiraCloudSiteConfig> sites = new ArrayList<>();
 
     private Boolean autoBuildsEnabled;
@@ -44,13 +57,23 @@ public class JiraCloudPluginConfig extends GlobalConfiguration {
     private Boolean autoDeploymentsEnabled;
     private String autoDeploymentsRegex = "^deploy to (?<envName>.*)$";
 
+    private Integer buildBatchSize;
+    private Long buildBatchDelayMillis;
+
+    // built from the fields above whenever they are loaded or changed
+    private transient volatile JiraCloudPluginConfigSnapshot snapshot =
+            JiraCloudPluginConfigSnapshot.EMPTY;
+    private final transient boolean global;
+
     public JiraCloudPluginConfig() {
+        this.global = true;
         getConfigFile().getXStream().alias("atl-jsw-site-configuration", JiraCloudSiteConfig.class);
         load();
     }
 
-    // Only for testing
+    // Only for testing, the snapshot of such a config is never published
     JiraCloudPluginConfig(final String testName) {
+        this.global = false;
         getConfigFile().getXStream().alias(testName, JiraCloudSiteConfig.class);
         load();
     }
@@ -60,18 +83,48 @@ public class JiraCloudPluginConfig extends GlobalConfiguration {
         return GlobalConfiguration.all().get(JiraCloudPluginConfig.class);
     }
 
-    public static boolean isDebugLoggingEnabled() {
-        JiraCloudPluginConfig config = get();
-        if (config == null) {
-            return false;
+    /**
+     * The current snapshot of the global configuration. Reading it doesn't look up anything in
+     * Jenkins once the configuration has been loaded.
+     */
+    public static JiraCloudPluginConfigSnapshot getSnapshot() {
+        final JiraCloudPluginConfigSnapshot current = published;
+        if (current != null) {
+            return current;
         }
-        return config.getDebugLogging();
+        final JiraCloudPluginConfig config = get();
+        return config == null ? JiraCloudPluginConfigSnapshot.EMPTY : config.snapshot;
+    }
+
+    /** The next Jenkins started in this JVM (e.g. by a test) loads its own configuration */
+    @Terminator
+    public static void unpublishSnapshot() {
+        published = null;
+    }
+
+    public static boolean isDebugLoggingEnabled() {
+        return getSnapshot().isDebugLogging();
+    }
+
+    public static int getConfiguredBuildBatchSize() {
+        return getSnapshot().getBuildBatchSize();
+    }
+
+    public static long getConfiguredBuildBatchDelayMillis() {
+        return getSnapshot().getBuildBatchDelayMillis();
+    }
+
+    @Override
+    public synchronized void load() {
+        super.load();
+        publish();
     }
 
     @Override
     public boolean configure(final StaplerRequest req, final JSONObject json) throws FormException {
         try {
-            setSites(Collections.emptyList());
+            // assigned directly, the previous snapshot stays in use if the form is invalid
+            this.sites = Collections.emptyList();
 
             if (json.containsKey(FIELD_NAME_SITES)) {
 
@@ -95,6 +148,10 @@ public class JiraCloudPluginConfig extends GlobalConfiguration {
                 this.autoBuildsRegex =
                         json.getJSONObject(FIELD_NAME_AUTO_BUILDS)
                                 .getString(FIELD_NAME_AUTO_BUILDS_REGEX);
+                validatePattern(
+                        StepPattern.compile(this.autoBuildsRegex),
+                        "Builds",
+                        FIELD_NAME_AUTO_BUILDS_REGEX);
             }
 
             this.autoDeploymentsEnabled = json.containsKey(FIELD_NAME_AUTO_DEPLOYMENTS);
@@ -108,12 +165,35 @@ public class JiraCloudPluginConfig extends GlobalConfiguration {
                             "Deployments RegEx must be provided!",
                             FIELD_NAME_AUTO_DEPLOYMENTS_REGEX);
                 }
+                validatePattern(
+                        StepPattern.compile(this.autoDeploymentsRegex),
+                        "Deployments",
+                        FIELD_NAME_AUTO_DEPLOYMENTS_REGEX);
             }
 
             if (json.containsKey(FIELD_NAME_DEBUG_LOGGING)) {
                 this.debugLogging = json.getBoolean(FIELD_NAME_DEBUG_LOGGING);
             }
 
+            if (json.containsKey(FIELD_NAME_BUILD_BATCH_SIZE)) {
+                this.buildBatchSize =
+                        json.optInt(FIELD_NAME_BUILD_BATCH_SIZE, DEFAULT_BUILD_BATCH_SIZE);
+                if (this.buildBatchSize < 1) {
+                    throw new FormException(
+                            "Build batch size must be at least 1!", FIELD_NAME_BUILD_BATCH_SIZE);
+                }
+            }
+
+            if (json.containsKey(FIELD_NAME_BUILD_BATCH_DELAY)) {
+                this.buildBatchDelayMillis =
+                        json.optLong(FIELD_NAME_BUILD_BATCH_DELAY, DEFAULT_BUILD_BATCH_DELAY_MILLIS);
+                if (this.buildBatchDelayMillis < 0) {
+                    throw new FormException(
+                            "Build batch delay must not be negative!",
+                            FIELD_NAME_BUILD_BATCH_DELAY);
+                }
+            }
+
         } catch (Exception e) {
             log.debug("Submitting form to Atlassian Cloud plugin failed: ({})", e.getMessage(), e);
             if (log.isTraceEnabled()) {
@@ -125,11 +205,36 @@ public class JiraCloudPluginConfig extends GlobalConfiguration {
                     e,
                     "configs");
         }
+        publish();
         save();
+        // sites may have been added, removed or renamed, resolve them again on next use
+        CloudIdCache.get().invalidateAll();
 
         return true;
     }
 
+    private static void validatePattern(
+            final StepPattern pattern, final String type, final String fieldName)
+            throws FormException {
+        if (pattern.getSyntaxError().isPresent()) {
+            throw new FormException(
+                    String.format(
+                            "%s RegEx is invalid: %s", type, pattern.getSyntaxError().get()),
+                    fieldName);
+        }
+    }
+
+    private synchronized void publish() {
+        this.snapshot = new JiraCloudPluginConfigSnapshot(this);
+        if (global) {
+            published = snapshot;
+            for (final JiraCloudSiteConfig site : snapshot.getSites()) {
+                WebhookRateLimiters.get()
+                        .setInitialRate(site.getWebhookUrl(), site.getRequestsPerSecond());
+            }
+        }
+    }
+
     @Override
     public String getId() {
         return ATL_JSW_GLOBAL_CONFIGURATION_ID;
@@ -141,14 +246,17 @@ public class JiraCloudPluginConfig extends GlobalConfiguration {
 
     public void setSites(final List<JiraCloudSiteConfig> sites) {
         this.sites = sites;
+        publish();
     }
 
     public void setAutoBuildsEnabled(final boolean autoBuildsEnabled) {
         this.autoBuildsEnabled = autoBuildsEnabled;
+        publish();
     }
 
     public void setAutoBuildsRegex(@Nullable final String autoBuildsRegex) {
         this.autoBuildsRegex = autoBuildsRegex;
+        publish();
     }
 
     public Boolean getDebugLogging() {
@@ -157,14 +265,35 @@ public class JiraCloudPluginConfig extends GlobalConfiguration {
 
     public void setDebugLogging(final Boolean debugLogging) {
         this.debugLogging = debugLogging;
+        publish();
+    }
+
+    public int getBuildBatchSize() {
+        return Optional.ofNullable(buildBatchSize).orElse(DEFAULT_BUILD_BATCH_SIZE);
+    }
+
+    public void setBuildBatchSize(final int buildBatchSize) {
+        this.buildBatchSize = buildBatchSize;
+        publish();
+    }
+
+    public long getBuildBatchDelayMillis() {
+        return Optional.ofNullable(buildBatchDelayMillis).orElse(DEFAULT_BUILD_BATCH_DELAY_MILLIS);
+    }
+
+    public void setBuildBatchDelayMillis(final long buildBatchDelayMillis) {
+        this.buildBatchDelayMillis = buildBatchDelayMillis;
+        publish();
     }
 
     public void setAutoDeploymentsRegex(final String autoDeploymentsRegex) {
         this.autoDeploymentsRegex = autoDeploymentsRegex;
+        publish();
     }
 
     public void setAutoDeploymentsEnabled(final boolean autoDeploymentsEnabled) {
         this.autoDeploymentsEnabled = autoDeploymentsEnabled;
+        publish();
     }
 
     public static Optional<JiraCloudSiteConfig> getJiraCloudSiteConfig(
@@ -176,19 +305,15 @@ public class JiraCloudPluginConfig extends GlobalConfiguration {
     }
 
     public static Optional<JiraCloudSiteConfig> filterFromConfig(final String site) {
-        return JiraCloudPluginConfig.get()
-                .getSites()
-                .stream()
-                .filter(s -> s.getSite().equals(site))
-                .findFirst();
+        return getSnapshot().getSite(site);
     }
 
     public static List<JiraCloudSiteConfig> getAllSites() {
-        return JiraCloudPluginConfig.get().getSites();
+        return getSnapshot().getSites();
     }
 
     private static Optional<JiraCloudSiteConfig> defaultFromConfig() {
-        final List<JiraCloudSiteConfig> allSites = JiraCloudPluginConfig.get().getSites();
+        final List<JiraCloudSiteConfig> allSites = getSnapshot().getSites();
         if (allSites.isEmpty()) {
             log.warn(Messages.JiraCommonResponse_FAILURE_NO_SITE_CONFIG_PRESENT());
             return Optional.empty();
@@ -215,4 +340,17 @@ public class JiraCloudPluginConfig extends GlobalConfiguration {
     public String getAutoDeploymentsRegex() {
         return Optional.ofNullable(autoDeploymentsRegex).orElse("");
     }
+
+    public StepPattern getAutoBuildsPattern() {
+        return snapshot.getAutoBuildsPattern();
+    }
+
+    public StepPattern getAutoDeploymentsPattern() {
+        return snapshot.getAutoDeploymentsPattern();
+    }
+
+    /** The snapshot of this configuration, whether Jenkins uses it or not */
+    JiraCloudPluginConfigSnapshot snapshot() {
+        return snapshot;
+    }
 }
@@ -0,0 +1,122 @@
+package com.atlassian.jira.cloud.jenkins.config;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An immutable view of the global configuration as of when it was last loaded or changed.
+ *
+ * <p>Builds, deployments and listeners read the configuration many times per run. They get it
+ * from the snapshot without looking up the configuration in Jenkins, scanning the list of sites or
+ * compiling the regexes again. A new snapshot with a higher version is built whenever the
+ * configuration changes, so readers holding on to one always see a consistent state.
+ */
+public final class JiraCloudPluginConfigSnapshot {
+
+    private static final AtomicLong versions = new AtomicLong();
+
+    /** The defaults, for as long as there is no configuration */
+    static final JiraCloudPluginConfigSnapshot EMPTY = new JiraCloudPluginConfigSnapshot();
+
+    private final long version;
+    private final List<JiraCloudSiteConfig> sites;
+    private final List<String> siteNames;
+    private final Map<String, JiraCloudSiteConfig> siteToConfig;
+    private final boolean autoBuildsEnabled;
+    private final StepPattern autoBuildsPattern;
+    private final boolean autoDeploymentsEnabled;
+    private final StepPattern autoDeploymentsPattern;
+    private final boolean debugLogging;
+    private final int buildBatchSize;
+    private final long buildBatchDelayMillis;
+
+    private JiraCloudPluginConfigSnapshot() {
+        this.version = 0;
+        this.sites = ImmutableList.of();
+        this.siteNames = ImmutableList.of();
+        this.siteToConfig = ImmutableMap.of();
+        this.autoBuildsEnabled = false;
+        this.autoBuildsPattern = StepPattern.compile(null);
+        this.autoDeploymentsEnabled = false;
+        this.autoDeploymentsPattern = StepPattern.compile(null);
+        this.debugLogging = false;
+        this.buildBatchSize = JiraCloudPluginConfig.DEFAULT_BUILD_BATCH_SIZE;
+        this.buildBatchDelayMillis = JiraCloudPluginConfig.DEFAULT_BUILD_BATCH_DELAY_MILLIS;
+    }
+
+    JiraCloudPluginConfigSnapshot(final JiraCloudPluginConfig config) {
+        this.version = versions.incrementAndGet();
+        this.sites =
+                ImmutableList.copyOf(
+                        Optional.ofNullable(config.getSites()).orElse(ImmutableList.of()));
+
+        // the first of several sites with the same name wins, as it did when the list was scanned
+        final Map<String, JiraCloudSiteConfig> siteToConfig = new LinkedHashMap<>();
+        for (JiraCloudSiteConfig site : sites) {
+            siteToConfig.putIfAbsent(site.getSite(), site);
+        }
+        this.siteToConfig = ImmutableMap.copyOf(siteToConfig);
+        this.siteNames =
+                ImmutableList.copyOf(sites.stream().map(JiraCloudSiteConfig::getSite).iterator());
+
+        this.autoBuildsEnabled = config.getAutoBuildsEnabled();
+        this.autoBuildsPattern = StepPattern.compile(config.getAutoBuildsRegex());
+        this.autoDeploymentsEnabled = config.getAutoDeploymentsEnabled();
+        this.autoDeploymentsPattern = StepPattern.compile(config.getAutoDeploymentsRegex());
+        this.debugLogging = Boolean.TRUE.equals(config.getDebugLogging());
+        this.buildBatchSize = config.getBuildBatchSize();
+        this.buildBatchDelayMillis = config.getBuildBatchDelayMillis();
+    }
+
+    /** Increases every time the configuration changes */
+    public long getVersion() {
+        return version;
+    }
+
+    public List<JiraCloudSiteConfig> getSites() {
+        return sites;
+    }
+
+    /** The names of all sites, in the order they were configured */
+    public List<String> getSiteNames() {
+        return siteNames;
+    }
+
+    public Optional<JiraCloudSiteConfig> getSite(final String site) {
+        return Optional.ofNullable(siteToConfig.get(site));
+    }
+
+    public boolean isAutoBuildsEnabled() {
+        return autoBuildsEnabled;
+    }
+
+    public StepPattern getAutoBuildsPattern() {
+        return autoBuildsPattern;
+    }
+
+    public boolean isAutoDeploymentsEnabled() {
+        return autoDeploymentsEnabled;
+    }
+
+    public StepPattern getAutoDeploymentsPattern() {
+        return autoDeploymentsPattern;
+    }
+
+    public boolean isDebugLogging() {
+        return debugLogging;
+    }
+
+    public int getBuildBatchSize() {
+        return buildBatchSize;
+    }
+
+    public long getBuildBatchDelayMillis() {
+        return buildBatchDelayMillis;
+    }
+}
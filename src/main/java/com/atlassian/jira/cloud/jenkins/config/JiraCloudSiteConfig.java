@@ -1,8 +1,10 @@
 package com.atlassian.jira.cloud.jenkins.config;
 
 import com.atlassian.jira.cloud.jenkins.common.client.BadRequestException;
+import com.atlassian.jira.cloud.jenkins.common.client.SiteCircuitBreakers;
 import com.atlassian.jira.cloud.jenkins.logging.PipelineLogger;
 import com.atlassian.jira.cloud.jenkins.ping.PingApi;
+import com.atlassian.jira.cloud.jenkins.provider.WebhookRateLimiters;
 import com.atlassian.jira.cloud.jenkins.tenantinfo.CloudIdResolver;
 import com.atlassian.jira.cloud.jenkins.util.SecretRetriever;
 import com.atlassian.jira.cloud.jenkins.util.SiteValidator;
@@ -22,11 +24,13 @@ import org.jenkinsci.plugins.plaincredentials.StringCredentials;
 import org.kohsuke.accmod.Restricted;
 import org.kohsuke.accmod.restrictions.DoNotUse;
 import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
 import org.kohsuke.stapler.QueryParameter;
 import org.kohsuke.stapler.interceptor.RequirePOST;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.CheckForNull;
 import javax.inject.Inject;
 import java.util.Objects;
 import java.util.Optional;
@@ -45,6 +49,7 @@ public class JiraCloudSiteConfig extends AbstractDescribableImpl<JiraCloudSiteCo
     private final String site;
     private final String webhookUrl;
     private final String credentialsId;
+    @CheckForNull private Integer requestsPerSecond;
 
     @DataBoundConstructor
     public JiraCloudSiteConfig(
@@ -66,6 +71,28 @@ public class JiraCloudSiteConfig extends AbstractDescribableImpl<JiraCloudSiteCo
         return credentialsId;
     }
 
+    /** The rate requests to the webhook start with, {@code null} for the default rate */
+    @CheckForNull
+    public Integer getRequestsPerSecond() {
+        return requestsPerSecond;
+    }
+
+    @DataBoundSetter
+    public void setRequestsPerSecond(@CheckForNull final Integer requestsPerSecond) {
+        this.requestsPerSecond =
+                requestsPerSecond == null || requestsPerSecond <= 0 ? null : requestsPerSecond;
+    }
+
+    /** State of the connection to the webhook, as seen by the recent requests */
+    public String getConnectionState() {
+        return SiteCircuitBreakers.get().describe(webhookUrl);
+    }
+
+    /** Current rate and waiting requests of the webhook, as adapted to the responses of Jira */
+    public String getRateLimitState() {
+        return WebhookRateLimiters.get().describe(webhookUrl);
+    }
+
     /** Auto-generated by IDEA, please regenerate if you change fields of the class */
     @Override
     public boolean equals(final Object o) {
@@ -78,13 +105,14 @@ public class JiraCloudSiteConfig extends AbstractDescribableImpl<JiraCloudSiteCo
         JiraCloudSiteConfig that = (JiraCloudSiteConfig) o;
         return Objects.equals(site, that.site)
                 && Objects.equals(webhookUrl, that.webhookUrl)
-                && Objects.equals(credentialsId, that.credentialsId);
+                && Objects.equals(credentialsId, that.credentialsId)
+                && Objects.equals(requestsPerSecond, that.requestsPerSecond);
     }
 
     /** Auto-generated by IDEA, please regenerate if you change fields of the class */
     @Override
     public int hashCode() {
-        return Objects.hash(site, webhookUrl, credentialsId);
+        return Objects.hash(site, webhookUrl, credentialsId, requestsPerSecond);
     }
 
     @Extension
@@ -141,6 +169,13 @@ public class JiraCloudSiteConfig extends AbstractDescribableImpl<JiraCloudSiteCo
             return FormValidation.ok();
         }
 
+        public FormValidation doCheckRequestsPerSecond(@QueryParameter final String value) {
+            if (StringUtils.isBlank(value)) {
+                return FormValidation.ok();
+            }
+            return FormValidation.validatePositiveInteger(value);
+        }
+
         @SuppressWarnings("unused")
         public ListBoxModel doFillCredentialsIdItems(@QueryParameter final String credentialsId) {
             Jenkins instance = Jenkins.get();
@@ -187,6 +222,8 @@ public class JiraCloudSiteConfig extends AbstractDescribableImpl<JiraCloudSiteCo
                     return FormValidation.error(
                             "Connection could not be established. Is the secret correct?");
                 }
+                // no need to wait for the next probe if the site was down before
+                SiteCircuitBreakers.get().reset(webhookUrl);
             } catch (BadRequestException e) {
                 return FormValidation.error(
                         String.format("Error message from Jira: %s", e.getMessage()));
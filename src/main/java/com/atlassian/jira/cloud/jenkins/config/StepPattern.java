@@ -0,0 +1,59 @@
+package com.atlassian.jira.cloud.jenkins.config;
+
+import javax.annotation.Nullable;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * A pipeline step regex of the global configuration, compiled once when the configuration changes
+ * instead of for every flow node. An empty or invalid regex doesn't match any step.
+ */
+public final class StepPattern {
+
+    private final String regex;
+    @Nullable private final Pattern pattern;
+    @Nullable private final String syntaxError;
+
+    private StepPattern(
+            final String regex, @Nullable final Pattern pattern, @Nullable final String syntaxError) {
+        this.regex = regex;
+        this.pattern = pattern;
+        this.syntaxError = syntaxError;
+    }
+
+    public static StepPattern compile(@Nullable final String regex) {
+        if (regex == null || regex.trim().isEmpty()) {
+            return new StepPattern(Optional.ofNullable(regex).orElse(""), null, null);
+        }
+
+        try {
+            return new StepPattern(regex, Pattern.compile(regex), null);
+        } catch (final PatternSyntaxException e) {
+            return new StepPattern(regex, null, e.getMessage());
+        }
+    }
+
+    public String getRegex() {
+        return regex;
+    }
+
+    public boolean isEmpty() {
+        return regex.trim().isEmpty();
+    }
+
+    /** Why the regex could not be compiled, if it couldn't */
+    public Optional<String> getSyntaxError() {
+        return Optional.ofNullable(syntaxError);
+    }
+
+    /** Matches the whole display name of a step against the regex */
+    public Optional<Matcher> match(final CharSequence displayName) {
+        if (pattern == null) {
+            return Optional.empty();
+        }
+        final Matcher matcher = pattern.matcher(displayName);
+        return matcher.matches() ? Optional.of(matcher) : Optional.empty();
+    }
+}
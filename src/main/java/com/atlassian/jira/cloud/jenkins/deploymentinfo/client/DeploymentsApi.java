@@ -11,6 +11,8 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import okhttp3.OkHttpClient;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.concurrent.CompletableFuture;
+
 public class DeploymentsApi extends JenkinsAppApi<DeploymentApiResponse> {
 
     public DeploymentsApi(final OkHttpClient httpClient, final ObjectMapper objectMapper) {
@@ -29,8 +31,23 @@ public class DeploymentsApi extends JenkinsAppApi<DeploymentApiResponse> {
                 webhookUrl, secret, request, DeploymentApiResponse.class, pipelineLogger);
     }
 
+    /** Same as sendDeploymentAsJwt, completes once Jira has answered without holding a thread */
+    public CompletableFuture<DeploymentApiResponse> sendDeploymentAsJwtAsync(
+            final String webhookUrl,
+            final Deployments deploymentsRequest,
+            final String secret,
+            final PipelineLogger pipelineLogger) {
+        return this.sendRequestAsJwtAsync(
+                webhookUrl,
+                secret,
+                createRequest(deploymentsRequest),
+                DeploymentApiResponse.class,
+                pipelineLogger);
+    }
+
+    /** The request sent to the Jenkins app in Jira, also used to store the event in the outbox */
     @NotNull
-    private JenkinsAppRequest createRequest(final Deployments deploymentsRequest) {
+    public static JenkinsAppEventRequest createRequest(final Deployments deploymentsRequest) {
         return new JenkinsAppEventRequest(
                 JenkinsAppEventRequest.EventType.DEPLOYMENT,
                 deploymentsRequest.getDeployment().getPipeline().getId(),
@@ -2,6 +2,7 @@ package com.atlassian.jira.cloud.jenkins.deploymentinfo.pipeline;
 
 import com.atlassian.jira.cloud.jenkins.Messages;
 import com.atlassian.jira.cloud.jenkins.common.factory.JiraSenderFactory;
+import com.atlassian.jira.cloud.jenkins.common.pipeline.SendStepExecution;
 import com.atlassian.jira.cloud.jenkins.common.response.JiraSendInfoResponse;
 import com.atlassian.jira.cloud.jenkins.config.JiraCloudPluginConfig;
 import com.atlassian.jira.cloud.jenkins.config.JiraCloudSiteConfig;
@@ -18,7 +19,6 @@ import org.jenkinsci.plugins.workflow.steps.Step;
 import org.jenkinsci.plugins.workflow.steps.StepContext;
 import org.jenkinsci.plugins.workflow.steps.StepDescriptor;
 import org.jenkinsci.plugins.workflow.steps.StepExecution;
-import org.jenkinsci.plugins.workflow.steps.SynchronousNonBlockingStepExecution;
 import org.kohsuke.stapler.DataBoundConstructor;
 import org.kohsuke.stapler.DataBoundSetter;
 import org.slf4j.Logger;
@@ -30,6 +30,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Implementation of the "jiraSendDeploymentInfo" step that can be used in Jenkinsfile to send
@@ -47,6 +48,7 @@ public class JiraSendDeploymentInfoStep extends Step implements Serializable {
     private List<String> serviceIds = new ArrayList<>();
     private Boolean enableGating = Boolean.FALSE;
     private List<String> issueKeys = new ArrayList<>();
+    private Boolean async = Boolean.FALSE;
 
     @DataBoundConstructor
     public JiraSendDeploymentInfoStep(
@@ -135,6 +137,15 @@ public class JiraSendDeploymentInfoStep extends Step implements Serializable {
         this.issueKeys = issueKeys;
     }
 
+    public Boolean getAsync() {
+        return async;
+    }
+
+    @DataBoundSetter
+    public void setAsync(final Boolean async) {
+        this.async = async;
+    }
+
     @Extension
     public static class DescriptorImpl extends StepDescriptor {
 
@@ -188,24 +199,25 @@ public class JiraSendDeploymentInfoStep extends Step implements Serializable {
         }
     }
 
-    public static class JiraSendDeploymentInfoStepExecution
-            extends SynchronousNonBlockingStepExecution<List<JiraSendInfoResponse>> {
+    public static class JiraSendDeploymentInfoStepExecution extends SendStepExecution {
 
         private final JiraSendDeploymentInfoStep step;
 
         public JiraSendDeploymentInfoStepExecution(
                 final StepContext context, final JiraSendDeploymentInfoStep step) {
-            super(context);
+            super(
+                    context,
+                    "jiraSendDeploymentInfo",
+                    step.getSite(),
+                    Boolean.TRUE.equals(step.getAsync()));
             this.step = step;
         }
 
         @Override
-        protected List<JiraSendInfoResponse> run() throws Exception {
-            final TaskListener taskListener = getContext().get(TaskListener.class);
-            final WorkflowRun workflowRun = getContext().get(WorkflowRun.class);
+        protected CompletableFuture<List<JiraSendInfoResponse>> send(
+                final WorkflowRun workflowRun, final PipelineLogger pipelineLogger) {
             final Set<String> serviceIds = ImmutableSet.copyOf(step.getServiceIds());
             final Set<String> issueKeys = ImmutableSet.copyOf(step.getIssueKeys());
-            final PipelineLogger pipelineLogger = new PipelineLogger(taskListener.getLogger(), JiraCloudPluginConfig.isDebugLoggingEnabled());
 
             final JiraDeploymentInfoRequest request =
                     new JiraDeploymentInfoRequest(
@@ -218,13 +230,14 @@ public class JiraSendDeploymentInfoStep extends Step implements Serializable {
                             Optional.ofNullable(step.getEnableGating()).orElse(false),
                             issueKeys,
                             workflowRun);
-            final List<JiraSendInfoResponse> responses =
-                    JiraSenderFactory.getInstance()
-                            .getJiraDeploymentInfoSender()
-                            .sendDeploymentInfo(request, pipelineLogger);
-
-            responses.forEach(response -> logResult(pipelineLogger, response));
-            return responses;
+            return JiraSenderFactory.getInstance()
+                    .getJiraDeploymentInfoSender()
+                    .sendDeploymentInfoAsync(request, pipelineLogger)
+                    .thenApply(
+                            responses -> {
+                                responses.forEach(response -> logResult(pipelineLogger, response));
+                                return responses;
+                            });
         }
 
         private void logResult(
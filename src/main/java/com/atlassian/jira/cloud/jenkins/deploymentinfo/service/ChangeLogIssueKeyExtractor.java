@@ -2,15 +2,19 @@ package com.atlassian.jira.cloud.jenkins.deploymentinfo.service;
 
 import com.atlassian.jira.cloud.jenkins.common.model.IssueKey;
 import com.atlassian.jira.cloud.jenkins.common.service.IssueKeyExtractor;
+import com.atlassian.jira.cloud.jenkins.deploymentinfo.service.IssueKeysAction.UnsuccessfulRun;
 import com.atlassian.jira.cloud.jenkins.logging.PipelineLogger;
 import com.atlassian.jira.cloud.jenkins.util.IssueKeyStringExtractor;
+import com.google.common.annotations.VisibleForTesting;
 import hudson.model.Result;
 import hudson.model.Run;
 import hudson.plugins.git.GitChangeSet;
 import hudson.scm.ChangeLogSet;
+import jenkins.util.SystemProperties;
 import org.jenkinsci.plugins.workflow.job.WorkflowRun;
 
 import javax.annotation.CheckForNull;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
@@ -23,45 +27,140 @@ import java.util.stream.Collectors;
 /**
  * Parses the change log from the current build and extracts the issue keys from the commit
  * messages. It also tries to extract from squashed commits.
+ *
+ * <p>The keys of the unsuccessful builds right before the current one are included as well. Each
+ * completed unsuccessful build stores them in an {@link IssueKeysAction} (see {@link
+ * #summarize}), so usually only the previous build has to be looked at. Builds older than that
+ * are only walked if they don't have the action, e.g. because they ran with an older version of
+ * the plugin. At most {@code maxPreviousBuilds} builds that were scheduled less than {@code
+ * maxPreviousBuildAgeDays} before the current one are included.
  */
 public final class ChangeLogIssueKeyExtractor implements IssueKeyExtractor {
 
+    private static final int MAX_PREVIOUS_BUILDS =
+            SystemProperties.getInteger(
+                    ChangeLogIssueKeyExtractor.class.getName() + ".maxPreviousBuilds", 50);
+    private static final long MAX_PREVIOUS_BUILD_AGE_DAYS =
+            SystemProperties.getLong(
+                    ChangeLogIssueKeyExtractor.class.getName() + ".maxPreviousBuildAgeDays", 30L);
+
+    private final int maxPreviousBuilds;
+    private final Duration maxPreviousBuildAge;
+
+    public ChangeLogIssueKeyExtractor() {
+        this(MAX_PREVIOUS_BUILDS, Duration.ofDays(MAX_PREVIOUS_BUILD_AGE_DAYS));
+    }
+
+    @VisibleForTesting
+    ChangeLogIssueKeyExtractor(final int maxPreviousBuilds, final Duration maxPreviousBuildAge) {
+        this.maxPreviousBuilds = maxPreviousBuilds;
+        this.maxPreviousBuildAge = maxPreviousBuildAge;
+    }
+
     public Set<String> extractIssueKeys(
             final WorkflowRun workflowRun, final PipelineLogger pipelineLogger) {
 
-        final Set<IssueKey> allIssueKeys = new HashSet<>();
-        final List<ChangeLogSet<? extends ChangeLogSet.Entry>> changeSets =
-                new ArrayList<>(workflowRun.getChangeSets());
+        final Set<String> allIssueKeys =
+                new HashSet<>(extractIssueKeys(workflowRun.getChangeSets(), pipelineLogger));
+
+        // Go through all previously failed builds and collect their issue keys.
+        for (UnsuccessfulRun previous : findPreviousUnsuccessfulRuns(workflowRun, pipelineLogger)) {
+            if (allIssueKeys.size() >= ISSUE_KEY_MAX_LIMIT) {
+                break;
+            }
+            allIssueKeys.addAll(previous.getIssueKeys());
+        }
+
+        return allIssueKeys.stream().limit(ISSUE_KEY_MAX_LIMIT).collect(Collectors.toSet());
+    }
+
+    /**
+     * Summarizes the issue keys of a completed unsuccessful build, so they don't have to be
+     * extracted from its change logs again by the builds after it.
+     *
+     * @param ownIssueKeys the keys of the change logs of the build if they have already been
+     *     collected while it was running, otherwise they are extracted from the change logs
+     * @return empty if the build was successful, the builds after it don't look any further back
+     */
+    public Optional<IssueKeysAction> summarize(
+            final WorkflowRun completedRun,
+            @CheckForNull final Set<String> ownIssueKeys,
+            final PipelineLogger pipelineLogger) {
+        if (isBuildSuccessful(completedRun)) {
+            return Optional.empty();
+        }
+
+        final Set<String> issueKeys =
+                ownIssueKeys != null
+                        ? ownIssueKeys
+                        : extractIssueKeys(completedRun.getChangeSets(), pipelineLogger);
+
+        final List<UnsuccessfulRun> unsuccessfulRuns = new ArrayList<>();
+        unsuccessfulRuns.add(
+                new UnsuccessfulRun(
+                        completedRun.getNumber(), completedRun.getTimeInMillis(), issueKeys));
+        unsuccessfulRuns.addAll(findPreviousUnsuccessfulRuns(completedRun, pipelineLogger));
+
+        // the runs are only kept as long as they can contribute to the limit of issue keys
+        final Set<String> carriedIssueKeys = new HashSet<>();
+        final List<UnsuccessfulRun> carriedRuns = new ArrayList<>();
+        for (UnsuccessfulRun unsuccessfulRun : unsuccessfulRuns) {
+            if (carriedRuns.size() >= maxPreviousBuilds
+                    || carriedIssueKeys.size() >= ISSUE_KEY_MAX_LIMIT) {
+                break;
+            }
+            carriedRuns.add(unsuccessfulRun);
+            carriedIssueKeys.addAll(unsuccessfulRun.getIssueKeys());
+        }
+
+        return Optional.of(new IssueKeysAction(carriedRuns));
+    }
+
+    /**
+     * The unsuccessful builds right before the given one, newest first. The walk stops at the
+     * first build with an {@link IssueKeysAction}, it already has the builds before it.
+     */
+    private List<UnsuccessfulRun> findPreviousUnsuccessfulRuns(
+            final WorkflowRun workflowRun, final PipelineLogger pipelineLogger) {
+        final long oldestTimeInMillis =
+                workflowRun.getTimeInMillis() - maxPreviousBuildAge.toMillis();
+        final List<UnsuccessfulRun> unsuccessfulRuns = new ArrayList<>();
 
-        // Go through all previously failed builds and collect their changesets.
         WorkflowRun previous = workflowRun.getPreviousBuild();
-        while (Objects.nonNull(previous) && !isBuildSuccessful(previous)) {
-            changeSets.addAll(previous.getChangeSets());
+        while (Objects.nonNull(previous)
+                && !isBuildSuccessful(previous)
+                && unsuccessfulRuns.size() < maxPreviousBuilds
+                && previous.getTimeInMillis() >= oldestTimeInMillis) {
+            final IssueKeysAction summary = previous.getAction(IssueKeysAction.class);
+            if (summary != null) {
+                summary.getUnsuccessfulRuns()
+                        .stream()
+                        .filter(run -> run.getTimeInMillis() >= oldestTimeInMillis)
+                        .limit(maxPreviousBuilds - unsuccessfulRuns.size())
+                        .forEach(unsuccessfulRuns::add);
+                break;
+            }
+
+            unsuccessfulRuns.add(
+                    new UnsuccessfulRun(
+                            previous.getNumber(),
+                            previous.getTimeInMillis(),
+                            extractIssueKeys(previous.getChangeSets(), pipelineLogger)));
             previous = previous.getPreviousBuild();
         }
 
+        return unsuccessfulRuns;
+    }
+
+    private static Set<String> extractIssueKeys(
+            final List<ChangeLogSet<? extends ChangeLogSet.Entry>> changeSets,
+            final PipelineLogger pipelineLogger) {
+        final Set<IssueKey> allIssueKeys = new HashSet<>();
+
         for (ChangeLogSet<? extends ChangeLogSet.Entry> changeSet : changeSets) {
             final Object[] changeSetEntries = changeSet.getItems();
             for (Object item : changeSetEntries) {
-                final ChangeLogSet.Entry changeSetEntry = (ChangeLogSet.Entry) item;
-
-                if (changeSetEntry instanceof GitChangeSet) {
-                    String comment = ((GitChangeSet) changeSetEntry).getComment();
-                    Set<IssueKey> issueKeys = IssueKeyStringExtractor.extractIssueKeys(comment);
-                    allIssueKeys.addAll(issueKeys);
-                    pipelineLogger.debug(
-                            String.format(
-                                    "Extracted issue keys from GitChangeSet comment '%s': %s",
-                                    comment, Arrays.toString(issueKeys.toArray())));
-                }
-
-                String message = changeSetEntry.getMsg();
-                Set<IssueKey> issueKeys = IssueKeyStringExtractor.extractIssueKeys(message);
-                allIssueKeys.addAll(issueKeys);
-                pipelineLogger.debug(
-                        String.format(
-                                "Extracted issue keys from ChangeLogSet message '%s': %s",
-                                message, Arrays.toString(issueKeys.toArray())));
+                allIssueKeys.addAll(extractIssueKeys((ChangeLogSet.Entry) item, pipelineLogger));
 
                 if (allIssueKeys.size() >= ISSUE_KEY_MAX_LIMIT) {
                     pipelineLogger.warn(
@@ -80,6 +179,32 @@ public final class ChangeLogIssueKeyExtractor implements IssueKeyExtractor {
                 .collect(Collectors.toSet());
     }
 
+    /** Extracts the issue keys from the message (and for Git, the full comment) of a commit */
+    public static Set<IssueKey> extractIssueKeys(
+            final ChangeLogSet.Entry changeSetEntry, final PipelineLogger pipelineLogger) {
+        final Set<IssueKey> allIssueKeys = new HashSet<>();
+
+        if (changeSetEntry instanceof GitChangeSet) {
+            String comment = ((GitChangeSet) changeSetEntry).getComment();
+            Set<IssueKey> issueKeys = IssueKeyStringExtractor.extractIssueKeys(comment);
+            allIssueKeys.addAll(issueKeys);
+            pipelineLogger.debug(
+                    String.format(
+                            "Extracted issue keys from GitChangeSet comment '%s': %s",
+                            comment, Arrays.toString(issueKeys.toArray())));
+        }
+
+        String message = changeSetEntry.getMsg();
+        Set<IssueKey> issueKeys = IssueKeyStringExtractor.extractIssueKeys(message);
+        allIssueKeys.addAll(issueKeys);
+        pipelineLogger.debug(
+                String.format(
+                        "Extracted issue keys from ChangeLogSet message '%s': %s",
+                        message, Arrays.toString(issueKeys.toArray())));
+
+        return allIssueKeys;
+    }
+
     private boolean isBuildSuccessful(@CheckForNull final WorkflowRun workflowRun) {
 
         return Optional.ofNullable(workflowRun)
@@ -0,0 +1,59 @@
+package com.atlassian.jira.cloud.jenkins.deploymentinfo.service;
+
+import hudson.model.InvisibleAction;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Summary of the issue keys of a completed unsuccessful pipeline run, stored with the run so the
+ * next run doesn't have to load the change logs of all unsuccessful runs before it (see {@link
+ * ChangeLogIssueKeyExtractor}). Successful runs don't get one, the walk stops at them anyway.
+ */
+public class IssueKeysAction extends InvisibleAction {
+
+    private final ArrayList<UnsuccessfulRun> unsuccessfulRuns;
+
+    /**
+     * @param unsuccessfulRuns the unsuccessful runs since the last successful one (newest first),
+     *     starting with the run itself
+     */
+    public IssueKeysAction(final List<UnsuccessfulRun> unsuccessfulRuns) {
+        this.unsuccessfulRuns = new ArrayList<>(unsuccessfulRuns);
+    }
+
+    public List<UnsuccessfulRun> getUnsuccessfulRuns() {
+        return Collections.unmodifiableList(unsuccessfulRuns);
+    }
+
+    /** The issue keys of a run that wasn't successful, they are carried forward to the next runs */
+    public static class UnsuccessfulRun {
+
+        private final int number;
+        private final long timeInMillis;
+        private final TreeSet<String> issueKeys;
+
+        public UnsuccessfulRun(
+                final int number, final long timeInMillis, final Collection<String> issueKeys) {
+            this.number = number;
+            this.timeInMillis = timeInMillis;
+            this.issueKeys = new TreeSet<>(issueKeys);
+        }
+
+        public int getNumber() {
+            return number;
+        }
+
+        public long getTimeInMillis() {
+            return timeInMillis;
+        }
+
+        public Set<String> getIssueKeys() {
+            return Collections.unmodifiableSet(issueKeys);
+        }
+    }
+}
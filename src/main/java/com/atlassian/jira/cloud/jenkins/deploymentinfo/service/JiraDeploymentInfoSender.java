@@ -4,9 +4,17 @@ import com.atlassian.jira.cloud.jenkins.common.response.JiraSendInfoResponse;
 import com.atlassian.jira.cloud.jenkins.logging.PipelineLogger;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public interface JiraDeploymentInfoSender {
 
     List<JiraSendInfoResponse> sendDeploymentInfo(
             JiraDeploymentInfoRequest request, PipelineLogger pipelineLogger);
+
+    /**
+     * Same as sendDeploymentInfo, completes once all sites have answered without holding a
+     * thread
+     */
+    CompletableFuture<List<JiraSendInfoResponse>> sendDeploymentInfoAsync(
+            JiraDeploymentInfoRequest request, PipelineLogger pipelineLogger);
 }
@@ -1,10 +1,13 @@
 package com.atlassian.jira.cloud.jenkins.deploymentinfo.service;
 
 import com.atlassian.jira.cloud.jenkins.common.client.ApiUpdateFailedException;
+import com.atlassian.jira.cloud.jenkins.common.client.BadRequestException;
 import com.atlassian.jira.cloud.jenkins.common.config.JiraSiteConfigRetriever;
+import com.atlassian.jira.cloud.jenkins.common.outbox.EventOutbox;
 import com.atlassian.jira.cloud.jenkins.common.response.JiraCommonResponse;
 import com.atlassian.jira.cloud.jenkins.common.response.JiraSendInfoResponse;
 import com.atlassian.jira.cloud.jenkins.common.service.IssueKeyExtractor;
+import com.atlassian.jira.cloud.jenkins.common.service.JiraSiteFanOut;
 import com.atlassian.jira.cloud.jenkins.config.JiraCloudSiteConfig;
 import com.atlassian.jira.cloud.jenkins.deploymentinfo.client.DeploymentPayloadBuilder;
 import com.atlassian.jira.cloud.jenkins.deploymentinfo.client.DeploymentsApi;
@@ -14,7 +17,9 @@ import com.atlassian.jira.cloud.jenkins.deploymentinfo.client.model.Command;
 import com.atlassian.jira.cloud.jenkins.deploymentinfo.client.model.DeploymentApiResponse;
 import com.atlassian.jira.cloud.jenkins.deploymentinfo.client.model.Deployments;
 import com.atlassian.jira.cloud.jenkins.deploymentinfo.client.model.Environment;
+import com.atlassian.jira.cloud.jenkins.deploymentinfo.client.model.JiraDeploymentInfo;
 import com.atlassian.jira.cloud.jenkins.logging.PipelineLogger;
+import com.atlassian.jira.cloud.jenkins.provider.Futures;
 import com.atlassian.jira.cloud.jenkins.tenantinfo.CloudIdResolver;
 import com.atlassian.jira.cloud.jenkins.util.JenkinsToJiraStatus;
 import com.atlassian.jira.cloud.jenkins.util.RunWrapperProvider;
@@ -29,11 +34,13 @@ import org.jenkinsci.plugins.workflow.support.steps.build.RunWrapper;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.util.Collections;
 import java.util.HashSet;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.function.Function;
 
 import static java.util.Objects.requireNonNull;
@@ -59,6 +66,8 @@ public class JiraDeploymentInfoSenderImpl implements JiraDeploymentInfoSender {
     private final DeploymentsApi deploymentsApi;
     private final RunWrapperProvider runWrapperProvider;
     private final IssueKeyExtractor issueKeyExtractor;
+    private final EventOutbox eventOutbox;
+    private final JiraSiteFanOut siteFanOut = JiraSiteFanOut.get();
 
     public JiraDeploymentInfoSenderImpl(
             final JiraSiteConfigRetriever siteConfigRetriever,
@@ -66,62 +75,61 @@ public class JiraDeploymentInfoSenderImpl implements JiraDeploymentInfoSender {
             final CloudIdResolver cloudIdResolver,
             final DeploymentsApi jiraApi,
             final IssueKeyExtractor issueKeyExtractor,
-            final RunWrapperProvider runWrapperProvider) {
+            final RunWrapperProvider runWrapperProvider,
+            final EventOutbox eventOutbox) {
         this.siteConfigRetriever = requireNonNull(siteConfigRetriever);
         this.secretRetriever = requireNonNull(secretRetriever);
         this.cloudIdResolver = requireNonNull(cloudIdResolver);
         this.deploymentsApi = requireNonNull(jiraApi);
         this.runWrapperProvider = requireNonNull(runWrapperProvider);
         this.issueKeyExtractor = requireNonNull(issueKeyExtractor);
+        this.eventOutbox = requireNonNull(eventOutbox);
     }
 
     @Override
     public List<JiraSendInfoResponse> sendDeploymentInfo(
             final JiraDeploymentInfoRequest request, final PipelineLogger pipelineLogger) {
-        final List<JiraSendInfoResponse> responses = new LinkedList<>();
+        return JiraSiteFanOut.await(sendDeploymentInfoAsync(request, pipelineLogger));
+    }
+
+    @Override
+    public CompletableFuture<List<JiraSendInfoResponse>> sendDeploymentInfoAsync(
+            final JiraDeploymentInfoRequest request, final PipelineLogger pipelineLogger) {
+        final List<String> jiraSites;
         if (request.getSite() == null) {
-            List<String> jiraSites = siteConfigRetriever.getAllJiraSites();
+            jiraSites = siteConfigRetriever.getAllJiraSites();
             if (jiraSites.size() >= 2 && request.getEnableGating()) {
-                responses.add(JiraDeploymentInfoResponse.failureGatingManyJiras());
-            } else {
-                for (final String jiraSite : jiraSites) {
-                    final Optional<JiraCloudSiteConfig> maybeSiteConfig =
-                            getSiteConfigFor(jiraSite);
-
-                    responses.add(
-                            maybeSiteConfig
-                                    .map(
-                                            siteConfig ->
-                                                    sendDeploymentInfoToJiraSite(
-                                                            siteConfig, request, pipelineLogger))
-                                    .orElse(
-                                            JiraCommonResponse.failureSiteConfigNotFound(
-                                                    jiraSite)));
-                }
+                return CompletableFuture.completedFuture(
+                        Collections.singletonList(
+                                JiraDeploymentInfoResponse.failureGatingManyJiras()));
             }
         } else {
-            final Optional<JiraCloudSiteConfig> maybeSiteConfig =
-                    getSiteConfigFor(request.getSite());
-            responses.add(
-                    maybeSiteConfig
-                            .map(
-                                    siteConfig ->
-                                            sendDeploymentInfoToJiraSite(
-                                                    siteConfig, request, pipelineLogger))
-                            .orElse(
-                                    JiraCommonResponse.failureSiteConfigNotFound(
-                                            request.getSite())));
+            jiraSites = Collections.singletonList(request.getSite());
         }
-        return responses;
+        return siteFanOut.sendToAllAsync(
+                jiraSites,
+                jiraSite ->
+                        getSiteConfigFor(jiraSite)
+                                .map(
+                                        siteConfig ->
+                                                sendDeploymentInfoToJiraSite(
+                                                        siteConfig, request, pipelineLogger))
+                                .orElseGet(
+                                        () ->
+                                                CompletableFuture.completedFuture(
+                                                        JiraCommonResponse
+                                                                .failureSiteConfigNotFound(
+                                                                        jiraSite))));
     }
 
     /**
-     * Sends deployment data to a Jira site.
+     * Starts sending deployment data to a Jira site.
      *
      * @param siteConfig - Jira to send data to
      * @param request - JiraBuildInfoRequest::site is ignored and jiraSite is used instead
+     * @return the response of the site, once it has answered
      */
-    private JiraSendInfoResponse sendDeploymentInfoToJiraSite(
+    private CompletableFuture<JiraSendInfoResponse> sendDeploymentInfoToJiraSite(
             @Nonnull final JiraCloudSiteConfig siteConfig,
             final JiraDeploymentInfoRequest request,
             final PipelineLogger pipelineLogger) {
@@ -135,21 +143,24 @@ public class JiraDeploymentInfoSenderImpl implements JiraDeploymentInfoSender {
         final Optional<String> maybeSecret = getSecretFor(siteConfig.getCredentialsId());
 
         if (!maybeSecret.isPresent()) {
-            return JiraCommonResponse.failureSecretNotFound(jiraSite);
+            return CompletableFuture.completedFuture(
+                    JiraCommonResponse.failureSecretNotFound(jiraSite));
         }
 
         final Environment environment = buildEnvironment(request);
         List<String> errorMessages = EnvironmentValidator.validate(environment);
 
         if (!errorMessages.isEmpty()) {
-            return JiraDeploymentInfoResponse.failureEnvironmentInvalid(jiraSite, errorMessages);
+            return CompletableFuture.completedFuture(
+                    JiraDeploymentInfoResponse.failureEnvironmentInvalid(jiraSite, errorMessages));
         }
 
         final String deploymentState = getDeploymentState(deployment, request.getState());
         errorMessages = StateValidator.validate(deploymentState);
 
         if (!errorMessages.isEmpty()) {
-            return JiraDeploymentInfoResponse.failureStateInvalid(jiraSite, errorMessages);
+            return CompletableFuture.completedFuture(
+                    JiraDeploymentInfoResponse.failureStateInvalid(jiraSite, errorMessages));
         }
 
         final Set<String> issueKeys;
@@ -161,8 +172,9 @@ public class JiraDeploymentInfoSenderImpl implements JiraDeploymentInfoSender {
         }
 
         if (issueKeys.isEmpty() && serviceIds.isEmpty()) {
-            return JiraDeploymentInfoResponse.skippedIssueKeysNotFoundAndServiceIdsAreEmpty(
-                    jiraSite);
+            return CompletableFuture.completedFuture(
+                    JiraDeploymentInfoResponse.skippedIssueKeysNotFoundAndServiceIdsAreEmpty(
+                            jiraSite));
         }
 
         final Set<Association> associations = buildAssociations(issueKeys, serviceIds);
@@ -170,7 +182,8 @@ public class JiraDeploymentInfoSenderImpl implements JiraDeploymentInfoSender {
         final Optional<String> maybeCloudId = getCloudIdFor(jiraSite);
 
         if (!maybeCloudId.isPresent()) {
-            return JiraCommonResponse.failureSiteNotFound(jiraSite);
+            return CompletableFuture.completedFuture(
+                    JiraCommonResponse.failureSiteNotFound(jiraSite));
         }
 
         final List<Command> commands = buildCommands(enableGating);
@@ -179,17 +192,55 @@ public class JiraDeploymentInfoSenderImpl implements JiraDeploymentInfoSender {
                 createJiraDeploymentInfo(
                         deployment, environment, associations, deploymentState, commands);
 
-        try {
-            return handleDeploymentApiResponse(
-                    jiraSite,
-                    deploymentsApi.sendDeploymentAsJwt(
-                            siteConfig.getWebhookUrl(),
-                            deploymentInfo,
-                            maybeSecret.get(),
-                            pipelineLogger));
-        } catch (ApiUpdateFailedException e) {
-            return handleDeploymentApiError(jiraSite, e.getMessage());
-        }
+        // written to disk first so that it's delivered later if sending fails or Jenkins stops
+        final Optional<Long> outboxId =
+                eventOutbox.enqueue(
+                        jiraSite,
+                        siteConfig.getWebhookUrl(),
+                        siteConfig.getCredentialsId(),
+                        eventKey(deploymentInfo),
+                        DeploymentsApi.createRequest(deploymentInfo));
+
+        return deploymentsApi
+                .sendDeploymentAsJwtAsync(
+                        siteConfig.getWebhookUrl(),
+                        deploymentInfo,
+                        maybeSecret.get(),
+                        pipelineLogger)
+                .handle(
+                        (response, error) -> {
+                            final Throwable cause =
+                                    error == null ? null : Futures.causeOf(error);
+                            if (cause == null) {
+                                outboxId.ifPresent(eventOutbox::acknowledge);
+                                return handleDeploymentApiResponse(jiraSite, response);
+                            } else if (cause instanceof BadRequestException) {
+                                outboxId.ifPresent(eventOutbox::acknowledge);
+                                return handleDeploymentApiError(jiraSite, cause.getMessage());
+                            } else if (cause instanceof ApiUpdateFailedException) {
+                                outboxId.ifPresent(
+                                        id -> {
+                                            eventOutbox.retryLater(id);
+                                            pipelineLogger.info(
+                                                    "Deployment event will be sent to "
+                                                            + jiraSite
+                                                            + " again in the background");
+                                        });
+                                return handleDeploymentApiError(jiraSite, cause.getMessage());
+                            }
+                            throw new CompletionException(cause);
+                        });
+    }
+
+    /** Later events of the same deployment supersede earlier ones that are still pending */
+    private static String eventKey(final Deployments deploymentInfo) {
+        final JiraDeploymentInfo deployment = deploymentInfo.getDeployment();
+        return "deployment:"
+                + deployment.getPipeline().getId()
+                + ":"
+                + deployment.getDeploymentSequenceNumber()
+                + ":"
+                + deployment.getEnvironment().getId();
     }
 
     private Optional<JiraCloudSiteConfig> getSiteConfigFor(@Nullable final String jiraSite) {
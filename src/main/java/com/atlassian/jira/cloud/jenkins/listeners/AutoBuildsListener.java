@@ -4,6 +4,7 @@ import com.atlassian.jira.cloud.jenkins.buildinfo.service.MultibranchBuildInfoRe
 import com.atlassian.jira.cloud.jenkins.common.factory.JiraSenderFactory;
 import com.atlassian.jira.cloud.jenkins.common.response.JiraSendInfoResponse;
 import com.atlassian.jira.cloud.jenkins.common.service.IssueKeyExtractor;
+import com.atlassian.jira.cloud.jenkins.config.StepPattern;
 import com.atlassian.jira.cloud.jenkins.deploymentinfo.client.model.State;
 import com.atlassian.jira.cloud.jenkins.util.JenkinsToJiraStatus;
 import com.atlassian.jira.cloud.jenkins.logging.PipelineLogger;
@@ -18,8 +19,6 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.util.List;
 import java.util.Optional;
-import java.util.regex.Pattern;
-import java.util.regex.PatternSyntaxException;
 
 /**
  * This class should listen to the events from Jenkins pipeline and send 2 builds: one in
@@ -35,13 +34,14 @@ import java.util.regex.PatternSyntaxException;
  */
 public class AutoBuildsListener implements SinglePipelineListener {
     private final WorkflowRun build;
-    private final String autoBuildsRegex;
+    private final StepPattern autoBuildsPattern;
 
     private final IssueKeyExtractor issueKeyExtractor;
     private final PipelineLogger pipelineLogger;
 
     private boolean inProgressSent = false;
     private boolean finalResultSent = false;
+    private boolean issueKeysFound = false;
 
     private String startFlowNodeId = "";
     private String endFlowNodeId = "";
@@ -49,12 +49,15 @@ public class AutoBuildsListener implements SinglePipelineListener {
     public AutoBuildsListener(
             final WorkflowRun run,
             final PipelineLogger logger,
-            final String autoBuildsRegex,
+            final StepPattern autoBuildsPattern,
             final IssueKeyExtractor issueKeyExtractor) {
         this.build = run;
         this.pipelineLogger = logger;
-        this.autoBuildsRegex = autoBuildsRegex;
+        this.autoBuildsPattern = autoBuildsPattern;
         this.issueKeyExtractor = issueKeyExtractor;
+        autoBuildsPattern
+                .getSyntaxError()
+                .ifPresent(error -> pipelineLogger.warn("PatternSyntaxException: " + error));
     }
 
     public String getBuildUrl() {
@@ -78,7 +81,7 @@ public class AutoBuildsListener implements SinglePipelineListener {
      * flickering and then we send the update.
      */
     public void onNewHead(final FlowNode flowNode) {
-        if (!autoBuildsRegex.trim().isEmpty()) {
+        if (!autoBuildsPattern.isEmpty()) {
             tryToDefineStartAndStopNodeIds(flowNode);
         }
 
@@ -90,7 +93,7 @@ public class AutoBuildsListener implements SinglePipelineListener {
                 flowNode instanceof StepStartNode ? (StepStartNode) flowNode : null;
         final StepEndNode endNode = flowNode instanceof StepEndNode ? (StepEndNode) flowNode : null;
 
-        if (startNode != null && matchesRegex(autoBuildsRegex, startNode.getDisplayName())) {
+        if (startNode != null && autoBuildsPattern.match(startNode.getDisplayName()).isPresent()) {
             pipelineLogger.debug(
                     "build start node was determined: "
                             + startNode.getId()
@@ -115,7 +118,7 @@ public class AutoBuildsListener implements SinglePipelineListener {
             return;
         }
         pipelineLogger.debug("Checking for issue keys for this build ... ");
-        if (issueKeyExtractor.extractIssueKeys(this.build, pipelineLogger).isEmpty()) {
+        if (!hasIssueKeys()) {
             // We don't have issueKeys at the start of the execution of the pipeline, need to wait
             // for them first
             pipelineLogger.debug(
@@ -126,7 +129,7 @@ public class AutoBuildsListener implements SinglePipelineListener {
         pipelineLogger.debug(
                 "Found issue keys for this build! Deciding whether to send information to Jira now.");
 
-        if (autoBuildsRegex.trim().isEmpty()) {
+        if (autoBuildsPattern.isEmpty()) {
             pipelineLogger.debug("Pipeline step regex for builds is empty!");
             if (isOnCompleted) {
                 pipelineLogger.debug("Sending final build event (isOnCompleted == true))");
@@ -144,7 +147,8 @@ public class AutoBuildsListener implements SinglePipelineListener {
         } else {
             pipelineLogger.debug(
                     String.format(
-                            "Pipeline step regex for builds is set to '%s'", autoBuildsRegex));
+                            "Pipeline step regex for builds is set to '%s'",
+                            autoBuildsPattern.getRegex()));
             if (isOnCompleted) {
                 pipelineLogger.debug("Sending final build event (isOnCompleted == true))");
                 finalResultSent = true;
@@ -166,14 +170,12 @@ public class AutoBuildsListener implements SinglePipelineListener {
         }
     }
 
-    private boolean matchesRegex(final String autoBuildsRegex, final String displayName) {
-        try {
-            return Pattern.compile(autoBuildsRegex).matcher(displayName).matches();
-        } catch (final PatternSyntaxException exception) {
-            final String message = "PatternSyntaxException: " + exception.getMessage();
-            pipelineLogger.warn(message, exception);
-            return false;
+    /** The issue keys of a run only ever grow, once there are some there's no need to look again */
+    private boolean hasIssueKeys() {
+        if (!issueKeysFound) {
+            issueKeysFound = !issueKeyExtractor.extractIssueKeys(build, pipelineLogger).isEmpty();
         }
+        return issueKeysFound;
     }
 
     /**
@@ -214,12 +216,12 @@ public class AutoBuildsListener implements SinglePipelineListener {
             justification = "There is a null check, but SpotBugs doesn't recognize it")
     private void sendBuildStatusToJira(final Optional<String> maybeStatusNodeId) {
 
-        if (!autoBuildsRegex.trim().isEmpty() && startFlowNodeId.isEmpty()) {
+        if (!autoBuildsPattern.isEmpty() && startFlowNodeId.isEmpty()) {
             // no node matched the regex, so we're not going to send any events to Jira
             pipelineLogger.warn(
                     String.format(
                             "No build step matched the pipeline step regex for builds ('%s'). Not sending any events to Jira",
-                            autoBuildsRegex));
+                            autoBuildsPattern.getRegex()));
             return;
         }
 
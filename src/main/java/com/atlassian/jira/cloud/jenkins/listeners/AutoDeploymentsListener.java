@@ -1,6 +1,7 @@
 package com.atlassian.jira.cloud.jenkins.listeners;
 
 import com.atlassian.jira.cloud.jenkins.common.service.IssueKeyExtractor;
+import com.atlassian.jira.cloud.jenkins.config.StepPattern;
 import com.atlassian.jira.cloud.jenkins.logging.PipelineLogger;
 import org.jenkinsci.plugins.workflow.cps.nodes.StepStartNode;
 import org.jenkinsci.plugins.workflow.graph.FlowNode;
@@ -10,12 +11,12 @@ import org.slf4j.LoggerFactory;
 
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Optional;
 import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 public class AutoDeploymentsListener implements SinglePipelineListener {
     private final WorkflowRun build;
-    private final String autoDeploymentsRegex;
+    private final StepPattern autoDeploymentsPattern;
     private final List<SinglePipelineSingleDeploymentListener> deploymentListeners =
             new LinkedList<>();
     private final PipelineLogger pipelineLogger;
@@ -27,12 +28,15 @@ public class AutoDeploymentsListener implements SinglePipelineListener {
     public AutoDeploymentsListener(
             final WorkflowRun run,
             final PipelineLogger logger,
-            final String autoDeploymentsRegex,
+            final StepPattern autoDeploymentsPattern,
             final IssueKeyExtractor issueKeyExtractor) {
         this.build = run;
-        this.autoDeploymentsRegex = autoDeploymentsRegex;
+        this.autoDeploymentsPattern = autoDeploymentsPattern;
         this.pipelineLogger = logger;
         this.issueKeyExtractor = issueKeyExtractor;
+        autoDeploymentsPattern
+                .getSyntaxError()
+                .ifPresent(error -> pipelineLogger.warn("PatternSyntaxException: " + error));
     }
 
     public String getBuildUrl() {
@@ -47,10 +51,10 @@ public class AutoDeploymentsListener implements SinglePipelineListener {
 
         if (flowNode instanceof StepStartNode) {
             try {
-                final Matcher matcher =
-                        Pattern.compile(autoDeploymentsRegex).matcher(flowNode.getDisplayName());
-                if (matcher.matches()) {
-                    final String envName = matcher.group("envName");
+                final Optional<Matcher> matcher =
+                        autoDeploymentsPattern.match(flowNode.getDisplayName());
+                if (matcher.isPresent()) {
+                    final String envName = matcher.get().group("envName");
                     registerDeploymentListener(flowNode, envName);
                 }
             } catch (final IllegalArgumentException ex) {
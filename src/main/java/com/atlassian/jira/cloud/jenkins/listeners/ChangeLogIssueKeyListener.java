@@ -0,0 +1,33 @@
+package com.atlassian.jira.cloud.jenkins.listeners;
+
+import com.atlassian.jira.cloud.jenkins.config.JiraCloudPluginConfig;
+import com.atlassian.jira.cloud.jenkins.logging.PipelineLogger;
+import hudson.Extension;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import hudson.model.listeners.SCMListener;
+import hudson.scm.ChangeLogSet;
+import hudson.scm.SCM;
+import org.jenkinsci.plugins.workflow.job.WorkflowRun;
+
+/** Collects the issue keys of a pipeline's change logs as they are parsed, see {@link RunIssueKeys} */
+@Extension
+public class ChangeLogIssueKeyListener extends SCMListener {
+
+    private final RunIssueKeys runIssueKeys = RunIssueKeys.get();
+
+    @Override
+    public void onChangeLogParsed(
+            final Run<?, ?> build,
+            final SCM scm,
+            final TaskListener listener,
+            final ChangeLogSet<?> changelog) {
+        if (build instanceof WorkflowRun) {
+            runIssueKeys.addChangeLog(
+                    build,
+                    changelog,
+                    new PipelineLogger(
+                            listener.getLogger(), JiraCloudPluginConfig.isDebugLoggingEnabled()));
+        }
+    }
+}
@@ -1,13 +1,14 @@
 package com.atlassian.jira.cloud.jenkins.listeners;
 
 import hudson.Extension;
+import org.jenkinsci.plugins.workflow.cps.nodes.StepEndNode;
 import org.jenkinsci.plugins.workflow.flow.GraphListener;
 import org.jenkinsci.plugins.workflow.graph.FlowNode;
+import org.jenkinsci.plugins.workflow.graph.StepNode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.util.Arrays;
 
 @Extension
 public class JenkinsPipelineGraphListener implements GraphListener {
@@ -16,24 +17,37 @@ public class JenkinsPipelineGraphListener implements GraphListener {
 
     private final SinglePipelineListenerRegistry singlePipelineListenerRegistry =
             SinglePipelineListenerRegistry.get();
+    private final PipelineEventDispatcher pipelineEventDispatcher = PipelineEventDispatcher.get();
 
     @Override
     public void onNewHead(final FlowNode flowNode) {
-        final String nodeUrl;
+        if (!isStep(flowNode)) {
+            // the start and end of the flow itself, nothing the listeners act on
+            return;
+        }
+
+        final String runUrl;
 
         try {
-            nodeUrl = flowNode.getUrl();
+            // the owner URL is the URL of the run, which is what listeners are registered with
+            runUrl = flowNode.getExecution().getOwner().getUrl();
         } catch (final IOException e) {
-            log.error("Cannot get URL of a node", e);
+            log.error("Cannot get URL of the run owning a node", e);
             return;
         }
 
+        // this is called on the CPS VM thread, listeners may talk to Jira so don't block it
         singlePipelineListenerRegistry
-                .find(nodeUrl)
-                .map(
-                        (listeners) -> {
-                            listeners.forEach(listener -> listener.onNewHead(flowNode));
-                            return true;
-                        });
+                .find(runUrl)
+                .ifPresent(
+                        listeners ->
+                                pipelineEventDispatcher.dispatch(
+                                        runUrl,
+                                        () -> listeners.forEach(listener -> listener.onNewHead(flowNode))));
+    }
+
+    /** Start, end or the only node of a step */
+    static boolean isStep(final FlowNode flowNode) {
+        return flowNode instanceof StepNode || flowNode instanceof StepEndNode;
     }
 }
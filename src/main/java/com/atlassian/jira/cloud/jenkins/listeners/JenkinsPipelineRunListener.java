@@ -1,31 +1,52 @@
 package com.atlassian.jira.cloud.jenkins.listeners;
 
+import com.atlassian.jira.cloud.jenkins.common.pipeline.BackgroundSends;
 import com.atlassian.jira.cloud.jenkins.common.service.IssueKeyExtractor;
 import com.atlassian.jira.cloud.jenkins.config.JiraCloudPluginConfig;
+import com.atlassian.jira.cloud.jenkins.config.JiraCloudPluginConfigSnapshot;
 import com.atlassian.jira.cloud.jenkins.deploymentinfo.client.model.Pipeline;
 import com.atlassian.jira.cloud.jenkins.deploymentinfo.service.ChangeLogIssueKeyExtractor;
-import com.atlassian.jira.cloud.jenkins.util.BranchNameIssueKeyExtractor;
-import com.atlassian.jira.cloud.jenkins.util.CompoundIssueKeyExtractor;
+import com.atlassian.jira.cloud.jenkins.deploymentinfo.service.IssueKeysAction;
 import com.atlassian.jira.cloud.jenkins.logging.PipelineLogger;
 import hudson.Extension;
 import hudson.model.Run;
 import hudson.model.TaskListener;
 import hudson.model.listeners.RunListener;
+import jenkins.util.SystemProperties;
 import org.jenkinsci.plugins.workflow.job.WorkflowRun;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
 @Extension
 public class JenkinsPipelineRunListener extends RunListener<Run> {
 
+    private static final Logger log = LoggerFactory.getLogger(JenkinsPipelineRunListener.class);
+
+    private static final long COMPLETION_TIMEOUT_SECONDS =
+            SystemProperties.getLong(
+                    JenkinsPipelineRunListener.class.getName() + ".completionTimeoutSeconds", 60L);
+    private static final long BACKGROUND_SENDS_TIMEOUT_SECONDS =
+            SystemProperties.getLong(
+                    JenkinsPipelineRunListener.class.getName() + ".backgroundSendsTimeoutSeconds",
+                    30L);
+
     private final SinglePipelineListenerRegistry singlePipelineListenerRegistry =
             SinglePipelineListenerRegistry.get();
+    private final PipelineEventDispatcher pipelineEventDispatcher = PipelineEventDispatcher.get();
+    private final BackgroundSends backgroundSends = BackgroundSends.get();
+    private final RunIssueKeys runIssueKeys = RunIssueKeys.get();
+    private final ChangeLogIssueKeyExtractor changeLogIssueKeyExtractor =
+            new ChangeLogIssueKeyExtractor();
     private final IssueKeyExtractor issueKeyExtractor;
 
     public JenkinsPipelineRunListener() {
-        this.issueKeyExtractor =
-                new CompoundIssueKeyExtractor(
-                        new BranchNameIssueKeyExtractor(), new ChangeLogIssueKeyExtractor());
+        this.issueKeyExtractor = runIssueKeys;
     }
 
     public JenkinsPipelineRunListener(final IssueKeyExtractor issueKeyExtractor) {
@@ -34,7 +55,8 @@ public class JenkinsPipelineRunListener extends RunListener<Run> {
 
     @Override
     public void onStarted(final Run r, final TaskListener taskListener) {
-        PipelineLogger pipelineLogger = new PipelineLogger(taskListener.getLogger(), JiraCloudPluginConfig.isDebugLoggingEnabled());
+        final JiraCloudPluginConfigSnapshot config = JiraCloudPluginConfig.getSnapshot();
+        PipelineLogger pipelineLogger = new PipelineLogger(taskListener.getLogger(), config.isDebugLogging());
 
         if (!(r instanceof WorkflowRun)) {
             final String message =
@@ -43,33 +65,29 @@ public class JenkinsPipelineRunListener extends RunListener<Run> {
             return;
         }
 
-        final JiraCloudPluginConfig config = JiraCloudPluginConfig.get();
-        if (config == null) {
-            final String message =
-                    "Atlassian cloud plugin config is null. Please configure the plugin to support auto-detection of build and deployment events";
-            pipelineLogger.warn(message);
-            return;
-        }
-
         final WorkflowRun workflowRun = (WorkflowRun) r;
 
-        if (config.getAutoBuildsEnabled()) {
+        if (config.isAutoBuildsEnabled() || config.isAutoDeploymentsEnabled()) {
+            runIssueKeys.track(workflowRun);
+        }
+
+        if (config.isAutoBuildsEnabled()) {
             singlePipelineListenerRegistry.registerForBuild(
                     workflowRun.getUrl(),
                     new AutoBuildsListener(
                             workflowRun,
-                            new PipelineLogger(taskListener.getLogger(), JiraCloudPluginConfig.isDebugLoggingEnabled()),
-                            config.getAutoBuildsRegex(),
+                            new PipelineLogger(taskListener.getLogger(), config.isDebugLogging()),
+                            config.getAutoBuildsPattern(),
                             this.issueKeyExtractor));
         }
 
-        if (config.getAutoDeploymentsEnabled()) {
+        if (config.isAutoDeploymentsEnabled()) {
             singlePipelineListenerRegistry.registerForBuild(
                     workflowRun.getUrl(),
                     new AutoDeploymentsListener(
                             workflowRun,
-                            new PipelineLogger(taskListener.getLogger(), JiraCloudPluginConfig.isDebugLoggingEnabled()),
-                            config.getAutoDeploymentsRegex(),
+                            new PipelineLogger(taskListener.getLogger(), config.isDebugLogging()),
+                            config.getAutoDeploymentsPattern(),
                             this.issueKeyExtractor));
         }
     }
@@ -80,18 +98,100 @@ public class JenkinsPipelineRunListener extends RunListener<Run> {
 
         if (r instanceof WorkflowRun) {
             final WorkflowRun workflowRun = (WorkflowRun) r;
-            singlePipelineListenerRegistry
-                    .find(workflowRun.getUrl())
-                    .map(
-                            listeners -> {
-                                listeners.forEach(SinglePipelineListener::onCompleted);
-                                return true;
-                            });
-            singlePipelineListenerRegistry.unregister(workflowRun.getUrl());
+            final String runUrl = workflowRun.getUrl();
+            storeIssueKeySummary(workflowRun, pipelineLogger);
+
+            final Optional<List<SinglePipelineListener>> listeners =
+                    singlePipelineListenerRegistry.find(runUrl);
+            singlePipelineListenerRegistry.unregister(runUrl);
+
+            // both waits below hold up the completion of the run, together they don't take
+            // longer than the completion timeout
+            final long deadline =
+                    System.nanoTime() + TimeUnit.SECONDS.toNanos(COMPLETION_TIMEOUT_SECONDS);
+            boolean completed = true;
+            if (listeners.isPresent()) {
+                // queued behind the run's node events; waiting keeps the final events in the
+                // build log, which is closed once the run has completed
+                completed =
+                        awaitCompletion(
+                                runUrl,
+                                () -> listeners.get().forEach(SinglePipelineListener::onCompleted),
+                                deadline,
+                                pipelineLogger);
+            }
+            // sends of steps with async: true that nobody waited for, before the build log closes;
+            // only the ones done already are reported once the events have timed out
+            backgroundSends.flush(
+                    runUrl,
+                    completed ? backgroundSendsTimeout(deadline) : Duration.ZERO,
+                    pipelineLogger);
+            pipelineEventDispatcher.release(runUrl);
+            runIssueKeys.release(runUrl);
         } else {
             final String message =
                     "Not a WorkflowRun, onCompleted() won't be propagated to listeners";
             pipelineLogger.warn(message);
         }
     }
+
+    /**
+     * Saves the issue keys of an unsuccessful run, so the next runs don't have to read its change
+     * logs. The keys collected while the run was going are reused if it was tracked.
+     */
+    private void storeIssueKeySummary(
+            final WorkflowRun workflowRun, final PipelineLogger pipelineLogger) {
+        if (JiraCloudPluginConfig.getSnapshot().getSites().isEmpty()) {
+            return;
+        }
+
+        final Optional<IssueKeysAction> summary =
+                changeLogIssueKeyExtractor.summarize(
+                        workflowRun,
+                        runIssueKeys.getChangeLogIssueKeys(workflowRun.getUrl()).orElse(null),
+                        pipelineLogger);
+        if (!summary.isPresent()) {
+            return;
+        }
+
+        try {
+            workflowRun.addOrReplaceAction(summary.get());
+            workflowRun.save();
+        } catch (IOException e) {
+            log.warn("Could not save the issue keys of " + workflowRun.getUrl(), e);
+        }
+    }
+
+    /** @return false if the events haven't been sent before the deadline */
+    private boolean awaitCompletion(
+            final String runUrl,
+            final Runnable onCompleted,
+            final long deadline,
+            final PipelineLogger pipelineLogger) {
+        try {
+            if (!pipelineEventDispatcher.dispatchAndWait(
+                    runUrl, onCompleted, remainingNanos(deadline), TimeUnit.NANOSECONDS)) {
+                pipelineLogger.warn(
+                        "Timed out waiting for build and deployment events to be sent to Jira, "
+                                + "they will be sent in the background");
+                return false;
+            }
+            return true;
+        } catch (InterruptedException e) {
+            log.warn("Interrupted while waiting for pipeline events of " + runUrl, e);
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static Duration backgroundSendsTimeout(final long deadline) {
+        return Duration.ofNanos(
+                Math.min(
+                        TimeUnit.SECONDS.toNanos(BACKGROUND_SENDS_TIMEOUT_SECONDS),
+                        remainingNanos(deadline)));
+    }
+
+    private static long remainingNanos(final long deadline) {
+        return Math.max(0, deadline - System.nanoTime());
+    }
 }
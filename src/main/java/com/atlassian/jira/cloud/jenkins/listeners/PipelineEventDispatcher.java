@@ -0,0 +1,180 @@
+package com.atlassian.jira.cloud.jenkins.listeners;
+
+import com.google.common.annotations.VisibleForTesting;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import jenkins.util.SystemProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs pipeline events (flow nodes, run completion) off the thread that reported them.
+ *
+ * <p>Listeners send data to Jira synchronously, which can take seconds when Jira is slow or
+ * retries kick in. Flow node events are reported on the CPS VM thread of the pipeline, so handling
+ * them in place would stall the pipeline itself.
+ *
+ * <p>Each run gets its own serial queue: events of a run are processed one at a time and in the
+ * order they were dispatched, while events of different runs are processed in parallel by a
+ * bounded pool of worker threads.
+ */
+public class PipelineEventDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(PipelineEventDispatcher.class);
+
+    private static final int DEFAULT_WORKER_THREADS = 4;
+
+    private static final PipelineEventDispatcher instance =
+            new PipelineEventDispatcher(
+                    SystemProperties.getInteger(
+                            PipelineEventDispatcher.class.getName() + ".workerThreads",
+                            DEFAULT_WORKER_THREADS));
+
+    private final ExecutorService workers;
+    private final Map<String, RunQueue> runQueues = new ConcurrentHashMap<>();
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private volatile long lastLagMillis;
+
+    @VisibleForTesting
+    PipelineEventDispatcher(final int workerThreads) {
+        final ThreadPoolExecutor executor =
+                new ThreadPoolExecutor(
+                        workerThreads,
+                        workerThreads,
+                        60L,
+                        TimeUnit.SECONDS,
+                        new LinkedBlockingQueue<>(),
+                        new NamingThreadFactory(
+                                new DaemonThreadFactory(), "Jira Cloud pipeline event dispatcher"));
+        executor.allowCoreThreadTimeOut(true);
+        this.workers = executor;
+    }
+
+    public static PipelineEventDispatcher get() {
+        return instance;
+    }
+
+    /** Queues an event of the given run, it will run after all events dispatched before it. */
+    public void dispatch(final String runUrl, final Runnable event) {
+        enqueue(runUrl, new Event(event));
+    }
+
+    /**
+     * Queues an event of the given run and waits until it (and all events before it) has been
+     * processed.
+     *
+     * @return false if the event wasn't processed within the timeout; it is still processed later
+     */
+    public boolean dispatchAndWait(
+            final String runUrl, final Runnable event, final long timeout, final TimeUnit unit)
+            throws InterruptedException {
+        final Event queuedEvent = new Event(event);
+        enqueue(runUrl, queuedEvent);
+        return queuedEvent.processed.await(timeout, unit);
+    }
+
+    /**
+     * Forgets the queue of a run that has completed. Events that are still queued are processed
+     * anyway.
+     */
+    public void release(final String runUrl) {
+        runQueues.remove(runUrl);
+    }
+
+    /** Number of events dispatched but not processed yet, across all runs */
+    public int getQueueDepth() {
+        return queueDepth.get();
+    }
+
+    /** Time the most recently processed event spent waiting in its queue */
+    public long getLastLagMillis() {
+        return lastLagMillis;
+    }
+
+    /** Age of the oldest event that is still waiting to be processed, 0 if there is none */
+    public long getOldestPendingEventAgeMillis() {
+        final long now = System.currentTimeMillis();
+        return runQueues
+                .values()
+                .stream()
+                .map(runQueue -> runQueue.events.peek())
+                .filter(event -> event != null)
+                .mapToLong(event -> now - event.enqueuedAt)
+                .max()
+                .orElse(0);
+    }
+
+    private void enqueue(final String runUrl, final Event event) {
+        queueDepth.incrementAndGet();
+        runQueues.computeIfAbsent(runUrl, RunQueue::new).add(event);
+    }
+
+    private static final class Event {
+        private final Runnable action;
+        private final long enqueuedAt = System.currentTimeMillis();
+        private final CountDownLatch processed = new CountDownLatch(1);
+
+        Event(final Runnable action) {
+            this.action = action;
+        }
+    }
+
+    /**
+     * Events of a single run. At most one worker drains a queue at any time, which is what keeps
+     * the events of a run in order.
+     */
+    private final class RunQueue implements Runnable {
+        private final String runUrl;
+        private final Queue<Event> events = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        RunQueue(final String runUrl) {
+            this.runUrl = runUrl;
+        }
+
+        void add(final Event event) {
+            events.add(event);
+            scheduleIfIdle();
+        }
+
+        private void scheduleIfIdle() {
+            if (scheduled.compareAndSet(false, true)) {
+                workers.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            Event event;
+            while ((event = events.poll()) != null) {
+                queueDepth.decrementAndGet();
+                lastLagMillis = System.currentTimeMillis() - event.enqueuedAt;
+                try {
+                    event.action.run();
+                } catch (RuntimeException e) {
+                    log.error("Failed to process pipeline event of " + runUrl, e);
+                } finally {
+                    event.processed.countDown();
+                }
+            }
+            scheduled.set(false);
+
+            // an event may have been added after the last poll but before the flag was cleared
+            if (!events.isEmpty()) {
+                scheduleIfIdle();
+            }
+        }
+    }
+}
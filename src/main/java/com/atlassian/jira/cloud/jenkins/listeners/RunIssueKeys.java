@@ -0,0 +1,159 @@
+package com.atlassian.jira.cloud.jenkins.listeners;
+
+import com.atlassian.jira.cloud.jenkins.common.model.IssueKey;
+import com.atlassian.jira.cloud.jenkins.common.service.IssueKeyExtractor;
+import com.atlassian.jira.cloud.jenkins.deploymentinfo.service.ChangeLogIssueKeyExtractor;
+import com.atlassian.jira.cloud.jenkins.logging.PipelineLogger;
+import com.atlassian.jira.cloud.jenkins.util.BranchNameIssueKeyExtractor;
+import com.atlassian.jira.cloud.jenkins.util.CompoundIssueKeyExtractor;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableSet;
+import hudson.model.Run;
+import hudson.scm.ChangeLogSet;
+import org.jenkinsci.plugins.workflow.job.WorkflowRun;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the issue keys of the running pipelines, keyed by the URL of the run (see {@link
+ * Run#getUrl()}), so the listeners don't walk all change sets of the run whenever a flow node is
+ * added.
+ *
+ * <p>Runs are tracked from {@link JenkinsPipelineRunListener#onStarted} until they complete. The
+ * keys of the branch name and of the previous failed builds don't change while the run is going,
+ * they are extracted once when the keys are first asked for. After that, the keys of every change
+ * log the run checks out are added by {@link ChangeLogIssueKeyListener} as soon as it's parsed, and
+ * reading the keys is a single hash map access. Runs that aren't tracked fall back to the full
+ * extraction.
+ */
+public class RunIssueKeys implements IssueKeyExtractor {
+
+    private static final RunIssueKeys instance =
+            new RunIssueKeys(
+                    new CompoundIssueKeyExtractor(
+                            new BranchNameIssueKeyExtractor(), new ChangeLogIssueKeyExtractor()));
+
+    private final IssueKeyExtractor initialIssueKeyExtractor;
+    private final Map<String, Accumulator> runUrlToIssueKeys = new ConcurrentHashMap<>();
+
+    @VisibleForTesting
+    RunIssueKeys(final IssueKeyExtractor initialIssueKeyExtractor) {
+        this.initialIssueKeyExtractor = initialIssueKeyExtractor;
+    }
+
+    public static RunIssueKeys get() {
+        return instance;
+    }
+
+    public void track(final WorkflowRun run) {
+        runUrlToIssueKeys.putIfAbsent(run.getUrl(), new Accumulator());
+    }
+
+    public void release(final String runUrl) {
+        runUrlToIssueKeys.remove(runUrl);
+    }
+
+    @Override
+    public Set<String> extractIssueKeys(
+            final WorkflowRun workflowRun, final PipelineLogger pipelineLogger) {
+        final Accumulator accumulator = runUrlToIssueKeys.get(workflowRun.getUrl());
+        if (accumulator == null) {
+            return initialIssueKeyExtractor.extractIssueKeys(workflowRun, pipelineLogger);
+        }
+        return accumulator.getIssueKeys(workflowRun, pipelineLogger);
+    }
+
+    /**
+     * The issue keys of the change logs the run has checked out so far, without the keys of its
+     * branch and of the builds before it. Empty if the run isn't tracked.
+     */
+    public Optional<Set<String>> getChangeLogIssueKeys(final String runUrl) {
+        return Optional.ofNullable(runUrlToIssueKeys.get(runUrl))
+                .map(Accumulator::getChangeLogIssueKeys);
+    }
+
+    /** Adds the issue keys of a change log the run has just parsed, if the run is tracked */
+    public void addChangeLog(
+            final Run<?, ?> run,
+            final ChangeLogSet<? extends ChangeLogSet.Entry> changeLog,
+            final PipelineLogger pipelineLogger) {
+        final Accumulator accumulator = runUrlToIssueKeys.get(run.getUrl());
+        if (accumulator == null) {
+            return;
+        }
+
+        final Set<String> issueKeys = new HashSet<>();
+        for (Object item : changeLog.getItems()) {
+            ChangeLogIssueKeyExtractor.extractIssueKeys((ChangeLogSet.Entry) item, pipelineLogger)
+                    .stream()
+                    .map(IssueKey::toString)
+                    .forEach(issueKeys::add);
+            if (issueKeys.size() >= ISSUE_KEY_MAX_LIMIT) {
+                break;
+            }
+        }
+
+        accumulator.addChangeLog(issueKeys);
+        if (accumulator.add(issueKeys)) {
+            pipelineLogger.debug(
+                    String.format(
+                            "Extracted issue keys from the change log of build %s: %s",
+                            run.getNumber(), Arrays.toString(issueKeys.toArray())));
+        }
+    }
+
+    /** The issue keys of a single run, they only ever grow while the run is going */
+    private final class Accumulator {
+
+        private volatile Set<String> issueKeys = ImmutableSet.of();
+        private volatile Set<String> changeLogIssueKeys = ImmutableSet.of();
+        private volatile boolean initialized = false;
+
+        Set<String> getIssueKeys(final WorkflowRun run, final PipelineLogger pipelineLogger) {
+            if (!initialized) {
+                synchronized (this) {
+                    if (!initialized) {
+                        add(initialIssueKeyExtractor.extractIssueKeys(run, pipelineLogger));
+                        initialized = true;
+                    }
+                }
+            }
+            return issueKeys;
+        }
+
+        Set<String> getChangeLogIssueKeys() {
+            return changeLogIssueKeys;
+        }
+
+        /** @return whether any of the keys was new */
+        synchronized boolean add(final Collection<String> newIssueKeys) {
+            if (issueKeys.size() >= ISSUE_KEY_MAX_LIMIT || issueKeys.containsAll(newIssueKeys)) {
+                return false;
+            }
+            issueKeys = union(issueKeys, newIssueKeys);
+            return true;
+        }
+
+        synchronized void addChangeLog(final Collection<String> newIssueKeys) {
+            if (changeLogIssueKeys.size() < ISSUE_KEY_MAX_LIMIT
+                    && !changeLogIssueKeys.containsAll(newIssueKeys)) {
+                changeLogIssueKeys = union(changeLogIssueKeys, newIssueKeys);
+            }
+        }
+
+        private Set<String> union(final Set<String> keys, final Collection<String> newKeys) {
+            return ImmutableSet.copyOf(
+                    Stream.concat(keys.stream(), newKeys.stream())
+                            .distinct()
+                            .limit(ISSUE_KEY_MAX_LIMIT)
+                            .iterator());
+        }
+    }
+}
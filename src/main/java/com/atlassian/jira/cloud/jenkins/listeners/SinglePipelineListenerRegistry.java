@@ -1,38 +1,34 @@
 package com.atlassian.jira.cloud.jenkins.listeners;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
-
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Keeps the listeners of all running pipelines, keyed by the URL of the run they belong to (see
+ * {@link hudson.model.Run#getUrl()}). Flow node events are resolved to their run via {@code
+ * FlowExecutionOwner#getUrl()}, so a lookup is a single hash map access regardless of how many
+ * pipelines are running.
+ */
 public class SinglePipelineListenerRegistry {
 
     private final Map<String, List<SinglePipelineListener>> buildUrlToSinglePipelineListeners;
 
     public void registerForBuild(final String buildUrl, final SinglePipelineListener listener) {
-        List<SinglePipelineListener> existingListeners =
-                buildUrlToSinglePipelineListeners.getOrDefault(buildUrl, new ArrayList<>());
-        existingListeners.add(listener);
-        buildUrlToSinglePipelineListeners.put(buildUrl, existingListeners);
+        buildUrlToSinglePipelineListeners
+                .computeIfAbsent(buildUrl, url -> new CopyOnWriteArrayList<>())
+                .add(listener);
     }
 
     public void unregister(final String buildUrl) {
         buildUrlToSinglePipelineListeners.remove(buildUrl);
     }
 
-    /**
-     * Looks for earlier registered WorkflowRun using buildOrNodeUrl (nodeUrl is always a child path
-     * to the buildUrl)
-     */
-    public Optional<List<SinglePipelineListener>> find(final String buildOrNodeUrl) {
-        Optional<String> maybeRunUrl =
-                buildUrlToSinglePipelineListeners
-                        .keySet()
-                        .stream()
-                        .filter(buildOrNodeUrl::startsWith)
-                        .findFirst();
-        return maybeRunUrl.map(buildUrlToSinglePipelineListeners::get);
+    /** Looks for listeners registered earlier for the run with the given URL */
+    public Optional<List<SinglePipelineListener>> find(final String buildUrl) {
+        return Optional.ofNullable(buildUrlToSinglePipelineListeners.get(buildUrl));
     }
 
     SinglePipelineListenerRegistry() {
@@ -29,6 +29,7 @@ public class SinglePipelineSingleDeploymentListener implements SinglePipelineLis
 
     private boolean inProgressSent = false;
     private boolean finalResultSent = false;
+    private boolean issueKeysFound = false;
 
     private final String startFlowNodeId;
     private String endFlowNodeId = "";
@@ -80,7 +81,7 @@ public class SinglePipelineSingleDeploymentListener implements SinglePipelineLis
         }
 
         pipelineLogger.debug("Checking for issue keys for this deployment ... ");
-        if (issueKeyExtractor.extractIssueKeys(this.build, pipelineLogger).isEmpty()) {
+        if (!hasIssueKeys()) {
             // We don't have issueKeys at the start of the execution of the pipeline, need to wait
             // for them first
             pipelineLogger.debug(
@@ -108,6 +109,14 @@ public class SinglePipelineSingleDeploymentListener implements SinglePipelineLis
         }
     }
 
+    /** The issue keys of a run only ever grow, once there are some there's no need to look again */
+    private boolean hasIssueKeys() {
+        if (!issueKeysFound) {
+            issueKeysFound = !issueKeyExtractor.extractIssueKeys(build, pipelineLogger).isEmpty();
+        }
+        return issueKeysFound;
+    }
+
     private static class EnvTypeMappingEntry {
         final String jiraEnvType;
         final String[] customEnvTypes;
@@ -6,6 +6,7 @@ import java.io.ByteArrayOutputStream;
 import java.io.OutputStream;
 import java.io.PrintStream;
 import java.io.UnsupportedEncodingException;
+import java.util.function.Supplier;
 
 /**
  * A logger that logs output into the Jenkins pipeline logs. A Jenkins user can view these logs
@@ -83,4 +84,11 @@ public class PipelineLogger {
             printStream.flush();
         }
     }
+
+    /** Only builds the message when debug logging is on, e.g. for whole request bodies */
+    public void debug(final Supplier<String> message) {
+        if (this.debugLogging) {
+            debug(message.get());
+        }
+    }
 }
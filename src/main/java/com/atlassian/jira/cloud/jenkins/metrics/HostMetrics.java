@@ -0,0 +1,116 @@
+package com.atlassian.jira.cloud.jenkins.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/** The requests sent to one host, see {@link HttpMetrics} */
+public class HostMetrics {
+
+    private final LatencyHistogram dns = new LatencyHistogram();
+    private final LatencyHistogram connect = new LatencyHistogram();
+    private final LatencyHistogram tls = new LatencyHistogram();
+    private final LatencyHistogram request = new LatencyHistogram();
+    private final LatencyHistogram timeToFirstByte = new LatencyHistogram();
+    private final LatencyHistogram total = new LatencyHistogram();
+
+    private final ConcurrentMap<Integer, LongAdder> statusCodes = new ConcurrentHashMap<>();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder rateLimited = new LongAdder();
+    private final LongAdder bytesSent = new LongAdder();
+    private final LongAdder bytesReceived = new LongAdder();
+
+    /** Looking up the host name */
+    public LatencyHistogram getDns() {
+        return dns;
+    }
+
+    /** Opening a new connection, including the TLS handshake */
+    public LatencyHistogram getConnect() {
+        return connect;
+    }
+
+    /** The TLS handshake of a new connection */
+    public LatencyHistogram getTls() {
+        return tls;
+    }
+
+    /** Writing the request headers and body */
+    public LatencyHistogram getRequest() {
+        return request;
+    }
+
+    /** From the request being written until the response headers start to arrive */
+    public LatencyHistogram getTimeToFirstByte() {
+        return timeToFirstByte;
+    }
+
+    /** The whole call, from the start until the response body has been read */
+    public LatencyHistogram getTotal() {
+        return total;
+    }
+
+    /** Number of responses per status code */
+    public Map<Integer, Long> getStatusCodes() {
+        final Map<Integer, Long> counts = new TreeMap<>();
+        statusCodes.forEach((code, count) -> counts.put(code, count.sum()));
+        return counts;
+    }
+
+    /** Calls that failed without a response, e.g. timeouts */
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    /** Requests that were sent again after a temporary error */
+    public long getRetries() {
+        return retries.sum();
+    }
+
+    /** Requests that were not sent as the rate limit of the client was reached */
+    public long getRateLimited() {
+        return rateLimited.sum();
+    }
+
+    /** Bytes of the request bodies */
+    public long getBytesSent() {
+        return bytesSent.sum();
+    }
+
+    /** Bytes of the response bodies */
+    public long getBytesReceived() {
+        return bytesReceived.sum();
+    }
+
+    void recordStatusCode(final int code) {
+        LongAdder count = statusCodes.get(code);
+        if (count == null) {
+            // computeIfAbsent locks even when the key is there on Java 8
+            count = statusCodes.computeIfAbsent(code, c -> new LongAdder());
+        }
+        count.increment();
+    }
+
+    void recordFailure() {
+        failures.increment();
+    }
+
+    void recordRetry() {
+        retries.increment();
+    }
+
+    void recordRateLimited() {
+        rateLimited.increment();
+    }
+
+    void recordBytesSent(final long bytes) {
+        bytesSent.add(bytes);
+    }
+
+    void recordBytesReceived(final long bytes) {
+        bytesReceived.add(bytes);
+    }
+}
@@ -0,0 +1,75 @@
+package com.atlassian.jira.cloud.jenkins.metrics;
+
+import com.google.common.annotations.VisibleForTesting;
+import io.github.resilience4j.ratelimiter.RequestNotPermitted;
+import okhttp3.EventListener;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Metrics of the HTTP requests the plugin sends, per host (e.g. the host of the webhooks of the
+ * Jenkins app).
+ *
+ * <p>Timings and sizes are recorded by an {@link EventListener} installed in the OkHttpClient (see
+ * {@link #eventListenerFactory()}), requests rejected by the rate limiter of the client by {@link
+ * #interceptor()}. Recording only updates counters and fixed-size histograms, without locking.
+ * The metrics are shown on a management page (see {@link HttpMetricsManagementLink}).
+ */
+public class HttpMetrics {
+
+    private static final HttpMetrics instance = new HttpMetrics();
+
+    private final ConcurrentMap<String, HostMetrics> hostToMetrics = new ConcurrentHashMap<>();
+
+    @VisibleForTesting
+    HttpMetrics() {}
+
+    public static HttpMetrics get() {
+        return instance;
+    }
+
+    /** Records the timings, status code and sizes of every call of the client */
+    public EventListener.Factory eventListenerFactory() {
+        return call -> new HttpMetricsEventListener(metricsOf(call.request()));
+    }
+
+    /** Counts the requests the rate limiter doesn't let through, must run before it */
+    public Interceptor interceptor() {
+        return chain -> {
+            try {
+                return chain.proceed(chain.request());
+            } catch (RequestNotPermitted e) {
+                metricsOf(chain.request()).recordRateLimited();
+                throw e;
+            }
+        };
+    }
+
+    /** Counts a request the rate limiter doesn't let through before it is queued */
+    public void recordRateLimited(final Request request) {
+        metricsOf(request).recordRateLimited();
+    }
+
+    /** Counts a request that is sent again after a temporary error */
+    public void recordRetry(final Request request) {
+        metricsOf(request).recordRetry();
+    }
+
+    /** The metrics of all hosts requests were sent to, by host */
+    public Map<String, HostMetrics> getHosts() {
+        return new TreeMap<>(hostToMetrics);
+    }
+
+    private HostMetrics metricsOf(final Request request) {
+        final String host = request.url().host();
+        final HostMetrics metrics = hostToMetrics.get(host);
+        return metrics != null
+                ? metrics
+                : hostToMetrics.computeIfAbsent(host, h -> new HostMetrics());
+    }
+}
@@ -0,0 +1,119 @@
+package com.atlassian.jira.cloud.jenkins.metrics;
+
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.List;
+
+/**
+ * Records the timings of one call. The events of a call don't overlap, they are only ever seen by
+ * one thread at a time.
+ */
+class HttpMetricsEventListener extends EventListener {
+
+    private final HostMetrics metrics;
+
+    private long callStart;
+    private long dnsStart;
+    private long connectStart;
+    private long secureConnectStart;
+    private long requestStart;
+    private long requestEnd;
+
+    HttpMetricsEventListener(final HostMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void callStart(final Call call) {
+        callStart = System.nanoTime();
+    }
+
+    @Override
+    public void dnsStart(final Call call, final String domainName) {
+        dnsStart = System.nanoTime();
+    }
+
+    @Override
+    public void dnsEnd(
+            final Call call, final String domainName, final List<InetAddress> inetAddressList) {
+        metrics.getDns().record(System.nanoTime() - dnsStart);
+    }
+
+    @Override
+    public void connectStart(
+            final Call call, final InetSocketAddress inetSocketAddress, final Proxy proxy) {
+        connectStart = System.nanoTime();
+    }
+
+    @Override
+    public void secureConnectStart(final Call call) {
+        secureConnectStart = System.nanoTime();
+    }
+
+    @Override
+    public void secureConnectEnd(final Call call, @Nullable final Handshake handshake) {
+        metrics.getTls().record(System.nanoTime() - secureConnectStart);
+    }
+
+    @Override
+    public void connectEnd(
+            final Call call,
+            final InetSocketAddress inetSocketAddress,
+            final Proxy proxy,
+            @Nullable final Protocol protocol) {
+        metrics.getConnect().record(System.nanoTime() - connectStart);
+    }
+
+    @Override
+    public void requestHeadersStart(final Call call) {
+        requestStart = System.nanoTime();
+    }
+
+    @Override
+    public void requestHeadersEnd(final Call call, final Request request) {
+        requestEnd = System.nanoTime();
+    }
+
+    @Override
+    public void requestBodyEnd(final Call call, final long byteCount) {
+        requestEnd = System.nanoTime();
+        metrics.recordBytesSent(byteCount);
+    }
+
+    @Override
+    public void responseHeadersStart(final Call call) {
+        metrics.getRequest().record(requestEnd - requestStart);
+        metrics.getTimeToFirstByte().record(System.nanoTime() - requestEnd);
+    }
+
+    @Override
+    public void responseHeadersEnd(final Call call, final Response response) {
+        metrics.recordStatusCode(response.code());
+    }
+
+    @Override
+    public void responseBodyEnd(final Call call, final long byteCount) {
+        metrics.recordBytesReceived(byteCount);
+    }
+
+    @Override
+    public void callEnd(final Call call) {
+        metrics.getTotal().record(System.nanoTime() - callStart);
+    }
+
+    @Override
+    public void callFailed(final Call call, final IOException ioe) {
+        metrics.getTotal().record(System.nanoTime() - callStart);
+        metrics.recordFailure();
+    }
+}
@@ -0,0 +1,76 @@
+package com.atlassian.jira.cloud.jenkins.metrics;
+
+import com.atlassian.jira.cloud.jenkins.Messages;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hudson.Extension;
+import hudson.model.ManagementLink;
+import jenkins.model.Jenkins;
+import org.kohsuke.stapler.StaplerRequest;
+import org.kohsuke.stapler.StaplerResponse;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Shows the {@link HttpMetrics} under "Manage Jenkins", the same metrics are served as JSON by
+ * {@code /manage/jira-cloud-http-metrics/json}.
+ */
+@Extension
+public class HttpMetricsManagementLink extends ManagementLink {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Override
+    public String getIconFileName() {
+        return "monitor.png";
+    }
+
+    @Override
+    public String getUrlName() {
+        return "jira-cloud-http-metrics";
+    }
+
+    @Override
+    public String getDisplayName() {
+        return Messages.HttpMetricsManagementLink_DisplayName();
+    }
+
+    @Override
+    public String getDescription() {
+        return Messages.HttpMetricsManagementLink_Description();
+    }
+
+    @Override
+    public Category getCategory() {
+        return Category.STATUS;
+    }
+
+    public Map<String, HostMetrics> getHosts() {
+        return HttpMetrics.get().getHosts();
+    }
+
+    /** The histograms of the host, in the order of the phases of a call */
+    public Map<String, LatencyHistogram> phasesOf(final HostMetrics metrics) {
+        final Map<String, LatencyHistogram> phases = new LinkedHashMap<>();
+        phases.put("dns", metrics.getDns());
+        phases.put("connect", metrics.getConnect());
+        phases.put("tls", metrics.getTls());
+        phases.put("request", metrics.getRequest());
+        phases.put("timeToFirstByte", metrics.getTimeToFirstByte());
+        phases.put("total", metrics.getTotal());
+        return phases;
+    }
+
+    public String formatMillis(final double millis) {
+        return String.format("%.1f ms", millis);
+    }
+
+    @SuppressWarnings("unused")
+    public void doJson(final StaplerRequest request, final StaplerResponse response)
+            throws IOException {
+        Jenkins.get().checkPermission(Jenkins.ADMINISTER);
+        response.setContentType("application/json;charset=UTF-8");
+        objectMapper.writeValue(response.getWriter(), getHosts());
+    }
+}
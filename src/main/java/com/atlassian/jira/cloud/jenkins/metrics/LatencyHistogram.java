@@ -0,0 +1,109 @@
+package com.atlassian.jira.cloud.jenkins.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram of durations with a fixed number of buckets, recorded without locking.
+ *
+ * <p>The buckets double in width: the first one holds durations below 1 ms, bucket {@code i}
+ * durations below {@code 2^i} ms, and the last one everything from {@code 2^(BUCKETS - 2)} ms up.
+ * Percentiles are reported as the upper bound of their bucket, so they are at most twice the
+ * actual value.
+ */
+public class LatencyHistogram {
+
+    static final int BUCKETS = 18;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    public void record(final long nanos) {
+        if (nanos < 0) {
+            return;
+        }
+        counts.incrementAndGet(bucket(TimeUnit.NANOSECONDS.toMillis(nanos)));
+        totalNanos.add(nanos);
+        if (nanos > maxNanos.get()) {
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+    }
+
+    public long getCount() {
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            count += counts.get(i);
+        }
+        return count;
+    }
+
+    public double getMeanMillis() {
+        final long count = getCount();
+        return count == 0 ? 0 : totalNanos.sum() / 1_000_000.0 / count;
+    }
+
+    public double getMaxMillis() {
+        return maxNanos.get() / 1_000_000.0;
+    }
+
+    public double getP50Millis() {
+        return percentileMillis(0.50);
+    }
+
+    public double getP95Millis() {
+        return percentileMillis(0.95);
+    }
+
+    public double getP99Millis() {
+        return percentileMillis(0.99);
+    }
+
+    /** Count of durations per bucket, labelled with the upper bound of the bucket */
+    public Map<String, Long> getBuckets() {
+        final Map<String, Long> buckets = new LinkedHashMap<>();
+        for (int i = 0; i < BUCKETS - 1; i++) {
+            buckets.put("<" + upperBoundMillis(i) + "ms", counts.get(i));
+        }
+        buckets.put(">=" + upperBoundMillis(BUCKETS - 2) + "ms", counts.get(BUCKETS - 1));
+        return buckets;
+    }
+
+    /** The upper bound of the bucket holding the given percentile, 0 without durations */
+    double percentileMillis(final double percentile) {
+        final long[] snapshot = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            count += snapshot[i];
+        }
+        if (count == 0) {
+            return 0;
+        }
+
+        final long rank = (long) Math.ceil(percentile * count);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS - 1; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(upperBoundMillis(i), getMaxMillis());
+            }
+        }
+        return getMaxMillis();
+    }
+
+    static int bucket(final long millis) {
+        if (millis <= 0) {
+            return 0;
+        }
+        return Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(millis));
+    }
+
+    private static long upperBoundMillis(final int bucket) {
+        return 1L << bucket;
+    }
+}
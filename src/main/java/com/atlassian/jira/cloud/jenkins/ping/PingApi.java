@@ -6,6 +6,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import okhttp3.OkHttpClient;
 
 import javax.inject.Inject;
+import java.util.concurrent.CompletableFuture;
 
 public class PingApi extends JenkinsAppApi<PingResponse> {
 
@@ -27,4 +28,22 @@ public class PingApi extends JenkinsAppApi<PingResponse> {
                 sendRequestAsJwt(webhookUrl, secret, request, PingResponse.class, pipelineLogger);
         return response.getSuccess();
     }
+
+    /** Same as sendPing, without waiting for the response. */
+    public CompletableFuture<Boolean> sendPingAsync(
+            final String webhookUrl, final String secret, final PipelineLogger pipelineLogger) {
+        return sendRequestAsJwtAsync(
+                        webhookUrl,
+                        secret,
+                        new JenkinsAppPingRequest(),
+                        PingResponse.class,
+                        pipelineLogger)
+                .thenApply(PingResponse::getSuccess);
+    }
+
+    /** The ping checks the connection, including for the circuit breaker of the webhook. */
+    @Override
+    protected boolean useCircuitBreaker() {
+        return false;
+    }
 }
@@ -0,0 +1,64 @@
+package com.atlassian.jira.cloud.jenkins.provider;
+
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+
+/**
+ * The HTTP requests made on behalf of a single caller, e.g. a pipeline step, so they can all be
+ * cancelled once the caller goes away.
+ *
+ * <p>Requests sent through the {@link HttpRetryScheduler} join the scope of the thread sending
+ * them (see {@link #call}). Cancelling the scope cancels the requests in flight, their pending
+ * retries, and every request that joins it afterwards.
+ */
+public final class CancellableCalls {
+
+    private static final ThreadLocal<CancellableCalls> current = new ThreadLocal<>();
+
+    private final Set<Future<?>> calls = ConcurrentHashMap.newKeySet();
+    private volatile boolean cancelled;
+
+    /** The scope of the calling thread, if it's running in one */
+    public static Optional<CancellableCalls> current() {
+        return Optional.ofNullable(current.get());
+    }
+
+    /** Runs the task with this scope as the scope of the calling thread */
+    public <T> T call(final Callable<T> task) throws Exception {
+        final CancellableCalls previous = current.get();
+        current.set(this);
+        try {
+            return task.call();
+        } finally {
+            if (previous == null) {
+                current.remove();
+            } else {
+                current.set(previous);
+            }
+        }
+    }
+
+    public void cancel() {
+        cancelled = true;
+        calls.forEach(call -> call.cancel(true));
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /** Adds a request, it's cancelled right away if the scope has been cancelled already */
+    void add(final Future<?> call) {
+        calls.add(call);
+        if (cancelled) {
+            call.cancel(true);
+        }
+    }
+
+    void remove(final Future<?> call) {
+        calls.remove(call);
+    }
+}
@@ -0,0 +1,16 @@
+package com.atlassian.jira.cloud.jenkins.provider;
+
+import java.util.concurrent.CompletionException;
+
+/** Helpers for the futures of requests sent in the background */
+public final class Futures {
+
+    private Futures() {}
+
+    /** The failure of a future, without the {@link CompletionException} of a dependent stage */
+    public static Throwable causeOf(final Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null
+                ? error.getCause()
+                : error;
+    }
+}
@@ -1,35 +1,42 @@
 package com.atlassian.jira.cloud.jenkins.provider;
 
 import com.atlassian.jira.cloud.jenkins.Config;
+import com.atlassian.jira.cloud.jenkins.metrics.HttpMetrics;
 import com.google.inject.Provides;
 import io.github.resilience4j.ratelimiter.RateLimiter;
 import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
 import io.github.resilience4j.ratelimiter.RequestNotPermitted;
+import jenkins.util.SystemProperties;
+import okhttp3.Dispatcher;
 import okhttp3.Interceptor;
-import okhttp3.Interceptor.Chain;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
-import okhttp3.Response;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.time.Duration;
-import java.util.function.Predicate;
 
 /**
- * OkHttpClient with appropriate default timeouts
+ * OkHttpClient with appropriate default timeouts. Temporary errors are retried by {@link
+ * HttpRetryScheduler}, not by the client itself. All calls are recorded in {@link HttpMetrics}.
+ * Requests to the webhooks of the Jenkins app are paced by {@link WebhookRateLimiters}.
+ *
+ * <p>Queued calls (all calls sent through {@link HttpRetryScheduler}) are limited by the
+ * dispatcher of the client to {@code maxRequests} at a time, and {@code maxRequestsPerHost} to one
+ * host. All webhooks of the Jenkins app share a host, so the latter limits the requests to Jira.
  */
 public class HttpClientProvider {
 
     private static final String USER_AGENT = "atlassian-jira-software-cloud-plugin";
 
-    private static final Logger log = LoggerFactory.getLogger(HttpClientProvider.class);
-    private final OkHttpClient httpClient;
+    private static final String PROPERTY_PREFIX = HttpClientProvider.class.getName();
+
+    private static final int MAX_REQUESTS =
+            SystemProperties.getInteger(PROPERTY_PREFIX + ".maxRequests", 128);
+
+    private static final int MAX_REQUESTS_PER_HOST =
+            SystemProperties.getInteger(PROPERTY_PREFIX + ".maxRequestsPerHost", 64);
 
-    private final Predicate<Response> serverInternalPredicate = response -> response.code() >= 500;
-    private final Predicate<Response> notFoudPredicate = response ->
-            response.code() == 404 && response.request().url().toString().endsWith("gating-status");
+    private final OkHttpClient httpClient;
 
     public HttpClientProvider() {
         final RateLimiterRegistry rateLimiterRegistry = Config.RATE_LIMITER_REGISTRY;
@@ -38,13 +45,23 @@ public class HttpClientProvider {
                         .connectTimeout(Duration.ofMillis(5000))
                         .readTimeout(Duration.ofMillis(5000))
                         .writeTimeout(Duration.ofMillis(5000))
+                        .dispatcher(dispatcher())
+                        .eventListenerFactory(HttpMetrics.get().eventListenerFactory())
+                        .addInterceptor(HttpRetryScheduler.interceptor())
                         .addInterceptor(userAgentInterceptor())
-                        .addInterceptor(retryInterceptor())
-                        .addInterceptor(gateRetryInterceptor())
+                        .addInterceptor(HttpMetrics.get().interceptor())
+                        .addInterceptor(WebhookRateLimiters.get().interceptor())
                         .addInterceptor(rateLimiterInterceptor(rateLimiterRegistry))
                         .build();
     }
 
+    private static Dispatcher dispatcher() {
+        final Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(MAX_REQUESTS);
+        dispatcher.setMaxRequestsPerHost(MAX_REQUESTS_PER_HOST);
+        return dispatcher;
+    }
+
     private Interceptor rateLimiterInterceptor(final RateLimiterRegistry rateLimiterRegistry) {
         return chain -> {
             final Request request = chain.request();
@@ -73,26 +90,6 @@ public class HttpClientProvider {
         };
     }
 
-    private Interceptor gateRetryInterceptor() {
-        return chain -> {
-            Request request = chain.request();
-            Response response = chain.proceed(request);
-            response = performRetry(chain, request, response, notFoudPredicate);
-
-            return response;
-        };
-    }
-
-    private Interceptor retryInterceptor() {
-        return chain -> {
-            Request request = chain.request();
-            Response response = chain.proceed(request);
-            response = performRetry(chain, request, response, serverInternalPredicate);
-
-            return response;
-        };
-    }
-
     private Interceptor userAgentInterceptor() {
         return chain -> {
             final Request originalRequest = chain.request();
@@ -102,38 +99,6 @@ public class HttpClientProvider {
         };
     }
 
-    private Response performRetry(
-            final Chain chain,
-            final Request request,
-            final Response originalResponse,
-            final Predicate<Response> retryPredicate)
-            throws IOException {
-        Response response = originalResponse;
-        final int MAX_RETRIES = 3;
-        int currentAttempt = 1;
-
-        while (retryPredicate.test(response) && currentAttempt <= MAX_RETRIES) {
-            log.warn(
-                    String.format(
-                            "Received %d for request to %s. Retry attempt %d of %d.",
-                            response.code(),
-                            response.request().url(),
-                            currentAttempt,
-                            MAX_RETRIES));
-            response.close();
-            try {
-                Thread.sleep(5000); // delay between each retry
-            } catch (InterruptedException e) {
-                log.error("Retry delay interrupted: " + e.getMessage());
-                Thread.currentThread().interrupt();
-            }
-            response = chain.proceed(request);
-            currentAttempt++;
-        }
-
-        return response;
-    }
-
     @Provides
     public OkHttpClient httpClient() {
         return httpClient;
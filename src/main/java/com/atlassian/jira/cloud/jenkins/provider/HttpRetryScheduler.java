@@ -0,0 +1,332 @@
+package com.atlassian.jira.cloud.jenkins.provider;
+
+import com.atlassian.jira.cloud.jenkins.metrics.HttpMetrics;
+import com.google.common.annotations.VisibleForTesting;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import io.github.resilience4j.ratelimiter.RequestNotPermitted;
+import jenkins.util.SystemProperties;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Interceptor;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Retries requests that failed with a temporary error without holding a thread while waiting.
+ *
+ * <p>Server errors (5xx), 429 and 404 from the gating status endpoint (which doesn't know about a
+ * deployment until it has been processed) are retried with exponential backoff and full jitter:
+ * the n-th retry waits a random time between 0 and {@code min(maxDelay, baseDelay * 2^(n-1))}. A
+ * {@code Retry-After} header of a 429 or 503 response is used instead of the backoff.
+ *
+ * <p>Every request has a total deadline. A retry that would start after the deadline is not made,
+ * the last response is returned instead. A single attempt is bounded by the timeouts of the
+ * client.
+ *
+ * <p>No thread waits for a response: every attempt is queued with the dispatcher of the
+ * OkHttpClient, the wait between attempts happens on a timer. Requests sent from a thread running
+ * in {@link CancellableCalls} are cancelled with it.
+ *
+ * <p>Attempts of requests to a webhook reserve a permit of its {@link WebhookRateLimiters} before
+ * they are queued, an attempt whose permit is due later waits on the timer as well.
+ */
+public class HttpRetryScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(HttpRetryScheduler.class);
+
+    private static final String PROPERTY_PREFIX = HttpRetryScheduler.class.getName();
+
+    private static final HttpRetryScheduler instance =
+            new HttpRetryScheduler(
+                    SystemProperties.getInteger(PROPERTY_PREFIX + ".maxRetries", 3),
+                    Duration.ofMillis(
+                            SystemProperties.getLong(PROPERTY_PREFIX + ".baseDelayMillis", 1000L)),
+                    Duration.ofMillis(
+                            SystemProperties.getLong(PROPERTY_PREFIX + ".maxDelayMillis", 10_000L)),
+                    Duration.ofSeconds(
+                            SystemProperties.getLong(PROPERTY_PREFIX + ".deadlineSeconds", 60L)),
+                    WebhookRateLimiters.get());
+
+    private final int maxRetries;
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+    private final long deadlineNanos;
+    private final WebhookRateLimiters rateLimiters;
+    private final ScheduledThreadPoolExecutor timer;
+
+    @VisibleForTesting
+    HttpRetryScheduler(
+            final int maxRetries,
+            final Duration baseDelay,
+            final Duration maxDelay,
+            final Duration deadline,
+            final WebhookRateLimiters rateLimiters) {
+        this.maxRetries = maxRetries;
+        this.baseDelayMillis = baseDelay.toMillis();
+        this.maxDelayMillis = maxDelay.toMillis();
+        this.deadlineNanos = deadline.toNanos();
+        this.rateLimiters = rateLimiters;
+        this.timer =
+                new ScheduledThreadPoolExecutor(
+                        1,
+                        new NamingThreadFactory(new DaemonThreadFactory(), "Jira Cloud HTTP retry"));
+        this.timer.setRemoveOnCancelPolicy(true);
+    }
+
+    public static HttpRetryScheduler get() {
+        return instance;
+    }
+
+    /**
+     * Sends the request, retrying temporary errors in the background. Every attempt is queued with
+     * the dispatcher of the client, so it counts towards its limit of requests (per host).
+     *
+     * @return the first response that isn't retried; cancelling it stops any further attempt
+     */
+    public CompletableFuture<Response> executeAsync(
+            final OkHttpClient httpClient, final Request request) {
+        final RetryingCall retryingCall = new RetryingCall(httpClient, request);
+        retryingCall.attempt();
+        return retryingCall.result;
+    }
+
+    /**
+     * Passes exceptions other than IOExceptions of the interceptors after it (e.g. {@link
+     * io.github.resilience4j.ratelimiter.RequestNotPermitted} of a rate limiter) on to the
+     * attempts of this scheduler. OkHttp only reports IOExceptions to the callback of a queued
+     * call. Has to be the first interceptor of the client.
+     */
+    public static Interceptor interceptor() {
+        return chain -> {
+            try {
+                return chain.proceed(chain.request());
+            } catch (RuntimeException e) {
+                if (chain.request().tag(Attempt.class) == null) {
+                    throw e;
+                }
+                throw new UncheckedCallException(e);
+            }
+        };
+    }
+
+    @VisibleForTesting
+    static boolean isRetryable(final Response response) {
+        final int code = response.code();
+        return code >= 500
+                || code == 429
+                || (code == 404 && response.request().url().toString().endsWith("gating-status"));
+    }
+
+    /** Random delay before the given retry, the first retry is 1 */
+    @VisibleForTesting
+    long backoffMillis(final int retry) {
+        final int doublings = retry - 1;
+        long ceiling = maxDelayMillis;
+        if (doublings < Long.numberOfLeadingZeros(baseDelayMillis) - 1
+                && (baseDelayMillis << doublings) < maxDelayMillis) {
+            ceiling = baseDelayMillis << doublings;
+        }
+        return ceiling <= 0 ? 0 : ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    /** The delay requested by the server with a {@code Retry-After} header, if any */
+    @VisibleForTesting
+    static Optional<Duration> retryAfter(final Response response, final Instant now) {
+        if (response.code() != 429 && response.code() != 503) {
+            return Optional.empty();
+        }
+        final String retryAfter = response.header("Retry-After");
+        if (retryAfter == null) {
+            return Optional.empty();
+        }
+
+        try {
+            return Optional.of(Duration.ofSeconds(Math.max(0, Long.parseLong(retryAfter.trim()))));
+        } catch (NumberFormatException e) {
+            // not delay-seconds, must be an HTTP date
+        }
+        try {
+            final Instant retryAt =
+                    ZonedDateTime.parse(retryAfter.trim(), DateTimeFormatter.RFC_1123_DATE_TIME)
+                            .toInstant();
+            return Optional.of(
+                    retryAt.isAfter(now) ? Duration.between(now, retryAt) : Duration.ZERO);
+        } catch (DateTimeParseException e) {
+            log.warn("Ignoring invalid Retry-After header: " + retryAfter);
+            return Optional.empty();
+        }
+    }
+
+    /** All attempts of one request */
+    private final class RetryingCall implements Callback {
+        private final OkHttpClient httpClient;
+        private final Request request;
+        private final long deadline;
+        private final CompletableFuture<Response> result = new CompletableFuture<>();
+        // attempts never overlap, the next one is only scheduled once the previous one is done
+        private int retries;
+        private volatile Call call;
+        private volatile Future<?> scheduledAttempt;
+
+        RetryingCall(final OkHttpClient httpClient, final Request request) {
+            this.httpClient = httpClient;
+            this.request = request.newBuilder().tag(Attempt.class, Attempt.INSTANCE).build();
+            this.deadline = System.nanoTime() + deadlineNanos;
+            final Optional<CancellableCalls> scope = CancellableCalls.current();
+            result.whenComplete(
+                    (response, error) -> {
+                        if (result.isCancelled()) {
+                            cancel();
+                        }
+                        scope.ifPresent(calls -> calls.remove(result));
+                    });
+            scope.ifPresent(calls -> calls.add(result));
+        }
+
+        /** Queues the next attempt with the dispatcher of the client, once its permit is due */
+        void attempt() {
+            if (result.isDone()) {
+                return;
+            }
+            final long permitInNanos;
+            try {
+                permitInNanos = rateLimiters.reserve(request);
+            } catch (RequestNotPermitted e) {
+                HttpMetrics.get().recordRateLimited(request);
+                result.completeExceptionally(e);
+                return;
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+                return;
+            }
+            if (permitInNanos > 0) {
+                schedule(this::send, permitInNanos);
+            } else {
+                send();
+            }
+        }
+
+        private void send() {
+            if (result.isDone()) {
+                return;
+            }
+            try {
+                final Call call = httpClient.newCall(request);
+                this.call = call;
+                if (result.isCancelled()) {
+                    // cancelled before the call could be seen
+                    call.cancel();
+                }
+                call.enqueue(this);
+            } catch (Throwable t) {
+                // someone is waiting for the result, whatever went wrong
+                result.completeExceptionally(t);
+            }
+        }
+
+        @Override
+        public void onFailure(final Call call, final IOException e) {
+            result.completeExceptionally(
+                    e instanceof UncheckedCallException ? e.getCause() : e);
+        }
+
+        @Override
+        public void onResponse(final Call call, final Response response) {
+            try {
+                retryOrComplete(response);
+            } catch (Throwable t) {
+                response.close();
+                result.completeExceptionally(t);
+            }
+        }
+
+        private void retryOrComplete(final Response response) {
+            if (!isRetryable(response) || retries >= maxRetries) {
+                complete(response);
+                return;
+            }
+
+            final long delayMillis =
+                    retryAfter(response, Instant.now())
+                            .map(Duration::toMillis)
+                            .orElseGet(() -> backoffMillis(retries + 1));
+            if (System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMillis) >= deadline) {
+                log.warn(
+                        String.format(
+                                "Received %d for request to %s. "
+                                        + "Not retrying, a retry in %d ms would exceed the deadline.",
+                                response.code(), request.url(), delayMillis));
+                complete(response);
+                return;
+            }
+
+            retries++;
+            HttpMetrics.get().recordRetry(request);
+            log.warn(
+                    String.format(
+                            "Received %d for request to %s. Retry attempt %d of %d in %d ms.",
+                            response.code(), request.url(), retries, maxRetries, delayMillis));
+            response.close();
+            schedule(this::attempt, TimeUnit.MILLISECONDS.toNanos(delayMillis));
+        }
+
+        private void schedule(final Runnable next, final long delayNanos) {
+            try {
+                scheduledAttempt = timer.schedule(next, delayNanos, TimeUnit.NANOSECONDS);
+            } catch (RejectedExecutionException e) {
+                result.completeExceptionally(e);
+            }
+        }
+
+        private void complete(final Response response) {
+            if (!result.complete(response)) {
+                // cancelled in the meantime, nobody is going to read it
+                response.close();
+            }
+        }
+
+        private void cancel() {
+            final Future<?> scheduled = scheduledAttempt;
+            if (scheduled != null) {
+                scheduled.cancel(false);
+            }
+            final Call current = call;
+            if (current != null) {
+                current.cancel();
+            }
+        }
+    }
+
+    /** Marks the requests of attempts, which are sent as queued calls */
+    private enum Attempt {
+        INSTANCE
+    }
+
+    /** Carries an unchecked exception of an interceptor to the callback of a queued call */
+    private static final class UncheckedCallException extends IOException {
+
+        private static final long serialVersionUID = 1L;
+
+        UncheckedCallException(final RuntimeException cause) {
+            super(cause.getMessage(), cause);
+        }
+    }
+}
@@ -0,0 +1,403 @@
+package com.atlassian.jira.cloud.jenkins.provider;
+
+import com.google.common.annotations.VisibleForTesting;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import io.github.resilience4j.ratelimiter.RequestNotPermitted;
+import jenkins.util.SystemProperties;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.CheckForNull;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * One rate limiter per webhook of the Jenkins app, whose rate follows the 429 responses of Jira.
+ *
+ * <p>Every webhook gets a number of permits per second, starting at the rate configured for its
+ * site. The rate grows by {@code additiveIncrease} per second of requests that were all accepted,
+ * up to {@code maxRequestsPerSecond}, and is cut by {@code decreasePercent} on a 429 (at most once
+ * per second, the responses of the requests that were in flight at that time don't count again).
+ * A {@code Retry-After} header of a 429 holds all requests to the webhook for that time.
+ *
+ * <p>{@link HttpRetryScheduler} reserves a permit before it queues an attempt of a request. An
+ * attempt that doesn't get a permit right away is queued on the timer of the scheduler once its
+ * permit is due, no thread waits for it. Attempts that would have to wait longer than {@code
+ * maxWaitMillis} fail with {@link RequestNotPermitted}. Every attempt of a request goes through
+ * the limiter, including retries. Only requests marked with {@link #tag} are limited.
+ */
+public class WebhookRateLimiters {
+
+    private static final Logger log = LoggerFactory.getLogger(WebhookRateLimiters.class);
+
+    private static final String PROPERTY_PREFIX = WebhookRateLimiters.class.getName();
+
+    private static final WebhookRateLimiters instance =
+            new WebhookRateLimiters(
+                    SystemProperties.getInteger(PROPERTY_PREFIX + ".defaultRequestsPerSecond", 10),
+                    SystemProperties.getInteger(PROPERTY_PREFIX + ".minRequestsPerSecond", 1),
+                    SystemProperties.getInteger(PROPERTY_PREFIX + ".maxRequestsPerSecond", 100),
+                    SystemProperties.getInteger(PROPERTY_PREFIX + ".additiveIncrease", 1),
+                    SystemProperties.getInteger(PROPERTY_PREFIX + ".decreasePercent", 50),
+                    Duration.ofMillis(
+                            SystemProperties.getLong(PROPERTY_PREFIX + ".maxWaitMillis", 5000L)));
+
+    private static final long PERIOD_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final int defaultRequestsPerSecond;
+    private final int minRequestsPerSecond;
+    private final int maxRequestsPerSecond;
+    private final int additiveIncrease;
+    private final int decreasePercent;
+    private final Duration maxWait;
+    private final Map<String, Integer> initialRates = new ConcurrentHashMap<>();
+    private final Map<String, AdaptiveLimiter> limiters = new ConcurrentHashMap<>();
+
+    @VisibleForTesting
+    WebhookRateLimiters(
+            final int defaultRequestsPerSecond,
+            final int minRequestsPerSecond,
+            final int maxRequestsPerSecond,
+            final int additiveIncrease,
+            final int decreasePercent,
+            final Duration maxWait) {
+        this.minRequestsPerSecond = Math.max(1, minRequestsPerSecond);
+        this.maxRequestsPerSecond = Math.max(this.minRequestsPerSecond, maxRequestsPerSecond);
+        this.defaultRequestsPerSecond = clamp(defaultRequestsPerSecond);
+        this.additiveIncrease = Math.max(0, additiveIncrease);
+        this.decreasePercent = Math.min(99, Math.max(0, decreasePercent));
+        this.maxWait = maxWait;
+    }
+
+    public static WebhookRateLimiters get() {
+        return instance;
+    }
+
+    /** Marks a request to a webhook, to be sent through the limiter of the webhook */
+    public static Request.Builder tag(final Request.Builder builder, final String webhookUrl) {
+        return builder.tag(Webhook.class, new Webhook(webhookUrl));
+    }
+
+    /**
+     * Sets the rate a webhook starts with, e.g. when the configuration of its site has been
+     * loaded or changed. {@code null} stands for the default rate.
+     */
+    public void setInitialRate(
+            final String webhookUrl, @CheckForNull final Integer requestsPerSecond) {
+        final int rate =
+                requestsPerSecond == null ? defaultRequestsPerSecond : clamp(requestsPerSecond);
+        final Integer previous = initialRates.put(webhookUrl, rate);
+        final AdaptiveLimiter limiter = limiters.get(webhookUrl);
+        if (limiter != null && (previous == null || previous != rate)) {
+            // an administrator knows better than what the limiter has learnt so far
+            limiter.reset(rate);
+        }
+    }
+
+    /**
+     * Reserves a permit for the next attempt of a request to a webhook.
+     *
+     * @return the nanoseconds to wait before the attempt is sent, 0 if it can be sent right away
+     *     or isn't a request to a webhook
+     * @throws RequestNotPermitted if the attempt would have to wait longer than {@code maxWait}
+     */
+    public long reserve(final Request request) {
+        final Webhook webhook = request.tag(Webhook.class);
+        if (webhook == null) {
+            return 0;
+        }
+        return limiterFor(webhook.url).reserve();
+    }
+
+    /** Adapts the limiter of a webhook to its responses, the permit has been reserved already */
+    public Interceptor interceptor() {
+        return chain -> {
+            final Request request = chain.request();
+            final Webhook webhook = request.tag(Webhook.class);
+            if (webhook == null) {
+                return chain.proceed(request);
+            }
+
+            final AdaptiveLimiter limiter = limiterFor(webhook.url);
+            final Response response = chain.proceed(request);
+            if (response.code() == 429) {
+                limiter.onThrottled(HttpRetryScheduler.retryAfter(response, Instant.now()));
+            } else if (response.code() < 500) {
+                limiter.onAccepted();
+            }
+            return response;
+        };
+    }
+
+    /** The current state of the limiter of a webhook, if any request has been sent to it */
+    public Optional<Snapshot> getSnapshot(final String webhookUrl) {
+        final AdaptiveLimiter limiter = limiters.get(webhookUrl);
+        return limiter == null ? Optional.empty() : Optional.of(limiter.snapshot());
+    }
+
+    /** A short description of the limiter of the webhook for the configuration page */
+    public String describe(final String webhookUrl) {
+        return getSnapshot(webhookUrl)
+                .map(Snapshot::toString)
+                .orElseGet(
+                        () ->
+                                String.format(
+                                        "%d requests per second",
+                                        initialRates.getOrDefault(
+                                                webhookUrl, defaultRequestsPerSecond)));
+    }
+
+    private AdaptiveLimiter limiterFor(final String webhookUrl) {
+        final AdaptiveLimiter limiter = limiters.get(webhookUrl);
+        if (limiter != null) {
+            return limiter;
+        }
+        return limiters.computeIfAbsent(
+                webhookUrl,
+                key ->
+                        new AdaptiveLimiter(
+                                key, initialRates.getOrDefault(key, defaultRequestsPerSecond)));
+    }
+
+    private int clamp(final int requestsPerSecond) {
+        return Math.min(maxRequestsPerSecond, Math.max(minRequestsPerSecond, requestsPerSecond));
+    }
+
+    /** State of the limiter of a webhook at one point in time */
+    public static final class Snapshot {
+        private final int requestsPerSecond;
+        private final int availablePermits;
+        private final int waitingRequests;
+        private final long permittedRequests;
+        private final long rejectedRequests;
+        private final long averageWaitMillis;
+        private final long maxWaitMillis;
+        private final long pausedForMillis;
+
+        Snapshot(
+                final int requestsPerSecond,
+                final int availablePermits,
+                final int waitingRequests,
+                final long permittedRequests,
+                final long rejectedRequests,
+                final long averageWaitMillis,
+                final long maxWaitMillis,
+                final long pausedForMillis) {
+            this.requestsPerSecond = requestsPerSecond;
+            this.availablePermits = availablePermits;
+            this.waitingRequests = waitingRequests;
+            this.permittedRequests = permittedRequests;
+            this.rejectedRequests = rejectedRequests;
+            this.averageWaitMillis = averageWaitMillis;
+            this.maxWaitMillis = maxWaitMillis;
+            this.pausedForMillis = pausedForMillis;
+        }
+
+        /** The current rate, as adapted to the responses of Jira */
+        public int getRequestsPerSecond() {
+            return requestsPerSecond;
+        }
+
+        /** Permits left in the current second, negative if requests are waiting for the next */
+        public int getAvailablePermits() {
+            return availablePermits;
+        }
+
+        /** Requests that have reserved a permit of a later second and are waiting to be sent */
+        public int getWaitingRequests() {
+            return waitingRequests;
+        }
+
+        public long getPermittedRequests() {
+            return permittedRequests;
+        }
+
+        /** Requests that failed as they would have had to wait too long */
+        public long getRejectedRequests() {
+            return rejectedRequests;
+        }
+
+        /** Average time the permitted requests have waited for their permit */
+        public long getAverageWaitMillis() {
+            return averageWaitMillis;
+        }
+
+        public long getMaxWaitMillis() {
+            return maxWaitMillis;
+        }
+
+        /** Time left of the {@code Retry-After} of the last 429, 0 if requests are let through */
+        public long getPausedForMillis() {
+            return pausedForMillis;
+        }
+
+        @Override
+        public String toString() {
+            final StringBuilder description =
+                    new StringBuilder()
+                            .append(requestsPerSecond)
+                            .append(" requests per second, ")
+                            .append(Math.max(0, availablePermits))
+                            .append(" available");
+            if (pausedForMillis > 0) {
+                description
+                        .append(", paused for ")
+                        .append(pausedForMillis)
+                        .append(" ms as requested by Jira");
+            }
+            if (waitingRequests > 0) {
+                description.append(", ").append(waitingRequests).append(" waiting");
+            }
+            description
+                    .append(" (average wait ")
+                    .append(averageWaitMillis)
+                    .append(" ms, longest wait ")
+                    .append(maxWaitMillis)
+                    .append(" ms");
+            if (rejectedRequests > 0) {
+                description.append(", ").append(rejectedRequests).append(" rejected");
+            }
+            return description.append(')').toString();
+        }
+    }
+
+    /** The rate limiter of a webhook and the state needed to adapt its rate */
+    private final class AdaptiveLimiter {
+        private final String webhookUrl;
+        private final RateLimiter rateLimiter;
+        private final LongAdder permitted = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder totalWaitNanos = new LongAdder();
+        private final AtomicLong maxWaitNanos = new AtomicLong();
+        private volatile long pausedUntilNanos = System.nanoTime();
+
+        // guarded by this
+        private int rate;
+        private int acceptedAtRate;
+        private long lastDecreaseNanos;
+
+        AdaptiveLimiter(final String webhookUrl, final int initialRate) {
+            this.webhookUrl = webhookUrl;
+            this.rate = initialRate;
+            this.lastDecreaseNanos = System.nanoTime() - PERIOD_NANOS;
+            this.rateLimiter =
+                    RateLimiter.of(
+                            webhookUrl,
+                            RateLimiterConfig.custom()
+                                    .limitRefreshPeriod(Duration.ofNanos(PERIOD_NANOS))
+                                    .limitForPeriod(initialRate)
+                                    .timeoutDuration(maxWait)
+                                    .build());
+        }
+
+        long reserve() {
+            final long limitNanos = maxWait.toNanos();
+            final long pausedFor = Math.max(0, pausedUntilNanos - System.nanoTime());
+            if (pausedFor > limitNanos) {
+                rejected.increment();
+                throw RequestNotPermitted.createRequestNotPermitted(rateLimiter);
+            }
+
+            // the pause comes on top of the wait for a permit at the current rate
+            final long permitIn = rateLimiter.reservePermission();
+            if (permitIn < 0 || pausedFor + permitIn > limitNanos) {
+                // a permit reserved in vain only lowers the rate of its second
+                rejected.increment();
+                throw RequestNotPermitted.createRequestNotPermitted(rateLimiter);
+            }
+
+            final long delay = pausedFor + permitIn;
+            permitted.increment();
+            totalWaitNanos.add(delay);
+            maxWaitNanos.accumulateAndGet(delay, Math::max);
+            return delay;
+        }
+
+        synchronized void onAccepted() {
+            // one more request per second, once a second's worth of requests has gone through
+            if (++acceptedAtRate < rate || additiveIncrease == 0) {
+                return;
+            }
+            acceptedAtRate = 0;
+            changeRate(Math.min(maxRequestsPerSecond, rate + additiveIncrease));
+        }
+
+        synchronized void onThrottled(final Optional<Duration> retryAfter) {
+            final long now = System.nanoTime();
+            retryAfter.ifPresent(
+                    delay -> pausedUntilNanos = Math.max(pausedUntilNanos, now + delay.toNanos()));
+
+            if (now - lastDecreaseNanos < PERIOD_NANOS) {
+                // most likely a request that was sent before the rate was cut
+                return;
+            }
+            lastDecreaseNanos = now;
+            acceptedAtRate = 0;
+            final int decreased =
+                    Math.max(minRequestsPerSecond, rate * (100 - decreasePercent) / 100);
+            if (decreased != rate) {
+                log.warn(
+                        String.format(
+                                "Rate limited by %s, sending at most %d instead of %d requests "
+                                        + "per second",
+                                webhookUrl, decreased, rate));
+            }
+            changeRate(decreased);
+        }
+
+        synchronized void reset(final int initialRate) {
+            acceptedAtRate = 0;
+            pausedUntilNanos = System.nanoTime();
+            changeRate(initialRate);
+        }
+
+        Snapshot snapshot() {
+            final long permittedCount = permitted.sum();
+            final RateLimiter.Metrics metrics = rateLimiter.getMetrics();
+            final int currentRate;
+            synchronized (this) {
+                currentRate = rate;
+            }
+            return new Snapshot(
+                    currentRate,
+                    metrics.getAvailablePermissions(),
+                    Math.max(0, -metrics.getAvailablePermissions()),
+                    permittedCount,
+                    rejected.sum(),
+                    permittedCount == 0
+                            ? 0
+                            : TimeUnit.NANOSECONDS.toMillis(totalWaitNanos.sum() / permittedCount),
+                    TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get()),
+                    Math.max(
+                            0,
+                            TimeUnit.NANOSECONDS.toMillis(pausedUntilNanos - System.nanoTime())));
+        }
+
+        // guarded by this, takes effect from the next second on
+        private void changeRate(final int newRate) {
+            if (newRate != rate) {
+                rate = newRate;
+                rateLimiter.changeLimitForPeriod(newRate);
+            }
+        }
+    }
+
+    /** Tag of the requests that go through a limiter */
+    private static final class Webhook {
+        private final String url;
+
+        Webhook(final String url) {
+            this.url = url;
+        }
+    }
+}
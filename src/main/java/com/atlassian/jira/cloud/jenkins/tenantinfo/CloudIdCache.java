@@ -0,0 +1,139 @@
+package com.atlassian.jira.cloud.jenkins.tenantinfo;
+
+import com.google.common.annotations.VisibleForTesting;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded cache of resolved cloud IDs, keyed by Jira site URL.
+ *
+ * <p>A site's cloud ID never changes, so successful lookups are kept for a long time. Failed
+ * lookups are kept for a much shorter time so that a misconfigured or temporarily unreachable
+ * site doesn't cause a tenant info request on every event, but recovers quickly.
+ *
+ * <p>Concurrent misses for the same site are collapsed into a single lookup: the first thread
+ * performs the request and all others wait for its result.
+ */
+public class CloudIdCache {
+
+    static final Duration DEFAULT_TTL = Duration.ofHours(12);
+    static final Duration DEFAULT_NEGATIVE_TTL = Duration.ofMinutes(1);
+    static final int DEFAULT_MAX_SIZE = 256;
+
+    private static final CloudIdCache instance =
+            new CloudIdCache(
+                    DEFAULT_TTL, DEFAULT_NEGATIVE_TTL, DEFAULT_MAX_SIZE, System::nanoTime);
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final long ttlNanos;
+    private final long negativeTtlNanos;
+    private final int maxSize;
+    private final LongSupplier nanoClock;
+
+    @VisibleForTesting
+    CloudIdCache(
+            final Duration ttl,
+            final Duration negativeTtl,
+            final int maxSize,
+            final LongSupplier nanoClock) {
+        this.ttlNanos = ttl.toNanos();
+        this.negativeTtlNanos = negativeTtl.toNanos();
+        this.maxSize = maxSize;
+        this.nanoClock = nanoClock;
+    }
+
+    public static CloudIdCache get() {
+        return instance;
+    }
+
+    /**
+     * Returns the cached cloud ID for the given site, calling the loader if there is no live entry.
+     * Only one loader call is in flight per site at any time.
+     */
+    public Optional<String> get(
+            final String jiraSiteUrl, final Function<String, Optional<String>> loader) {
+        final Entry existing = entries.get(jiraSiteUrl);
+        if (existing != null && !existing.isExpired(nanoClock.getAsLong())) {
+            return existing.result.join();
+        }
+
+        final Entry candidate = new Entry();
+        final Entry winner =
+                entries.compute(
+                        jiraSiteUrl,
+                        (key, current) ->
+                                current != null && !current.isExpired(nanoClock.getAsLong())
+                                        ? current
+                                        : candidate);
+
+        if (winner != candidate) {
+            return winner.result.join();
+        }
+
+        evictIfFull();
+
+        try {
+            final Optional<String> cloudId = loader.apply(jiraSiteUrl);
+            winner.expiresAt =
+                    nanoClock.getAsLong() + (cloudId.isPresent() ? ttlNanos : negativeTtlNanos);
+            winner.result.complete(cloudId);
+            return cloudId;
+        } catch (RuntimeException e) {
+            entries.remove(jiraSiteUrl, winner);
+            winner.result.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    public void invalidate(final String jiraSiteUrl) {
+        entries.remove(jiraSiteUrl);
+    }
+
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    @VisibleForTesting
+    int size() {
+        return entries.size();
+    }
+
+    private void evictIfFull() {
+        if (entries.size() <= maxSize) {
+            return;
+        }
+
+        final long now = nanoClock.getAsLong();
+        entries.values().removeIf(entry -> entry.isExpired(now));
+
+        // still full: drop the resolved entries closest to expiry, lookups in flight are kept
+        while (entries.size() > maxSize) {
+            final Optional<Map.Entry<String, Entry>> eldest =
+                    entries.entrySet()
+                            .stream()
+                            .filter(e -> e.getValue().result.isDone())
+                            .min(Comparator.comparingLong(e -> e.getValue().expiresAt));
+            if (!eldest.isPresent()) {
+                return;
+            }
+            entries.remove(eldest.get().getKey(), eldest.get().getValue());
+        }
+    }
+
+    private static final class Entry {
+        private final CompletableFuture<Optional<String>> result = new CompletableFuture<>();
+        // Long.MAX_VALUE while the lookup is still in flight
+        private volatile long expiresAt = Long.MAX_VALUE;
+
+        boolean isExpired(final long now) {
+            return result.isDone() && now - expiresAt >= 0;
+        }
+    }
+}
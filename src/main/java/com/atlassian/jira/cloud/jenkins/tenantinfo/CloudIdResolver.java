@@ -16,22 +16,36 @@ import java.util.Optional;
 
 /**
  * Resolves the Jira site URL provided by the Jenkins user into Cloud ID. Cloud ID is required to
- * submit build updates via API.
+ * submit build updates via API. Results are cached in {@link CloudIdCache}, so the tenant info
+ * endpoint is only called once per site and cache period.
  */
 public class CloudIdResolver {
 
     private final OkHttpClient httpClient;
     private final ObjectMapper objectMapper;
+    private final CloudIdCache cloudIdCache;
     private static final Logger log = LoggerFactory.getLogger(CloudIdResolver.class);
     public static final String TENANT_INFO_ENDPOINT = "/_edge/tenant_info";
 
     @Inject
     public CloudIdResolver(final OkHttpClient httpClient, final ObjectMapper objectMapper) {
+        this(httpClient, objectMapper, CloudIdCache.get());
+    }
+
+    public CloudIdResolver(
+            final OkHttpClient httpClient,
+            final ObjectMapper objectMapper,
+            final CloudIdCache cloudIdCache) {
         this.httpClient = httpClient;
         this.objectMapper = objectMapper;
+        this.cloudIdCache = cloudIdCache;
     }
 
     public Optional<String> getCloudId(final String jiraSiteUrl) {
+        return cloudIdCache.get(jiraSiteUrl, this::fetchCloudId);
+    }
+
+    private Optional<String> fetchCloudId(final String jiraSiteUrl) {
         Request request =
                 new Request.Builder()
                         .url(String.format("%s%s", jiraSiteUrl, TENANT_INFO_ENDPOINT))
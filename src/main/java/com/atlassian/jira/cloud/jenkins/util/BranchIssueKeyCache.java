@@ -0,0 +1,78 @@
+package com.atlassian.jira.cloud.jenkins.util;
+
+import com.atlassian.jira.cloud.jenkins.common.model.IssueKey;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableSet;
+import hudson.model.Job;
+
+import javax.annotation.Nullable;
+import java.util.Set;
+
+/**
+ * The issue keys of the branches each job builds.
+ *
+ * <p>The keys are cached per job and branch name. A job can ask for more than one branch, e.g. the
+ * branch of its SCM and a branch passed to a step explicitly, so a few branches are kept per job,
+ * the least recently used one is dropped once there are more. Jobs are weakly referenced, their
+ * entries go away with the job once it's deleted.
+ */
+public class BranchIssueKeyCache {
+
+    private static final BranchIssueKeyCache instance = new BranchIssueKeyCache();
+
+    @VisibleForTesting static final int MAX_BRANCHES_PER_JOB = 8;
+
+    private final Cache<Job<?, ?>, Cache<String, Set<String>>> jobToBranchIssueKeys =
+            CacheBuilder.newBuilder().weakKeys().build();
+
+    @VisibleForTesting
+    BranchIssueKeyCache() {
+        // empty
+    }
+
+    public static BranchIssueKeyCache get() {
+        return instance;
+    }
+
+    /**
+     * The issue keys in the name of a branch built by the given job
+     *
+     * @param job the job to cache the keys for, they are not cached if it's null
+     */
+    public Set<String> getIssueKeys(@Nullable final Job<?, ?> job, final String branchName) {
+        if (job == null) {
+            return extractIssueKeys(branchName);
+        }
+
+        return jobToBranchIssueKeys
+                .asMap()
+                .computeIfAbsent(job, key -> newBranchCache())
+                .asMap()
+                .computeIfAbsent(branchName, BranchIssueKeyCache::extractIssueKeys);
+    }
+
+    /** The number of jobs with cached branches */
+    @VisibleForTesting
+    long size() {
+        jobToBranchIssueKeys.cleanUp();
+        return jobToBranchIssueKeys.size();
+    }
+
+    /** A single segment, so the least recently used branch of the job is the one dropped */
+    private static Cache<String, Set<String>> newBranchCache() {
+        return CacheBuilder.newBuilder()
+                .concurrencyLevel(1)
+                .maximumSize(MAX_BRANCHES_PER_JOB)
+                .build();
+    }
+
+    private static Set<String> extractIssueKeys(final String branchName) {
+        final ImmutableSet.Builder<String> issueKeys = ImmutableSet.builder();
+        for (IssueKey issueKey : IssueKeyStringExtractor.extractIssueKeys(branchName)) {
+            issueKeys.add(issueKey.toString());
+        }
+        return issueKeys.build();
+    }
+}
@@ -1,6 +1,5 @@
 package com.atlassian.jira.cloud.jenkins.util;
 
-import com.atlassian.jira.cloud.jenkins.common.model.IssueKey;
 import com.atlassian.jira.cloud.jenkins.common.service.IssueKeyExtractor;
 import com.atlassian.jira.cloud.jenkins.logging.PipelineLogger;
 import jenkins.scm.api.SCMRevision;
@@ -10,7 +9,6 @@ import org.jenkinsci.plugins.workflow.job.WorkflowRun;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 /**
  * Extract SCM revision which triggered the build. Important: the action is only available for
@@ -18,6 +16,8 @@ import java.util.stream.Collectors;
  */
 public class BranchNameIssueKeyExtractor implements IssueKeyExtractor {
 
+    private final BranchIssueKeyCache branchIssueKeyCache = BranchIssueKeyCache.get();
+
     @Override
     public Set<String> extractIssueKeys(
             final WorkflowRun build, final PipelineLogger pipelineLogger) {
@@ -36,7 +36,8 @@ public class BranchNameIssueKeyExtractor implements IssueKeyExtractor {
         final SCMRevision revision = scmAction.getRevision();
         final ScmRevision scmRevision = new ScmRevision(revision.getHead().getName());
 
-        Set<String> issueKeys = extractIssueKeys(scmRevision);
+        Set<String> issueKeys =
+                branchIssueKeyCache.getIssueKeys(build.getParent(), scmRevision.getHead());
 
         pipelineLogger.debug(
                 String.format(
@@ -45,11 +46,4 @@ public class BranchNameIssueKeyExtractor implements IssueKeyExtractor {
 
         return issueKeys;
     }
-
-    private Set<String> extractIssueKeys(final ScmRevision scmRevision) {
-        return IssueKeyStringExtractor.extractIssueKeys(scmRevision.getHead())
-                .stream()
-                .map(IssueKey::toString)
-                .collect(Collectors.toSet());
-    }
 }
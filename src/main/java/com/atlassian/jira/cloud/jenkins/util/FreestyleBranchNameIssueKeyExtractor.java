@@ -4,13 +4,11 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 import com.atlassian.jira.cloud.jenkins.logging.PipelineLogger;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.atlassian.jira.cloud.jenkins.common.model.IssueKey;
 import com.atlassian.jira.cloud.jenkins.common.service.FreestyleIssueKeyExtractor;
 
 import hudson.model.AbstractBuild;
@@ -20,6 +18,8 @@ import hudson.scm.SCM;
 
 public class FreestyleBranchNameIssueKeyExtractor implements FreestyleIssueKeyExtractor {
 
+    private final BranchIssueKeyCache branchIssueKeyCache = BranchIssueKeyCache.get();
+
     @Override
     public Set<String> extractIssueKeys(
             final AbstractBuild<?, ?> freestyleBuild, final PipelineLogger pipelineLogger) {
@@ -29,10 +29,8 @@ public class FreestyleBranchNameIssueKeyExtractor implements FreestyleIssueKeyEx
             GitSCM scm1 = (GitSCM) scm;
             List<BranchSpec> branches = scm1.getBranches();
             Set<String> issueKeys =
-                    IssueKeyStringExtractor.extractIssueKeys(branches.get(0).getName())
-                            .stream()
-                            .map(IssueKey::toString)
-                            .collect(Collectors.toSet());
+                    branchIssueKeyCache.getIssueKeys(
+                            freestyleBuild.getProject(), branches.get(0).getName());
 
             pipelineLogger.debug(
                     String.format(
@@ -2,19 +2,24 @@ package com.atlassian.jira.cloud.jenkins.util;
 
 import com.google.common.collect.ImmutableSet;
 import com.atlassian.jira.cloud.jenkins.common.model.IssueKey;
-import org.apache.commons.lang.StringUtils;
 
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import static com.atlassian.jira.cloud.jenkins.common.service.IssueKeyExtractor.ISSUE_KEY_MAX_LIMIT;
 
 /**
  * Extracts issue keys (eg. TEST-123) of any number of instances from a given string. Input can be a
  * commit message or a branch name.
+ *
+ * <p>An issue key is an uppercase letter, followed by 1 to 255 uppercase letters, digits or
+ * underscores, a dash and 1 to 100 digits. It has to be preceded by whitespace, punctuation or the
+ * start of the input and followed by whitespace, punctuation or the end of the input. The input is
+ * scanned once from left to right, this is equivalent to (but a lot cheaper than) finding all
+ * matches of
+ *
+ * <pre>(?:(?&lt;=[\s\p{Punct}])|^)(\p{Lu}[\p{Lu}\p{Digit}_]{1,255}-\p{Digit}{1,100})(?:(?=[\s\p{Punct}])|$)</pre>
  */
 public final class IssueKeyStringExtractor {
 
@@ -22,39 +27,129 @@ public final class IssueKeyStringExtractor {
         // empty
     }
 
-    private static final String SEPARATOR = "[\\s\\p{Punct}]";
-    // zero-width positive lookbehind
-    private static final String KEY_PREFIX_REGEX = "(?:(?<=" + SEPARATOR + ")|^)";
     // max of 256 chars in Issue Key project name and 100 for the issue number
-    private static final String KEY_BODY_REGEX =
-            "(\\p{Lu}[\\p{Lu}\\p{Digit}_]{1,255}-\\p{Digit}{1,100})";
-    // zero-width positive lookahead
-    private static final String KEY_POSTFIX_REGEX = "(?:(?=" + SEPARATOR + ")|$)";
+    private static final int MAX_PROJECT_KEY_LENGTH = 256;
+    private static final int MAX_ISSUE_NUMBER_LENGTH = 100;
 
-    private static final String ISSUE_KEY_REGEX =
-            KEY_PREFIX_REGEX + KEY_BODY_REGEX + KEY_POSTFIX_REGEX;
-    private static final Pattern PROJECT_KEY_PATTERN = Pattern.compile(ISSUE_KEY_REGEX);
+    public static Set<IssueKey> extractIssueKeys(final CharSequence text) {
+        if (text == null || text.length() == 0) {
+            return Collections.emptySet();
+        }
 
-    public static Set<IssueKey> extractIssueKeys(final String text) {
         final Set<IssueKey> matches = new HashSet<>();
+        final int length = text.length();
+        int index = 0;
+        while (index < length) {
+            final int codePoint = Character.codePointAt(text, index);
+            if (!isProjectKeyChar(codePoint)) {
+                index += Character.charCount(codePoint);
+                continue;
+            }
 
-        if (StringUtils.isBlank(text)) {
-            return Collections.emptySet();
-        }
+            // a run of characters that may contain a project key, it ends before the dash
+            final int runStart = index;
+            int runEnd = index;
+            while (runEnd < length) {
+                final int next = Character.codePointAt(text, runEnd);
+                if (!isProjectKeyChar(next)) {
+                    break;
+                }
+                runEnd += Character.charCount(next);
+            }
+            index = runEnd;
+            if (runEnd == length || text.charAt(runEnd) != '-') {
+                continue;
+            }
 
-        final Matcher match = PROJECT_KEY_PATTERN.matcher(text);
+            final int numberStart = runEnd + 1;
+            int numberEnd = numberStart;
+            while (numberEnd < length && isDigit(text.charAt(numberEnd))) {
+                numberEnd++;
+            }
+            final int numberLength = numberEnd - numberStart;
+            if (numberLength == 0
+                    || numberLength > MAX_ISSUE_NUMBER_LENGTH
+                    || !isKeyEnd(text, numberEnd)) {
+                continue;
+            }
 
-        while (match.find()) {
-            for (int i = 1; i <= match.groupCount(); i++) {
-                final String issueKey = match.group(i);
-                matches.add(new IssueKey(issueKey));
+            final int keyStart = findProjectKeyStart(text, runStart, runEnd);
+            if (keyStart < 0) {
+                continue;
+            }
 
-                if (matches.size() >= ISSUE_KEY_MAX_LIMIT) {
-                    return ImmutableSet.copyOf(matches);
-                }
+            matches.add(new IssueKey(text.subSequence(keyStart, numberEnd).toString()));
+            if (matches.size() >= ISSUE_KEY_MAX_LIMIT) {
+                return ImmutableSet.copyOf(matches);
             }
+            index = numberEnd;
         }
 
         return ImmutableSet.copyOf(matches);
     }
+
+    /**
+     * The leftmost position in the run where a project key can start: an uppercase letter at the
+     * start of the run (if that is the start of the input or follows a separator) or after an
+     * underscore, leaving 2 to 256 characters up to the end of the run.
+     *
+     * @return -1 if there is no such position
+     */
+    private static int findProjectKeyStart(
+            final CharSequence text, final int runStart, final int runEnd) {
+        int remaining = Character.codePointCount(text, runStart, runEnd);
+        int index = runStart;
+        boolean afterSeparator = runStart == 0 || isSeparator(text.charAt(runStart - 1));
+        while (remaining >= 2) {
+            final int codePoint = Character.codePointAt(text, index);
+            if (afterSeparator
+                    && remaining <= MAX_PROJECT_KEY_LENGTH
+                    && Character.getType(codePoint) == Character.UPPERCASE_LETTER) {
+                return index;
+            }
+            afterSeparator = codePoint == '_';
+            index += Character.charCount(codePoint);
+            remaining--;
+        }
+        return -1;
+    }
+
+    /** Whether an issue key can end before the given position */
+    private static boolean isKeyEnd(final CharSequence text, final int index) {
+        final int length = text.length();
+        if (index == length || isSeparator(text.charAt(index))) {
+            return true;
+        }
+        // like '$', a key may also end before a line terminator that ends the input
+        final char next = text.charAt(index);
+        return index + 1 == length && (next == '\u0085' || next == '\u2028' || next == '\u2029');
+    }
+
+    private static boolean isProjectKeyChar(final int codePoint) {
+        return codePoint == '_'
+                || isDigit(codePoint)
+                || Character.getType(codePoint) == Character.UPPERCASE_LETTER;
+    }
+
+    private static boolean isDigit(final int codePoint) {
+        return codePoint >= '0' && codePoint <= '9';
+    }
+
+    /** [\s\p{Punct}] */
+    private static boolean isSeparator(final char c) {
+        switch (c) {
+            case ' ':
+            case '\t':
+            case '\n':
+            case 0x0B:
+            case '\f':
+            case '\r':
+                return true;
+            default:
+                return (c >= '!' && c <= '/')
+                        || (c >= ':' && c <= '@')
+                        || (c >= '[' && c <= '`')
+                        || (c >= '{' && c <= '~');
+        }
+    }
 }
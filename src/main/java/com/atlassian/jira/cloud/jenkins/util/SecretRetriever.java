@@ -3,18 +3,80 @@ package com.atlassian.jira.cloud.jenkins.util;
 import com.cloudbees.plugins.credentials.CredentialsMatcher;
 import com.cloudbees.plugins.credentials.CredentialsMatchers;
 import com.cloudbees.plugins.credentials.CredentialsProvider;
+import com.cloudbees.plugins.credentials.SystemCredentialsProvider;
+import com.google.common.annotations.VisibleForTesting;
+import hudson.Extension;
+import hudson.XmlFile;
+import hudson.model.Saveable;
+import hudson.model.listeners.SaveableListener;
 import hudson.security.ACL;
+import hudson.util.Secret;
 import jenkins.model.Jenkins;
 import org.jenkinsci.plugins.plaincredentials.StringCredentials;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Looks up the secret of a {@link StringCredentials} by its ID.
+ *
+ * <p>Looking up credentials scans every credential in the global store, so the resolved {@link
+ * Secret} handles are cached per credentials ID. The cache is cleared whenever the system
+ * credentials store is saved. Entries also expire after a while so that credentials provided by
+ * external credential providers, which don't notify us, are eventually picked up.
+ */
 public final class SecretRetriever {
 
+    private static final long MAX_AGE_NANOS = TimeUnit.MINUTES.toNanos(5);
+
+    private static final Map<String, CachedSecret> cache = new ConcurrentHashMap<>();
+    private static final AtomicLong hits = new AtomicLong();
+    private static final AtomicLong misses = new AtomicLong();
+    // bumped on every invalidation, so a lookup racing with a change isn't cached
+    private static final AtomicLong generation = new AtomicLong();
+
     public Optional<String> getSecretFor(final String credentialsId) {
+        final long now = System.nanoTime();
+        CachedSecret cached = cache.get(credentialsId);
+
+        if (cached != null && now - cached.loadedAt < MAX_AGE_NANOS) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+            final long generationBeforeLookup = generation.get();
+            cached = new CachedSecret(lookupSecret(credentialsId), now);
+            if (generation.get() == generationBeforeLookup) {
+                cache.put(credentialsId, cached);
+            }
+        }
+
+        return cached.secret.flatMap(secret -> Optional.ofNullable(secret.getPlainText()));
+    }
 
+    public static void invalidateAll() {
+        generation.incrementAndGet();
+        cache.clear();
+    }
+
+    public static long getCacheHits() {
+        return hits.get();
+    }
+
+    public static long getCacheMisses() {
+        return misses.get();
+    }
+
+    @VisibleForTesting
+    static int cacheSize() {
+        return cache.size();
+    }
+
+    private static Optional<Secret> lookupSecret(final String credentialsId) {
         final List<StringCredentials> credentials =
                 CredentialsProvider.lookupCredentials(
                         StringCredentials.class,
@@ -24,7 +86,28 @@ public final class SecretRetriever {
         final CredentialsMatcher matcher = CredentialsMatchers.withId(credentialsId);
 
         return Optional.ofNullable(CredentialsMatchers.firstOrNull(credentials, matcher))
-                .flatMap(creds -> Optional.ofNullable(creds.getSecret()))
-                .flatMap(secret -> Optional.ofNullable(secret.getPlainText()));
+                .flatMap(creds -> Optional.ofNullable(creds.getSecret()));
+    }
+
+    private static final class CachedSecret {
+        private final Optional<Secret> secret;
+        private final long loadedAt;
+
+        CachedSecret(final Optional<Secret> secret, final long loadedAt) {
+            this.secret = secret;
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    /** Drops all cached secrets when credentials are added, updated or removed. */
+    @Extension
+    public static class CredentialsChangeListener extends SaveableListener {
+
+        @Override
+        public void onChange(final Saveable saveable, final XmlFile file) {
+            if (saveable instanceof SystemCredentialsProvider) {
+                invalidateAll();
+            }
+        }
     }
 }
@@ -29,6 +29,24 @@ f.section(title: "Jira Software Cloud Integration") {
         )
     }
 
+    f.advanced(title: _("Build batching")) {
+        f.entry(
+                title: _("Builds per request"),
+                field: instance.FIELD_NAME_BUILD_BATCH_SIZE,
+                help: descriptor.getHelpFile("buildBatching")
+        ) {
+            f.number(clazz: "positive-number", min: 1, default: 1)
+        }
+
+        f.entry(
+                title: _("Maximum batching delay (ms)"),
+                field: instance.FIELD_NAME_BUILD_BATCH_DELAY,
+                help: descriptor.getHelpFile("buildBatching")
+        ) {
+            f.number(clazz: "number", min: 0, default: 200)
+        }
+    }
+
     f.optionalBlock(
             title: _("Send builds automatically"),
             name: instance.FIELD_NAME_AUTO_BUILDS,
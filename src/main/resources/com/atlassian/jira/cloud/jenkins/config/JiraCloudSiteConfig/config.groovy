@@ -16,6 +16,21 @@ f.entry(title: _("Secret"), field: "credentialsId") {
     c.select(context: app, includeUser: false, expressionAllowed: false)
 }
 
+f.advanced() {
+    f.entry(title: _("Requests per second"), field: "requestsPerSecond") {
+        f.number(clazz: "positive-number", min: 1, step: 1)
+    }
+}
+
+if (instance != null) {
+    f.entry(title: _("Connection state")) {
+        text(instance.connectionState)
+    }
+    f.entry(title: _("Rate limit")) {
+        text(instance.rateLimitState)
+    }
+}
+
 f.block() {
     f.validateButton(
             title: _("Test settings"),
@@ -0,0 +1,286 @@
+package com.atlassian.jira.cloud.jenkins;
+
+import com.atlassian.jira.cloud.jenkins.checkgatingstatus.client.model.GatingStatus;
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An in-process stand-in for the Jenkins app in Jira, to send real requests to instead of
+ * scripting each response with {@link BaseMockServerTest}.
+ *
+ * <p>Requests must be JWTs signed with the secret of the simulator, like those of the plugin.
+ * Builds, deployments and gating status checks are answered with the response the app would send
+ * for the request (everything is accepted, the gating status is {@link #setGatingStatus}). The
+ * latency, the share of 5xx and 429 responses and a rate limit can be configured, e.g. to see how
+ * the send path behaves when the app is slow or overloaded.
+ */
+public class JenkinsAppSimulator {
+
+    public static final String WEBHOOK_PATH = "/jenkins/webhook";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final MockWebServer server = new MockWebServer();
+    private final JWTVerifier jwtVerifier;
+
+    private volatile long minLatencyMillis;
+    private volatile long maxLatencyMillis;
+    private volatile double serverErrorRate;
+    private volatile double tooManyRequestsRate;
+    private volatile int retryAfterSeconds = 1;
+    private volatile GatingStatus gatingStatus = GatingStatus.ALLOWED;
+
+    private int rateLimitPerSecond;
+    private long rateLimitWindowStart;
+    private int rateLimitWindowCount;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder invalidJwts = new LongAdder();
+    private final ConcurrentMap<Integer, LongAdder> statusCodes = new ConcurrentHashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    public JenkinsAppSimulator(final String secret) {
+        this.jwtVerifier =
+                JWT.require(Algorithm.HMAC256(secret))
+                        .withIssuer("jenkins-plugin")
+                        .withAudience("jenkins-forge-app")
+                        .build();
+        server.setDispatcher(
+                new Dispatcher() {
+                    @Override
+                    public MockResponse dispatch(final RecordedRequest request)
+                            throws InterruptedException {
+                        return handle(request);
+                    }
+                });
+    }
+
+    public void start() throws IOException {
+        server.start();
+    }
+
+    public void shutdown() throws IOException {
+        server.shutdown();
+    }
+
+    /** The URL to configure as the webhook URL of a site */
+    public String getWebhookUrl() {
+        return server.url(WEBHOOK_PATH).toString();
+    }
+
+    /** Every response is delayed by a random time between the two values */
+    public void setLatencyMillis(final long minLatencyMillis, final long maxLatencyMillis) {
+        this.minLatencyMillis = minLatencyMillis;
+        this.maxLatencyMillis = maxLatencyMillis;
+    }
+
+    /** Share of the requests that fail with a 503, from 0 to 1 */
+    public void setServerErrorRate(final double serverErrorRate) {
+        this.serverErrorRate = serverErrorRate;
+    }
+
+    /** Share of the requests that fail with a 429, from 0 to 1 */
+    public void setTooManyRequestsRate(final double tooManyRequestsRate) {
+        this.tooManyRequestsRate = tooManyRequestsRate;
+    }
+
+    /** The {@code Retry-After} of 429 and 503 responses */
+    public void setRetryAfterSeconds(final int retryAfterSeconds) {
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /** Requests above this number per second get a 429, 0 turns the limit off */
+    public synchronized void setRateLimitPerSecond(final int rateLimitPerSecond) {
+        this.rateLimitPerSecond = rateLimitPerSecond;
+        this.rateLimitWindowStart = System.nanoTime();
+        this.rateLimitWindowCount = 0;
+    }
+
+    public void setGatingStatus(final GatingStatus gatingStatus) {
+        this.gatingStatus = gatingStatus;
+    }
+
+    /** Requests received, including rejected ones */
+    public long getRequestCount() {
+        return requests.sum();
+    }
+
+    /** Requests that were rejected as their JWT could not be verified */
+    public long getInvalidJwtCount() {
+        return invalidJwts.sum();
+    }
+
+    /** Number of responses per status code */
+    public Map<Integer, Long> getStatusCodes() {
+        final Map<Integer, Long> counts = new TreeMap<>();
+        statusCodes.forEach((code, count) -> counts.put(code, count.sum()));
+        return counts;
+    }
+
+    /** The most requests that were handled at the same time */
+    public int getMaxConcurrentRequests() {
+        return maxInFlight.get();
+    }
+
+    private MockResponse handle(final RecordedRequest request) throws InterruptedException {
+        requests.increment();
+        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        try {
+            sleepLatency();
+            return respond(request);
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    private MockResponse respond(final RecordedRequest request) {
+        if (!WEBHOOK_PATH.equals(request.getRequestUrl().encodedPath())
+                || !"POST".equals(request.getMethod())) {
+            return error(404, "Not found");
+        }
+        if (isRateLimited()) {
+            return error(429, "Rate limit exceeded").setHeader("Retry-After", retryAfterSeconds);
+        }
+
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (random.nextDouble() < serverErrorRate) {
+            return error(503, "Service unavailable").setHeader("Retry-After", retryAfterSeconds);
+        }
+        if (random.nextDouble() < tooManyRequestsRate) {
+            return error(429, "Too many requests").setHeader("Retry-After", retryAfterSeconds);
+        }
+
+        final JsonNode body;
+        try {
+            final DecodedJWT jwt = jwtVerifier.verify(request.getBody().readUtf8());
+            body = objectMapper.readTree(jwt.getClaim("request_body_json").asString());
+        } catch (JWTVerificationException e) {
+            invalidJwts.increment();
+            return error(401, "Invalid JWT: " + e.getMessage());
+        } catch (IOException | RuntimeException e) {
+            return error(400, "Invalid request body: " + e.getMessage());
+        }
+
+        switch (body.path("requestType").asText()) {
+            case "event":
+                if ("build".equals(body.path("eventType").asText())) {
+                    return json(buildResponse(body.path("payload")));
+                }
+                if ("deployment".equals(body.path("eventType").asText())) {
+                    return json(deploymentResponse(body.path("payload")));
+                }
+                return error(400, "Unknown event type");
+            case "gatingStatus":
+                return json(gatingStatusResponse(body));
+            case "ping":
+                return json(objectMapper.createObjectNode().put("success", true));
+            default:
+                return error(400, "Unknown request type");
+        }
+    }
+
+    private ObjectNode buildResponse(final JsonNode payload) {
+        final ObjectNode response = objectMapper.createObjectNode();
+        final ArrayNode acceptedBuilds = response.putArray("acceptedBuilds");
+        for (final JsonNode build : payload.path("builds")) {
+            acceptedBuilds
+                    .addObject()
+                    .put("pipelineId", build.path("pipelineId").asText())
+                    .put("buildNumber", build.path("buildNumber").asInt());
+        }
+        response.putArray("rejectedBuilds");
+        response.putArray("unknownIssueKeys");
+        return response;
+    }
+
+    private ObjectNode deploymentResponse(final JsonNode payload) {
+        final ObjectNode response = objectMapper.createObjectNode();
+        final ArrayNode acceptedDeployments = response.putArray("acceptedDeployments");
+        for (final JsonNode deployment : payload.path("deployments")) {
+            acceptedDeployments
+                    .addObject()
+                    .put("pipelineId", deployment.path("pipeline").path("id").asText())
+                    .put("environmentId", deployment.path("environment").path("id").asText())
+                    .put(
+                            "deploymentSequenceNumber",
+                            deployment.path("deploymentSequenceNumber").asInt());
+        }
+        response.putArray("rejectedDeployments");
+        response.putArray("unknownAssociations");
+        return response;
+    }
+
+    private ObjectNode gatingStatusResponse(final JsonNode request) {
+        final ObjectNode response = objectMapper.createObjectNode();
+        response.put("updatedTimestamp", Instant.now().toString());
+        response.put("gatingStatus", gatingStatus.getStatus());
+        response.putArray("details");
+        response.put("pipelineId", request.path("pipelineId").asText());
+        response.put("environmentId", request.path("environmentId").asText());
+        response.put("deploymentSequenceNumber", request.path("deploymentId").asInt());
+        return response;
+    }
+
+    private synchronized boolean isRateLimited() {
+        if (rateLimitPerSecond <= 0) {
+            return false;
+        }
+        final long now = System.nanoTime();
+        if (now - rateLimitWindowStart >= TimeUnit.SECONDS.toNanos(1)) {
+            rateLimitWindowStart = now;
+            rateLimitWindowCount = 0;
+        }
+        return ++rateLimitWindowCount > rateLimitPerSecond;
+    }
+
+    private void sleepLatency() throws InterruptedException {
+        final long min = minLatencyMillis;
+        final long max = maxLatencyMillis;
+        final long latency = max > min ? ThreadLocalRandom.current().nextLong(min, max + 1) : min;
+        if (latency > 0) {
+            Thread.sleep(latency);
+        }
+    }
+
+    private MockResponse json(final JsonNode body) {
+        countStatus(200);
+        return new MockResponse()
+                .setResponseCode(200)
+                .setHeader("Content-Type", "application/json")
+                .setBody(body.toString());
+    }
+
+    private MockResponse error(final int code, final String message) {
+        countStatus(code);
+        return new MockResponse()
+                .setResponseCode(code)
+                .setHeader("Content-Type", "application/json")
+                .setBody(objectMapper.createObjectNode().put("message", message).toString());
+    }
+
+    private void countStatus(final int code) {
+        statusCodes.computeIfAbsent(code, c -> new LongAdder()).increment();
+    }
+}
@@ -0,0 +1,162 @@
+package com.atlassian.jira.cloud.jenkins;
+
+import com.atlassian.jira.cloud.jenkins.buildinfo.client.BuildsApi;
+import com.atlassian.jira.cloud.jenkins.buildinfo.client.model.BuildApiResponse;
+import com.atlassian.jira.cloud.jenkins.buildinfo.client.model.Builds;
+import com.atlassian.jira.cloud.jenkins.buildinfo.client.model.JiraBuildInfo;
+import com.atlassian.jira.cloud.jenkins.checkgatingstatus.client.GatingStatusApi;
+import com.atlassian.jira.cloud.jenkins.checkgatingstatus.client.model.GatingStatus;
+import com.atlassian.jira.cloud.jenkins.checkgatingstatus.client.model.GatingStatusResponse;
+import com.atlassian.jira.cloud.jenkins.common.client.BadRequestException;
+import com.atlassian.jira.cloud.jenkins.logging.PipelineLogger;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableSet;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.inject.Inject;
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class JenkinsAppSimulatorTest extends BaseUnitTest {
+
+    private static final String SECRET = "this is a secret";
+
+    @Inject private OkHttpClient httpClient;
+    @Inject private ObjectMapper objectMapper;
+
+    private JenkinsAppSimulator simulator;
+
+    @Before
+    public void startSimulator() throws IOException {
+        simulator = new JenkinsAppSimulator(SECRET);
+        simulator.start();
+    }
+
+    @After
+    public void shutdownSimulator() throws IOException {
+        simulator.shutdown();
+    }
+
+    @Test
+    public void testBuildIsAccepted_whenJwtIsValid() {
+        // given
+        final BuildsApi buildsApi = new BuildsApi(httpClient, objectMapper);
+
+        // when
+        final BuildApiResponse response =
+                buildsApi.sendBuildAsJwt(
+                        simulator.getWebhookUrl(),
+                        new Builds(build("pipeline", 7)),
+                        SECRET,
+                        PipelineLogger.noopInstance());
+
+        // then
+        assertThat(response.getAcceptedBuilds()).hasSize(1);
+        assertThat(response.getAcceptedBuilds().get(0).getPipelineId()).isEqualTo("pipeline");
+        assertThat(response.getAcceptedBuilds().get(0).getBuildNumber()).isEqualTo(7);
+        assertThat(response.getRejectedBuilds()).isEmpty();
+        assertThat(simulator.getStatusCodes()).containsEntry(200, 1L);
+    }
+
+    @Test
+    public void testRequestIsRejected_whenJwtIsSignedWithAnotherSecret() {
+        // given
+        final BuildsApi buildsApi = new BuildsApi(httpClient, objectMapper);
+
+        // when
+        assertThatThrownBy(
+                        () ->
+                                buildsApi.sendBuildAsJwt(
+                                        simulator.getWebhookUrl(),
+                                        new Builds(build("pipeline", 1)),
+                                        "another secret",
+                                        PipelineLogger.noopInstance()))
+                // then
+                .isInstanceOf(BadRequestException.class);
+        assertThat(simulator.getInvalidJwtCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testGatingStatusIsReturned() {
+        // given
+        simulator.setGatingStatus(GatingStatus.PREVENTED);
+        final GatingStatusApi gatingStatusApi = new GatingStatusApi(httpClient, objectMapper);
+
+        // when
+        final GatingStatusResponse response =
+                gatingStatusApi.getGatingStatus(
+                        simulator.getWebhookUrl(),
+                        SECRET,
+                        "3",
+                        "pipeline",
+                        "prod",
+                        PipelineLogger.noopInstance());
+
+        // then
+        assertThat(response.getGatingStatus()).isEqualTo(GatingStatus.PREVENTED);
+        assertThat(response.getPipelineId()).isEqualTo("pipeline");
+        assertThat(response.getEnvironmentId()).isEqualTo("prod");
+        assertThat(response.getDeploymentSequenceNumber()).isEqualTo(3);
+    }
+
+    @Test
+    public void testRequestsAboveRateLimitAreRejectedWith429() throws IOException {
+        // given
+        simulator.setRateLimitPerSecond(1);
+
+        // when
+        final int first = post();
+        final int second = post();
+
+        // then
+        assertThat(first).isEqualTo(401);
+        assertThat(second).isEqualTo(429);
+        assertThat(simulator.getRequestCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void testServerErrorsAreInjected() throws IOException {
+        // given
+        simulator.setServerErrorRate(1.0);
+
+        // when
+        final int status = post();
+
+        // then
+        assertThat(status).isEqualTo(503);
+        assertThat(simulator.getStatusCodes()).containsEntry(503, 1L);
+    }
+
+    private int post() throws IOException {
+        final Request request =
+                new Request.Builder()
+                        .url(simulator.getWebhookUrl())
+                        .post(RequestBody.create(MediaType.get("application/jwt"), "not a jwt"))
+                        .build();
+        try (Response response = httpClient.newCall(request).execute()) {
+            return response.code();
+        }
+    }
+
+    private static JiraBuildInfo build(final String pipelineId, final int buildNumber) {
+        return JiraBuildInfo.builder()
+                .withPipelineId(pipelineId)
+                .withBuildNumber(buildNumber)
+                .withUpdateSequenceNumber((long) buildNumber)
+                .withDisplayName("pipeline")
+                .withUrl("https://jenkins.example.com/job/pipeline/" + buildNumber)
+                .withState("successful")
+                .withLastUpdated("2023-01-01T00:00:00Z")
+                .withIssueKeys(ImmutableSet.of("TEST-" + buildNumber))
+                .build();
+    }
+}
@@ -0,0 +1,266 @@
+package com.atlassian.jira.cloud.jenkins.buildinfo.client;
+
+import com.atlassian.jira.cloud.jenkins.BaseMockServerTest;
+import com.atlassian.jira.cloud.jenkins.buildinfo.client.model.BuildApiResponse;
+import com.atlassian.jira.cloud.jenkins.buildinfo.client.model.Builds;
+import com.atlassian.jira.cloud.jenkins.buildinfo.client.model.JiraBuildInfo;
+import com.atlassian.jira.cloud.jenkins.logging.PipelineLogger;
+import com.auth0.jwt.JWT;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableSet;
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.MockResponse;
+import org.junit.After;
+import org.junit.Test;
+
+import javax.inject.Inject;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BatchingBuildsApiTest extends BaseMockServerTest {
+
+    private static final String SECRET = "this is a secret";
+
+    @Inject private OkHttpClient httpClient;
+    @Inject private ObjectMapper objectMapper;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(3);
+
+    @After
+    public void shutdownExecutor() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testBuildsOfSamePipelineAreSentInOneRequest() throws Exception {
+        // given
+        server.enqueue(
+                new MockResponse()
+                        .setBody(
+                                "{\"acceptedBuilds\":[{\"pipelineId\":\"pipeline\",\"buildNumber\":1},"
+                                        + "{\"pipelineId\":\"pipeline\",\"buildNumber\":2}],"
+                                        + "\"rejectedBuilds\":[{\"key\":{\"pipelineId\":\"pipeline\",\"buildNumber\":3},"
+                                        + "\"errors\":[{\"message\":\"'url' is required\"}]}],"
+                                        + "\"unknownIssueKeys\":[\"TEST-3\"]}"));
+        final BatchingBuildsApi classUnderTest = batchingApi(3, 10_000);
+
+        // when
+        final List<Future<BuildApiResponse>> responses = new ArrayList<>();
+        for (int buildNumber = 1; buildNumber <= 3; buildNumber++) {
+            final Builds builds = new Builds(build("pipeline", buildNumber));
+            responses.add(executor.submit(() -> send(classUnderTest, builds)));
+        }
+
+        // then
+        assertThat(responses.get(0).get().getAcceptedBuilds())
+                .extracting("buildNumber")
+                .containsExactly(1);
+        assertThat(responses.get(0).get().getRejectedBuilds()).isEmpty();
+        assertThat(responses.get(1).get().getAcceptedBuilds())
+                .extracting("buildNumber")
+                .containsExactly(2);
+        assertThat(responses.get(2).get().getAcceptedBuilds()).isEmpty();
+        assertThat(responses.get(2).get().getRejectedBuilds()).hasSize(1);
+        assertThat(responses.get(2).get().getUnknownIssueKeys()).containsExactly("TEST-3");
+        assertThat(responses.get(0).get().getUnknownIssueKeys()).isEmpty();
+
+        assertThat(server.getRequestCount()).isEqualTo(1);
+        assertThat(requestPayload().get("payload").get("builds")).hasSize(3);
+    }
+
+    @Test
+    public void testBatchIsSent_afterMaxDelay() throws Exception {
+        // given
+        server.enqueue(
+                new MockResponse()
+                        .setBody(
+                                "{\"acceptedBuilds\":[{\"pipelineId\":\"pipeline\",\"buildNumber\":1}],"
+                                        + "\"rejectedBuilds\":[],\"unknownIssueKeys\":[]}"));
+        final BatchingBuildsApi classUnderTest = batchingApi(10, 50);
+
+        // when
+        final BuildApiResponse response =
+                send(classUnderTest, new Builds(build("pipeline", 1)));
+
+        // then
+        assertThat(response.getAcceptedBuilds()).extracting("buildNumber").containsExactly(1);
+        assertThat(server.getRequestCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testAsyncCallerDoesNotWaitForBatch() throws Exception {
+        // given
+        server.enqueue(
+                new MockResponse()
+                        .setBody(
+                                "{\"acceptedBuilds\":[{\"pipelineId\":\"pipeline\",\"buildNumber\":1}],"
+                                        + "\"rejectedBuilds\":[],\"unknownIssueKeys\":[]}"));
+        final BatchingBuildsApi classUnderTest = batchingApi(10, 200);
+
+        // when
+        final CompletableFuture<BuildApiResponse> response =
+                classUnderTest.sendBuildAsJwtAsync(
+                        server.url("/webhook").toString(),
+                        new Builds(build("pipeline", 1)),
+                        SECRET,
+                        PipelineLogger.noopInstance());
+
+        // then
+        assertThat(response).isNotDone();
+        assertThat(response.get(5, TimeUnit.SECONDS).getAcceptedBuilds()).hasSize(1);
+        assertThat(server.getRequestCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testBuildsAreSentOneByOne_whenBatchingIsDisabled() throws Exception {
+        // given
+        for (int i = 0; i < 2; i++) {
+            server.enqueue(
+                    new MockResponse()
+                            .setBody(
+                                    "{\"acceptedBuilds\":[],\"rejectedBuilds\":[],\"unknownIssueKeys\":[]}"));
+        }
+        final BatchingBuildsApi classUnderTest = batchingApi(1, 10_000);
+
+        // when
+        send(classUnderTest, new Builds(build("pipeline", 1)));
+        send(classUnderTest, new Builds(build("pipeline", 2)));
+
+        // then
+        assertThat(server.getRequestCount()).isEqualTo(2);
+        assertThat(requestPayload().get("payload").get("builds")).hasSize(1);
+    }
+
+    @Test
+    public void testBuildsAreSentOneByOne_whenBatchIsRejected() throws Exception {
+        // given
+        server.enqueue(new MockResponse().setResponseCode(400).setBody("invalid build"));
+        server.enqueue(
+                new MockResponse()
+                        .setBody(
+                                "{\"acceptedBuilds\":[{\"pipelineId\":\"pipeline\",\"buildNumber\":1}],"
+                                        + "\"rejectedBuilds\":[],\"unknownIssueKeys\":[]}"));
+        server.enqueue(
+                new MockResponse()
+                        .setBody(
+                                "{\"acceptedBuilds\":[{\"pipelineId\":\"pipeline\",\"buildNumber\":2}],"
+                                        + "\"rejectedBuilds\":[],\"unknownIssueKeys\":[]}"));
+        final BatchingBuildsApi classUnderTest = batchingApi(2, 10_000);
+
+        // when
+        final Future<BuildApiResponse> first =
+                executor.submit(() -> send(classUnderTest, new Builds(build("pipeline", 1))));
+        final Future<BuildApiResponse> second =
+                executor.submit(() -> send(classUnderTest, new Builds(build("pipeline", 2))));
+
+        // then
+        assertThat(first.get().getAcceptedBuilds()).hasSize(1);
+        assertThat(second.get().getAcceptedBuilds()).hasSize(1);
+        assertThat(server.getRequestCount()).isEqualTo(3);
+    }
+
+    @Test
+    public void testEachBuildIsLoggedToItsOwnLog_whenBatchIsRejected() throws Exception {
+        // given
+        server.enqueue(new MockResponse().setResponseCode(400).setBody("invalid build"));
+        for (int i = 0; i < 2; i++) {
+            server.enqueue(
+                    new MockResponse()
+                            .setBody(
+                                    "{\"acceptedBuilds\":[],\"rejectedBuilds\":[],\"unknownIssueKeys\":[]}"));
+        }
+        final BatchingBuildsApi classUnderTest = batchingApi(2, 10_000);
+        final ByteArrayOutputStream firstLog = new ByteArrayOutputStream();
+        final ByteArrayOutputStream secondLog = new ByteArrayOutputStream();
+
+        // when
+        final Future<BuildApiResponse> first =
+                executor.submit(
+                        () -> send(classUnderTest, new Builds(build("pipeline", 1)), firstLog));
+        final Future<BuildApiResponse> second =
+                executor.submit(
+                        () -> send(classUnderTest, new Builds(build("pipeline", 2)), secondLog));
+        first.get();
+        second.get();
+
+        // then
+        final String firstOutput = firstLog.toString("UTF-8");
+        final String secondOutput = secondLog.toString("UTF-8");
+        assertThat(firstOutput).contains("job/pipeline/1").doesNotContain("job/pipeline/2");
+        assertThat(secondOutput).contains("job/pipeline/2").doesNotContain("job/pipeline/1");
+        assertThat(firstOutput + secondOutput).doesNotContain("invalid build");
+    }
+
+    @Test
+    public void testOlderUpdateOfSameBuildIsReplaced() throws Exception {
+        // given
+        server.enqueue(
+                new MockResponse()
+                        .setBody(
+                                "{\"acceptedBuilds\":[{\"pipelineId\":\"pipeline\",\"buildNumber\":1}],"
+                                        + "\"rejectedBuilds\":[],\"unknownIssueKeys\":[]}"));
+        final BatchingBuildsApi classUnderTest = batchingApi(10, 500);
+
+        // when
+        final Future<BuildApiResponse> inProgress =
+                executor.submit(() -> send(classUnderTest, new Builds(build("pipeline", 1))));
+        final Future<BuildApiResponse> finalResult =
+                executor.submit(() -> send(classUnderTest, new Builds(build("pipeline", 1))));
+
+        // then
+        assertThat(inProgress.get().getAcceptedBuilds()).hasSize(1);
+        assertThat(finalResult.get().getAcceptedBuilds()).hasSize(1);
+        assertThat(classUnderTest.getCoalescedCount()).isEqualTo(1);
+        assertThat(server.getRequestCount()).isEqualTo(1);
+        assertThat(requestPayload().get("payload").get("builds")).hasSize(1);
+    }
+
+    private BatchingBuildsApi batchingApi(final int batchSize, final long delayMillis) {
+        return new BatchingBuildsApi(httpClient, objectMapper, () -> batchSize, () -> delayMillis);
+    }
+
+    private BuildApiResponse send(final BatchingBuildsApi api, final Builds builds) {
+        return api.sendBuildAsJwt(
+                server.url("/webhook").toString(), builds, SECRET, PipelineLogger.noopInstance());
+    }
+
+    private BuildApiResponse send(
+            final BatchingBuildsApi api, final Builds builds, final ByteArrayOutputStream log)
+            throws Exception {
+        return api.sendBuildAsJwt(
+                server.url("/webhook").toString(),
+                builds,
+                SECRET,
+                new PipelineLogger(new PrintStream(log, true, "UTF-8"), true));
+    }
+
+    private JsonNode requestPayload() throws Exception {
+        final String jwt = server.takeRequest().getBody().readString(StandardCharsets.UTF_8);
+        return objectMapper.readTree(
+                JWT.decode(jwt).getClaim("request_body_json").asString());
+    }
+
+    private static JiraBuildInfo build(final String pipelineId, final int buildNumber) {
+        return JiraBuildInfo.builder()
+                .withPipelineId(pipelineId)
+                .withBuildNumber(buildNumber)
+                .withUpdateSequenceNumber((long) buildNumber)
+                .withDisplayName("pipeline")
+                .withUrl("https://jenkins.example.com/job/pipeline/" + buildNumber)
+                .withState("successful")
+                .withLastUpdated("2023-01-01T00:00:00Z")
+                .withIssueKeys(ImmutableSet.of("TEST-" + buildNumber))
+                .build();
+    }
+}
@@ -7,6 +7,7 @@ import com.atlassian.jira.cloud.jenkins.common.factory.JiraSenderFactory;
 import com.atlassian.jira.cloud.jenkins.common.response.JiraSendInfoResponse;
 import com.atlassian.jira.cloud.jenkins.config.JiraCloudPluginConfig;
 import com.atlassian.jira.cloud.jenkins.config.JiraCloudSiteConfig;
+import com.atlassian.jira.cloud.jenkins.logging.PipelineLogger;
 import com.cloudbees.plugins.credentials.CredentialsProvider;
 import com.cloudbees.plugins.credentials.CredentialsScope;
 import com.cloudbees.plugins.credentials.domains.Domain;
@@ -16,6 +17,8 @@ import hudson.model.Node;
 import hudson.model.TaskListener;
 import hudson.util.Secret;
 import org.jenkinsci.plugins.plaincredentials.impl.StringCredentialsImpl;
+import org.jenkinsci.plugins.workflow.cps.CpsFlowDefinition;
+import org.jenkinsci.plugins.workflow.job.WorkflowJob;
 import org.jenkinsci.plugins.workflow.job.WorkflowRun;
 import org.jenkinsci.plugins.workflow.steps.StepConfigTester;
 import org.jenkinsci.plugins.workflow.steps.StepContext;
@@ -34,9 +37,11 @@ import java.util.Map;
 import java.util.UUID;
 
 import static com.atlassian.jira.cloud.jenkins.common.response.JiraSendInfoResponse.Status.SUCCESS_BUILD_ACCEPTED;
+import static java.util.concurrent.CompletableFuture.completedFuture;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class JiraSendBuildInfoStepTest {
@@ -52,6 +57,8 @@ public class JiraSendBuildInfoStepTest {
 
     @Inject JiraSendBuildInfoStep.DescriptorImpl descriptor;
 
+    private final JiraBuildInfoSender mockSender = mock(JiraBuildInfoSender.class);
+
     @Before
     public void setUp() throws Exception {
         jenkinsRule.getInstance().getInjector().injectMembers(this);
@@ -69,7 +76,6 @@ public class JiraSendBuildInfoStepTest {
 
         // setup JiraBuildInfoSender mock
         final JiraSenderFactory mockSenderFactory = mock(JiraSenderFactory.class);
-        final JiraBuildInfoSender mockSender = mock(JiraBuildInfoSender.class);
         when(mockSenderFactory.getJiraBuildInfoSender()).thenReturn(mockSender);
         JiraSenderFactory.setInstance(mockSenderFactory);
         final BuildApiResponse response =
@@ -77,8 +83,8 @@ public class JiraSendBuildInfoStepTest {
                         Collections.emptyList(), Collections.emptyList(), Collections.emptyList());
         final JiraBuildInfoResponse buildAccepted =
                 JiraBuildInfoResponse.successBuildAccepted(SITE, response);
-        when(mockSender.sendBuildInfo(any(), any()))
-                .thenReturn(Collections.singletonList(buildAccepted));
+        when(mockSender.sendBuildInfoAsync(any(), any()))
+                .thenReturn(completedFuture(Collections.singletonList(buildAccepted)));
     }
 
     @Test
@@ -119,12 +125,38 @@ public class JiraSendBuildInfoStepTest {
                 (JiraSendBuildInfoStep.JiraSendBuildInfoStepExecution) step.start(ctx);
 
         // when
-        final JiraSendInfoResponse response = start.run().get(0);
+        final JiraSendInfoResponse response =
+                start.send(mockWorkflowRun, PipelineLogger.noopInstance()).get().get(0);
 
         // then
         assertThat(response.getStatus()).isEqualTo(SUCCESS_BUILD_ACCEPTED);
     }
 
+    @Test
+    public void testAsyncStep_isCollectedByJiraAwaitSends() throws Exception {
+        // given
+        final WorkflowJob job = jenkinsRule.createProject(WorkflowJob.class);
+        job.setDefinition(
+                new CpsFlowDefinition(
+                        "node {\n"
+                                + "    def handle = jiraSendBuildInfo site: '"
+                                + SITE
+                                + "', async: true\n"
+                                + "    echo \"sent as ${handle}\"\n"
+                                + "    jiraAwaitSends timeoutSeconds: 30\n"
+                                + "}",
+                        true));
+
+        // when
+        final WorkflowRun run = jenkinsRule.buildAndAssertSuccess(job);
+
+        // then
+        jenkinsRule.assertLogContains("sent as jiraSendBuildInfo#1", run);
+        jenkinsRule.assertLogContains(
+                "jiraAwaitSends(" + SITE + "): " + SUCCESS_BUILD_ACCEPTED, run);
+        verify(mockSender).sendBuildInfoAsync(any(), any());
+    }
+
     private static BaseStandardCredentials secretCredential() {
         return new StringCredentialsImpl(
                 CredentialsScope.GLOBAL, CREDENTIAL_ID, "test-secret", Secret.fromString("secret"));
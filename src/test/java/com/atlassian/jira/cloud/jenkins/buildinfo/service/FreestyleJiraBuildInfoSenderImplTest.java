@@ -6,6 +6,7 @@ import com.atlassian.jira.cloud.jenkins.buildinfo.client.model.BuildKeyResponse;
 import com.atlassian.jira.cloud.jenkins.buildinfo.client.model.RejectedBuildResponse;
 import com.atlassian.jira.cloud.jenkins.common.client.ApiUpdateFailedException;
 import com.atlassian.jira.cloud.jenkins.common.config.JiraSiteConfigRetriever;
+import com.atlassian.jira.cloud.jenkins.common.outbox.EventOutbox;
 import com.atlassian.jira.cloud.jenkins.common.model.ApiErrorResponse;
 import com.atlassian.jira.cloud.jenkins.common.response.JiraSendInfoResponse;
 import com.atlassian.jira.cloud.jenkins.common.service.FreestyleIssueKeyExtractor;
@@ -32,6 +33,7 @@ import org.mockito.junit.MockitoJUnitRunner;
 import java.util.Collections;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 import static com.atlassian.jira.cloud.jenkins.common.response.JiraSendInfoResponse.Status.*;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -62,6 +64,8 @@ public class FreestyleJiraBuildInfoSenderImplTest {
 
     @Mock private RunWrapperProvider runWrapperProvider;
 
+    @Mock private EventOutbox eventOutbox;
+
     private JiraBuildInfoSender classUnderTest;
 
     @Mock private FreestyleBranchNameIssueKeyExtractor freestyleBranchNameIssueKeyExtractor;
@@ -76,7 +80,8 @@ public class FreestyleJiraBuildInfoSenderImplTest {
                         cloudIdResolver,
                         buildsApi,
                         runWrapperProvider,
-                        freestyleChangeLogIssueKeyExtractor);
+                        freestyleChangeLogIssueKeyExtractor,
+                        eventOutbox);
 
         setupMocks();
     }
@@ -266,7 +271,8 @@ public class FreestyleJiraBuildInfoSenderImplTest {
                         Collections.emptyList(),
                         Collections.emptyList(),
                         ImmutableList.of("TEST-123"));
-        when(buildsApi.sendBuildAsJwt(any(), any(), any(), any())).thenReturn(buildApiResponse);
+        when(buildsApi.sendBuildAsJwtAsync(any(), any(), any(), any()))
+                .thenReturn(CompletableFuture.completedFuture(buildApiResponse));
     }
 
     private void setupMocks() {
@@ -317,8 +323,8 @@ public class FreestyleJiraBuildInfoSenderImplTest {
     }
 
     private void setupBuildsApiFailure() {
-        when(buildsApi.sendBuildAsJwt(any(), any(), any(), any()))
-                .thenThrow(new ApiUpdateFailedException("Error"));
+        when(buildsApi.sendBuildAsJwtAsync(any(), any(), any(), any()))
+                .thenReturn(failedFuture(new ApiUpdateFailedException("Error")));
     }
 
     private FreestyleBuildInfoRequest createRequest() {
@@ -336,7 +342,8 @@ public class FreestyleJiraBuildInfoSenderImplTest {
                         ImmutableList.of(buildKeyResponse),
                         Collections.emptyList(),
                         Collections.emptyList());
-        when(buildsApi.sendBuildAsJwt(any(), any(), any(), any())).thenReturn(buildApiResponse);
+        when(buildsApi.sendBuildAsJwtAsync(any(), any(), any(), any()))
+                .thenReturn(CompletableFuture.completedFuture(buildApiResponse));
     }
 
     private void setupBuildApiBuildRejected() {
@@ -350,7 +357,8 @@ public class FreestyleJiraBuildInfoSenderImplTest {
                         Collections.emptyList(),
                         ImmutableList.of(buildResponse),
                         Collections.emptyList());
-        when(buildsApi.sendBuildAsJwt(any(), any(), any(), any())).thenReturn(buildApiResponse);
+        when(buildsApi.sendBuildAsJwtAsync(any(), any(), any(), any()))
+                .thenReturn(CompletableFuture.completedFuture(buildApiResponse));
     }
 
     private AbstractBuild changeSetFreestyle() {
@@ -367,4 +375,10 @@ public class FreestyleJiraBuildInfoSenderImplTest {
     private FreestyleBuildInfoRequest createFreestyleRequest() {
         return new FreestyleBuildInfoRequest(SITE, "TEST-123-branch-name", mockAbstractBuild());
     }
+
+    private static <T> CompletableFuture<T> failedFuture(final Throwable error) {
+        final CompletableFuture<T> failed = new CompletableFuture<>();
+        failed.completeExceptionally(error);
+        return failed;
+    }
 }
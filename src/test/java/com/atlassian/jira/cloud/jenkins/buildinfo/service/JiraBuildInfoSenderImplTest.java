@@ -6,6 +6,7 @@ import com.atlassian.jira.cloud.jenkins.buildinfo.client.model.BuildKeyResponse;
 import com.atlassian.jira.cloud.jenkins.buildinfo.client.model.RejectedBuildResponse;
 import com.atlassian.jira.cloud.jenkins.common.client.ApiUpdateFailedException;
 import com.atlassian.jira.cloud.jenkins.common.config.JiraSiteConfigRetriever;
+import com.atlassian.jira.cloud.jenkins.common.outbox.EventOutbox;
 import com.atlassian.jira.cloud.jenkins.common.model.ApiErrorResponse;
 import com.atlassian.jira.cloud.jenkins.common.response.JiraSendInfoResponse;
 import com.atlassian.jira.cloud.jenkins.common.service.IssueKeyExtractor;
@@ -31,11 +32,13 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 import static com.atlassian.jira.cloud.jenkins.common.response.JiraSendInfoResponse.Status.*;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
 import static org.mockito.Mockito.*;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -67,6 +70,8 @@ public class JiraBuildInfoSenderImplTest {
 
     @Mock private RunWrapperProvider runWrapperProvider;
 
+    @Mock private EventOutbox eventOutbox;
+
     private JiraBuildInfoSender classUnderTest;
 
     @Before
@@ -78,7 +83,8 @@ public class JiraBuildInfoSenderImplTest {
                         issueKeyExtractor,
                         cloudIdResolver,
                         buildsApi,
-                        runWrapperProvider);
+                        runWrapperProvider,
+                        eventOutbox);
 
         setupMocks();
     }
@@ -179,6 +185,41 @@ public class JiraBuildInfoSenderImplTest {
         assertThat(message).isNotBlank();
     }
 
+    @Test
+    public void testSendBuildInfo_whenApiResponseFailure_retriesFromOutbox() {
+        // given
+        when(eventOutbox.enqueue(any(), any(), any(), any(), any())).thenReturn(Optional.of(1L));
+        setupBuildsApiFailure();
+
+        // when
+        classUnderTest.sendBuildInfo(createOneJiraRequest(), PipelineLogger.noopInstance());
+
+        // then
+        verify(eventOutbox).retryLater(1L);
+        verify(eventOutbox, never()).acknowledge(1L);
+    }
+
+    @Test
+    public void testSendBuildInfo_whenBuildAccepted_acknowledgesOutboxEvent() {
+        // given
+        when(eventOutbox.enqueue(any(), any(), any(), any(), any())).thenReturn(Optional.of(1L));
+        setupBuildsApiBuildAccepted();
+
+        // when
+        classUnderTest.sendBuildInfo(createOneJiraRequest(), PipelineLogger.noopInstance());
+
+        // then
+        verify(eventOutbox)
+                .enqueue(
+                        eq(SITE),
+                        eq(JIRA_SITE_CONFIG.getWebhookUrl()),
+                        eq("credsId"),
+                        startsWith("build:"),
+                        any());
+        verify(eventOutbox).acknowledge(1L);
+        verify(eventOutbox, never()).retryLater(1L);
+    }
+
     @Test
     public void testSendBuildInfo_whenBuildRejected() {
         // given
@@ -297,9 +338,11 @@ public class JiraBuildInfoSenderImplTest {
             assertThat(message).isNotBlank();
         }
         verify(buildsApi, times(1))
-                .sendBuildAsJwt(eq(JIRA_SITE_CONFIG.getWebhookUrl()), any(), any(), any());
+                .sendBuildAsJwtAsync(
+                        eq(JIRA_SITE_CONFIG.getWebhookUrl()), any(), any(), any());
         verify(buildsApi, times(1))
-                .sendBuildAsJwt(eq(JIRA_SITE_CONFIG2.getWebhookUrl()), any(), any(), any());
+                .sendBuildAsJwtAsync(
+                        eq(JIRA_SITE_CONFIG2.getWebhookUrl()), any(), any(), any());
     }
 
     private JiraBuildInfoRequest createOneJiraRequest() {
@@ -361,8 +404,8 @@ public class JiraBuildInfoSenderImplTest {
     }
 
     private void setupBuildsApiFailure() {
-        when(buildsApi.sendBuildAsJwt(any(), any(), any(), any()))
-                .thenThrow(new ApiUpdateFailedException("Error"));
+        when(buildsApi.sendBuildAsJwtAsync(any(), any(), any(), any()))
+                .thenReturn(failedFuture(new ApiUpdateFailedException("Error")));
     }
 
     private void setupBuildsApiBuildAccepted() {
@@ -372,7 +415,8 @@ public class JiraBuildInfoSenderImplTest {
                         ImmutableList.of(buildKeyResponse),
                         Collections.emptyList(),
                         Collections.emptyList());
-        when(buildsApi.sendBuildAsJwt(any(), any(), any(), any())).thenReturn(buildApiResponse);
+        when(buildsApi.sendBuildAsJwtAsync(any(), any(), any(), any()))
+                .thenReturn(CompletableFuture.completedFuture(buildApiResponse));
     }
 
     private void setupBuildApiBuildRejected() {
@@ -386,7 +430,8 @@ public class JiraBuildInfoSenderImplTest {
                         Collections.emptyList(),
                         ImmutableList.of(buildResponse),
                         Collections.emptyList());
-        when(buildsApi.sendBuildAsJwt(any(), any(), any(), any())).thenReturn(buildApiResponse);
+        when(buildsApi.sendBuildAsJwtAsync(any(), any(), any(), any()))
+                .thenReturn(CompletableFuture.completedFuture(buildApiResponse));
     }
 
     private void setupBuildApiUnknownIssueKeys() {
@@ -395,7 +440,8 @@ public class JiraBuildInfoSenderImplTest {
                         Collections.emptyList(),
                         Collections.emptyList(),
                         ImmutableList.of("TEST-123"));
-        when(buildsApi.sendBuildAsJwt(any(), any(), any(), any())).thenReturn(buildApiResponse);
+        when(buildsApi.sendBuildAsJwtAsync(any(), any(), any(), any()))
+                .thenReturn(CompletableFuture.completedFuture(buildApiResponse));
     }
 
     private static WorkflowRun mockWorkflowRun() {
@@ -412,4 +458,10 @@ public class JiraBuildInfoSenderImplTest {
         when(workflowRun.getChangeSets()).thenReturn(ImmutableList.of(changeLogSet));
         return workflowRun;
     }
+
+    private static <T> CompletableFuture<T> failedFuture(final Throwable error) {
+        final CompletableFuture<T> failed = new CompletableFuture<>();
+        failed.completeExceptionally(error);
+        return failed;
+    }
 }
@@ -0,0 +1,253 @@
+package com.atlassian.jira.cloud.jenkins.checkgatingstatus.pipeline;
+
+import com.atlassian.jira.cloud.jenkins.checkgatingstatus.client.model.GatingStatus;
+import com.atlassian.jira.cloud.jenkins.checkgatingstatus.client.model.GatingStatusResponse;
+import com.atlassian.jira.cloud.jenkins.checkgatingstatus.service.JiraGatingStatusResponse;
+import com.atlassian.jira.cloud.jenkins.checkgatingstatus.service.JiraGatingStatusRetriever;
+import com.atlassian.jira.cloud.jenkins.common.factory.JiraSenderFactory;
+import com.atlassian.jira.cloud.jenkins.common.response.JiraCommonResponse;
+import hudson.AbortException;
+import hudson.model.Executor;
+import hudson.model.Result;
+import hudson.model.TaskListener;
+import jenkins.model.CauseOfInterruption;
+import org.jenkinsci.plugins.workflow.job.WorkflowRun;
+import org.jenkinsci.plugins.workflow.steps.StepContext;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.io.PrintStream;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class WaitForGatingStatusStepTest {
+    private static final String SITE = "example.atlassian.net";
+    private static final String ENVIRONMENT_ID = UUID.randomUUID().toString();
+    private static final String PIPELINE_ID = UUID.randomUUID().toString();
+    private static final Integer DEPLOYMENT_NUMBER = 123;
+
+    private final StepContext context = mock(StepContext.class);
+    private final WorkflowRun run = mock(WorkflowRun.class);
+    private final Executor executor = mock(Executor.class);
+    private final JiraGatingStatusRetriever retriever = mock(JiraGatingStatusRetriever.class);
+
+    @Before
+    public void setUp() throws Exception {
+        final TaskListener taskListener = mock(TaskListener.class);
+        when(taskListener.getLogger()).thenReturn(mock(PrintStream.class));
+        when(context.get(TaskListener.class)).thenReturn(taskListener);
+        when(context.get(WorkflowRun.class)).thenReturn(run);
+        when(run.getExecutor()).thenReturn(executor);
+
+        final JiraSenderFactory senderFactory = mock(JiraSenderFactory.class);
+        when(senderFactory.getJiraGateStateRetriever()).thenReturn(retriever);
+        JiraSenderFactory.setInstance(senderFactory);
+    }
+
+    @Test
+    public void testStart_pollsUntilAllowed() {
+        // given
+        when(retriever.getGatingStatusAsync(any(), any(), any(), any()))
+                .thenReturn(
+                        completedFuture(
+                                JiraGatingStatusResponse.deploymentNotFound(SITE, "not found")),
+                        gatingStatus(GatingStatus.AWAITING),
+                        gatingStatus(GatingStatus.ALLOWED));
+
+        // when
+        final boolean synchronous = execution(60).start();
+
+        // then
+        assertThat(synchronous).isFalse();
+        verify(context, timeout(5000)).onSuccess(true);
+        verify(retriever, times(3))
+                .getGatingStatusAsync(any(), eq(SITE), eq(ENVIRONMENT_ID), eq(run));
+        verify(executor, never()).interrupt(any(), any());
+    }
+
+    @Test
+    public void testStart_abortsRun_whenPrevented() {
+        // given
+        final ArgumentCaptor<CauseOfInterruption> causeCaptor =
+                ArgumentCaptor.forClass(CauseOfInterruption.class);
+        when(retriever.getGatingStatusAsync(any(), any(), any(), any()))
+                .thenReturn(gatingStatus(GatingStatus.PREVENTED));
+
+        // when
+        execution(60).start();
+
+        // then
+        verify(context, timeout(5000)).onSuccess(false);
+        verify(executor).interrupt(eq(Result.ABORTED), causeCaptor.capture());
+        assertThat(causeCaptor.getValue().getShortDescription())
+                .isEqualTo("The deployment was prevented by Jira Service Desk.");
+    }
+
+    @Test
+    public void testStart_completesStepOnce_whenAbortingStopsIt() {
+        // given
+        when(retriever.getGatingStatusAsync(any(), any(), any(), any()))
+                .thenReturn(gatingStatus(GatingStatus.PREVENTED));
+        final WaitForGatingStatusStep.WaitForGatingStatusExecution classUnderTest = execution(60);
+        final Exception cause = new Exception("aborted");
+        doAnswer(
+                        invocation -> {
+                            classUnderTest.stop(cause);
+                            return null;
+                        })
+                .when(executor)
+                .interrupt(any(), any());
+
+        // when
+        classUnderTest.start();
+
+        // then
+        verify(context, timeout(5000)).onFailure(cause);
+        verify(context, after(500).never()).onSuccess(any());
+    }
+
+    @Test
+    public void testStart_failsRightAway_whenGatingStatusCheckFails() {
+        // given
+        when(retriever.getGatingStatusAsync(any(), any(), any(), any()))
+                .thenReturn(
+                        completedFuture(JiraGatingStatusResponse.failure(SITE, "Unauthorized")));
+
+        // when
+        execution(60).start();
+
+        // then
+        verify(context, timeout(5000)).onFailure(any(AbortException.class));
+        verify(retriever, after(500).times(1))
+                .getGatingStatusAsync(any(), any(), any(), any());
+    }
+
+    @Test
+    public void testStart_fails_whenStillAwaitingAtTimeout() {
+        // given
+        final ArgumentCaptor<Throwable> errorCaptor = ArgumentCaptor.forClass(Throwable.class);
+        when(retriever.getGatingStatusAsync(any(), any(), any(), any()))
+                .thenReturn(gatingStatus(GatingStatus.AWAITING));
+
+        // when
+        execution(0).start();
+
+        // then
+        verify(context, timeout(5000)).onFailure(errorCaptor.capture());
+        assertThat(errorCaptor.getValue())
+                .isInstanceOf(AbortException.class)
+                .hasMessageContaining(ENVIRONMENT_ID);
+        verify(retriever).getGatingStatusAsync(any(), any(), any(), any());
+    }
+
+    @Test
+    public void testStart_failsRightAway_whenSiteIsNotConfigured() {
+        // given
+        when(retriever.getGatingStatusAsync(any(), any(), any(), any()))
+                .thenReturn(
+                        completedFuture(
+                                JiraGatingStatusResponse.of(
+                                        JiraCommonResponse.failureSiteConfigNotFound(SITE))));
+
+        // when
+        execution(60).start();
+
+        // then
+        verify(context, timeout(5000)).onFailure(any(AbortException.class));
+        verify(retriever).getGatingStatusAsync(any(), any(), any(), any());
+    }
+
+    @Test
+    public void testStop_failsStep_andStopsPolling() {
+        // given
+        when(retriever.getGatingStatusAsync(any(), any(), any(), any()))
+                .thenReturn(gatingStatus(GatingStatus.AWAITING));
+        final WaitForGatingStatusStep.WaitForGatingStatusExecution classUnderTest =
+                execution(60, Duration.ofMillis(500));
+        classUnderTest.start();
+        verify(retriever, timeout(5000)).getGatingStatusAsync(any(), any(), any(), any());
+
+        // when
+        final Exception cause = new Exception("aborted");
+        classUnderTest.stop(cause);
+
+        // then
+        verify(context).onFailure(cause);
+        verify(retriever, after(1000).times(1))
+                .getGatingStatusAsync(any(), any(), any(), any());
+        verify(context, never()).onSuccess(any());
+    }
+
+    @Test
+    public void testOnResume_pollsAgain() {
+        // given
+        when(retriever.getGatingStatusAsync(any(), any(), any(), any()))
+                .thenReturn(gatingStatus(GatingStatus.ALLOWED));
+        final WaitForGatingStatusStep.WaitForGatingStatusExecution classUnderTest = execution(60);
+
+        // when
+        classUnderTest.onResume();
+
+        // then
+        verify(context, timeout(5000)).onSuccess(true);
+    }
+
+    @Test
+    public void testPollDelay_doublesUpToMaximum() {
+        // when
+        final long[] delays = new long[5];
+        for (int polls = 1; polls <= delays.length; polls++) {
+            delays[polls - 1] =
+                    WaitForGatingStatusStep.WaitForGatingStatusExecution.pollDelayMillis(
+                            polls, 10_000, 60_000);
+        }
+
+        // then
+        assertThat(delays).containsExactly(10_000, 20_000, 40_000, 60_000, 60_000);
+    }
+
+    private WaitForGatingStatusStep.WaitForGatingStatusExecution execution(
+            final int timeoutMinutes) {
+        return execution(timeoutMinutes, Duration.ofMillis(10));
+    }
+
+    private WaitForGatingStatusStep.WaitForGatingStatusExecution execution(
+            final int timeoutMinutes, final Duration pollDelay) {
+        final WaitForGatingStatusStep step = new WaitForGatingStatusStep(ENVIRONMENT_ID);
+        step.setSite(SITE);
+        step.setTimeoutMinutes(timeoutMinutes);
+        return new WaitForGatingStatusStep.WaitForGatingStatusExecution(
+                context, step, pollDelay, pollDelay);
+    }
+
+    private static CompletableFuture<JiraGatingStatusResponse> gatingStatus(
+            final GatingStatus status) {
+        return completedFuture(
+                JiraGatingStatusResponse.success(
+                        SITE,
+                        new GatingStatusResponse(
+                                LocalDateTime.now().toString(),
+                                status,
+                                Collections.emptyList(),
+                                PIPELINE_ID,
+                                ENVIRONMENT_ID,
+                                DEPLOYMENT_NUMBER)));
+    }
+}
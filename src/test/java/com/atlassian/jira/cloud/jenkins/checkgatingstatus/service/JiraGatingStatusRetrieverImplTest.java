@@ -3,6 +3,7 @@ package com.atlassian.jira.cloud.jenkins.checkgatingstatus.service;
 import com.atlassian.jira.cloud.jenkins.checkgatingstatus.client.GatingStatusApi;
 import com.atlassian.jira.cloud.jenkins.checkgatingstatus.client.model.GatingStatus;
 import com.atlassian.jira.cloud.jenkins.checkgatingstatus.client.model.GatingStatusResponse;
+import com.atlassian.jira.cloud.jenkins.common.client.NotFoundException;
 import com.atlassian.jira.cloud.jenkins.common.config.JiraSiteConfigRetriever;
 import com.atlassian.jira.cloud.jenkins.common.response.JiraSendInfoResponse;
 import com.atlassian.jira.cloud.jenkins.config.JiraCloudSiteConfig;
@@ -21,6 +22,7 @@ import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 import static com.atlassian.jira.cloud.jenkins.common.response.JiraSendInfoResponse.Status.*;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -109,6 +111,22 @@ public class JiraGatingStatusRetrieverImplTest {
         assertThat(response.getStatus()).isEqualTo(JiraSendInfoResponse.Status.FAILURE_GATE_CHECK);
     }
 
+    @Test
+    public void testGetGateState_whenDeploymentNotFound() {
+        // given
+        when(jiraApi.getGatingStatusAsync(any(), any(), any(), any(), any(), any()))
+                .thenReturn(
+                        failedFuture(
+                                new NotFoundException("{\"message\":\"Deployment not found\"}")));
+
+        // when
+        final JiraGatingStatusResponse response =
+                classUnderTest.getGatingStatus(taskListener, SITE, ENVIRONMENT_ID, run);
+
+        // then
+        assertThat(response.getStatus()).isEqualTo(FAILURE_GATE_CHECK_DEPLOYMENT_NOT_FOUND);
+    }
+
     @Test
     public void testGetGateState_whenApiResponseSuccess() {
         // given
@@ -150,8 +168,8 @@ public class JiraGatingStatusRetrieverImplTest {
     }
 
     private void setupApiFailure() {
-        when(jiraApi.getGatingStatus(any(), any(), any(), any(), any(), any()))
-                .thenThrow(new IllegalStateException("BWAAAH!"));
+        when(jiraApi.getGatingStatusAsync(any(), any(), any(), any(), any(), any()))
+                .thenReturn(failedFuture(new IllegalStateException("BWAAAH!")));
     }
 
     private void setupApiSuccess() {
@@ -163,7 +181,13 @@ public class JiraGatingStatusRetrieverImplTest {
                         PIPELINE_ID,
                         ENVIRONMENT_ID,
                         BUILD_NUMBER);
-        when(jiraApi.getGatingStatus(any(), any(), any(), any(), any(), any()))
-                .thenReturn(gatingStatusResponse);
+        when(jiraApi.getGatingStatusAsync(any(), any(), any(), any(), any(), any()))
+                .thenReturn(CompletableFuture.completedFuture(gatingStatusResponse));
+    }
+
+    private static <T> CompletableFuture<T> failedFuture(final Throwable error) {
+        final CompletableFuture<T> failed = new CompletableFuture<>();
+        failed.completeExceptionally(error);
+        return failed;
     }
 }
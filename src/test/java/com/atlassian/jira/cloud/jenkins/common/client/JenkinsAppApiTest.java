@@ -12,6 +12,7 @@ import com.atlassian.jira.cloud.jenkins.logging.PipelineLogger;
 import com.auth0.jwt.JWT;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import okhttp3.Call;
+import okhttp3.Callback;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.Response;
@@ -25,6 +26,7 @@ import org.skyscreamer.jsonassert.JSONCompareMode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.time.Instant;
@@ -33,6 +35,7 @@ import java.util.Calendar;
 import static com.atlassian.jira.cloud.jenkins.common.client.JenkinsAppRequestTestData.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
 import static org.mockito.Mockito.verify;
 
 public class JenkinsAppApiTest {
@@ -222,13 +225,24 @@ public class JenkinsAppApiTest {
         Call call = Mockito.mock(Call.class);
         Response response = Mockito.mock(Response.class);
         ResponseBody responseBody = Mockito.mock(ResponseBody.class);
-        given(call.execute()).willReturn(response);
+        willAnswer(
+                        invocation -> {
+                            invocation.<Callback>getArgument(0).onResponse(call, response);
+                            return null;
+                        })
+                .given(call)
+                .enqueue(any(Callback.class));
         given(response.code()).willReturn(200);
         given(response.body()).willReturn(responseBody);
         given(response.isSuccessful()).willReturn(true);
         given(responseBody.string()).willReturn("{\"success\": true}");
         given(responseBody.bytes())
                 .willReturn("{\"success\": true}".getBytes(StandardCharsets.UTF_8));
+        given(responseBody.byteStream())
+                .willAnswer(
+                        invocation ->
+                                new ByteArrayInputStream(
+                                        "{\"success\": true}".getBytes(StandardCharsets.UTF_8)));
         given(client.newCall(any(Request.class))).willReturn(call);
         return client;
     }
@@ -0,0 +1,98 @@
+package com.atlassian.jira.cloud.jenkins.common.client;
+
+import com.atlassian.jira.cloud.jenkins.checkgatingstatus.client.model.GatingStatus;
+import com.atlassian.jira.cloud.jenkins.checkgatingstatus.client.model.GatingStatusRequest;
+import com.atlassian.jira.cloud.jenkins.checkgatingstatus.client.model.GatingStatusResponse;
+import com.atlassian.jira.cloud.jenkins.provider.ObjectMapperProvider;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Strings;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class JsonBodiesTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapperProvider().objectMapper();
+    private final JsonBodies jsonBodies = new JsonBodies(objectMapper);
+
+    @Test
+    public void testRequestBodyIsSameJsonAsObjectMapper_whenWrittenTwice() throws IOException {
+        // given
+        final GatingStatusRequest request = new GatingStatusRequest("4711", "0815", "prod");
+        final RequestBody body = jsonBodies.requestBody(request);
+
+        // when
+        final Buffer first = new Buffer();
+        body.writeTo(first);
+        final Buffer second = new Buffer();
+        body.writeTo(second);
+
+        // then
+        final String expected = objectMapper.writeValueAsString(request);
+        assertThat(first.readUtf8()).isEqualTo(expected);
+        assertThat(second.readUtf8()).isEqualTo(expected);
+        assertThat(body.contentType().toString()).isEqualTo("application/json; charset=utf-8");
+    }
+
+    @Test
+    public void testResponseEntityIsReadFromBody() throws IOException {
+        // given
+        final ResponseBody body =
+                ResponseBody.create(
+                        MediaType.get("application/json"),
+                        "{\"gatingStatus\":\"prevented\",\"pipelineId\":\"pipeline\","
+                                + "\"environmentId\":\"prod\",\"deploymentSequenceNumber\":3}");
+
+        // when
+        final GatingStatusResponse response = jsonBodies.read(body, GatingStatusResponse.class);
+
+        // then
+        assertThat(response.getGatingStatus()).isEqualTo(GatingStatus.PREVENTED);
+        assertThat(response.getPipelineId()).isEqualTo("pipeline");
+        assertThat(response.getDeploymentSequenceNumber()).isEqualTo(3);
+    }
+
+    @Test
+    public void testErrorBodyIsCut_whenLongerThanLimit() throws IOException {
+        // given
+        final int length = (int) JsonBodies.MAX_ERROR_BODY_BYTES * 2;
+        final Response response = response(400, Strings.repeat("x", length));
+
+        // when
+        final String errorBody = JsonBodies.errorBody(response);
+
+        // then
+        assertThat(errorBody).hasSize((int) JsonBodies.MAX_ERROR_BODY_BYTES);
+    }
+
+    @Test
+    public void testErrorBodyIsComplete_whenShorterThanLimit() throws IOException {
+        // given
+        final Response response = response(400, "{\"message\":\"Invalid request\"}");
+
+        // when
+        final String errorBody = JsonBodies.errorBody(response);
+
+        // then
+        assertThat(errorBody).isEqualTo("{\"message\":\"Invalid request\"}");
+    }
+
+    private static Response response(final int code, final String body) {
+        return new Response.Builder()
+                .request(new Request.Builder().url("https://example.com").build())
+                .protocol(Protocol.HTTP_1_1)
+                .code(code)
+                .message("Bad Request")
+                .body(ResponseBody.create(MediaType.get("application/json"), body))
+                .build();
+    }
+}
@@ -0,0 +1,75 @@
+package com.atlassian.jira.cloud.jenkins.common.client;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.SignatureVerificationException;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.fasterxml.jackson.core.JsonFactory;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class JwtSignerTest {
+
+    private static final String SECRET = "this is a secret";
+
+    @Test
+    public void testSignedTokenIsVerifiedByJavaJwt() throws Exception {
+        // given
+        final String body = "{\"requestType\":\"event\",\"name\":\"caf\u00e9 \\\"quoted\\\"\"}";
+        final Date issuedAt = Date.from(Instant.parse("2023-01-01T00:00:00Z"));
+        final Date expiresAt = Date.from(Instant.parse("2999-01-01T00:00:00Z"));
+
+        // when
+        final byte[] token =
+                JwtSigner.sign(new JsonFactory(), body, SECRET, issuedAt, expiresAt);
+
+        // then
+        final DecodedJWT jwt =
+                JWT.require(Algorithm.HMAC256(SECRET))
+                        .withIssuer("jenkins-plugin")
+                        .withAudience("jenkins-forge-app")
+                        .build()
+                        .verify(new String(token, StandardCharsets.US_ASCII));
+        assertThat(jwt.getAlgorithm()).isEqualTo("HS256");
+        assertThat(jwt.getType()).isEqualTo("JWT");
+        assertThat(jwt.getIssuedAt()).isEqualTo(issuedAt);
+        assertThat(jwt.getExpiresAt()).isEqualTo(expiresAt);
+        assertThat(jwt.getClaim("request_body_json").asString()).isEqualTo(body);
+    }
+
+    @Test
+    public void testTokenIsRejected_whenSignedWithAnotherSecret() throws Exception {
+        // given
+        final Date now = new Date();
+        final Date later = new Date(now.getTime() + 60_000);
+
+        // when
+        final byte[] token =
+                JwtSigner.sign(new JsonFactory(), "{}", "another secret", now, later);
+
+        // then
+        assertThatThrownBy(
+                        () ->
+                                JWT.require(Algorithm.HMAC256(SECRET))
+                                        .build()
+                                        .verify(new String(token, StandardCharsets.US_ASCII)))
+                .isInstanceOf(SignatureVerificationException.class);
+    }
+
+    @Test
+    public void testAlgorithmIsReusedForTheSameSecret() {
+        // when
+        final Algorithm first = JwtSigner.algorithmFor(SECRET);
+        final Algorithm second = JwtSigner.algorithmFor(SECRET);
+
+        // then
+        assertThat(second).isSameAs(first);
+        assertThat(JwtSigner.algorithmFor("another secret")).isNotSameAs(first);
+    }
+}
@@ -0,0 +1,218 @@
+package com.atlassian.jira.cloud.jenkins.common.client;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import org.junit.Test;
+
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class SiteCircuitBreakersTest {
+
+    private static final String WEBHOOK_URL = "https://webhook.url?jenkins_server_uuid=foo";
+    private static final String OTHER_WEBHOOK_URL = "https://other.url?jenkins_server_uuid=foo";
+    private static final String SECRET = "secret";
+    private static final Duration WAIT_IN_OPEN_STATE = Duration.ofMillis(100);
+
+    private final SiteCircuitBreakers classUnderTest =
+            new SiteCircuitBreakers(
+                    CircuitBreakerConfig.custom()
+                            .failureRateThreshold(50)
+                            .slidingWindowSize(4)
+                            .minimumNumberOfCalls(4)
+                            .waitDurationInOpenState(WAIT_IN_OPEN_STATE)
+                            .permittedNumberOfCallsInHalfOpenState(1)
+                            .build());
+
+    @Test
+    public void testRequestsFailFast_whenWebhookKeepsFailing() throws Exception {
+        // given
+        final AtomicInteger requests = new AtomicInteger();
+        failRequests(WEBHOOK_URL, 4);
+
+        // when
+        assertThatThrownBy(
+                        () ->
+                                classUnderTest.call(
+                                        WEBHOOK_URL, SECRET, () -> requests.incrementAndGet()))
+                .isInstanceOf(ApiUpdateFailedException.class)
+                .hasMessageContaining("too many recent requests");
+
+        // then
+        assertThat(requests.get()).isZero();
+        assertThat(classUnderTest.getState(WEBHOOK_URL)).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(classUnderTest.describe(WEBHOOK_URL)).startsWith("Unavailable");
+        assertThat(classUnderTest.call(OTHER_WEBHOOK_URL, SECRET, () -> "sent")).isEqualTo("sent");
+    }
+
+    @Test
+    public void testBadRequestsDontOpenTheBreaker() throws Exception {
+        // when
+        for (int i = 0; i < 4; i++) {
+            assertThatThrownBy(
+                            () ->
+                                    classUnderTest.call(
+                                            WEBHOOK_URL,
+                                            SECRET,
+                                            () -> {
+                                                throw new BadRequestException("invalid build");
+                                            }))
+                    .isInstanceOf(BadRequestException.class);
+        }
+
+        // then
+        assertThat(classUnderTest.getState(WEBHOOK_URL)).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    public void testBreakerCloses_whenProbeSucceeds() throws Exception {
+        // given
+        final AtomicInteger probes = new AtomicInteger();
+        classUnderTest.setHalfOpenProbe(
+                (webhookUrl, secret) -> {
+                    probes.incrementAndGet();
+                    return CompletableFuture.completedFuture(true);
+                });
+        failRequests(WEBHOOK_URL, 4);
+        Thread.sleep(WAIT_IN_OPEN_STATE.toMillis() * 2);
+
+        // when
+        final String result = classUnderTest.call(WEBHOOK_URL, SECRET, () -> "sent");
+
+        // then
+        assertThat(result).isEqualTo("sent");
+        assertThat(probes.get()).isEqualTo(1);
+        assertThat(classUnderTest.getState(WEBHOOK_URL)).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    public void testBreakerStaysOpen_whenProbeFails() throws Exception {
+        // given
+        final AtomicInteger requests = new AtomicInteger();
+        classUnderTest.setHalfOpenProbe(
+                (webhookUrl, secret) -> CompletableFuture.completedFuture(false));
+        failRequests(WEBHOOK_URL, 4);
+        Thread.sleep(WAIT_IN_OPEN_STATE.toMillis() * 2);
+
+        // when
+        assertThatThrownBy(
+                        () ->
+                                classUnderTest.call(
+                                        WEBHOOK_URL, SECRET, () -> requests.incrementAndGet()))
+                .isInstanceOf(ApiUpdateFailedException.class);
+
+        // then
+        assertThat(requests.get()).isZero();
+        assertThat(classUnderTest.getState(WEBHOOK_URL)).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    public void testAsyncRequestIsSent_onceProbeHasSucceeded() throws Exception {
+        // given
+        final CompletableFuture<Boolean> probe = new CompletableFuture<>();
+        final AtomicInteger requests = new AtomicInteger();
+        classUnderTest.setHalfOpenProbe((webhookUrl, secret) -> probe);
+        failRequests(WEBHOOK_URL, 4);
+        Thread.sleep(WAIT_IN_OPEN_STATE.toMillis() * 2);
+
+        // when
+        final CompletableFuture<String> result =
+                classUnderTest.callAsync(
+                        WEBHOOK_URL,
+                        SECRET,
+                        () -> {
+                            requests.incrementAndGet();
+                            return CompletableFuture.completedFuture("sent");
+                        });
+
+        // then
+        assertThat(result).isNotDone();
+        assertThat(requests.get()).isZero();
+        probe.complete(true);
+        assertThat(result).isCompletedWithValue("sent");
+        assertThat(requests.get()).isEqualTo(1);
+        assertThat(classUnderTest.getState(WEBHOOK_URL)).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    public void testOutcomeOfAsyncRequestIsRecorded_onceCompleted() {
+        // given
+        final CompletableFuture<String> response = new CompletableFuture<>();
+        for (int i = 0; i < 3; i++) {
+            classUnderTest.callAsync(WEBHOOK_URL, SECRET, () -> failedFuture("timeout"));
+        }
+        final CompletableFuture<String> result =
+                classUnderTest.callAsync(WEBHOOK_URL, SECRET, () -> response);
+        assertThat(classUnderTest.getState(WEBHOOK_URL)).isEqualTo(CircuitBreaker.State.CLOSED);
+
+        // when
+        response.completeExceptionally(new ApiUpdateFailedException("timeout"));
+
+        // then
+        assertThat(result).isCompletedExceptionally();
+        assertThat(classUnderTest.getState(WEBHOOK_URL)).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(classUnderTest.callAsync(WEBHOOK_URL, SECRET, () -> failedFuture("unused")))
+                .isCompletedExceptionally();
+    }
+
+    @Test
+    public void testCancelledRequestsDontOpenTheBreaker() throws Exception {
+        // when
+        for (int i = 0; i < 2; i++) {
+            final CompletableFuture<String> response = new CompletableFuture<>();
+            classUnderTest.callAsync(WEBHOOK_URL, SECRET, () -> response);
+            response.cancel(true);
+            assertThatThrownBy(
+                            () ->
+                                    classUnderTest.call(
+                                            WEBHOOK_URL,
+                                            SECRET,
+                                            () -> {
+                                                throw new InterruptedIOException("Cancelled");
+                                            }))
+                    .isInstanceOf(InterruptedIOException.class);
+        }
+
+        // then
+        assertThat(classUnderTest.getState(WEBHOOK_URL)).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(classUnderTest.describe(WEBHOOK_URL)).isEqualTo("Connected");
+    }
+
+    @Test
+    public void testResetClosesTheBreaker() {
+        // given
+        failRequests(WEBHOOK_URL, 4);
+
+        // when
+        classUnderTest.reset(WEBHOOK_URL);
+
+        // then
+        assertThat(classUnderTest.getState(WEBHOOK_URL)).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(classUnderTest.describe(WEBHOOK_URL)).isEqualTo("Connected");
+    }
+
+    private void failRequests(final String webhookUrl, final int count) {
+        for (int i = 0; i < count; i++) {
+            assertThatThrownBy(
+                            () ->
+                                    classUnderTest.call(
+                                            webhookUrl,
+                                            SECRET,
+                                            () -> {
+                                                throw new ApiUpdateFailedException("timeout");
+                                            }))
+                    .isInstanceOf(ApiUpdateFailedException.class);
+        }
+    }
+
+    private static CompletableFuture<String> failedFuture(final String message) {
+        final CompletableFuture<String> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new ApiUpdateFailedException(message));
+        return failed;
+    }
+}
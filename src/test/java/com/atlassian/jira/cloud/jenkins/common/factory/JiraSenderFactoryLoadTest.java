@@ -0,0 +1,332 @@
+package com.atlassian.jira.cloud.jenkins.common.factory;
+
+import com.atlassian.jira.cloud.jenkins.JenkinsAppSimulator;
+import com.atlassian.jira.cloud.jenkins.buildinfo.service.MultibranchBuildInfoRequest;
+import com.atlassian.jira.cloud.jenkins.common.config.JiraSiteConfigRetriever;
+import com.atlassian.jira.cloud.jenkins.common.outbox.EventOutbox;
+import com.atlassian.jira.cloud.jenkins.common.response.JiraSendInfoResponse;
+import com.atlassian.jira.cloud.jenkins.config.JiraCloudSiteConfig;
+import com.atlassian.jira.cloud.jenkins.deploymentinfo.service.JiraDeploymentInfoRequest;
+import com.atlassian.jira.cloud.jenkins.logging.PipelineLogger;
+import com.atlassian.jira.cloud.jenkins.provider.HttpClientProvider;
+import com.atlassian.jira.cloud.jenkins.provider.ObjectMapperProvider;
+import com.atlassian.jira.cloud.jenkins.provider.WebhookRateLimiters;
+import com.atlassian.jira.cloud.jenkins.tenantinfo.CloudIdCache;
+import com.atlassian.jira.cloud.jenkins.util.SecretRetriever;
+import com.google.common.collect.ImmutableSet;
+import hudson.AbortException;
+import hudson.model.Result;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import org.jenkinsci.plugins.workflow.job.WorkflowJob;
+import org.jenkinsci.plugins.workflow.job.WorkflowRun;
+import org.jenkinsci.plugins.workflow.support.steps.build.RunWrapper;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Drives simulated pipelines through the senders of {@link JiraSenderFactory} against a {@link
+ * JenkinsAppSimulator} and reports throughput, send latency and thread counts. Only the lookups in
+ * Jenkins (site configuration, credentials, runs, outbox) are replaced, everything from building
+ * the payload to the HTTP client is the real send path.
+ *
+ * <p>Doesn't run by default, run it with {@code mvn test -Dtest=JiraSenderFactoryLoadTest
+ * -DloadTest=true}. The load and the behaviour of the simulated app are set by the {@code
+ * loadTest.*} properties below.
+ */
+public class JiraSenderFactoryLoadTest {
+
+    private static final String SITE = "example.atlassian.net";
+    private static final String SECRET = "this is a secret";
+    private static final String CREDENTIALS_ID = "credsId";
+    private static final String ENVIRONMENT_ID = "staging-1";
+
+    private final int pipelines = Integer.getInteger("loadTest.pipelines", 50);
+    private final int runsPerPipeline = Integer.getInteger("loadTest.runsPerPipeline", 4);
+    private final long minLatencyMillis = Long.getLong("loadTest.minLatencyMillis", 20L);
+    private final long maxLatencyMillis = Long.getLong("loadTest.maxLatencyMillis", 80L);
+    private final double serverErrorRate = doubleProperty("loadTest.serverErrorRate");
+    private final double tooManyRequestsRate = doubleProperty("loadTest.tooManyRequestsRate");
+    private final int rateLimitPerSecond = Integer.getInteger("loadTest.rateLimitPerSecond", 0);
+    private final int buildBatchSize = Integer.getInteger("loadTest.buildBatchSize", 1);
+    private final long buildBatchDelayMillis = Long.getLong("loadTest.buildBatchDelayMillis", 0L);
+
+    private final Map<WorkflowRun, RunWrapper> runWrappers = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Long> sendNanos = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger failedSends = new AtomicInteger();
+    private final AtomicLong maxRunningCalls = new AtomicLong();
+    private final AtomicLong maxQueuedCalls = new AtomicLong();
+
+    private JenkinsAppSimulator simulator;
+    private OkHttpClient httpClient;
+    private JiraSenderFactory senderFactory;
+
+    @Before
+    public void setUp() throws Exception {
+        Assume.assumeTrue("Run with -DloadTest=true", Boolean.getBoolean("loadTest"));
+
+        simulator = new JenkinsAppSimulator(SECRET);
+        simulator.setLatencyMillis(minLatencyMillis, maxLatencyMillis);
+        simulator.setServerErrorRate(serverErrorRate);
+        simulator.setTooManyRequestsRate(tooManyRequestsRate);
+        simulator.setRateLimitPerSecond(rateLimitPerSecond);
+        simulator.start();
+
+        final JiraSiteConfigRetriever siteConfigRetriever =
+                mock(JiraSiteConfigRetriever.class, withSettings().stubOnly());
+        when(siteConfigRetriever.getJiraSiteConfig(SITE))
+                .thenReturn(
+                        Optional.of(
+                                new JiraCloudSiteConfig(
+                                        SITE, simulator.getWebhookUrl(), CREDENTIALS_ID)));
+        final SecretRetriever secretRetriever =
+                mock(SecretRetriever.class, withSettings().stubOnly());
+        when(secretRetriever.getSecretFor(anyString())).thenReturn(Optional.of(SECRET));
+        final EventOutbox eventOutbox = mock(EventOutbox.class, withSettings().stubOnly());
+        when(eventOutbox.enqueue(any(), any(), any(), any(), any())).thenReturn(Optional.empty());
+
+        // the cloud ID is looked up on the site itself, which can't be simulated over https
+        CloudIdCache.get().get("https://" + SITE, url -> Optional.of("cloud-id"));
+
+        httpClient = new HttpClientProvider().httpClient();
+        senderFactory =
+                new JiraSenderFactory(
+                        httpClient,
+                        new ObjectMapperProvider().objectMapper(),
+                        siteConfigRetriever,
+                        secretRetriever,
+                        runWrappers::get,
+                        eventOutbox,
+                        () -> buildBatchSize,
+                        () -> buildBatchDelayMillis);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (simulator != null) {
+            simulator.shutdown();
+        }
+        CloudIdCache.get().invalidate("https://" + SITE);
+    }
+
+    @Test
+    public void testConcurrentPipelines() throws Exception {
+        // given
+        final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        final int threadsBefore = threads.getThreadCount();
+        threads.resetPeakThreadCount();
+        final ExecutorService executors = Executors.newFixedThreadPool(pipelines);
+        final CountDownLatch start = new CountDownLatch(1);
+        final ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        sampler.scheduleAtFixedRate(this::sampleDispatcher, 0, 10, TimeUnit.MILLISECONDS);
+
+        // when
+        final List<Future<?>> results = new ArrayList<>();
+        for (int pipeline = 0; pipeline < pipelines; pipeline++) {
+            final int pipelineNumber = pipeline;
+            results.add(
+                    executors.submit(
+                            () -> {
+                                start.await();
+                                for (int run = 1; run <= runsPerPipeline; run++) {
+                                    runPipeline(pipelineNumber, run);
+                                }
+                                return null;
+                            }));
+        }
+        final long startNanos = System.nanoTime();
+        start.countDown();
+        for (final Future<?> result : results) {
+            result.get(10, TimeUnit.MINUTES);
+        }
+        final long elapsedNanos = System.nanoTime() - startNanos;
+        final int peakThreads = threads.getPeakThreadCount();
+        executors.shutdown();
+        sampler.shutdownNow();
+
+        // then
+        report(elapsedNanos, threadsBefore, peakThreads);
+        assertThat(sendNanos).hasSize(pipelines * runsPerPipeline * 5);
+        assertThat(simulator.getInvalidJwtCount()).isZero();
+        if (serverErrorRate == 0 && tooManyRequestsRate == 0 && rateLimitPerSecond == 0) {
+            assertThat(failedSends).hasValue(0);
+        }
+    }
+
+    /** Calls wait in the queue of the dispatcher once the client has reached its limits */
+    private void sampleDispatcher() {
+        final Dispatcher dispatcher = httpClient.dispatcher();
+        maxRunningCalls.accumulateAndGet(dispatcher.runningCallsCount(), Math::max);
+        maxQueuedCalls.accumulateAndGet(dispatcher.queuedCallsCount(), Math::max);
+    }
+
+    /** The updates a pipeline with a gated deployment sends */
+    private void runPipeline(final int pipeline, final int runNumber) {
+        final WorkflowRun run = mockRun(pipeline, runNumber);
+        final String branch = "TEST-" + (pipeline + 1) + "-load-test";
+
+        send(
+                () ->
+                        senderFactory
+                                .getJiraBuildInfoSender()
+                                .sendBuildInfo(
+                                        new MultibranchBuildInfoRequest(
+                                                SITE, branch, run, Optional.empty()),
+                                        PipelineLogger.noopInstance()));
+        send(() -> deploy(run, "in_progress", true));
+        send(
+                () ->
+                        Collections.singletonList(
+                                senderFactory
+                                        .getJiraGateStateRetriever()
+                                        .getGatingStatus(
+                                                TaskListener.NULL, SITE, ENVIRONMENT_ID, run)));
+        send(() -> deploy(run, "successful", false));
+
+        when(run.getResult()).thenReturn(Result.SUCCESS);
+        send(
+                () ->
+                        senderFactory
+                                .getJiraBuildInfoSender()
+                                .sendBuildInfo(
+                                        new MultibranchBuildInfoRequest(
+                                                SITE, branch, run, Optional.empty()),
+                                        PipelineLogger.noopInstance()));
+        runWrappers.remove(run);
+    }
+
+    private List<JiraSendInfoResponse> deploy(
+            final WorkflowRun run, final String state, final boolean enableGating) {
+        return senderFactory
+                .getJiraDeploymentInfoSender()
+                .sendDeploymentInfo(
+                        new JiraDeploymentInfoRequest(
+                                SITE,
+                                ENVIRONMENT_ID,
+                                "Staging",
+                                "staging",
+                                state,
+                                Collections.emptySet(),
+                                enableGating,
+                                ImmutableSet.of("TEST-1"),
+                                run),
+                        PipelineLogger.noopInstance());
+    }
+
+    private void send(final Supplier<List<? extends JiraSendInfoResponse>> send) {
+        final long start = System.nanoTime();
+        final List<? extends JiraSendInfoResponse> responses = send.get();
+        sendNanos.add(System.nanoTime() - start);
+        if (responses.stream().anyMatch(response -> response.getStatus().isFailure)) {
+            failedSends.incrementAndGet();
+        }
+    }
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private WorkflowRun mockRun(final int pipeline, final int runNumber) {
+        final String fullName = "load-test/pipeline-" + pipeline;
+        final String url = "https://jenkins.example.com/job/pipeline-" + pipeline + "/";
+
+        final WorkflowJob job = mock(WorkflowJob.class, withSettings().stubOnly());
+        when(job.getFullName()).thenReturn(fullName);
+        when(job.getAbsoluteUrl()).thenReturn(url);
+        final WorkflowRun run = mock(WorkflowRun.class, withSettings().stubOnly());
+        when(run.getNumber()).thenReturn(runNumber);
+        when(run.getParent()).thenReturn(job);
+
+        final RunWrapper runWrapper = mock(RunWrapper.class, withSettings().stubOnly());
+        try {
+            when(runWrapper.getFullProjectName()).thenReturn(fullName);
+            when(runWrapper.getNumber()).thenReturn(runNumber);
+            when(runWrapper.getDisplayName()).thenReturn("#" + runNumber);
+            when(runWrapper.getAbsoluteUrl()).thenReturn(url + runNumber + "/");
+            when(runWrapper.getRawBuild()).thenReturn((Run) run);
+        } catch (final AbortException e) {
+            throw new RuntimeException(e);
+        }
+        runWrappers.put(run, runWrapper);
+        return run;
+    }
+
+    private void report(final long elapsedNanos, final int threadsBefore, final int peakThreads) {
+        final long[] latencies = sendNanos.stream().mapToLong(Long::longValue).toArray();
+        Arrays.sort(latencies);
+        final double seconds = elapsedNanos / 1e9;
+
+        System.out.printf(
+                "%d pipelines x %d runs: %d sends in %.1f s, %.1f sends/s, %d failed%n",
+                pipelines,
+                runsPerPipeline,
+                latencies.length,
+                seconds,
+                latencies.length / seconds,
+                failedSends.get());
+        System.out.printf(
+                "send latency: p50 %.1f ms, p99 %.1f ms, max %.1f ms%n",
+                percentileMillis(latencies, 0.50),
+                percentileMillis(latencies, 0.99),
+                percentileMillis(latencies, 1.0));
+        System.out.printf(
+                "threads: %d before, %d peak, %d after%n",
+                threadsBefore,
+                peakThreads,
+                ManagementFactory.getThreadMXBean().getThreadCount());
+        System.out.printf(
+                "dispatcher: %d calls running and %d queued at most (limits %d, %d per host)%n",
+                maxRunningCalls.get(),
+                maxQueuedCalls.get(),
+                httpClient.dispatcher().getMaxRequests(),
+                httpClient.dispatcher().getMaxRequestsPerHost());
+        System.out.printf(
+                "simulated app: %d requests, %d at most at once, status codes %s%n",
+                simulator.getRequestCount(),
+                simulator.getMaxConcurrentRequests(),
+                simulator.getStatusCodes());
+        System.out.printf(
+                "rate limiter: %s%n",
+                WebhookRateLimiters.get().describe(simulator.getWebhookUrl()));
+    }
+
+    private static double percentileMillis(final long[] sorted, final double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        final int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    private static double doubleProperty(final String name) {
+        return Double.parseDouble(System.getProperty(name, "0"));
+    }
+}
@@ -0,0 +1,149 @@
+package com.atlassian.jira.cloud.jenkins.common.outbox;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EventJournalTest {
+
+    private static final long SEGMENT_SIZE = 256;
+    private static final long MAX_SIZE = 4096;
+
+    @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final List<Long> dropped = new ArrayList<>();
+
+    @Test
+    public void testUnacknowledgedRecordsAreRecovered() throws Exception {
+        // given
+        final Path directory = temporaryFolder.getRoot().toPath();
+        final EventJournal journal = open(directory, MAX_SIZE);
+        final long first = journal.append(bytes("first"));
+        final long second = journal.append(bytes("second"));
+        final long third = journal.append(bytes("third"));
+        journal.acknowledge(second);
+        journal.close();
+
+        // when
+        final EventJournal reopened = open(directory, MAX_SIZE);
+
+        // then
+        assertThat(reopened.getRecovered().keySet()).containsExactly(first, third);
+        assertThat(string(reopened.getRecovered().get(third))).isEqualTo("third");
+        assertThat(reopened.append(bytes("fourth"))).isGreaterThan(third);
+    }
+
+    @Test
+    public void testAcknowledgedSegmentsAreDeleted() throws Exception {
+        // given
+        final EventJournal journal = open(temporaryFolder.getRoot().toPath(), MAX_SIZE);
+        final List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            ids.add(journal.append(bytes("event-" + i)));
+        }
+        assertThat(journal.getSegmentCount()).isGreaterThan(1);
+
+        // when
+        for (final Long id : ids) {
+            journal.acknowledge(id);
+        }
+
+        // then
+        assertThat(journal.getSegmentCount()).isEqualTo(1);
+        assertThat(segmentFiles()).hasSize(1);
+    }
+
+    @Test
+    public void testSegmentIsKept_whileOlderSegmentHasPendingRecords() throws Exception {
+        // given
+        final EventJournal journal = open(temporaryFolder.getRoot().toPath(), MAX_SIZE);
+        final long pending = journal.append(bytes("pending"));
+        final List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            ids.add(journal.append(bytes("event-" + i)));
+        }
+
+        // when
+        for (final Long id : ids) {
+            journal.acknowledge(id);
+        }
+
+        // then
+        assertThat(journal.getSegmentCount()).isGreaterThan(1);
+
+        journal.acknowledge(pending);
+        assertThat(journal.getSegmentCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testTornWriteIsIgnored() throws Exception {
+        // given
+        final Path directory = temporaryFolder.getRoot().toPath();
+        final EventJournal journal = open(directory, MAX_SIZE);
+        final long first = journal.append(bytes("first"));
+        journal.append(bytes("second"));
+        journal.close();
+
+        final Path segment = segmentFiles().get(0);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(Files.size(segment) - 3);
+        }
+
+        // when
+        final EventJournal reopened = open(directory, MAX_SIZE);
+        final long next = reopened.append(bytes("next"));
+        reopened.close();
+
+        // then
+        assertThat(reopened.getRecovered().keySet()).containsExactly(first);
+        assertThat(open(directory, MAX_SIZE).getRecovered().keySet()).containsExactly(first, next);
+    }
+
+    @Test
+    public void testOldestSegmentsAreDropped_whenOverSizeLimit() throws Exception {
+        // given
+        final EventJournal journal = open(temporaryFolder.getRoot().toPath(), 1024);
+
+        // when
+        final List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            ids.add(journal.append(bytes("event-" + i)));
+        }
+
+        // then
+        assertThat(journal.getSize()).isLessThanOrEqualTo(1024);
+        assertThat(dropped).isNotEmpty();
+        assertThat(dropped).isEqualTo(ids.subList(0, dropped.size()));
+    }
+
+    private EventJournal open(final Path directory, final long maxSize) throws IOException {
+        return new EventJournal(directory, SEGMENT_SIZE, maxSize, dropped::add);
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(temporaryFolder.getRoot().toPath())) {
+            return files.sorted().collect(Collectors.toList());
+        }
+    }
+
+    private static byte[] bytes(final String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String string(final byte[] value) {
+        return new String(value, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,248 @@
+package com.atlassian.jira.cloud.jenkins.common.outbox;
+
+import com.atlassian.jira.cloud.jenkins.buildinfo.client.BuildsApi;
+import com.atlassian.jira.cloud.jenkins.common.client.ApiUpdateFailedException;
+import com.atlassian.jira.cloud.jenkins.common.client.BadRequestException;
+import com.atlassian.jira.cloud.jenkins.common.client.JenkinsAppEventRequest;
+import com.atlassian.jira.cloud.jenkins.common.client.JenkinsAppRequestTestData;
+import com.atlassian.jira.cloud.jenkins.provider.ObjectMapperProvider;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EventOutboxTest {
+
+    private static final String SITE = "example.atlassian.net";
+    private static final String WEBHOOK_URL = "https://webhook.url?jenkins_server_uuid=foo";
+    private static final String CREDENTIALS_ID = "credsId";
+    private static final String EVENT_KEY = "build:pipelineId:12";
+    private static final String OTHER_EVENT_KEY = "build:pipelineId:13";
+
+    @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final ObjectMapper objectMapper = new ObjectMapperProvider().objectMapper();
+    private final AtomicLong clock = new AtomicLong(1_000_000);
+    private final List<OutboxEntry> delivered = new ArrayList<>();
+
+    private EventOutbox classUnderTest;
+
+    @Before
+    public void setUp() {
+        classUnderTest = createOutbox();
+    }
+
+    @Test
+    public void testAcknowledgedEventIsNotDelivered() {
+        // given
+        final Optional<Long> id = enqueue(EVENT_KEY);
+
+        // when
+        classUnderTest.acknowledge(id.get());
+        classUnderTest.drain(delivered::add);
+
+        // then
+        assertThat(delivered).isEmpty();
+        assertThat(classUnderTest.getPendingCount()).isZero();
+        assertThat(createOutbox().getPendingCount()).isZero();
+    }
+
+    @Test
+    public void testEventIsNotDelivered_whileSenderIsSendingIt() {
+        // given
+        enqueue(EVENT_KEY);
+
+        // when
+        classUnderTest.drain(delivered::add);
+
+        // then
+        assertThat(delivered).isEmpty();
+        assertThat(classUnderTest.getPendingCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testFailedEventIsDelivered_afterBackoff() throws Exception {
+        // given
+        final Optional<Long> id = enqueue(EVENT_KEY);
+        classUnderTest.retryLater(id.get());
+
+        // when
+        classUnderTest.drain(delivered::add);
+        final int deliveredBeforeBackoff = delivered.size();
+        clock.addAndGet(Duration.ofMinutes(1).toMillis());
+        classUnderTest.drain(delivered::add);
+
+        // then
+        assertThat(deliveredBeforeBackoff).isZero();
+        assertThat(delivered).hasSize(1);
+        final OutboxEntry entry = delivered.get(0);
+        assertThat(entry.getSite()).isEqualTo(SITE);
+        assertThat(entry.getWebhookUrl()).isEqualTo(WEBHOOK_URL);
+        assertThat(entry.getCredentialsId()).isEqualTo(CREDENTIALS_ID);
+        assertThat(entry.getRequestJson()).isEqualTo(objectMapper.writeValueAsString(request()));
+        assertThat(classUnderTest.getPendingCount()).isZero();
+    }
+
+    @Test
+    public void testEventIsRetried_whenDeliveryFails() {
+        // given
+        final Optional<Long> id = enqueue(EVENT_KEY);
+        classUnderTest.retryLater(id.get());
+        clock.addAndGet(Duration.ofMinutes(1).toMillis());
+
+        // when
+        classUnderTest.drain(
+                entry -> {
+                    throw new ApiUpdateFailedException("Jira is down");
+                });
+        clock.addAndGet(Duration.ofSeconds(30).toMillis());
+        classUnderTest.drain(delivered::add);
+        clock.addAndGet(Duration.ofMinutes(1).toMillis());
+        classUnderTest.drain(delivered::add);
+
+        // then
+        assertThat(delivered).hasSize(1);
+        assertThat(classUnderTest.getPendingCount()).isZero();
+    }
+
+    @Test
+    public void testEventIsDropped_whenRejected() {
+        // given
+        final Optional<Long> id = enqueue(EVENT_KEY);
+        classUnderTest.retryLater(id.get());
+        clock.addAndGet(Duration.ofMinutes(1).toMillis());
+
+        // when
+        classUnderTest.drain(
+                entry -> {
+                    throw new BadRequestException("Invalid payload");
+                });
+
+        // then
+        assertThat(classUnderTest.getPendingCount()).isZero();
+    }
+
+    @Test
+    public void testEventIsDropped_whenOlderThanMaxAge() {
+        // given
+        final Optional<Long> id = enqueue(EVENT_KEY);
+        classUnderTest.retryLater(id.get());
+
+        // when
+        clock.addAndGet(Duration.ofHours(2).toMillis());
+        classUnderTest.drain(delivered::add);
+
+        // then
+        assertThat(delivered).isEmpty();
+        assertThat(classUnderTest.getPendingCount()).isZero();
+    }
+
+    @Test
+    public void testUndeliveredEventsAreRecovered_afterRestart() {
+        // given
+        enqueue(EVENT_KEY);
+        final Optional<Long> acknowledged = enqueue(OTHER_EVENT_KEY);
+        classUnderTest.acknowledge(acknowledged.get());
+
+        // when
+        final EventOutbox restarted = createOutbox();
+        restarted.drain(delivered::add);
+
+        // then
+        assertThat(delivered).hasSize(1);
+        assertThat(restarted.getPendingCount()).isZero();
+        assertThat(createOutbox().getPendingCount()).isZero();
+    }
+
+    @Test
+    public void testPendingEventIsDropped_whenSupersededByNewerEvent() {
+        // given
+        final Optional<Long> inProgress = enqueue(EVENT_KEY);
+        classUnderTest.retryLater(inProgress.get());
+
+        // when
+        final Optional<Long> finalResult = enqueue(EVENT_KEY);
+        classUnderTest.retryLater(finalResult.get());
+        clock.addAndGet(Duration.ofMinutes(1).toMillis());
+        classUnderTest.drain(delivered::add);
+
+        // then
+        assertThat(delivered).hasSize(1);
+        assertThat(classUnderTest.getCoalescedCount()).isEqualTo(1);
+        assertThat(classUnderTest.getPendingCount()).isZero();
+    }
+
+    @Test
+    public void testEventInFlightIsDropped_whenSupersededAndSendingFails() {
+        // given
+        final Optional<Long> inProgress = enqueue(EVENT_KEY);
+
+        // when
+        final Optional<Long> finalResult = enqueue(EVENT_KEY);
+        classUnderTest.retryLater(inProgress.get());
+        classUnderTest.acknowledge(finalResult.get());
+
+        // then
+        assertThat(classUnderTest.getCoalescedCount()).isEqualTo(1);
+        assertThat(classUnderTest.getPendingCount()).isZero();
+    }
+
+    @Test
+    public void testEventIsKept_whenNewerEventIsAboutAnotherBuild() {
+        // given
+        final Optional<Long> first = enqueue(EVENT_KEY);
+        classUnderTest.retryLater(first.get());
+
+        // when
+        enqueue(OTHER_EVENT_KEY);
+
+        // then
+        assertThat(classUnderTest.getCoalescedCount()).isZero();
+        assertThat(classUnderTest.getPendingCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void testSupersededEventIsDropped_afterRestart() {
+        // given
+        enqueue(EVENT_KEY);
+        enqueue(EVENT_KEY);
+
+        // when
+        final EventOutbox restarted = createOutbox();
+        clock.addAndGet(Duration.ofMinutes(1).toMillis());
+        restarted.drain(delivered::add);
+
+        // then
+        assertThat(delivered).hasSize(1);
+        assertThat(restarted.getCoalescedCount()).isEqualTo(1);
+    }
+
+    private Optional<Long> enqueue(final String eventKey) {
+        return classUnderTest.enqueue(SITE, WEBHOOK_URL, CREDENTIALS_ID, eventKey, request());
+    }
+
+    private EventOutbox createOutbox() {
+        return new EventOutbox(
+                temporaryFolder.getRoot().toPath(),
+                1024 * 1024,
+                16 * 1024 * 1024,
+                Duration.ofHours(1),
+                objectMapper,
+                clock::get);
+    }
+
+    private static JenkinsAppEventRequest request() {
+        return BuildsApi.createRequest(
+                JenkinsAppRequestTestData.builds(Instant.parse("2023-01-01T00:00:00Z")));
+    }
+}
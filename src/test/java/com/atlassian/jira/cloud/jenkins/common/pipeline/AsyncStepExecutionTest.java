@@ -0,0 +1,128 @@
+package com.atlassian.jira.cloud.jenkins.common.pipeline;
+
+import com.atlassian.jira.cloud.jenkins.provider.CancellableCalls;
+import org.jenkinsci.plugins.workflow.steps.StepContext;
+import org.junit.Test;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+public class AsyncStepExecutionTest {
+
+    private final StepContext context = mock(StepContext.class);
+
+    @Test
+    public void testStart_completesContextWithResult() throws Exception {
+        // given
+        final AsyncStepExecution<String> classUnderTest = execution(() -> "done");
+
+        // when
+        final boolean synchronous = classUnderTest.start();
+
+        // then
+        assertThat(synchronous).isFalse();
+        verify(context, timeout(5000)).onSuccess("done");
+    }
+
+    @Test
+    public void testStart_completesContext_onceFutureOfRunCompletes() throws Exception {
+        // given
+        final CompletableFuture<String> response = new CompletableFuture<>();
+        final AsyncStepExecution<String> classUnderTest = pending(response);
+        classUnderTest.start();
+
+        // when
+        Thread.sleep(100);
+        verify(context, never()).onSuccess(any());
+        response.complete("done");
+
+        // then
+        verify(context, timeout(5000)).onSuccess("done");
+    }
+
+    @Test
+    public void testStart_failsContext_whenRunThrows() throws Exception {
+        // given
+        final IllegalStateException error = new IllegalStateException("no site");
+        final AsyncStepExecution<String> classUnderTest =
+                execution(
+                        () -> {
+                            throw error;
+                        });
+
+        // when
+        classUnderTest.start();
+
+        // then
+        verify(context, timeout(5000)).onFailure(error);
+    }
+
+    @Test
+    public void testRun_joinsCancellableCalls() throws Exception {
+        // given
+        final AsyncStepExecution<Boolean> classUnderTest =
+                execution(() -> CancellableCalls.current().isPresent());
+
+        // when
+        classUnderTest.start();
+
+        // then
+        verify(context, timeout(5000)).onSuccess(true);
+    }
+
+    @Test
+    public void testStop_failsContextRightAway_andInterruptsRun() throws Exception {
+        // given
+        final CountDownLatch running = new CountDownLatch(1);
+        final CountDownLatch interrupted = new CountDownLatch(1);
+        final AsyncStepExecution<String> classUnderTest =
+                execution(
+                        () -> {
+                            running.countDown();
+                            try {
+                                new CountDownLatch(1).await();
+                            } catch (InterruptedException e) {
+                                interrupted.countDown();
+                            }
+                            return "done";
+                        });
+        classUnderTest.start();
+        assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // when
+        final Exception cause = new Exception("aborted");
+        classUnderTest.stop(cause);
+
+        // then
+        verify(context).onFailure(cause);
+        assertThat(interrupted.await(5, TimeUnit.SECONDS)).isTrue();
+        verify(context, never()).onSuccess(any());
+    }
+
+    private <T> AsyncStepExecution<T> execution(final Callable<T> run) {
+        return new AsyncStepExecution<T>(context) {
+            @Override
+            protected CompletableFuture<T> run() throws Exception {
+                return CompletableFuture.completedFuture(run.call());
+            }
+        };
+    }
+
+    private <T> AsyncStepExecution<T> pending(final CompletableFuture<T> response) {
+        return new AsyncStepExecution<T>(context) {
+            @Override
+            protected CompletableFuture<T> run() {
+                return response;
+            }
+        };
+    }
+}
@@ -0,0 +1,255 @@
+package com.atlassian.jira.cloud.jenkins.common.pipeline;
+
+import com.atlassian.jira.cloud.jenkins.common.response.JiraCommonResponse;
+import com.atlassian.jira.cloud.jenkins.common.response.JiraSendInfoResponse;
+import com.atlassian.jira.cloud.jenkins.logging.PipelineLogger;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BackgroundSendsTest {
+
+    private static final String RUN_URL = "job/multibranch/job/master/1/";
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private final BackgroundSends classUnderTest = new BackgroundSends();
+
+    @Test
+    public void testAwaitAll_returnsResponsesInOrderOfSends() throws Exception {
+        // given
+        final CountDownLatch release = new CountDownLatch(1);
+        final String first =
+                classUnderTest.submit(
+                        RUN_URL,
+                        "jiraSendBuildInfo",
+                        "example.atlassian.net",
+                        () -> {
+                            release.await();
+                            return response("example.atlassian.net", "build");
+                        });
+        final String second =
+                classUnderTest.submit(
+                        RUN_URL,
+                        "jiraSendDeploymentInfo",
+                        null,
+                        () -> response("other.atlassian.net", "deployment"));
+        release.countDown();
+
+        // when
+        final List<JiraSendInfoResponse> responses =
+                classUnderTest.awaitAll(RUN_URL, TIMEOUT).get(10, TimeUnit.SECONDS);
+
+        // then
+        assertThat(first).isEqualTo("jiraSendBuildInfo#1");
+        assertThat(second).isEqualTo("jiraSendDeploymentInfo#2");
+        assertThat(responses)
+                .extracting(JiraSendInfoResponse::getMessage)
+                .containsExactly("build", "deployment");
+    }
+
+    @Test
+    public void testAwaitAll_reportsTimeout_whenSendIsStillGoing() throws Exception {
+        // given
+        final CountDownLatch release = new CountDownLatch(1);
+        classUnderTest.submit(
+                RUN_URL,
+                "jiraSendBuildInfo",
+                null,
+                () -> {
+                    release.await();
+                    return response("example.atlassian.net", "build");
+                });
+
+        // when
+        final List<JiraSendInfoResponse> responses =
+                classUnderTest
+                        .awaitAll(RUN_URL, Duration.ofMillis(100))
+                        .get(10, TimeUnit.SECONDS);
+        release.countDown();
+
+        // then
+        assertThat(responses).hasSize(1);
+        assertThat(responses.get(0).getStatus())
+                .isEqualTo(JiraSendInfoResponse.Status.FAILURE_TIMEOUT);
+        assertThat(responses.get(0).getJiraSite()).isEqualTo("all sites");
+        assertThat(responses.get(0).getMessage()).contains("jiraSendBuildInfo#1");
+    }
+
+    @Test
+    public void testAwaitAll_reportsFailure_whenSendThrows() throws Exception {
+        // given
+        classUnderTest.submit(
+                RUN_URL,
+                "jiraSendBuildInfo",
+                "example.atlassian.net",
+                () -> {
+                    throw new IllegalStateException("no token");
+                });
+
+        // when
+        final List<JiraSendInfoResponse> responses =
+                classUnderTest.awaitAll(RUN_URL, TIMEOUT).get(10, TimeUnit.SECONDS);
+
+        // then
+        assertThat(responses).hasSize(1);
+        assertThat(responses.get(0).getStatus())
+                .isEqualTo(JiraSendInfoResponse.Status.FAILURE_UNEXPECTED_RESPONSE);
+        assertThat(responses.get(0).getJiraSite()).isEqualTo("example.atlassian.net");
+        assertThat(responses.get(0).getMessage()).contains("jiraSendBuildInfo#1", "no token");
+    }
+
+    @Test
+    public void testAwaitAll_returnsNothing_whenSendsWereAwaitedBefore() throws Exception {
+        // given
+        classUnderTest.submit(
+                RUN_URL,
+                "jiraSendBuildInfo",
+                null,
+                () -> response("example.atlassian.net", "build"));
+        classUnderTest.awaitAll(RUN_URL, TIMEOUT).get(10, TimeUnit.SECONDS);
+
+        // when
+        final List<JiraSendInfoResponse> responses =
+                classUnderTest.awaitAll(RUN_URL, TIMEOUT).get(10, TimeUnit.SECONDS);
+
+        // then
+        assertThat(responses).isEmpty();
+    }
+
+    @Test
+    public void testAwaitAll_returnsSendsAgain_whenAwaitWasCancelled() throws Exception {
+        // given
+        final CountDownLatch release = new CountDownLatch(1);
+        classUnderTest.submit(
+                RUN_URL,
+                "jiraSendBuildInfo",
+                null,
+                () -> {
+                    release.await();
+                    return response("example.atlassian.net", "build");
+                });
+        classUnderTest.awaitAll(RUN_URL, TIMEOUT).cancel(false);
+        release.countDown();
+
+        // when
+        final List<JiraSendInfoResponse> responses =
+                classUnderTest.awaitAll(RUN_URL, TIMEOUT).get(10, TimeUnit.SECONDS);
+
+        // then
+        assertThat(responses).extracting(JiraSendInfoResponse::getMessage).containsExactly("build");
+    }
+
+    @Test
+    public void testFlush_reportsLateResult_whenAwaitTimedOut() throws Exception {
+        // given
+        final CountDownLatch release = new CountDownLatch(1);
+        classUnderTest.submit(
+                RUN_URL,
+                "jiraSendBuildInfo",
+                null,
+                () -> {
+                    release.await();
+                    throw new IllegalStateException("no token");
+                });
+        classUnderTest.awaitAll(RUN_URL, Duration.ofMillis(100)).get(10, TimeUnit.SECONDS);
+        release.countDown();
+        final ByteArrayOutputStream log = new ByteArrayOutputStream();
+
+        // when
+        classUnderTest.flush(RUN_URL, TIMEOUT, new PipelineLogger(new PrintStream(log), false));
+
+        // then
+        assertThat(log.toString()).contains("jiraSendBuildInfo#1 failed: no token");
+    }
+
+    @Test
+    public void testFlush_waitsForSendsStillGoing() throws Exception {
+        // given
+        final CountDownLatch done = new CountDownLatch(1);
+        classUnderTest.submit(
+                RUN_URL,
+                "jiraSendBuildInfo",
+                null,
+                () -> {
+                    Thread.sleep(200);
+                    done.countDown();
+                    return response("example.atlassian.net", "build");
+                });
+        final ByteArrayOutputStream log = new ByteArrayOutputStream();
+
+        // when
+        classUnderTest.flush(RUN_URL, TIMEOUT, new PipelineLogger(new PrintStream(log), false));
+
+        // then
+        assertThat(done.getCount()).isZero();
+        assertThat(log.toString()).isEmpty();
+    }
+
+    @Test
+    public void testFlush_warns_whenSendsDontCompleteInTime() {
+        // given
+        final CountDownLatch release = new CountDownLatch(1);
+        classUnderTest.submit(
+                RUN_URL,
+                "jiraSendBuildInfo",
+                null,
+                () -> {
+                    release.await();
+                    return response("example.atlassian.net", "build");
+                });
+        final ByteArrayOutputStream log = new ByteArrayOutputStream();
+
+        // when
+        classUnderTest.flush(
+                RUN_URL, Duration.ofMillis(100), new PipelineLogger(new PrintStream(log), false));
+        release.countDown();
+
+        // then
+        assertThat(log.toString()).contains("1 sends to Jira have not completed yet");
+    }
+
+    @Test
+    public void testFlush_logsFailedSends() {
+        // given
+        classUnderTest.submit(
+                RUN_URL,
+                "jiraSendBuildInfo",
+                null,
+                () -> {
+                    throw new IllegalStateException("no token");
+                });
+        classUnderTest.submit(
+                RUN_URL,
+                "jiraSendDeploymentInfo",
+                null,
+                () -> response("example.atlassian.net", "deployment"));
+        final ByteArrayOutputStream log = new ByteArrayOutputStream();
+
+        // when
+        classUnderTest.flush(RUN_URL, TIMEOUT, new PipelineLogger(new PrintStream(log), false));
+
+        // then
+        assertThat(log.toString())
+                .contains("jiraSendBuildInfo#1 failed: no token")
+                .doesNotContain("jiraSendDeploymentInfo#2");
+    }
+
+    private static CompletableFuture<List<JiraSendInfoResponse>> response(
+            final String site, final String message) {
+        return CompletableFuture.completedFuture(
+                Collections.singletonList(
+                        new JiraCommonResponse(
+                                site,
+                                JiraSendInfoResponse.Status.SUCCESS_BUILD_ACCEPTED,
+                                message)));
+    }
+}
@@ -0,0 +1,53 @@
+package com.atlassian.jira.cloud.jenkins.common.pipeline;
+
+import hudson.AbortException;
+import org.jenkinsci.plugins.workflow.steps.StepContext;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class JiraAwaitSendsStepTest {
+
+    private final StepContext context = mock(StepContext.class);
+
+    @Test
+    public void testOnResume_failsStep() {
+        // given
+        final JiraAwaitSendsStep.JiraAwaitSendsStepExecution classUnderTest = execution();
+
+        // when
+        classUnderTest.onResume();
+
+        // then
+        final ArgumentCaptor<Throwable> error = ArgumentCaptor.forClass(Throwable.class);
+        verify(context).onFailure(error.capture());
+        assertThat(error.getValue())
+                .isInstanceOf(AbortException.class)
+                .hasMessageContaining("don't survive a restart");
+        verify(context, never()).onSuccess(any());
+    }
+
+    @Test
+    public void testStop_doesNotCompleteStepAgain() {
+        // given
+        final JiraAwaitSendsStep.JiraAwaitSendsStepExecution classUnderTest = execution();
+        classUnderTest.onResume();
+
+        // when
+        classUnderTest.stop(new InterruptedException());
+
+        // then
+        verify(context, times(1)).onFailure(any());
+    }
+
+    private JiraAwaitSendsStep.JiraAwaitSendsStepExecution execution() {
+        return new JiraAwaitSendsStep.JiraAwaitSendsStepExecution(
+                context, new JiraAwaitSendsStep());
+    }
+}
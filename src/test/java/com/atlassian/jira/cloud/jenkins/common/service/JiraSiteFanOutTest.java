@@ -0,0 +1,151 @@
+package com.atlassian.jira.cloud.jenkins.common.service;
+
+import com.atlassian.jira.cloud.jenkins.common.response.JiraCommonResponse;
+import com.atlassian.jira.cloud.jenkins.common.response.JiraSendInfoResponse;
+import com.google.common.collect.ImmutableList;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class JiraSiteFanOutTest {
+
+    private static final List<String> SITES =
+            ImmutableList.of("site1.atlassian.net", "site2.atlassian.net", "site3.atlassian.net");
+
+    @Test
+    public void testRequestsToAllSitesAreStarted_andResponsesKeepSiteOrder() throws Exception {
+        // given
+        final JiraSiteFanOut classUnderTest = new JiraSiteFanOut(Duration.ofSeconds(10));
+        final Map<String, CompletableFuture<JiraSendInfoResponse>> requests =
+                new ConcurrentHashMap<>();
+        final CountDownLatch started = new CountDownLatch(SITES.size());
+
+        // when
+        final CompletableFuture<List<JiraSendInfoResponse>> responses =
+                classUnderTest.sendToAllAsync(
+                        SITES,
+                        site -> {
+                            final CompletableFuture<JiraSendInfoResponse> request =
+                                    new CompletableFuture<>();
+                            requests.put(site, request);
+                            started.countDown();
+                            return request;
+                        });
+
+        // then
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(requests).containsOnlyKeys(SITES);
+        assertThat(responses).isNotDone();
+        for (String site : ImmutableList.copyOf(SITES).reverse()) {
+            requests.get(site).complete(JiraCommonResponse.failureSiteNotFound(site));
+        }
+        assertThat(responses.get(5, TimeUnit.SECONDS))
+                .extracting(JiraSendInfoResponse::getJiraSite)
+                .containsExactlyElementsOf(SITES);
+    }
+
+    @Test
+    public void testSlowSiteTimesOut_withoutDelayingOtherSites() throws Exception {
+        // given
+        final JiraSiteFanOut classUnderTest = new JiraSiteFanOut(Duration.ofMillis(200));
+
+        // when
+        final CompletableFuture<List<JiraSendInfoResponse>> responses =
+                classUnderTest.sendToAllAsync(
+                        SITES,
+                        site ->
+                                site.equals(SITES.get(1))
+                                        ? new CompletableFuture<>()
+                                        : CompletableFuture.completedFuture(
+                                                JiraCommonResponse.failureSiteNotFound(site)));
+
+        // then
+        assertThat(responses.get(5, TimeUnit.SECONDS))
+                .extracting(JiraSendInfoResponse::getStatus)
+                .containsExactly(
+                        JiraSendInfoResponse.Status.FAILURE_SITE_NOT_FOUND,
+                        JiraSendInfoResponse.Status.FAILURE_TIMEOUT,
+                        JiraSendInfoResponse.Status.FAILURE_SITE_NOT_FOUND);
+    }
+
+    @Test
+    public void testSiteThatIsSlowToPrepare_doesNotHoldUpOtherSites() throws Exception {
+        // given
+        final JiraSiteFanOut classUnderTest = new JiraSiteFanOut(Duration.ofSeconds(10));
+        final CountDownLatch lastSiteStarted = new CountDownLatch(1);
+        final AtomicBoolean firstSiteWasHeldUp = new AtomicBoolean(true);
+
+        // when
+        final CompletableFuture<List<JiraSendInfoResponse>> responses =
+                classUnderTest.sendToAllAsync(
+                        SITES,
+                        site -> {
+                            if (site.equals(SITES.get(0))) {
+                                // e.g. resolving the cloud ID of an unresponsive site
+                                firstSiteWasHeldUp.set(!awaitQuietly(lastSiteStarted));
+                            } else if (site.equals(SITES.get(2))) {
+                                lastSiteStarted.countDown();
+                            }
+                            return CompletableFuture.completedFuture(
+                                    JiraCommonResponse.failureSiteNotFound(site));
+                        });
+
+        // then
+        assertThat(responses.get(5, TimeUnit.SECONDS)).hasSize(3);
+        assertThat(firstSiteWasHeldUp).isFalse();
+    }
+
+    @Test
+    public void testSingleSiteHasNoDeadline() {
+        // given
+        final JiraSiteFanOut classUnderTest = new JiraSiteFanOut(Duration.ZERO);
+        final CompletableFuture<JiraSendInfoResponse> request = new CompletableFuture<>();
+
+        // when
+        final CompletableFuture<List<JiraSendInfoResponse>> responses =
+                classUnderTest.sendToAllAsync(
+                        ImmutableList.of("site1.atlassian.net"), site -> request);
+        request.complete(JiraCommonResponse.failureSiteNotFound("site1.atlassian.net"));
+
+        // then
+        assertThat(JiraSiteFanOut.await(responses))
+                .extracting(JiraSendInfoResponse::getStatus)
+                .containsExactly(JiraSendInfoResponse.Status.FAILURE_SITE_NOT_FOUND);
+    }
+
+    @Test
+    public void testExceptionOfSiteIsRethrown() {
+        // given
+        final JiraSiteFanOut classUnderTest = new JiraSiteFanOut(Duration.ofSeconds(10));
+
+        // then
+        assertThatThrownBy(
+                        () ->
+                                JiraSiteFanOut.await(
+                                        classUnderTest.sendToAllAsync(
+                                                SITES,
+                                                site -> {
+                                                    throw new IllegalArgumentException(site);
+                                                })))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static boolean awaitQuietly(final CountDownLatch latch) {
+        try {
+            return latch.await(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -88,6 +88,26 @@ public class JiraCloudPluginConfigTest {
                                     + "    } "
                                     + "}");
 
+    private static final JSONObject AUTO_BUILDS_JSON_WITH_INVALID_REGEX =
+            (JSONObject)
+                    JSONSerializer.toJSON(
+                            "{\n"
+                                    + "    \"autoBuilds\": { "
+                                    + "           \"autoBuildsRegex\":\"^build(\""
+                                    + "    } "
+                                    + "}");
+
+    private static final JSONObject BUILD_BATCHING_JSON =
+            (JSONObject)
+                    JSONSerializer.toJSON(
+                            "{\n"
+                                    + "    \"buildBatchSize\":25,"
+                                    + "    \"buildBatchDelayMillis\":500"
+                                    + "}");
+
+    private static final JSONObject INVALID_BUILD_BATCHING_JSON =
+            (JSONObject) JSONSerializer.toJSON("{\n" + "    \"buildBatchSize\":0" + "}");
+
     @Rule public JenkinsRule jRule = new JenkinsRule();
 
     @Test
@@ -204,6 +224,29 @@ public class JiraCloudPluginConfigTest {
         assertThat(loadedConfig.getAutoBuildsRegex()).isEqualTo("blah");
     }
 
+    @Test
+    public void testConfigure_compilesAutoBuildsRegex() throws Descriptor.FormException {
+        final JiraCloudPluginConfig config = new JiraCloudPluginConfig("config" + Math.random());
+
+        config.configure(mockStapler(), AUTO_BUILDS_JSON);
+
+        assertThat(config.getAutoBuildsPattern().getRegex()).isEqualTo("blah");
+        assertThat(config.getAutoBuildsPattern().match("blah")).isPresent();
+    }
+
+    @Test
+    public void testConfigure_rejectsInvalidAutoBuildsRegex() {
+        final String configName = "config" + Math.random();
+
+        try {
+            new JiraCloudPluginConfig(configName)
+                    .configure(mockStapler(), AUTO_BUILDS_JSON_WITH_INVALID_REGEX);
+            fail("expecting FormException because the builds regex is invalid!");
+        } catch (Descriptor.FormException e) {
+            assertThat(e.getMessage()).contains("Builds RegEx is invalid");
+        }
+    }
+
     @Test
     public void testConfigure_populatesDebugLogging() throws Descriptor.FormException {
         final String configName = "config" + Math.random();
@@ -214,6 +257,40 @@ public class JiraCloudPluginConfigTest {
         assertThat(loadedConfig.getDebugLogging()).isTrue();
     }
 
+    @Test
+    public void testConfigure_populatesBuildBatching() throws Descriptor.FormException {
+        final String configName = "config" + Math.random();
+
+        new JiraCloudPluginConfig(configName).configure(mockStapler(), BUILD_BATCHING_JSON);
+
+        final JiraCloudPluginConfig loadedConfig = new JiraCloudPluginConfig(configName);
+        assertThat(loadedConfig.getBuildBatchSize()).isEqualTo(25);
+        assertThat(loadedConfig.getBuildBatchDelayMillis()).isEqualTo(500);
+    }
+
+    @Test
+    public void testConfigure_buildBatchingIsDisabledByDefault() throws Descriptor.FormException {
+        final String configName = "config" + Math.random();
+
+        new JiraCloudPluginConfig(configName).configure(mockStapler(), new JSONObject());
+
+        final JiraCloudPluginConfig loadedConfig = new JiraCloudPluginConfig(configName);
+        assertThat(loadedConfig.getBuildBatchSize()).isEqualTo(1);
+    }
+
+    @Test
+    public void testConfigure_rejectsInvalidBuildBatchSize() {
+        final String configName = "config" + Math.random();
+
+        try {
+            new JiraCloudPluginConfig(configName)
+                    .configure(mockStapler(), INVALID_BUILD_BATCHING_JSON);
+            fail("expecting FormException because the batch size must be positive!");
+        } catch (Descriptor.FormException e) {
+            assertThat(e.getMessage()).contains("Build batch size must be at least 1");
+        }
+    }
+
     @Test
     public void testConfigure_populatesAutoDeploymentsEnabled() {
         final String configName = "config" + Math.random();
@@ -253,6 +330,73 @@ public class JiraCloudPluginConfigTest {
         assertThat(loadedConfig.getAutoDeploymentsRegex()).isEqualTo("blah");
     }
 
+    @Test
+    public void testSnapshot_isPublished_whenGlobalConfigChanges() {
+        // given
+        final long previousVersion = JiraCloudPluginConfig.getSnapshot().getVersion();
+
+        // when
+        JiraCloudPluginConfig.get().setDebugLogging(true);
+
+        // then
+        final JiraCloudPluginConfigSnapshot snapshot = JiraCloudPluginConfig.getSnapshot();
+        assertThat(snapshot.getVersion()).isGreaterThan(previousVersion);
+        assertThat(snapshot.isDebugLogging()).isTrue();
+        assertThat(JiraCloudPluginConfig.isDebugLoggingEnabled()).isTrue();
+    }
+
+    @Test
+    public void testSnapshot_isNotPublished_forOtherConfigs() throws Descriptor.FormException {
+        // given
+        final JiraCloudPluginConfig config = new JiraCloudPluginConfig("config" + Math.random());
+
+        // when
+        config.configure(mockStapler(), DEBUG_LOGGING_JSON);
+
+        // then
+        assertThat(config.snapshot().isDebugLogging()).isTrue();
+        assertThat(JiraCloudPluginConfig.getSnapshot().isDebugLogging()).isFalse();
+    }
+
+    @Test
+    public void testSnapshot_indexesFirstSiteOfEachName() {
+        // given
+        final JiraCloudSiteConfig siteConfig1 =
+                new JiraCloudSiteConfig(SITE, CLIENT_ID, CREDENTIALS_ID);
+        final JiraCloudSiteConfig siteConfig2 = new JiraCloudSiteConfig(SITE, CLIENT_ID, "other");
+
+        // when
+        JiraCloudPluginConfig.get().setSites(ImmutableList.of(siteConfig1, siteConfig2));
+
+        // then
+        final JiraCloudPluginConfigSnapshot snapshot = JiraCloudPluginConfig.getSnapshot();
+        assertThat(snapshot.getSites()).containsExactly(siteConfig1, siteConfig2);
+        assertThat(snapshot.getSiteNames()).containsExactly(SITE, SITE);
+        assertSiteConfig(snapshot.getSite(SITE).get(), SITE, CREDENTIALS_ID);
+        assertThat(snapshot.getSite("unknown.atlassian.net")).isEmpty();
+    }
+
+    @Test
+    public void testConfigure_keepsSnapshot_whenFormIsInvalid() throws Descriptor.FormException {
+        // given
+        final JiraCloudPluginConfig config = new JiraCloudPluginConfig("config" + Math.random());
+        config.configure(mockStapler(), SITES_JSON);
+        final JiraCloudPluginConfigSnapshot snapshot = config.snapshot();
+
+        // when
+        try {
+            config.configure(mockStapler(), INVALID_BUILD_BATCHING_JSON);
+            fail("expecting FormException because the batch size must be positive!");
+        } catch (Descriptor.FormException e) {
+            // expected
+        }
+
+        // then
+        assertThat(config.snapshot()).isSameAs(snapshot);
+        assertThat(config.snapshot().getSiteNames())
+                .containsExactly("mysite1.atlassian.net", "mysite2.atlassian.net");
+    }
+
     private static StaplerRequest mockStapler() {
         final Stapler stapler = mock(Stapler.class);
         final WebApp webApp = new WebApp(mock(ServletContext.class));
@@ -139,6 +139,24 @@ public class JiraCloudSiteConfigDescriptorTest {
                         "Site name is invalid. Paste a valid site name, e.g. sitename.atlassian.net.");
     }
 
+    @Test
+    public void testRequestsPerSecondValidation_whenEmpty() {
+        // when
+        final FormValidation result = classUnderTest.doCheckRequestsPerSecond("");
+
+        // then
+        assertThat(result.kind).isEqualTo(FormValidation.Kind.OK);
+    }
+
+    @Test
+    public void testRequestsPerSecondValidation_whenNotPositive() {
+        // when
+        final FormValidation result = classUnderTest.doCheckRequestsPerSecond("0");
+
+        // then
+        assertThat(result.kind).isEqualTo(FormValidation.Kind.ERROR);
+    }
+
     @Test
     public void testWebhookValidation_whenValidWebhookUrl() {
         // when
@@ -0,0 +1,49 @@
+package com.atlassian.jira.cloud.jenkins.config;
+
+import org.junit.Test;
+
+import java.util.Optional;
+import java.util.regex.Matcher;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StepPatternTest {
+
+    @Test
+    public void testMatchesWholeDisplayName() {
+        // given
+        final StepPattern classUnderTest = StepPattern.compile("^deploy to (?<envName>.*)$");
+
+        // when
+        final Optional<Matcher> matcher = classUnderTest.match("deploy to staging");
+
+        // then
+        assertThat(matcher).isPresent();
+        assertThat(matcher.get().group("envName")).isEqualTo("staging");
+        assertThat(classUnderTest.match("please deploy to staging")).isEmpty();
+        assertThat(classUnderTest.getSyntaxError()).isEmpty();
+    }
+
+    @Test
+    public void testMatchesNothing_whenRegexIsEmpty() {
+        // given
+        final StepPattern classUnderTest = StepPattern.compile(" ");
+
+        // then
+        assertThat(classUnderTest.isEmpty()).isTrue();
+        assertThat(classUnderTest.match(" ")).isEmpty();
+        assertThat(StepPattern.compile(null).getRegex()).isEmpty();
+    }
+
+    @Test
+    public void testMatchesNothing_whenRegexIsInvalid() {
+        // given
+        final StepPattern classUnderTest = StepPattern.compile("^build(");
+
+        // then
+        assertThat(classUnderTest.isEmpty()).isFalse();
+        assertThat(classUnderTest.getRegex()).isEqualTo("^build(");
+        assertThat(classUnderTest.getSyntaxError()).isPresent();
+        assertThat(classUnderTest.match("build(")).isEmpty();
+    }
+}
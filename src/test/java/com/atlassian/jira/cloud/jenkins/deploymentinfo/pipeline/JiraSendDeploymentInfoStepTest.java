@@ -7,6 +7,7 @@ import com.atlassian.jira.cloud.jenkins.config.JiraCloudSiteConfig;
 import com.atlassian.jira.cloud.jenkins.deploymentinfo.client.model.DeploymentApiResponse;
 import com.atlassian.jira.cloud.jenkins.deploymentinfo.service.JiraDeploymentInfoResponse;
 import com.atlassian.jira.cloud.jenkins.deploymentinfo.service.JiraDeploymentInfoSender;
+import com.atlassian.jira.cloud.jenkins.logging.PipelineLogger;
 import com.cloudbees.plugins.credentials.CredentialsProvider;
 import com.cloudbees.plugins.credentials.CredentialsScope;
 import com.cloudbees.plugins.credentials.domains.Domain;
@@ -34,6 +35,7 @@ import java.util.Map;
 import java.util.UUID;
 
 import static com.atlassian.jira.cloud.jenkins.common.response.JiraSendInfoResponse.Status.SUCCESS_DEPLOYMENT_ACCEPTED;
+import static java.util.concurrent.CompletableFuture.completedFuture;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
@@ -79,8 +81,8 @@ public class JiraSendDeploymentInfoStepTest {
                         Collections.emptyList(), Collections.emptyList(), Collections.emptyList());
         final JiraDeploymentInfoResponse deploymentAccepted =
                 JiraDeploymentInfoResponse.successDeploymentAccepted(SITE, response);
-        when(mockSender.sendDeploymentInfo(any(), any()))
-                .thenReturn(Collections.singletonList(deploymentAccepted));
+        when(mockSender.sendDeploymentInfoAsync(any(), any()))
+                .thenReturn(completedFuture(Collections.singletonList(deploymentAccepted)));
     }
 
     @Test
@@ -120,7 +122,8 @@ public class JiraSendDeploymentInfoStepTest {
                 (JiraSendDeploymentInfoStep.JiraSendDeploymentInfoStepExecution) step.start(ctx);
 
         // when
-        final JiraSendInfoResponse response = start.run().get(0);
+        final JiraSendInfoResponse response =
+                start.send(mockWorkflowRun, PipelineLogger.noopInstance()).get().get(0);
 
         // then
         assertThat(response.getStatus()).isEqualTo(SUCCESS_DEPLOYMENT_ACCEPTED);
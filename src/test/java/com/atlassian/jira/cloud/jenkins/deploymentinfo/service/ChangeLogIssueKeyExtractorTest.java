@@ -1,6 +1,9 @@
 package com.atlassian.jira.cloud.jenkins.deploymentinfo.service;
 
 import com.atlassian.jira.cloud.jenkins.logging.PipelineLogger;
+import com.atlassian.jira.cloud.jenkins.deploymentinfo.service.IssueKeysAction.UnsuccessfulRun;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import hudson.model.Result;
 import hudson.scm.ChangeLogSet;
 import junit.framework.TestCase;
@@ -9,8 +12,10 @@ import org.junit.Test;
 import org.jvnet.hudson.test.FakeChangeLogSCM.EntryImpl;
 import org.jvnet.hudson.test.FakeChangeLogSCM.FakeChangeLogSet;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 
 import static org.mockito.Mockito.*;
@@ -71,4 +76,126 @@ public class ChangeLogIssueKeyExtractorTest extends TestCase {
         assertTrue(issueKeys.contains("TEST-2"));
         assertFalse(issueKeys.contains("TEST-3"));
     }
+
+    @Test
+    public void testExtractIssueKeys_usesSummaryOfPreviousBuild() {
+        WorkflowRun current = runWithMessages(Result.SUCCESS, 3, "TEST-3 Current message");
+        WorkflowRun previous = runWithMessages(Result.FAILURE, 2, "TEST-2 Already summarized");
+        when(current.getPreviousBuild()).thenReturn(previous);
+        when(previous.getAction(IssueKeysAction.class))
+                .thenReturn(
+                        new IssueKeysAction(
+                                ImmutableList.of(
+                                        new UnsuccessfulRun(2, 0, ImmutableSet.of("TEST-2")),
+                                        new UnsuccessfulRun(1, 0, ImmutableSet.of("TEST-1")))));
+
+        Set<String> issueKeys =
+                new ChangeLogIssueKeyExtractor()
+                        .extractIssueKeys(current, PipelineLogger.noopInstance());
+
+        assertEquals(ImmutableSet.of("TEST-1", "TEST-2", "TEST-3"), issueKeys);
+        verify(previous, never()).getChangeSets();
+        verify(previous, never()).getPreviousBuild();
+    }
+
+    @Test
+    public void testExtractIssueKeys_stopsAtMaxPreviousBuilds() {
+        WorkflowRun current = runWithMessages(Result.SUCCESS, 4, "TEST-4 Current message");
+        WorkflowRun previous3 = runWithMessages(Result.FAILURE, 3, "TEST-3 Failed");
+        WorkflowRun previous2 = runWithMessages(Result.FAILURE, 2, "TEST-2 Failed");
+        WorkflowRun previous1 = runWithMessages(Result.FAILURE, 1, "TEST-1 Failed");
+        when(current.getPreviousBuild()).thenReturn(previous3);
+        when(previous3.getPreviousBuild()).thenReturn(previous2);
+        when(previous2.getPreviousBuild()).thenReturn(previous1);
+
+        Set<String> issueKeys =
+                new ChangeLogIssueKeyExtractor(2, Duration.ofDays(30))
+                        .extractIssueKeys(current, PipelineLogger.noopInstance());
+
+        assertEquals(ImmutableSet.of("TEST-2", "TEST-3", "TEST-4"), issueKeys);
+        verify(previous1, never()).getChangeSets();
+    }
+
+    @Test
+    public void testExtractIssueKeys_skipsBuildsOlderThanMaxAge() {
+        final long now = Duration.ofDays(100).toMillis();
+        WorkflowRun current = runWithMessages(Result.SUCCESS, 3, "TEST-3 Current message");
+        WorkflowRun previous2 = runWithMessages(Result.FAILURE, 2, "TEST-2 Failed yesterday");
+        WorkflowRun previous1 = runWithMessages(Result.FAILURE, 1, "TEST-1 Failed long ago");
+        when(current.getTimeInMillis()).thenReturn(now);
+        when(previous2.getTimeInMillis()).thenReturn(now - Duration.ofDays(1).toMillis());
+        when(previous1.getTimeInMillis()).thenReturn(now - Duration.ofDays(31).toMillis());
+        when(current.getPreviousBuild()).thenReturn(previous2);
+        when(previous2.getPreviousBuild()).thenReturn(previous1);
+
+        Set<String> issueKeys =
+                new ChangeLogIssueKeyExtractor(50, Duration.ofDays(30))
+                        .extractIssueKeys(current, PipelineLogger.noopInstance());
+
+        assertEquals(ImmutableSet.of("TEST-2", "TEST-3"), issueKeys);
+        verify(previous1, never()).getChangeSets();
+    }
+
+    @Test
+    public void testSummarize_carriesIssueKeysOfUnsuccessfulBuilds() {
+        WorkflowRun current = runWithMessages(Result.FAILURE, 3, "TEST-3 Still failing");
+        WorkflowRun previous2 = runWithMessages(Result.UNSTABLE, 2, "TEST-2 Unstable");
+        WorkflowRun previous1 = runWithMessages(Result.SUCCESS, 1, "TEST-1 Successful");
+        when(current.getPreviousBuild()).thenReturn(previous2);
+        when(previous2.getPreviousBuild()).thenReturn(previous1);
+
+        IssueKeysAction summary =
+                new ChangeLogIssueKeyExtractor()
+                        .summarize(current, null, PipelineLogger.noopInstance())
+                        .get();
+
+        assertEquals(2, summary.getUnsuccessfulRuns().size());
+        assertEquals(3, summary.getUnsuccessfulRuns().get(0).getNumber());
+        assertEquals(
+                ImmutableSet.of("TEST-3"), summary.getUnsuccessfulRuns().get(0).getIssueKeys());
+        assertEquals(ImmutableSet.of("TEST-2"), summary.getUnsuccessfulRuns().get(1).getIssueKeys());
+    }
+
+    @Test
+    public void testSummarize_reusesCollectedIssueKeys() {
+        WorkflowRun current = runWithMessages(Result.FAILURE, 3, "TEST-3 Still failing");
+
+        IssueKeysAction summary =
+                new ChangeLogIssueKeyExtractor()
+                        .summarize(
+                                current, ImmutableSet.of("TEST-4"), PipelineLogger.noopInstance())
+                        .get();
+
+        assertEquals(
+                ImmutableSet.of("TEST-4"), summary.getUnsuccessfulRuns().get(0).getIssueKeys());
+        verify(current, never()).getChangeSets();
+    }
+
+    @Test
+    public void testSummarize_isEmpty_whenBuildIsSuccessful() {
+        WorkflowRun current = runWithMessages(Result.SUCCESS, 3, "TEST-3 Fixed");
+
+        Optional<IssueKeysAction> summary =
+                new ChangeLogIssueKeyExtractor()
+                        .summarize(current, null, PipelineLogger.noopInstance());
+
+        assertFalse(summary.isPresent());
+        verify(current, never()).getChangeSets();
+        verify(current, never()).getPreviousBuild();
+    }
+
+    private static WorkflowRun runWithMessages(
+            final Result result, final int number, final String... messages) {
+        WorkflowRun run = mock(WorkflowRun.class);
+        List<EntryImpl> entries = new ArrayList<>();
+        for (String message : messages) {
+            entries.add(new EntryImpl().withMsg(message));
+        }
+        List<ChangeLogSet<? extends ChangeLogSet.Entry>> changeSets = new ArrayList<>();
+        changeSets.add(new FakeChangeLogSet(run, entries));
+        when(run.getChangeSets()).thenReturn(changeSets);
+        when(run.getResult()).thenReturn(result);
+        when(run.getNumber()).thenReturn(number);
+        return run;
+    }
 }
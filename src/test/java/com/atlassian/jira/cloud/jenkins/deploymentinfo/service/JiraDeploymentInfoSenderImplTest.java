@@ -2,6 +2,7 @@ package com.atlassian.jira.cloud.jenkins.deploymentinfo.service;
 
 import com.atlassian.jira.cloud.jenkins.common.client.ApiUpdateFailedException;
 import com.atlassian.jira.cloud.jenkins.common.config.JiraSiteConfigRetriever;
+import com.atlassian.jira.cloud.jenkins.common.outbox.EventOutbox;
 import com.atlassian.jira.cloud.jenkins.common.model.ApiErrorResponse;
 import com.atlassian.jira.cloud.jenkins.common.response.JiraSendInfoResponse;
 import com.atlassian.jira.cloud.jenkins.common.service.IssueKeyExtractor;
@@ -41,6 +42,7 @@ import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 import static com.atlassian.jira.cloud.jenkins.common.response.JiraSendInfoResponse.Status.*;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -78,6 +80,8 @@ public class JiraDeploymentInfoSenderImplTest {
 
     @Mock private RunWrapperProvider runWrapperProvider;
 
+    @Mock private EventOutbox eventOutbox;
+
     private JiraDeploymentInfoSender classUnderTest;
 
     @Before
@@ -89,7 +93,8 @@ public class JiraDeploymentInfoSenderImplTest {
                         cloudIdResolver,
                         deploymentsApi,
                         issueKeyExtractor,
-                        runWrapperProvider);
+                        runWrapperProvider,
+                        eventOutbox);
 
         setupMocks();
     }
@@ -331,7 +336,7 @@ public class JiraDeploymentInfoSenderImplTest {
         assertThat(response.getStatus())
                 .isEqualTo(JiraSendInfoResponse.Status.SUCCESS_DEPLOYMENT_ACCEPTED);
         verify(deploymentsApi)
-                .sendDeploymentAsJwt(any(), deploymentsArgumentCaptor.capture(), any(), any());
+                .sendDeploymentAsJwtAsync(any(), deploymentsArgumentCaptor.capture(), any(), any());
         final JiraDeploymentInfo jiraDeploymentInfo =
                 deploymentsArgumentCaptor.getValue().getDeployments().get(0);
         assertThat(jiraDeploymentInfo.getCommands())
@@ -359,9 +364,11 @@ public class JiraDeploymentInfoSenderImplTest {
             assertThat(message).isNotBlank();
         }
         verify(deploymentsApi, times(1))
-                .sendDeploymentAsJwt(eq(JIRA_SITE_CONFIG.getWebhookUrl()), any(), any(), any());
+                .sendDeploymentAsJwtAsync(
+                        eq(JIRA_SITE_CONFIG.getWebhookUrl()), any(), any(), any());
         verify(deploymentsApi, times(1))
-                .sendDeploymentAsJwt(eq(JIRA_SITE_CONFIG2.getWebhookUrl()), any(), any(), any());
+                .sendDeploymentAsJwtAsync(
+                        eq(JIRA_SITE_CONFIG2.getWebhookUrl()), any(), any(), any());
     }
 
     @Test
@@ -378,7 +385,7 @@ public class JiraDeploymentInfoSenderImplTest {
         assertThat(responses).hasSize(1);
         assertThat(responses.get(0).getStatus())
                 .isEqualTo(JiraSendInfoResponse.Status.FAILURE_DEPLOYMENT_GATING_MANY_JIRAS);
-        verify(deploymentsApi, times(0)).sendDeploymentAsJwt(any(), any(), any(), any());
+        verify(deploymentsApi, times(0)).sendDeploymentAsJwtAsync(any(), any(), any(), any());
     }
 
     @Test
@@ -503,8 +510,8 @@ public class JiraDeploymentInfoSenderImplTest {
     }
 
     private void setupDeploymentsApiFailure() {
-        when(deploymentsApi.sendDeploymentAsJwt(any(), any(), any(), any()))
-                .thenThrow(new ApiUpdateFailedException("Error"));
+        when(deploymentsApi.sendDeploymentAsJwtAsync(any(), any(), any(), any()))
+                .thenReturn(failedFuture(new ApiUpdateFailedException("Error")));
     }
 
     private void setupDeploymentsApiDeploymentAccepted() {
@@ -515,8 +522,8 @@ public class JiraDeploymentInfoSenderImplTest {
                         ImmutableList.of(deploymentKeyResponse),
                         Collections.emptyList(),
                         Collections.emptyList());
-        when(deploymentsApi.sendDeploymentAsJwt(any(), any(), any(), any()))
-                .thenReturn(deploymentApiResponse);
+        when(deploymentsApi.sendDeploymentAsJwtAsync(any(), any(), any(), any()))
+                .thenReturn(CompletableFuture.completedFuture(deploymentApiResponse));
     }
 
     private void setupDeploymentsApiDeploymentRejected() {
@@ -532,8 +539,8 @@ public class JiraDeploymentInfoSenderImplTest {
                         Collections.emptyList(),
                         ImmutableList.of(deploymentResponse),
                         Collections.emptyList());
-        when(deploymentsApi.sendDeploymentAsJwt(any(), any(), any(), any()))
-                .thenReturn(deploymentApiResponse);
+        when(deploymentsApi.sendDeploymentAsJwtAsync(any(), any(), any(), any()))
+                .thenReturn(CompletableFuture.completedFuture(deploymentApiResponse));
     }
 
     private void setupDeploymentApiUnknownIssueKeys() {
@@ -546,11 +553,17 @@ public class JiraDeploymentInfoSenderImplTest {
                                         .withAssociationType(AssociationType.ISSUE_KEYS)
                                         .withValues(ImmutableSet.of("TEST-123"))
                                         .build()));
-        when(deploymentsApi.sendDeploymentAsJwt(any(), any(), any(), any()))
-                .thenReturn(deploymentApiResponse);
+        when(deploymentsApi.sendDeploymentAsJwtAsync(any(), any(), any(), any()))
+                .thenReturn(CompletableFuture.completedFuture(deploymentApiResponse));
     }
 
     private static WorkflowRun mockWorkflowRun() {
         return mock(WorkflowRun.class);
     }
+
+    private static <T> CompletableFuture<T> failedFuture(final Throwable error) {
+        final CompletableFuture<T> failed = new CompletableFuture<>();
+        failed.completeExceptionally(error);
+        return failed;
+    }
 }
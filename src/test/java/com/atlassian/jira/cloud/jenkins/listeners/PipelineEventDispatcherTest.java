@@ -0,0 +1,134 @@
+package com.atlassian.jira.cloud.jenkins.listeners;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PipelineEventDispatcherTest {
+
+    private static final String RUN_URL = "job/pipeline/1/";
+    private static final String OTHER_RUN_URL = "job/pipeline/2/";
+
+    private PipelineEventDispatcher dispatcher;
+
+    @Before
+    public void setUp() {
+        dispatcher = new PipelineEventDispatcher(4);
+    }
+
+    @Test
+    public void testEventsOfARunAreProcessedInOrder() throws Exception {
+        // given
+        final List<Integer> processed = Collections.synchronizedList(new ArrayList<>());
+
+        // when
+        for (int i = 0; i < 1000; i++) {
+            final int event = i;
+            dispatcher.dispatch(RUN_URL, () -> processed.add(event));
+        }
+        final boolean completed =
+                dispatcher.dispatchAndWait(RUN_URL, () -> {}, 10, TimeUnit.SECONDS);
+
+        // then
+        assertThat(completed).isTrue();
+        assertThat(processed).hasSize(1000);
+        for (int i = 0; i < 1000; i++) {
+            assertThat(processed.get(i)).isEqualTo(i);
+        }
+        assertThat(dispatcher.getQueueDepth()).isZero();
+    }
+
+    @Test
+    public void testRunsAreProcessedInParallel() throws Exception {
+        // given
+        final CountDownLatch release = new CountDownLatch(1);
+        dispatcher.dispatch(RUN_URL, () -> awaitQuietly(release));
+
+        // when
+        final boolean otherRunCompleted =
+                dispatcher.dispatchAndWait(OTHER_RUN_URL, () -> {}, 10, TimeUnit.SECONDS);
+
+        // then
+        assertThat(otherRunCompleted).isTrue();
+        release.countDown();
+        assertThat(dispatcher.dispatchAndWait(RUN_URL, () -> {}, 10, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    public void testQueueDepthAndLag_whenRunIsBusy() throws Exception {
+        // given
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        dispatcher.dispatch(
+                RUN_URL,
+                () -> {
+                    started.countDown();
+                    awaitQuietly(release);
+                });
+        started.await(10, TimeUnit.SECONDS);
+
+        // when
+        dispatcher.dispatch(RUN_URL, () -> {});
+        dispatcher.dispatch(RUN_URL, () -> {});
+        Thread.sleep(20);
+
+        // then
+        assertThat(dispatcher.getQueueDepth()).isEqualTo(2);
+        assertThat(dispatcher.getOldestPendingEventAgeMillis()).isGreaterThanOrEqualTo(20);
+
+        release.countDown();
+        assertThat(dispatcher.dispatchAndWait(RUN_URL, () -> {}, 10, TimeUnit.SECONDS)).isTrue();
+        assertThat(dispatcher.getQueueDepth()).isZero();
+        assertThat(dispatcher.getOldestPendingEventAgeMillis()).isZero();
+    }
+
+    @Test
+    public void testFailingEventDoesNotBlockTheRun() throws Exception {
+        // given
+        final List<String> processed = Collections.synchronizedList(new ArrayList<>());
+        dispatcher.dispatch(
+                RUN_URL,
+                () -> {
+                    throw new IllegalStateException("boom");
+                });
+
+        // when
+        final boolean completed =
+                dispatcher.dispatchAndWait(
+                        RUN_URL, () -> processed.add("completed"), 10, TimeUnit.SECONDS);
+
+        // then
+        assertThat(completed).isTrue();
+        assertThat(processed).containsExactly("completed");
+    }
+
+    @Test
+    public void testDispatchAndWait_whenTimedOut() throws Exception {
+        // given
+        final CountDownLatch release = new CountDownLatch(1);
+        dispatcher.dispatch(RUN_URL, () -> awaitQuietly(release));
+
+        // when
+        final boolean completed =
+                dispatcher.dispatchAndWait(RUN_URL, () -> {}, 50, TimeUnit.MILLISECONDS);
+
+        // then
+        assertThat(completed).isFalse();
+        release.countDown();
+    }
+
+    private static void awaitQuietly(final CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
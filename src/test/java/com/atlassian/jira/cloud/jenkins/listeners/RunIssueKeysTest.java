@@ -0,0 +1,137 @@
+package com.atlassian.jira.cloud.jenkins.listeners;
+
+import com.atlassian.jira.cloud.jenkins.common.service.IssueKeyExtractor;
+import com.atlassian.jira.cloud.jenkins.logging.PipelineLogger;
+import com.google.common.collect.ImmutableSet;
+import org.jenkinsci.plugins.workflow.job.WorkflowRun;
+import org.junit.Before;
+import org.junit.Test;
+import org.jvnet.hudson.test.FakeChangeLogSCM.EntryImpl;
+import org.jvnet.hudson.test.FakeChangeLogSCM.FakeChangeLogSet;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.atlassian.jira.cloud.jenkins.common.service.IssueKeyExtractor.ISSUE_KEY_MAX_LIMIT;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class RunIssueKeysTest {
+
+    private static final PipelineLogger LOGGER = PipelineLogger.noopInstance();
+
+    private final IssueKeyExtractor initialIssueKeyExtractor = mock(IssueKeyExtractor.class);
+    private final WorkflowRun run = mock(WorkflowRun.class);
+
+    private RunIssueKeys classUnderTest;
+
+    @Before
+    public void setUp() {
+        when(run.getUrl()).thenReturn("job/test/1/");
+        when(initialIssueKeyExtractor.extractIssueKeys(any(), any()))
+                .thenReturn(ImmutableSet.of("BRANCH-1"));
+        classUnderTest = new RunIssueKeys(initialIssueKeyExtractor);
+    }
+
+    @Test
+    public void testInitialKeysAreExtractedOnce_whenRunIsTracked() {
+        // given
+        classUnderTest.track(run);
+
+        // when
+        for (int i = 0; i < 500; i++) {
+            classUnderTest.extractIssueKeys(run, LOGGER);
+        }
+
+        // then
+        assertThat(classUnderTest.extractIssueKeys(run, LOGGER)).containsOnly("BRANCH-1");
+        verify(initialIssueKeyExtractor, times(1)).extractIssueKeys(run, LOGGER);
+    }
+
+    @Test
+    public void testParsedChangeLogsAreAdded() {
+        // given
+        classUnderTest.track(run);
+        classUnderTest.extractIssueKeys(run, LOGGER);
+
+        // when
+        classUnderTest.addChangeLog(run, changeLog("TEST-1 first", "TEST-2 second"), LOGGER);
+        classUnderTest.addChangeLog(run, changeLog("Merge TEST-1 and TEST-3"), LOGGER);
+
+        // then
+        assertThat(classUnderTest.extractIssueKeys(run, LOGGER))
+                .containsOnly("BRANCH-1", "TEST-1", "TEST-2", "TEST-3");
+        verify(initialIssueKeyExtractor, times(1)).extractIssueKeys(run, LOGGER);
+    }
+
+    @Test
+    public void testChangeLogParsedBeforeFirstLookupIsKept() {
+        // given
+        classUnderTest.track(run);
+
+        // when
+        classUnderTest.addChangeLog(run, changeLog("TEST-1 first"), LOGGER);
+
+        // then
+        assertThat(classUnderTest.extractIssueKeys(run, LOGGER)).containsOnly("BRANCH-1", "TEST-1");
+    }
+
+    @Test
+    public void testChangeLogIssueKeysLeaveOutInitialKeys() {
+        // given
+        classUnderTest.track(run);
+        classUnderTest.extractIssueKeys(run, LOGGER);
+
+        // when
+        classUnderTest.addChangeLog(run, changeLog("TEST-1 first"), LOGGER);
+
+        // then
+        assertThat(classUnderTest.getChangeLogIssueKeys(run.getUrl()).get())
+                .containsOnly("TEST-1");
+        classUnderTest.release(run.getUrl());
+        assertThat(classUnderTest.getChangeLogIssueKeys(run.getUrl())).isEmpty();
+    }
+
+    @Test
+    public void testFallsBackToFullExtraction_whenRunIsNotTracked() {
+        // given
+        classUnderTest.track(run);
+        classUnderTest.addChangeLog(run, changeLog("TEST-1 first"), LOGGER);
+        classUnderTest.release(run.getUrl());
+
+        // when
+        classUnderTest.addChangeLog(run, changeLog("TEST-2 second"), LOGGER);
+        classUnderTest.extractIssueKeys(run, LOGGER);
+
+        // then
+        assertThat(classUnderTest.extractIssueKeys(run, LOGGER)).containsOnly("BRANCH-1");
+        verify(initialIssueKeyExtractor, times(2)).extractIssueKeys(run, LOGGER);
+    }
+
+    @Test
+    public void testNumberOfKeysIsLimited() {
+        // given
+        classUnderTest.track(run);
+        final String[] messages = new String[ISSUE_KEY_MAX_LIMIT * 2];
+        for (int i = 0; i < messages.length; i++) {
+            messages[i] = "TEST-" + i;
+        }
+
+        // when
+        classUnderTest.addChangeLog(run, changeLog(messages), LOGGER);
+
+        // then
+        assertThat(classUnderTest.extractIssueKeys(run, LOGGER)).hasSize(ISSUE_KEY_MAX_LIMIT);
+    }
+
+    private FakeChangeLogSet changeLog(final String... messages) {
+        final List<EntryImpl> entries = new ArrayList<>();
+        Arrays.stream(messages).forEach(message -> entries.add(new EntryImpl().withMsg(message)));
+        return new FakeChangeLogSet(run, entries);
+    }
+}
@@ -0,0 +1,64 @@
+package com.atlassian.jira.cloud.jenkins.listeners;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+public class SinglePipelineListenerRegistryTest {
+
+    private static final String RUN_URL = "job/my-pipeline/1/";
+
+    private final SinglePipelineListenerRegistry classUnderTest =
+            new SinglePipelineListenerRegistry();
+
+    @Test
+    public void testFindsListenersByRunUrl() {
+        final SinglePipelineListener listener = mock(SinglePipelineListener.class);
+        classUnderTest.registerForBuild(RUN_URL, listener);
+
+        assertThat(classUnderTest.find(RUN_URL).get()).containsExactly(listener);
+        assertThat(classUnderTest.find("job/my-pipeline/11/")).isEmpty();
+    }
+
+    @Test
+    public void testUnregister() {
+        classUnderTest.registerForBuild(RUN_URL, mock(SinglePipelineListener.class));
+
+        classUnderTest.unregister(RUN_URL);
+
+        assertThat(classUnderTest.find(RUN_URL)).isEmpty();
+    }
+
+    @Test
+    public void testConcurrentRegistrationsAreNotLost() throws Exception {
+        final int listeners = 100;
+        final CountDownLatch start = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            for (int i = 0; i < listeners; i++) {
+                executor.submit(
+                        () -> {
+                            start.await();
+                            classUnderTest.registerForBuild(
+                                    RUN_URL, mock(SinglePipelineListener.class));
+                            return null;
+                        });
+            }
+            start.countDown();
+            executor.shutdown();
+            assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+            final List<SinglePipelineListener> registered = classUnderTest.find(RUN_URL).get();
+            assertThat(registered).hasSize(listeners);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
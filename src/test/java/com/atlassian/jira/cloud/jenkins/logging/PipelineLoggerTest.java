@@ -20,4 +20,18 @@ public class PipelineLoggerTest {
                 .contains(
                         "at com.atlassian.jira.cloud.jenkins.logging.PipelineLoggerTest.stackTraceIsLogged");
     }
+
+    @Test
+    public void lazyDebugMessageIsOnlyBuiltWhenDebugLoggingIsOn() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PipelineLogger pipelineLogger = new PipelineLogger(new PrintStream(out), false);
+        pipelineLogger.debug(
+                () -> {
+                    throw new AssertionError("message built while debug logging is off");
+                });
+        assertThat(out.toString()).isEmpty();
+
+        new PipelineLogger(new PrintStream(out), true).debug(() -> "request body");
+        assertThat(out.toString()).contains("[DEBUG] request body");
+    }
 }
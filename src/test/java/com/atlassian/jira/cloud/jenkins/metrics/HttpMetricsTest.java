@@ -0,0 +1,120 @@
+package com.atlassian.jira.cloud.jenkins.metrics;
+
+import com.atlassian.jira.cloud.jenkins.BaseMockServerTest;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RequestNotPermitted;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class HttpMetricsTest extends BaseMockServerTest {
+
+    private static final MediaType JSON = MediaType.get("application/json");
+
+    private final HttpMetrics classUnderTest = new HttpMetrics();
+
+    private OkHttpClient httpClient;
+
+    @Before
+    public void setup() throws IOException {
+        super.setup();
+        httpClient =
+                new OkHttpClient.Builder()
+                        .readTimeout(Duration.ofMillis(500))
+                        .eventListenerFactory(classUnderTest.eventListenerFactory())
+                        .addInterceptor(classUnderTest.interceptor())
+                        .build();
+    }
+
+    @Test
+    public void testCall_recordsTimingsStatusAndBytes() throws IOException {
+        // given
+        server.enqueue(new MockResponse().setResponseCode(202).setBody("accepted"));
+
+        // when
+        try (Response response = httpClient.newCall(post("{\"builds\":[]}")).execute()) {
+            response.body().string();
+        }
+
+        // then
+        final HostMetrics metrics = classUnderTest.getHosts().get(server.getHostName());
+        assertThat(metrics.getStatusCodes()).containsEntry(202, 1L);
+        assertThat(metrics.getBytesSent()).isEqualTo(13);
+        assertThat(metrics.getBytesReceived()).isEqualTo(8);
+        assertThat(metrics.getConnect().getCount()).isEqualTo(1);
+        assertThat(metrics.getRequest().getCount()).isEqualTo(1);
+        assertThat(metrics.getTimeToFirstByte().getCount()).isEqualTo(1);
+        assertThat(metrics.getTotal().getCount()).isEqualTo(1);
+        assertThat(metrics.getTls().getCount()).isZero();
+        assertThat(metrics.getFailures()).isZero();
+    }
+
+    @Test
+    public void testCall_recordsFailure_whenNoResponse() {
+        // given
+        server.enqueue(new MockResponse().setHeadersDelay(5, TimeUnit.SECONDS));
+
+        // when
+        assertThatThrownBy(() -> httpClient.newCall(post("{}")).execute())
+                .isInstanceOf(SocketTimeoutException.class);
+
+        // then
+        final HostMetrics metrics = classUnderTest.getHosts().get(server.getHostName());
+        assertThat(metrics.getFailures()).isEqualTo(1);
+        assertThat(metrics.getTotal().getCount()).isEqualTo(1);
+        assertThat(metrics.getStatusCodes()).isEmpty();
+    }
+
+    @Test
+    public void testInterceptor_countsRateLimitedRequests() {
+        // given
+        final OkHttpClient rateLimitedClient =
+                httpClient
+                        .newBuilder()
+                        .addInterceptor(
+                                chain -> {
+                                    throw RequestNotPermitted.createRequestNotPermitted(
+                                            RateLimiter.ofDefaults("test"));
+                                })
+                        .build();
+
+        // when
+        assertThatThrownBy(() -> rateLimitedClient.newCall(post("{}")).execute())
+                .isInstanceOf(RequestNotPermitted.class);
+
+        // then
+        assertThat(classUnderTest.getHosts().get(server.getHostName()).getRateLimited())
+                .isEqualTo(1);
+    }
+
+    @Test
+    public void testRecordRetry_countsPerHost() {
+        // when
+        classUnderTest.recordRetry(post("{}"));
+        classUnderTest.recordRetry(post("{}"));
+
+        // then
+        assertThat(classUnderTest.getHosts().get(server.getHostName()).getRetries())
+                .isEqualTo(2);
+    }
+
+    private Request post(final String body) {
+        return new Request.Builder()
+                .url(server.url("/jenkins/events"))
+                .post(RequestBody.create(JSON, body))
+                .build();
+    }
+}
@@ -0,0 +1,71 @@
+package com.atlassian.jira.cloud.jenkins.metrics;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LatencyHistogramTest {
+
+    private final LatencyHistogram classUnderTest = new LatencyHistogram();
+
+    @Test
+    public void testBucket_doublesInWidth() {
+        assertThat(LatencyHistogram.bucket(0)).isEqualTo(0);
+        assertThat(LatencyHistogram.bucket(1)).isEqualTo(1);
+        assertThat(LatencyHistogram.bucket(3)).isEqualTo(2);
+        assertThat(LatencyHistogram.bucket(4)).isEqualTo(3);
+        assertThat(LatencyHistogram.bucket(1000)).isEqualTo(10);
+        assertThat(LatencyHistogram.bucket(Long.MAX_VALUE))
+                .isEqualTo(LatencyHistogram.BUCKETS - 1);
+    }
+
+    @Test
+    public void testPercentiles_areUpperBoundOfTheirBucket() {
+        // given
+        for (int i = 0; i < 98; i++) {
+            classUnderTest.record(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        classUnderTest.record(TimeUnit.MILLISECONDS.toNanos(300));
+        classUnderTest.record(TimeUnit.MILLISECONDS.toNanos(700));
+
+        // then
+        assertThat(classUnderTest.getCount()).isEqualTo(100);
+        assertThat(classUnderTest.getP50Millis()).isEqualTo(16);
+        assertThat(classUnderTest.getP95Millis()).isEqualTo(16);
+        assertThat(classUnderTest.getP99Millis()).isEqualTo(512);
+        assertThat(classUnderTest.getMaxMillis()).isEqualTo(700);
+        assertThat(classUnderTest.getMeanMillis()).isEqualTo(19.8);
+    }
+
+    @Test
+    public void testPercentiles_areCappedAtMaximum() {
+        // given
+        classUnderTest.record(TimeUnit.MILLISECONDS.toNanos(5));
+
+        // then
+        assertThat(classUnderTest.getP99Millis()).isEqualTo(5);
+    }
+
+    @Test
+    public void testEmpty_reportsZero() {
+        assertThat(classUnderTest.getCount()).isZero();
+        assertThat(classUnderTest.getMeanMillis()).isZero();
+        assertThat(classUnderTest.getP50Millis()).isZero();
+    }
+
+    @Test
+    public void testBuckets_areLabelledWithUpperBound() {
+        // given
+        classUnderTest.record(TimeUnit.MILLISECONDS.toNanos(3));
+        classUnderTest.record(TimeUnit.HOURS.toNanos(1));
+
+        // then
+        assertThat(classUnderTest.getBuckets())
+                .hasSize(LatencyHistogram.BUCKETS)
+                .containsEntry("<1ms", 0L)
+                .containsEntry("<4ms", 1L)
+                .containsEntry(">=65536ms", 1L);
+    }
+}
@@ -27,6 +27,14 @@ public class HttpClientProviderTest extends BaseMockServerTest {
 
     @Inject private OkHttpClient httpClient;
 
+    private final HttpRetryScheduler retryScheduler =
+            new HttpRetryScheduler(
+                    3,
+                    Duration.ofMillis(10),
+                    Duration.ofMillis(100),
+                    Duration.ofSeconds(10),
+                    WebhookRateLimiters.get());
+
     @Before
     public void setup() throws IOException {
         super.setup();
@@ -43,7 +51,7 @@ public class HttpClientProviderTest extends BaseMockServerTest {
     }
 
     @Test
-    public void testNoRetryFor2XX() throws IOException {
+    public void testNoRetryFor2XX() throws Exception {
         // setup
         HttpClientProviderTestGenerator.succeedWith2XXOnInitialAttempt(this);
         final Request request = getRequest();
@@ -57,13 +65,13 @@ public class HttpClientProviderTest extends BaseMockServerTest {
     }
 
     @Test
-    public void testNoRetryForGeneral4XX() throws IOException {
+    public void testNoRetryForGeneral4XX() throws Exception {
         // setup
         HttpClientProviderTestGenerator.failWith4XXOnInitialAttempt(this);
         final Request request = getRequest();
 
         // execute
-        final Response response = httpClient.newCall(request).execute();
+        final Response response = retryScheduler.executeAsync(httpClient, request).get();
 
         // verify
         assertThat(response.code()).isEqualTo(404);
@@ -71,13 +79,13 @@ public class HttpClientProviderTest extends BaseMockServerTest {
     }
 
     @Test
-    public void testRetryOnceFor5XXAndSucceed() throws IOException {
+    public void testRetryOnceFor5XXAndSucceed() throws Exception {
         // setup
         HttpClientProviderTestGenerator.failWith503AndThenSucceed2XX(this);
         final Request request = getRequest();
 
         // execute
-        final Response response = httpClient.newCall(request).execute();
+        final Response response = retryScheduler.executeAsync(httpClient, request).get();
 
         // verify
         assertThat(response.code()).isEqualTo(202);
@@ -85,19 +93,33 @@ public class HttpClientProviderTest extends BaseMockServerTest {
     }
 
     @Test
-    public void testFailFor5XXAfterThreeRetries() throws IOException {
+    public void testFailFor5XXAfterThreeRetries() throws Exception {
         // setup
         HttpClientProviderTestGenerator.failWith503ForAllAttempts(this);
         final Request request = getRequest();
 
         // execute
-        final Response response = httpClient.newCall(request).execute();
+        final Response response = retryScheduler.executeAsync(httpClient, request).get();
 
         // verify
         assertThat(response.code()).isEqualTo(503);
         assertThat(server.getRequestCount()).isEqualTo(4); // 1 actual request + 3 retries
     }
 
+    @Test
+    public void testClientDoesNotRetryOnItsOwn() throws Exception {
+        // setup
+        HttpClientProviderTestGenerator.failWith503AndThenSucceed2XX(this);
+        final Request request = getRequest();
+
+        // execute
+        final Response response = httpClient.newCall(request).execute();
+
+        // verify
+        assertThat(response.code()).isEqualTo(503);
+        assertThat(server.getRequestCount()).isEqualTo(1);
+    }
+
     @Test
     public void testUserAgentHeader() throws Exception {
         // setup
@@ -115,13 +137,13 @@ public class HttpClientProviderTest extends BaseMockServerTest {
     }
 
     @Test
-    public void testFailForGate404AfterThreeRetries() throws IOException {
+    public void testFailForGate404AfterThreeRetries() throws Exception {
         // setup
         HttpClientProviderTestGenerator.failWith404ForAllAttempts(this);
         final Request request = getGateRequest();
 
         // execute
-        final Response response = httpClient.newCall(request).execute();
+        final Response response = retryScheduler.executeAsync(httpClient, request).get();
 
         // verify
         assertThat(response.code()).isEqualTo(404);
@@ -129,13 +151,13 @@ public class HttpClientProviderTest extends BaseMockServerTest {
     }
 
     @Test
-    public void testRetryOnceFor404AndSucceed() throws IOException {
+    public void testRetryOnceFor404AndSucceed() throws Exception {
         // setup
         HttpClientProviderTestGenerator.failWith404AndThenSucceed2XX(this);
         final Request request = getGateRequest();
 
         // execute
-        final Response response = httpClient.newCall(request).execute();
+        final Response response = retryScheduler.executeAsync(httpClient, request).get();
 
         // verify
         assertThat(response.code()).isEqualTo(200);
@@ -0,0 +1,219 @@
+package com.atlassian.jira.cloud.jenkins.provider;
+
+import com.atlassian.jira.cloud.jenkins.BaseMockServerTest;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import org.junit.Test;
+
+import javax.inject.Inject;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class HttpRetrySchedulerTest extends BaseMockServerTest {
+
+    @Inject private OkHttpClient httpClient;
+
+    @Test
+    public void testRetryAfterSecondsIsHonoured() throws Exception {
+        // given
+        server.enqueue(new MockResponse().setResponseCode(429).setHeader("Retry-After", "1"));
+        server.enqueue(new MockResponse().setResponseCode(202));
+        final HttpRetryScheduler classUnderTest = scheduler(Duration.ofSeconds(10));
+
+        // when
+        final long start = System.nanoTime();
+        final Response response = classUnderTest.executeAsync(httpClient, request()).get();
+        final long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // then
+        assertThat(response.code()).isEqualTo(202);
+        assertThat(server.getRequestCount()).isEqualTo(2);
+        assertThat(elapsedMillis).isGreaterThanOrEqualTo(1000);
+    }
+
+    @Test
+    public void testNoRetry_whenRetryAfterExceedsDeadline() throws Exception {
+        // given
+        server.enqueue(new MockResponse().setResponseCode(503).setHeader("Retry-After", "30"));
+        final HttpRetryScheduler classUnderTest = scheduler(Duration.ofSeconds(5));
+
+        // when
+        final Response response = classUnderTest.executeAsync(httpClient, request()).get();
+
+        // then
+        assertThat(response.code()).isEqualTo(503);
+        assertThat(server.getRequestCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testCallerIsNotBlocked_whileWaitingForRetry() throws Exception {
+        // given
+        server.enqueue(new MockResponse().setResponseCode(503).setHeader("Retry-After", "1"));
+        server.enqueue(new MockResponse().setResponseCode(202));
+        final HttpRetryScheduler classUnderTest = scheduler(Duration.ofSeconds(10));
+
+        // when
+        final CompletableFuture<Response> response =
+                classUnderTest.executeAsync(httpClient, request());
+
+        // then
+        assertThat(response.isDone()).isFalse();
+        assertThat(response.get(5, TimeUnit.SECONDS).code()).isEqualTo(202);
+        assertThat(server.getRequestCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void testCancelStopsFurtherAttempts() throws Exception {
+        // given
+        server.enqueue(new MockResponse().setResponseCode(503).setHeader("Retry-After", "1"));
+        final HttpRetryScheduler classUnderTest = scheduler(Duration.ofSeconds(10));
+        final CompletableFuture<Response> response =
+                classUnderTest.executeAsync(httpClient, request());
+        server.takeRequest(5, TimeUnit.SECONDS);
+
+        // when
+        response.cancel(true);
+        Thread.sleep(1500);
+
+        // then
+        assertThat(server.getRequestCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testCancellingScope_cancelsRequestInFlight() throws Exception {
+        // given
+        server.enqueue(
+                new MockResponse().setResponseCode(202).setHeadersDelay(30, TimeUnit.SECONDS));
+        final HttpRetryScheduler classUnderTest = scheduler(Duration.ofSeconds(60));
+        final CancellableCalls calls = new CancellableCalls();
+        final CompletableFuture<Response> response =
+                calls.call(() -> classUnderTest.executeAsync(httpClient, request()));
+        server.takeRequest(5, TimeUnit.SECONDS);
+
+        // when
+        calls.cancel();
+
+        // then
+        // well before the read timeout of the client
+        assertThatThrownBy(() -> response.get(2, TimeUnit.SECONDS))
+                .isInstanceOf(CancellationException.class);
+    }
+
+    @Test
+    public void testAttemptsAreQueued_whenDispatcherIsBusy() throws Exception {
+        // given
+        server.enqueue(
+                new MockResponse()
+                        .setResponseCode(202)
+                        .setHeadersDelay(500, TimeUnit.MILLISECONDS));
+        server.enqueue(new MockResponse().setResponseCode(202));
+        final OkHttpClient singleRequestClient =
+                httpClient.newBuilder().dispatcher(new Dispatcher()).build();
+        singleRequestClient.dispatcher().setMaxRequests(1);
+        final HttpRetryScheduler classUnderTest = scheduler(Duration.ofSeconds(10));
+
+        // when
+        final CompletableFuture<Response> first =
+                classUnderTest.executeAsync(singleRequestClient, request());
+        final CompletableFuture<Response> second =
+                classUnderTest.executeAsync(singleRequestClient, request());
+
+        // then
+        assertThat(singleRequestClient.dispatcher().queuedCallsCount()).isEqualTo(1);
+        assertThat(first.get(5, TimeUnit.SECONDS).code()).isEqualTo(202);
+        assertThat(second.get(5, TimeUnit.SECONDS).code()).isEqualTo(202);
+    }
+
+    @Test
+    public void testUncheckedExceptionOfInterceptorFailsResponse() {
+        // given
+        final OkHttpClient rejectingClient =
+                new OkHttpClient.Builder()
+                        .addInterceptor(HttpRetryScheduler.interceptor())
+                        .addInterceptor(
+                                chain -> {
+                                    throw new IllegalStateException("not permitted");
+                                })
+                        .build();
+        final HttpRetryScheduler classUnderTest = scheduler(Duration.ofSeconds(10));
+
+        // when
+        final CompletableFuture<Response> response =
+                classUnderTest.executeAsync(rejectingClient, request());
+
+        // then
+        assertThatThrownBy(() -> response.get(5, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(IllegalStateException.class);
+        assertThat(server.getRequestCount()).isZero();
+    }
+
+    @Test
+    public void testBackoffStaysWithinExponentialCeiling() {
+        // given
+        final HttpRetryScheduler classUnderTest =
+                new HttpRetryScheduler(
+                        10,
+                        Duration.ofMillis(100),
+                        Duration.ofMillis(1000),
+                        Duration.ofMinutes(1),
+                        WebhookRateLimiters.get());
+
+        // then
+        for (int i = 0; i < 1000; i++) {
+            assertThat(classUnderTest.backoffMillis(1)).isBetween(0L, 100L);
+            assertThat(classUnderTest.backoffMillis(3)).isBetween(0L, 400L);
+            assertThat(classUnderTest.backoffMillis(10)).isBetween(0L, 1000L);
+            assertThat(classUnderTest.backoffMillis(100)).isBetween(0L, 1000L);
+        }
+    }
+
+    @Test
+    public void testRetryAfterHttpDate() {
+        // given
+        final Instant now = Instant.parse("2023-01-01T00:00:00Z");
+        final String inTwoMinutes =
+                DateTimeFormatter.RFC_1123_DATE_TIME.format(
+                        now.plusSeconds(120).atOffset(ZoneOffset.UTC));
+
+        // then
+        assertThat(HttpRetryScheduler.retryAfter(response(429, inTwoMinutes), now))
+                .contains(Duration.ofMinutes(2));
+        assertThat(HttpRetryScheduler.retryAfter(response(503, "not a date"), now)).isEmpty();
+        assertThat(HttpRetryScheduler.retryAfter(response(500, "10"), now)).isEmpty();
+    }
+
+    private HttpRetryScheduler scheduler(final Duration deadline) {
+        return new HttpRetryScheduler(
+                3,
+                Duration.ofMillis(10),
+                Duration.ofMillis(100),
+                deadline,
+                WebhookRateLimiters.get());
+    }
+
+    private Request request() {
+        return new Request.Builder().url(server.url("/test")).build();
+    }
+
+    private Response response(final int code, final String retryAfter) {
+        return new Response.Builder()
+                .request(request())
+                .protocol(Protocol.HTTP_1_1)
+                .code(code)
+                .message("")
+                .header("Retry-After", retryAfter)
+                .build();
+    }
+}
@@ -0,0 +1,195 @@
+package com.atlassian.jira.cloud.jenkins.provider;
+
+import com.atlassian.jira.cloud.jenkins.BaseMockServerTest;
+import io.github.resilience4j.ratelimiter.RequestNotPermitted;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class WebhookRateLimitersTest extends BaseMockServerTest {
+
+    private WebhookRateLimiters classUnderTest;
+    private HttpRetryScheduler retryScheduler;
+    private OkHttpClient httpClient;
+
+    @Test
+    public void testRequestIsRejected_whenNoPermitIsLeftWithinMaxWait() throws Exception {
+        // given
+        server.enqueue(new MockResponse().setResponseCode(202));
+        setUpLimiters(1, Duration.ZERO);
+
+        // when
+        final int first = send(webhookRequest());
+        assertThatThrownBy(() -> send(webhookRequest()))
+                // then
+                .hasCauseInstanceOf(RequestNotPermitted.class);
+        assertThat(first).isEqualTo(202);
+        assertThat(server.getRequestCount()).isEqualTo(1);
+        final WebhookRateLimiters.Snapshot snapshot =
+                classUnderTest.getSnapshot(webhookUrl()).get();
+        assertThat(snapshot.getPermittedRequests()).isEqualTo(1);
+        assertThat(snapshot.getRejectedRequests()).isEqualTo(1);
+    }
+
+    @Test
+    public void testRequestWaitsForNextPermit_whenWithinMaxWait() throws Exception {
+        // given
+        server.enqueue(new MockResponse().setResponseCode(202));
+        server.enqueue(new MockResponse().setResponseCode(202));
+        setUpLimiters(1, Duration.ofSeconds(5));
+
+        // when
+        send(webhookRequest());
+        final int second = send(webhookRequest());
+
+        // then
+        assertThat(second).isEqualTo(202);
+        final WebhookRateLimiters.Snapshot snapshot =
+                classUnderTest.getSnapshot(webhookUrl()).get();
+        assertThat(snapshot.getPermittedRequests()).isEqualTo(2);
+        assertThat(snapshot.getMaxWaitMillis()).isGreaterThan(0);
+    }
+
+    @Test
+    public void testCallerIsNotBlocked_whileWaitingForPermit() throws Exception {
+        // given
+        server.enqueue(new MockResponse().setResponseCode(202));
+        server.enqueue(new MockResponse().setResponseCode(202));
+        setUpLimiters(1, Duration.ofSeconds(5));
+        send(webhookRequest());
+
+        // when
+        final CompletableFuture<Response> second =
+                retryScheduler.executeAsync(httpClient, webhookRequest());
+
+        // then
+        assertThat(second.isDone()).isFalse();
+        assertThat(server.getRequestCount()).isEqualTo(1);
+        try (Response response = second.get(5, TimeUnit.SECONDS)) {
+            assertThat(response.code()).isEqualTo(202);
+        }
+    }
+
+    @Test
+    public void testRequestIsNotLimited_whenNotTagged() throws Exception {
+        // given
+        server.enqueue(new MockResponse().setResponseCode(202));
+        server.enqueue(new MockResponse().setResponseCode(202));
+        setUpLimiters(1, Duration.ZERO);
+        final Request request = new Request.Builder().url(webhookUrl()).build();
+
+        // when
+        send(request);
+        final int second = send(request);
+
+        // then
+        assertThat(second).isEqualTo(202);
+        assertThat(classUnderTest.getSnapshot(webhookUrl())).isEmpty();
+    }
+
+    @Test
+    public void testRateIsHalvedOnce_when429sArriveTogether() throws Exception {
+        // given
+        server.enqueue(new MockResponse().setResponseCode(429));
+        server.enqueue(new MockResponse().setResponseCode(429));
+        setUpLimiters(10, Duration.ZERO);
+
+        // when
+        send(webhookRequest());
+        send(webhookRequest());
+
+        // then
+        assertThat(classUnderTest.getSnapshot(webhookUrl()).get().getRequestsPerSecond())
+                .isEqualTo(5);
+    }
+
+    @Test
+    public void testRateGoesUp_afterASecondsWorthOfAcceptedRequests() throws Exception {
+        // given
+        server.enqueue(new MockResponse().setResponseCode(202));
+        server.enqueue(new MockResponse().setResponseCode(400));
+        setUpLimiters(2, Duration.ZERO);
+
+        // when
+        send(webhookRequest());
+        send(webhookRequest());
+
+        // then
+        assertThat(classUnderTest.getSnapshot(webhookUrl()).get().getRequestsPerSecond())
+                .isEqualTo(3);
+    }
+
+    @Test
+    public void testRequestsAreHeldBack_whileRetryAfterLasts() throws Exception {
+        // given
+        server.enqueue(new MockResponse().setResponseCode(429).setHeader("Retry-After", "30"));
+        setUpLimiters(10, Duration.ofMillis(100));
+
+        // when
+        send(webhookRequest());
+        assertThatThrownBy(() -> send(webhookRequest()))
+                // then
+                .hasCauseInstanceOf(RequestNotPermitted.class);
+        assertThat(server.getRequestCount()).isEqualTo(1);
+        assertThat(classUnderTest.getSnapshot(webhookUrl()).get().getPausedForMillis())
+                .isGreaterThan(0);
+    }
+
+    @Test
+    public void testLearntRateIsReplaced_whenInitialRateIsConfigured() throws Exception {
+        // given
+        server.enqueue(new MockResponse().setResponseCode(429));
+        setUpLimiters(10, Duration.ZERO);
+        send(webhookRequest());
+
+        // when
+        classUnderTest.setInitialRate(webhookUrl(), 20);
+
+        // then
+        assertThat(classUnderTest.getSnapshot(webhookUrl()).get().getRequestsPerSecond())
+                .isEqualTo(20);
+    }
+
+    private void setUpLimiters(final int requestsPerSecond, final Duration maxWait) {
+        classUnderTest = new WebhookRateLimiters(requestsPerSecond, 1, 100, 1, 50, maxWait);
+        // no retries, every response goes through the limiter once
+        retryScheduler =
+                new HttpRetryScheduler(
+                        0,
+                        Duration.ofMillis(10),
+                        Duration.ofMillis(100),
+                        Duration.ofSeconds(10),
+                        classUnderTest);
+        httpClient =
+                new OkHttpClient.Builder()
+                        .addInterceptor(HttpRetryScheduler.interceptor())
+                        .addInterceptor(classUnderTest.interceptor())
+                        .build();
+    }
+
+    private int send(final Request request) throws Exception {
+        try (Response response =
+                retryScheduler.executeAsync(httpClient, request).get(10, TimeUnit.SECONDS)) {
+            return response.code();
+        }
+    }
+
+    private Request webhookRequest() {
+        return WebhookRateLimiters.tag(new Request.Builder(), webhookUrl())
+                .url(webhookUrl())
+                .build();
+    }
+
+    private String webhookUrl() {
+        return server.url("/webhook").toString();
+    }
+}
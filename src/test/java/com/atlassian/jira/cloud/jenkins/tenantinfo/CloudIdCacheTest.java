@@ -0,0 +1,135 @@
+package com.atlassian.jira.cloud.jenkins.tenantinfo;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CloudIdCacheTest {
+
+    private static final String SITE_URL = "https://example.atlassian.net";
+
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicInteger loads = new AtomicInteger();
+    private CloudIdCache classUnderTest;
+
+    @Before
+    public void setUp() {
+        classUnderTest =
+                new CloudIdCache(Duration.ofMinutes(10), Duration.ofMinutes(1), 2, clock::get);
+    }
+
+    @Test
+    public void testHitDoesNotCallLoader() {
+        classUnderTest.get(SITE_URL, this::found);
+        final Optional<String> cloudId = classUnderTest.get(SITE_URL, this::found);
+
+        assertThat(cloudId).contains("cloud-id");
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void testEntryExpiresAfterTtl() {
+        classUnderTest.get(SITE_URL, this::found);
+        clock.addAndGet(Duration.ofMinutes(10).toNanos());
+        classUnderTest.get(SITE_URL, this::found);
+
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void testNegativeEntryExpiresAfterNegativeTtl() {
+        classUnderTest.get(SITE_URL, this::notFound);
+        classUnderTest.get(SITE_URL, this::notFound);
+        assertThat(loads.get()).isEqualTo(1);
+
+        clock.addAndGet(Duration.ofMinutes(1).toNanos());
+        final Optional<String> cloudId = classUnderTest.get(SITE_URL, this::found);
+
+        assertThat(cloudId).contains("cloud-id");
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void testInvalidateAll() {
+        classUnderTest.get(SITE_URL, this::found);
+        classUnderTest.invalidateAll();
+        classUnderTest.get(SITE_URL, this::found);
+
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void testSizeIsBounded() {
+        classUnderTest.get("https://a.atlassian.net", this::found);
+        clock.incrementAndGet();
+        classUnderTest.get("https://b.atlassian.net", this::found);
+        clock.incrementAndGet();
+        classUnderTest.get("https://c.atlassian.net", this::found);
+
+        assertThat(classUnderTest.size()).isEqualTo(2);
+    }
+
+    @Test
+    public void testConcurrentMissesShareOneLookup() throws Exception {
+        final int threads = 8;
+        final CountDownLatch loaderEntered = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final List<Future<Optional<String>>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(
+                        executor.submit(
+                                () ->
+                                        classUnderTest.get(
+                                                SITE_URL,
+                                                url -> {
+                                                    loaderEntered.countDown();
+                                                    await(release);
+                                                    return found(url);
+                                                })));
+            }
+
+            assertThat(loaderEntered.await(5, TimeUnit.SECONDS)).isTrue();
+            release.countDown();
+
+            for (Future<Optional<String>> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).contains("cloud-id");
+            }
+            assertThat(loads.get()).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Optional<String> found(final String url) {
+        loads.incrementAndGet();
+        return Optional.of("cloud-id");
+    }
+
+    private Optional<String> notFound(final String url) {
+        loads.incrementAndGet();
+        return Optional.empty();
+    }
+
+    private static void await(final CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
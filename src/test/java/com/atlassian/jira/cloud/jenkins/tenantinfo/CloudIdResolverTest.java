@@ -23,7 +23,15 @@ public class CloudIdResolverTest extends BaseMockServerTest {
     @Before
     public void setup() throws IOException {
         super.setup();
-        cloudIdResolver = new CloudIdResolver(httpClient, objectMapper);
+        cloudIdResolver =
+                new CloudIdResolver(
+                        httpClient,
+                        objectMapper,
+                        new CloudIdCache(
+                                CloudIdCache.DEFAULT_TTL,
+                                CloudIdCache.DEFAULT_NEGATIVE_TTL,
+                                CloudIdCache.DEFAULT_MAX_SIZE,
+                                System::nanoTime));
         mockServerBaseUrl = server.url(CloudIdResolver.TENANT_INFO_ENDPOINT).toString();
     }
 
@@ -34,6 +42,17 @@ public class CloudIdResolverTest extends BaseMockServerTest {
         assertThat(cloudId.orElse("")).isEqualTo("cloud-id");
     }
 
+    @Test
+    public void testCloudIdIsCachedPerSite() {
+        server.enqueue(CloudIdResolverTestGenerator.successfulResponse());
+
+        cloudIdResolver.getCloudId(mockServerBaseUrl);
+        Optional<String> cloudId = cloudIdResolver.getCloudId(mockServerBaseUrl);
+
+        assertThat(cloudId.orElse("")).isEqualTo("cloud-id");
+        assertThat(server.getRequestCount()).isEqualTo(1);
+    }
+
     @Test
     public void testTenantInfoClientError() {
         server.enqueue(CloudIdResolverTestGenerator.notFound());
@@ -0,0 +1,101 @@
+package com.atlassian.jira.cloud.jenkins.util;
+
+import hudson.model.Job;
+import org.junit.Test;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+public class BranchIssueKeyCacheTest {
+
+    private final BranchIssueKeyCache classUnderTest = new BranchIssueKeyCache();
+
+    @Test
+    public void testIssueKeysAreCachedPerJob() {
+        // given
+        final Job<?, ?> job = mock(Job.class);
+
+        // when
+        final Set<String> first = classUnderTest.getIssueKeys(job, "feature/TEST-123-branch");
+        final Set<String> second = classUnderTest.getIssueKeys(job, "feature/TEST-123-branch");
+
+        // then
+        assertThat(first).containsExactly("TEST-123");
+        assertThat(second).isSameAs(first);
+    }
+
+    @Test
+    public void testIssueKeysAreExtractedAgain_whenBranchChanges() {
+        // given
+        final Job<?, ?> job = mock(Job.class);
+        classUnderTest.getIssueKeys(job, "TEST-123-branch");
+
+        // when
+        final Set<String> issueKeys = classUnderTest.getIssueKeys(job, "TEST-456-other-branch");
+
+        // then
+        assertThat(issueKeys).containsExactly("TEST-456");
+        assertThat(classUnderTest.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void testIssueKeysOfEachBranchAreCached_whenJobAsksForSeveralBranches() {
+        // given
+        final Job<?, ?> job = mock(Job.class);
+        final Set<String> scmBranch = classUnderTest.getIssueKeys(job, "TEST-123-branch");
+        final Set<String> explicitBranch = classUnderTest.getIssueKeys(job, "TEST-456-release");
+
+        // when
+        final Set<String> scmBranchAgain = classUnderTest.getIssueKeys(job, "TEST-123-branch");
+        final Set<String> explicitBranchAgain =
+                classUnderTest.getIssueKeys(job, "TEST-456-release");
+
+        // then
+        assertThat(scmBranchAgain).isSameAs(scmBranch);
+        assertThat(explicitBranchAgain).isSameAs(explicitBranch);
+    }
+
+    @Test
+    public void testLeastRecentlyUsedBranchIsDropped_whenJobHasTooManyBranches() {
+        // given
+        final Job<?, ?> job = mock(Job.class);
+        final Set<String> first = classUnderTest.getIssueKeys(job, "TEST-1-branch");
+
+        // when
+        for (int i = 2; i <= BranchIssueKeyCache.MAX_BRANCHES_PER_JOB + 1; i++) {
+            classUnderTest.getIssueKeys(job, "TEST-" + i + "-branch");
+        }
+
+        // then
+        assertThat(classUnderTest.getIssueKeys(job, "TEST-1-branch"))
+                .containsExactly("TEST-1")
+                .isNotSameAs(first);
+    }
+
+    @Test
+    public void testIssueKeysAreNotCached_whenJobIsNull() {
+        // when
+        final Set<String> issueKeys = classUnderTest.getIssueKeys(null, "TEST-123-branch");
+
+        // then
+        assertThat(issueKeys).containsExactly("TEST-123");
+        assertThat(classUnderTest.size()).isZero();
+    }
+
+    @Test
+    public void testEntryIsRemoved_whenJobIsGone() throws Exception {
+        // given
+        classUnderTest.getIssueKeys(mock(Job.class), "TEST-123-branch");
+
+        // when
+        for (int i = 0; i < 50 && classUnderTest.size() > 0; i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+
+        // then
+        assertThat(classUnderTest.size()).isZero();
+    }
+}
@@ -3,6 +3,7 @@ package com.atlassian.jira.cloud.jenkins.util;
 import com.atlassian.jira.cloud.jenkins.common.model.IssueKey;
 import org.junit.Test;
 
+import java.util.Random;
 import java.util.Set;
 import java.util.stream.IntStream;
 
@@ -10,6 +11,14 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 public class IssueKeyStringExtractorTest {
 
+    // characters that matter to the scanner: key characters, separators, line terminators that
+    // only count at the end of the input, other uppercase letters (incl. a supplementary one)
+    private static final String[] FRAGMENTS = {
+        "A", "B", "Z", "\u00C4", "\u03A3", "\uD835\uDC00", "a", "\u00E9", "0", "1", "9", "_",
+        "-", "--", " ", ".", "/", "#", "\n", "\r\n", "\t", "\u0085", "\u2028", "\u2029", "\u00A0",
+        "\uD835", "TEST-1", "AB_C-12", "_X-9"
+    };
+
     @Test
     public void testOneIssueKey() {
         final String input = "TEST-123-add-an-awesome-feature";
@@ -62,6 +71,80 @@ public class IssueKeyStringExtractorTest {
         assertThat(issuesKeys).hasSize(100); // instead of 110
     }
 
+    @Test
+    public void testKeyWithUnderscoreAndDigits() {
+        assertThat(IssueKeyStringExtractor.extractIssueKeys("fix/AB_2C-42_do-things"))
+                .extracting(IssueKey::toString)
+                .containsExactly("AB_2C-42");
+    }
+
+    @Test
+    public void testKeyMustBeDelimited() {
+        assertThat(IssueKeyStringExtractor.extractIssueKeys("xTEST-1 TEST-2x TEST-3")).hasSize(1);
+    }
+
+    @Test
+    public void testKeyStartsAfterUnderscore_whenProjectKeyIsTooLong() {
+        final String input = "A" + repeat('B', 300) + "_CD-1";
+
+        assertThat(IssueKeyStringExtractor.extractIssueKeys(input))
+                .extracting(IssueKey::toString)
+                .containsExactly("CD-1");
+    }
+
+    @Test
+    public void testIssueNumberIsLimited() {
+        assertThat(IssueKeyStringExtractor.extractIssueKeys("TEST-" + repeat('1', 100))).hasSize(1);
+        assertThat(IssueKeyStringExtractor.extractIssueKeys("TEST-" + repeat('1', 101))).isEmpty();
+    }
+
+    @Test
+    public void testSameResultsAsRegex() {
+        final Random random = new Random(42);
+        for (int i = 0; i < 50_000; i++) {
+            final String input = randomText(random);
+
+            assertThat(IssueKeyStringExtractor.extractIssueKeys(input))
+                    .describedAs("issue keys in '%s'", input)
+                    .isEqualTo(RegexIssueKeyStringExtractor.extractIssueKeys(input));
+        }
+    }
+
+    @Test
+    public void testSameResultsAsRegex_aroundLengthLimits() {
+        final Random random = new Random(42);
+        for (int i = 0; i < 2_000; i++) {
+            final String input =
+                    FRAGMENTS[random.nextInt(FRAGMENTS.length)]
+                            + "A"
+                            + repeat(random.nextBoolean() ? 'B' : '_', 250 + random.nextInt(10))
+                            + "C-"
+                            + repeat('7', 97 + random.nextInt(6))
+                            + FRAGMENTS[random.nextInt(FRAGMENTS.length)];
+
+            assertThat(IssueKeyStringExtractor.extractIssueKeys(input))
+                    .describedAs("issue keys in '%s'", input)
+                    .isEqualTo(RegexIssueKeyStringExtractor.extractIssueKeys(input));
+        }
+    }
+
+    private static String randomText(final Random random) {
+        final StringBuilder text = new StringBuilder();
+        final int fragments = random.nextInt(20);
+        for (int i = 0; i < fragments; i++) {
+            text.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+        }
+        return text.toString();
+    }
+
+    private static String repeat(final char c, final int times) {
+        final StringBuilder text = new StringBuilder();
+        for (int i = 0; i < times; i++) {
+            text.append(c);
+        }
+        return text.toString();
+    }
+
     private String getLongMessage() {
         return IntStream.range(1, 110)
                 .mapToObj(seq -> "TEST-" + seq)
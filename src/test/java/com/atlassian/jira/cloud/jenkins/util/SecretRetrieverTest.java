@@ -45,13 +45,69 @@ public class SecretRetrieverTest {
         assertThat(secret.isPresent()).isFalse();
     }
 
-    private void setupCredentials(String credentialId, String secret) throws Exception {
-        final CredentialsStore credentialsStore =
-                CredentialsProvider.lookupStores(jRule.jenkins).iterator().next();
+    @Test
+    public void testSecretIsCached() throws Exception {
+        // given
+        final String credentialId = "cachedCredsId";
+        setupCredentials(credentialId, "secret");
+        classUnderTest.getSecretFor(credentialId);
+        final long hitsBefore = SecretRetriever.getCacheHits();
+        final long missesBefore = SecretRetriever.getCacheMisses();
+
+        // when
+        final Optional<String> secret = classUnderTest.getSecretFor(credentialId);
+
+        // then
+        assertThat(secret).contains("secret");
+        assertThat(SecretRetriever.getCacheHits()).isEqualTo(hitsBefore + 1);
+        assertThat(SecretRetriever.getCacheMisses()).isEqualTo(missesBefore);
+    }
+
+    @Test
+    public void testCacheIsInvalidated_whenCredentialsChange() throws Exception {
+        // given
+        final String credentialId = "changingCredsId";
+        final Credentials original = setupCredentials(credentialId, "old-secret");
+        assertThat(classUnderTest.getSecretFor(credentialId)).contains("old-secret");
+
+        // when
+        getCredentialsStore()
+                .updateCredentials(
+                        Domain.global(),
+                        original,
+                        new StringCredentialsImpl(
+                                CredentialsScope.GLOBAL,
+                                credentialId,
+                                "",
+                                Secret.fromString("new-secret")));
+
+        // then
+        assertThat(classUnderTest.getSecretFor(credentialId)).contains("new-secret");
+    }
+
+    @Test
+    public void testCacheIsInvalidated_whenCredentialsAreAdded() throws Exception {
+        // given
+        final String credentialId = "lateCredsId";
+        assertThat(classUnderTest.getSecretFor(credentialId)).isEmpty();
+
+        // when
+        setupCredentials(credentialId, "secret");
+
+        // then
+        assertThat(classUnderTest.getSecretFor(credentialId)).contains("secret");
+    }
+
+    private Credentials setupCredentials(String credentialId, String secret) throws Exception {
         final Domain domain = Domain.global();
         final Credentials credentials =
                 new StringCredentialsImpl(
                         CredentialsScope.GLOBAL, credentialId, "", Secret.fromString(secret));
-        credentialsStore.addCredentials(domain, credentials);
+        getCredentialsStore().addCredentials(domain, credentials);
+        return credentials;
+    }
+
+    private CredentialsStore getCredentialsStore() {
+        return CredentialsProvider.lookupStores(jRule.jenkins).iterator().next();
     }
 }